@@ -3,6 +3,7 @@ plugins {
 	id("org.springframework.boot")
 	id("io.spring.dependency-management") version "1.1.7"
     id("jacoco")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "app.mnema"
@@ -29,7 +30,7 @@ dependencies {
 
 	// JPA + PostgreSQL + Flyway
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
-	runtimeOnly("org.postgresql:postgresql")
+	implementation("org.postgresql:postgresql")
 	implementation("org.flywaydb:flyway-core")
 	implementation("org.flywaydb:flyway-database-postgresql")
 
@@ -61,6 +62,12 @@ tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+// Micro-benchmarks live in src/jmh and run only on demand: gradle jmh
+jmh {
+	jmhVersion = "1.37"
+	resultFormat = "JSON"
+}
+
 tasks.named<org.gradle.testing.jacoco.tasks.JacocoReport>("jacocoTestReport") {
     classDirectories.setFrom(
             files(
@@ -0,0 +1,112 @@
+package app.mnema.ai.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semantic duplicate lookup for a novel candidate (the common case, and the worst one for a
+ * scan): the previous list-of-arrays scan, the flat-matrix scan and the LSH lookup.
+ * Run with {@code gradle jmh} from the ai service directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoveltyIndexBenchmark {
+
+    private static final int DIM = 256;
+    private static final double THRESHOLD = 0.92d;
+    private static final int QUERIES = 1024;
+
+    @Param({"3000", "30000", "100000"})
+    public int cards;
+
+    private List<float[]> vectors;
+    private NoveltyVectorIndex index;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        vectors = new ArrayList<>(cards);
+        index = new NoveltyVectorIndex(DIM);
+        for (int i = 0; i < cards; i++) {
+            float[] vector = trigramLikeVector(random);
+            vectors.add(vector);
+            index.add(vector);
+        }
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = trigramLikeVector(random);
+        }
+    }
+
+    @Benchmark
+    public boolean listScan() {
+        float[] query = nextQuery();
+        for (float[] existing : vectors) {
+            float dot = 0f;
+            for (int i = 0; i < DIM; i++) {
+                dot += existing[i] * query[i];
+            }
+            if (dot >= THRESHOLD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean flatScan() {
+        return index.scanAtLeast(nextQuery(), THRESHOLD);
+    }
+
+    @Benchmark
+    public boolean lsh() {
+        return index.anyAtLeast(nextQuery(), THRESHOLD);
+    }
+
+    private float[] nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return queries[next];
+    }
+
+    // Roughly the shape of a hashed trigram fingerprint: ~60 signed counts in 256 buckets.
+    private static float[] trigramLikeVector(SplittableRandom random) {
+        float[] vector = new float[DIM];
+        for (int i = 0; i < 60; i++) {
+            vector[random.nextInt(DIM)] += random.nextBoolean() ? 1f : -1f;
+        }
+        double norm = 0d;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0d) {
+            vector[0] = 1f;
+            return vector;
+        }
+        float inv = (float) (1d / Math.sqrt(norm));
+        for (int i = 0; i < DIM; i++) {
+            vector[i] *= inv;
+        }
+        return vector;
+    }
+}
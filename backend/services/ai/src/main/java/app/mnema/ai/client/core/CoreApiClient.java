@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientResponseException;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -207,6 +208,39 @@ public class CoreApiClient {
         return response;
     }
 
+    /**
+     * Reads the deck's card change feed: cards created, edited or deleted after the keyset cursor,
+     * oldest first. The feed is exposed on the internal API only.
+     */
+    public CoreUserCardChanges getUserCardChanges(UUID userDeckId,
+                                                  Instant afterChangedAt,
+                                                  UUID afterCardId,
+                                                  int limit,
+                                                  String accessToken) {
+        if (!hasInternalToken()) {
+            throw new IllegalStateException("Card change feed requires the internal core token");
+        }
+        CoreUserCardChanges response = restClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/internal/decks/{userDeckId}/cards/changes")
+                            .queryParam("limit", limit);
+                    if (afterChangedAt != null) {
+                        uriBuilder.queryParam("afterChangedAt", afterChangedAt.toString());
+                    }
+                    if (afterCardId != null) {
+                        uriBuilder.queryParam("afterCardId", afterCardId);
+                    }
+                    return uriBuilder.build(userDeckId);
+                })
+                .header(HttpHeaders.AUTHORIZATION, bearer(resolveAuthToken(accessToken)))
+                .retrieve()
+                .body(CoreUserCardChanges.class);
+        if (response == null) {
+            return new CoreUserCardChanges(null, List.of());
+        }
+        return response;
+    }
+
     public CoreUserCardDetail getUserCard(UUID userDeckId, UUID userCardId, String accessToken) {
         CoreUserCardDetail response = restClient.get()
                 .uri(hasInternalToken()
@@ -336,6 +370,20 @@ public class CoreApiClient {
     ) {
     }
 
+    public record CoreUserCardChange(
+            UUID userCardId,
+            boolean isDeleted,
+            Instant changedAt,
+            JsonNode effectiveContent
+    ) {
+    }
+
+    public record CoreUserCardChanges(
+            Integer deckVersion,
+            List<CoreUserCardChange> changes
+    ) {
+    }
+
     public record MissingFieldCardsRequest(
             List<String> fields,
             Integer limit,
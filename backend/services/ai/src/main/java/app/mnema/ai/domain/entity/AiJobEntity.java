@@ -80,6 +80,12 @@ public class AiJobEntity {
     @Column(name = "error_message")
     private String errorMessage;
 
+    @Column(name = "provider_batch_id")
+    private String providerBatchId;
+
+    @Column(name = "applied_cards", nullable = false)
+    private int appliedCards;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -288,4 +294,20 @@ public class AiJobEntity {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public String getProviderBatchId() {
+        return providerBatchId;
+    }
+
+    public void setProviderBatchId(String providerBatchId) {
+        this.providerBatchId = providerBatchId;
+    }
+
+    public int getAppliedCards() {
+        return appliedCards;
+    }
+
+    public void setAppliedCards(int appliedCards) {
+        this.appliedCards = appliedCards;
+    }
 }
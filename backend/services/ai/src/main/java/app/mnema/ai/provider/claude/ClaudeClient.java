@@ -1,5 +1,6 @@
 package app.mnema.ai.provider.claude;
 
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.provider.support.ProviderRetrySupport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,16 +16,20 @@ import org.springframework.web.client.RestClient;
 public class ClaudeClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClaudeClient.class);
+    private static final String PROVIDER = "anthropic";
 
     private final RestClient restClient;
     private final ObjectMapper objectMapper;
+    private final ProviderRateLimiter rateLimiter;
     private final ClaudeProps props;
 
     public ClaudeClient(RestClient.Builder restClientBuilder,
                         ClaudeProps props,
-                        ObjectMapper objectMapper) {
+                        ObjectMapper objectMapper,
+                        ProviderRateLimiter rateLimiter) {
         this.restClient = restClientBuilder.baseUrl(props.baseUrl()).build();
         this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
         this.props = props;
     }
 
@@ -43,14 +48,14 @@ public class ClaudeClient {
         text.put("type", "text");
         text.put("text", request.input());
 
-        JsonNode response = ProviderRetrySupport.executeTextRequest("Claude", LOGGER, () -> restClient.post()
+        JsonNode response = ProviderRetrySupport.executeTextRequest("Claude", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> restClient.post()
                 .uri("/v1/messages")
                 .header("x-api-key", apiKey)
                 .header("anthropic-version", props.apiVersion())
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
-                .body(JsonNode.class));
+                .body(JsonNode.class)));
 
         if (response == null) {
             throw new IllegalStateException("Claude response is empty");
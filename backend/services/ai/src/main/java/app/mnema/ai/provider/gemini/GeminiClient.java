@@ -1,5 +1,6 @@
 package app.mnema.ai.provider.gemini;
 
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.provider.support.ProviderRetrySupport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,15 +18,19 @@ import java.util.Base64;
 public class GeminiClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GeminiClient.class);
+    private static final String PROVIDER = "gemini";
 
     private final RestClient restClient;
     private final ObjectMapper objectMapper;
+    private final ProviderRateLimiter rateLimiter;
 
     public GeminiClient(RestClient.Builder restClientBuilder,
                         GeminiProps props,
-                        ObjectMapper objectMapper) {
+                        ObjectMapper objectMapper,
+                        ProviderRateLimiter rateLimiter) {
         this.restClient = restClientBuilder.baseUrl(props.baseUrl()).build();
         this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
     }
 
     public GeminiResponseResult createResponse(String apiKey, GeminiResponseRequest request) {
@@ -47,13 +52,13 @@ public class GeminiClient {
             generationConfig.set("responseSchema", request.responseSchema());
         }
 
-        JsonNode response = ProviderRetrySupport.executeTextRequest("Gemini", LOGGER, () -> restClient.post()
+        JsonNode response = ProviderRetrySupport.executeTextRequest("Gemini", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> restClient.post()
                 .uri("/v1beta/models/{model}:generateContent", request.model())
                 .header("x-goog-api-key", apiKey)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
-                .body(JsonNode.class));
+                .body(JsonNode.class)));
 
         if (response == null) {
             throw new IllegalStateException("Gemini response is empty");
@@ -88,13 +93,13 @@ public class GeminiClient {
 
         applyGenerationConfig(payload, request);
 
-        JsonNode response = ProviderRetrySupport.executeTextRequest("Gemini", LOGGER, () -> restClient.post()
+        JsonNode response = ProviderRetrySupport.executeTextRequest("Gemini", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> restClient.post()
                 .uri("/v1beta/models/{model}:generateContent", request.model())
                 .header("x-goog-api-key", apiKey)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
-                .body(JsonNode.class));
+                .body(JsonNode.class)));
 
         if (response == null) {
             throw new IllegalStateException("Gemini response is empty");
@@ -160,7 +165,7 @@ public class GeminiClient {
         ArrayNode modalities = generationConfig.putArray("responseModalities");
         modalities.add("IMAGE");
 
-        JsonNode response = restClient.post()
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.IMAGE, () -> restClient.post()
                 .uri("/v1beta/models/{model}:generateContent", request.model())
                 .header("x-goog-api-key", apiKey)
                 .contentType(MediaType.APPLICATION_JSON)
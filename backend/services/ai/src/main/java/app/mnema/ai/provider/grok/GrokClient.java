@@ -1,5 +1,6 @@
 package app.mnema.ai.provider.grok;
 
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.provider.support.ProviderRetrySupport;
 import app.mnema.ai.provider.openai.OpenAiResponseParser;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -18,17 +19,21 @@ import java.util.Base64;
 public class GrokClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GrokClient.class);
+    private static final String PROVIDER = "grok";
 
     private final RestClient restClient;
     private final ObjectMapper objectMapper;
+    private final ProviderRateLimiter rateLimiter;
 
     public GrokClient(RestClient.Builder restClientBuilder,
                       GrokProps props,
-                      ObjectMapper objectMapper) {
+                      ObjectMapper objectMapper,
+                      ProviderRateLimiter rateLimiter) {
         this.restClient = restClientBuilder
                 .baseUrl(props.baseUrl())
                 .build();
         this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
     }
 
     public GrokResponseResult createResponse(String apiKey, GrokResponseRequest request) {
@@ -43,13 +48,13 @@ public class GrokClient {
             textNode.set("format", request.responseFormat());
         }
 
-        JsonNode response = ProviderRetrySupport.executeTextRequest("Grok", LOGGER, () -> restClient.post()
+        JsonNode response = ProviderRetrySupport.executeTextRequest("Grok", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> restClient.post()
                 .uri("/v1/responses")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
-                .body(JsonNode.class));
+                .body(JsonNode.class)));
 
         if (response == null) {
             throw new IllegalStateException("Grok response is empty");
@@ -79,13 +84,13 @@ public class GrokClient {
             textNode.set("format", responseFormat);
         }
 
-        JsonNode response = ProviderRetrySupport.executeTextRequest("Grok", LOGGER, () -> restClient.post()
+        JsonNode response = ProviderRetrySupport.executeTextRequest("Grok", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> restClient.post()
                 .uri("/v1/responses")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
-                .body(JsonNode.class));
+                .body(JsonNode.class)));
 
         if (response == null) {
             throw new IllegalStateException("Grok response is empty");
@@ -121,7 +126,7 @@ public class GrokClient {
             payload.put("response_format", request.responseFormat());
         }
 
-        JsonNode response = restClient.post()
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.IMAGE, () -> restClient.post()
                 .uri("/v1/images/generations")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .contentType(MediaType.APPLICATION_JSON)
@@ -167,7 +172,7 @@ public class GrokClient {
             payload.put("size", request.size());
         }
 
-        JsonNode response = restClient.post()
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.VIDEO, () -> restClient.post()
                 .uri("/v1/videos/generations")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .contentType(MediaType.APPLICATION_JSON)
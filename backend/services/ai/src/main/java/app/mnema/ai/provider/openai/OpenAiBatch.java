@@ -0,0 +1,21 @@
+package app.mnema.ai.provider.openai;
+
+public record OpenAiBatch(
+        String id,
+        String status,
+        String outputFileId,
+        String errorFileId,
+        int completedRequests,
+        int failedRequests,
+        int totalRequests
+) {
+    public boolean isPending() {
+        return "validating".equalsIgnoreCase(status)
+                || "in_progress".equalsIgnoreCase(status)
+                || "finalizing".equalsIgnoreCase(status);
+    }
+
+    public boolean isCompleted() {
+        return "completed".equalsIgnoreCase(status);
+    }
+}
@@ -0,0 +1,7 @@
+package app.mnema.ai.provider.openai;
+
+public record OpenAiBatchRequest(
+        String customId,
+        OpenAiResponseRequest request
+) {
+}
@@ -1,5 +1,6 @@
 package app.mnema.ai.provider.openai;
 
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.provider.support.ProviderRetrySupport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -7,26 +8,39 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Component
 public class OpenAiClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OpenAiClient.class);
+    private static final String PROVIDER = "openai";
     private static final int LOCAL_EMPTY_RESPONSE_MAX_ATTEMPTS = 3;
     private static final int LOCAL_GATEWAY_RESPONSE_MAX_RETRIES = 0;
 
@@ -34,10 +48,12 @@ public class OpenAiClient {
     private final ObjectMapper objectMapper;
     private final Duration requestReadTimeout;
     private final boolean localGatewayBaseUrl;
+    private final ProviderRateLimiter rateLimiter;
 
     public OpenAiClient(RestClient.Builder restClientBuilder,
                         OpenAiProps props,
-                        ObjectMapper objectMapper) {
+                        ObjectMapper objectMapper,
+                        ProviderRateLimiter rateLimiter) {
         long connectTimeoutMs = positiveOrDefault(props.requestConnectTimeoutMs(), 10_000L);
         long readTimeoutMs = positiveOrDefault(props.requestReadTimeoutMs(), 600_000L);
         // local-ai-gateway runs on uvicorn (HTTP/1.1); forcing h1 avoids h2c upgrade failures
@@ -55,9 +71,160 @@ public class OpenAiClient {
         this.objectMapper = objectMapper;
         this.requestReadTimeout = Duration.ofMillis(readTimeoutMs);
         this.localGatewayBaseUrl = isLocalGatewayBaseUrl(props.baseUrl());
+        this.rateLimiter = rateLimiter;
     }
 
     public OpenAiResponseResult createResponse(String apiKey, OpenAiResponseRequest request) {
+        ObjectNode payload = buildResponsePayload(request);
+        JsonNode response = createResponseJson(apiKey, payload, request.model(), request.input(), request.maxOutputTokens());
+        return toResponseResult(response);
+    }
+
+    /**
+     * Same as {@link #createResponse} but requests a server-sent event stream and hands every
+     * output text delta to {@code textListener} as it arrives; the returned result carries the
+     * full text and usage. The local gateway and the chat completions fallback do not stream, so
+     * there the listener receives the whole text once. A transport failure after the first delta
+     * is not retried, because the listener has already consumed part of the output.
+     */
+    public OpenAiResponseResult streamResponse(String apiKey,
+                                               OpenAiResponseRequest request,
+                                               Consumer<String> textListener) {
+        if (localGatewayBaseUrl) {
+            OpenAiResponseResult result = createResponse(apiKey, request);
+            textListener.accept(result.outputText());
+            return result;
+        }
+        ObjectNode payload = buildResponsePayload(request);
+        payload.put("stream", true);
+        AtomicBoolean delivered = new AtomicBoolean();
+        Consumer<String> trackingListener = delta -> {
+            delivered.set(true);
+            textListener.accept(delta);
+        };
+        JsonNode response = ProviderRetrySupport.executeTextRequest("OpenAI", LOGGER, resolveResponsesRetryCount(false), () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
+            if (delivered.get()) {
+                throw new IllegalStateException("OpenAI response stream interrupted after partial output");
+            }
+            RestClient.RequestBodySpec spec = restClient.post()
+                    .uri("/v1/responses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.TEXT_EVENT_STREAM);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            try {
+                return spec.body(payload).exchange((clientRequest, clientResponse) -> {
+                    if (clientResponse.getStatusCode().isError()) {
+                        throw errorFor(clientResponse.getStatusCode(),
+                                clientResponse.getStatusText(),
+                                clientResponse.getHeaders(),
+                                clientResponse.getBody().readAllBytes());
+                    }
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(clientResponse.getBody(), StandardCharsets.UTF_8))) {
+                        return readResponseStream(reader, objectMapper, trackingListener);
+                    }
+                });
+            } catch (HttpClientErrorException ex) {
+                if (!shouldFallbackToChatCompat(ex)) {
+                    throw ex;
+                }
+                JsonNode compat = createChatCompletionCompat(apiKey, request.model(), request.input(), request.maxOutputTokens());
+                trackingListener.accept(OpenAiResponseParser.extractText(compat));
+                return compat;
+            }
+        }));
+        if (OpenAiResponseParser.extractText(response).isBlank()) {
+            throw new IllegalStateException("AI response is empty; " + summarizeResponse(response));
+        }
+        return toResponseResult(response);
+    }
+
+    /**
+     * Reads a Responses API event stream. Text deltas go to {@code textListener}; the final
+     * {@code response.completed} (or {@code response.incomplete}) event supplies model and usage.
+     * When the stream ends without one, the concatenated deltas are returned as {@code output_text}.
+     */
+    static JsonNode readResponseStream(BufferedReader reader,
+                                       ObjectMapper objectMapper,
+                                       Consumer<String> textListener) throws IOException {
+        StringBuilder text = new StringBuilder();
+        StringBuilder data = new StringBuilder();
+        JsonNode completed = null;
+        while (true) {
+            String line = reader.readLine();
+            if (line == null || line.isEmpty()) {
+                if (!data.isEmpty()) {
+                    JsonNode terminal = handleStreamEvent(data.toString(), objectMapper, text, textListener);
+                    completed = terminal != null ? terminal : completed;
+                    data.setLength(0);
+                }
+                if (line == null) {
+                    break;
+                }
+                continue;
+            }
+            if (line.startsWith("data:")) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                data.append(line.substring(5).stripLeading());
+            }
+        }
+        ObjectNode result = completed != null && completed.isObject()
+                ? ((ObjectNode) completed).deepCopy()
+                : objectMapper.createObjectNode();
+        if (OpenAiResponseParser.extractText(result).isBlank() && !text.isEmpty()) {
+            result.put("output_text", text.toString());
+        }
+        return result;
+    }
+
+    private static JsonNode handleStreamEvent(String data,
+                                              ObjectMapper objectMapper,
+                                              StringBuilder text,
+                                              Consumer<String> textListener) throws IOException {
+        if ("[DONE]".equals(data)) {
+            return null;
+        }
+        JsonNode event = objectMapper.readTree(data);
+        String type = event.path("type").asText("");
+        switch (type) {
+            case "response.output_text.delta" -> {
+                String delta = event.path("delta").asText("");
+                if (!delta.isEmpty()) {
+                    text.append(delta);
+                    textListener.accept(delta);
+                }
+                return null;
+            }
+            case "response.completed", "response.incomplete" -> {
+                return event.path("response");
+            }
+            case "response.failed", "error" -> {
+                JsonNode error = event.path("response").path("error");
+                if (!error.isObject()) {
+                    error = event.path("error").isObject() ? event.path("error") : event;
+                }
+                throw new IllegalStateException("OpenAI response stream failed: " + error.path("message").asText(type));
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private static RestClientResponseException errorFor(HttpStatusCode status,
+                                                        String statusText,
+                                                        HttpHeaders headers,
+                                                        byte[] body) {
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        }
+        return HttpServerErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+    }
+
+    private ObjectNode buildResponsePayload(OpenAiResponseRequest request) {
         ObjectNode payload = objectMapper.createObjectNode();
         payload.put("model", request.model());
         payload.put("input", request.input());
@@ -68,8 +235,7 @@ public class OpenAiClient {
             ObjectNode textNode = payload.putObject("text");
             textNode.set("format", request.responseFormat());
         }
-        JsonNode response = createResponseJson(apiKey, payload, request.model(), request.input(), request.maxOutputTokens());
-        return toResponseResult(response);
+        return payload;
     }
 
     public OpenAiResponseResult createResponseWithInput(String apiKey,
@@ -124,7 +290,7 @@ public class OpenAiClient {
                                              String model,
                                              String compatInput,
                                              Integer maxOutputTokens) {
-        return ProviderRetrySupport.executeTextRequest("OpenAI", LOGGER, resolveResponsesRetryCount(localGatewayBaseUrl), () -> {
+        return ProviderRetrySupport.executeTextRequest("OpenAI", LOGGER, resolveResponsesRetryCount(localGatewayBaseUrl), () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
             RestClient.RequestBodySpec spec = restClient.post()
                     .uri("/v1/responses")
                     .contentType(MediaType.APPLICATION_JSON);
@@ -141,7 +307,7 @@ public class OpenAiClient {
                 }
                 return createChatCompletionCompat(apiKey, model, compatInput, maxOutputTokens);
             }
-        });
+        }));
     }
 
     static int resolveResponsesRetryCount(boolean localGatewayBaseUrl) {
@@ -299,15 +465,17 @@ public class OpenAiClient {
         builder.part("file", resource)
                 .contentType(MediaType.parseMediaType(request.mimeType()));
 
-        RestClient.RequestBodySpec spec = restClient.post()
-                .uri("/v1/audio/transcriptions")
-                .contentType(MediaType.MULTIPART_FORM_DATA);
-        if (hasApiKey(apiKey)) {
-            spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
-        }
-        JsonNode response = spec.body(builder.build())
-                .retrieve()
-                .body(JsonNode.class);
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TRANSCRIPTION, () -> {
+            RestClient.RequestBodySpec spec = restClient.post()
+                    .uri("/v1/audio/transcriptions")
+                    .contentType(MediaType.MULTIPART_FORM_DATA);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.body(builder.build())
+                    .retrieve()
+                    .body(JsonNode.class);
+        });
 
         if (response == null) {
             throw new IllegalStateException("OpenAI transcription response is empty");
@@ -338,7 +506,7 @@ public class OpenAiClient {
         if (shouldSendImageResponseFormat(request.model())) {
             payload.put("response_format", "b64_json");
         }
-        JsonNode response = ProviderRetrySupport.executeTextRequest("OpenAI image", LOGGER, () -> {
+        JsonNode response = ProviderRetrySupport.executeTextRequest("OpenAI image", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.IMAGE, () -> {
             RestClient.RequestBodySpec spec = restClient.post()
                     .uri("/v1/images/generations")
                     .contentType(MediaType.APPLICATION_JSON);
@@ -348,7 +516,7 @@ public class OpenAiClient {
             return spec.body(payload)
                     .retrieve()
                     .body(JsonNode.class);
-        });
+        }));
 
         if (response == null) {
             throw new IllegalStateException("OpenAI image response is empty");
@@ -395,15 +563,17 @@ public class OpenAiClient {
             builder.part("size", request.size());
         }
 
-        RestClient.RequestBodySpec spec = restClient.post()
-                .uri("/v1/videos")
-                .contentType(MediaType.MULTIPART_FORM_DATA);
-        if (hasApiKey(apiKey)) {
-            spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
-        }
-        JsonNode response = spec.body(builder.build())
-                .retrieve()
-                .body(JsonNode.class);
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.VIDEO, () -> {
+            RestClient.RequestBodySpec spec = restClient.post()
+                    .uri("/v1/videos")
+                    .contentType(MediaType.MULTIPART_FORM_DATA);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.body(builder.build())
+                    .retrieve()
+                    .body(JsonNode.class);
+        });
 
         if (response == null) {
             throw new IllegalStateException("OpenAI video response is empty");
@@ -439,6 +609,167 @@ public class OpenAiClient {
         return response;
     }
 
+    /**
+     * Submits the requests as one Batch API job against {@code /v1/responses}: uploads them as a
+     * JSONL file and creates the batch. Results are matched back by {@link OpenAiBatchRequest#customId()}.
+     */
+    public OpenAiBatch createBatch(String apiKey, List<OpenAiBatchRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch requires at least one request");
+        }
+        StringBuilder jsonl = new StringBuilder();
+        for (OpenAiBatchRequest request : requests) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("custom_id", request.customId());
+            line.put("method", "POST");
+            line.put("url", "/v1/responses");
+            line.set("body", buildResponsePayload(request.request()));
+            jsonl.append(line).append('\n');
+        }
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("purpose", "batch");
+        ByteArrayResource resource = new ByteArrayResource(jsonl.toString().getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "batch.jsonl";
+            }
+        };
+        builder.part("file", resource)
+                .contentType(MediaType.parseMediaType("application/jsonl"));
+
+        JsonNode file = ProviderRetrySupport.executeTextRequest("OpenAI batch", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
+            RestClient.RequestBodySpec spec = restClient.post()
+                    .uri("/v1/files")
+                    .contentType(MediaType.MULTIPART_FORM_DATA);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.body(builder.build())
+                    .retrieve()
+                    .body(JsonNode.class);
+        }));
+        String inputFileId = file == null ? null : file.path("id").asText(null);
+        if (inputFileId == null || inputFileId.isBlank()) {
+            throw new IllegalStateException("OpenAI batch file upload returned no id");
+        }
+
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("input_file_id", inputFileId);
+        payload.put("endpoint", "/v1/responses");
+        payload.put("completion_window", "24h");
+        JsonNode response = ProviderRetrySupport.executeTextRequest("OpenAI batch", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
+            RestClient.RequestBodySpec spec = restClient.post()
+                    .uri("/v1/batches")
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.body(payload)
+                    .retrieve()
+                    .body(JsonNode.class);
+        }));
+        if (response == null) {
+            throw new IllegalStateException("OpenAI batch response is empty");
+        }
+        return parseBatch(response);
+    }
+
+    public OpenAiBatch getBatch(String apiKey, String batchId) {
+        JsonNode response = ProviderRetrySupport.executeTextRequest("OpenAI batch", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
+            RestClient.RequestHeadersSpec<?> spec = restClient.get()
+                    .uri("/v1/batches/{batchId}", batchId);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.retrieve().body(JsonNode.class);
+        }));
+
+        if (response == null) {
+            throw new IllegalStateException("OpenAI batch status is empty");
+        }
+        return parseBatch(response);
+    }
+
+    /**
+     * Asks OpenAI to cancel a batch. Cancellation is asynchronous: the batch moves to
+     * {@code cancelling} and requests that already finished are still billed.
+     */
+    public OpenAiBatch cancelBatch(String apiKey, String batchId) {
+        JsonNode response = ProviderRetrySupport.executeTextRequest("OpenAI batch", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
+            RestClient.RequestBodySpec spec = restClient.post()
+                    .uri("/v1/batches/{batchId}/cancel", batchId);
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.retrieve().body(JsonNode.class);
+        }));
+
+        if (response == null) {
+            throw new IllegalStateException("OpenAI batch cancel response is empty");
+        }
+        return parseBatch(response);
+    }
+
+    /**
+     * Downloads the output file of a completed batch and returns the successful responses by
+     * custom id. Requests that failed inside the batch are left out and logged.
+     */
+    public Map<String, OpenAiResponseResult> getBatchResults(String apiKey, OpenAiBatch batch) {
+        if (batch.outputFileId() == null || batch.outputFileId().isBlank()) {
+            return Map.of();
+        }
+        byte[] content = ProviderRetrySupport.executeTextRequest("OpenAI batch", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> {
+            RestClient.RequestHeadersSpec<?> spec = restClient.get()
+                    .uri("/v1/files/{fileId}/content", batch.outputFileId());
+            if (hasApiKey(apiKey)) {
+                spec = spec.header(HttpHeaders.AUTHORIZATION, bearer(apiKey));
+            }
+            return spec.retrieve().body(byte[].class);
+        }));
+        if (content == null || content.length == 0) {
+            return Map.of();
+        }
+        Map<String, OpenAiResponseResult> results = new LinkedHashMap<>();
+        for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode item;
+            try {
+                item = objectMapper.readTree(line);
+            } catch (IOException ex) {
+                LOGGER.warn("OpenAI batch output line is not valid JSON batchId={}", batch.id());
+                continue;
+            }
+            String customId = item.path("custom_id").asText(null);
+            JsonNode response = item.path("response");
+            int statusCode = response.path("status_code").asInt(0);
+            if (customId == null || statusCode < 200 || statusCode >= 300 || !response.path("body").isObject()) {
+                LOGGER.warn("OpenAI batch request failed batchId={} customId={} status={} error={}",
+                        batch.id(),
+                        customId,
+                        statusCode,
+                        item.path("error").path("message").asText(null));
+                continue;
+            }
+            results.put(customId, toResponseResult(response.path("body")));
+        }
+        return results;
+    }
+
+    private OpenAiBatch parseBatch(JsonNode response) {
+        JsonNode counts = response.path("request_counts");
+        return new OpenAiBatch(
+                response.path("id").asText(null),
+                response.path("status").asText(null),
+                response.path("output_file_id").asText(null),
+                response.path("error_file_id").asText(null),
+                counts.path("completed").asInt(0),
+                counts.path("failed").asInt(0),
+                counts.path("total").asInt(0)
+        );
+    }
+
     private String bearer(String token) {
         return "Bearer " + token;
     }
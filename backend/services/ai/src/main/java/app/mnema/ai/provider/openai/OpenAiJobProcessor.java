@@ -10,6 +10,7 @@ import app.mnema.ai.client.core.CoreApiClient.CoreUserCardResponse;
 import app.mnema.ai.client.core.CoreApiClient.CreateCardRequestPayload;
 import app.mnema.ai.client.core.CoreApiClient.UpdateUserCardRequest;
 import app.mnema.ai.client.media.MediaApiClient;
+import app.mnema.ai.client.media.MediaResolved;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.entity.AiProviderCredentialEntity;
 import app.mnema.ai.domain.type.AiJobType;
@@ -18,13 +19,19 @@ import app.mnema.ai.domain.type.AiProviderStatus;
 import app.mnema.ai.repository.AiProviderCredentialRepository;
 import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.AiImportContentService;
+import app.mnema.ai.service.AiJobDeferredException;
 import app.mnema.ai.service.AiJobExecutionService;
 import app.mnema.ai.service.AiJobProcessingResult;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AiProviderProcessor;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.support.ImportItemExtractor;
 import app.mnema.ai.provider.anki.AnkiTemplateSupport;
 import app.mnema.ai.provider.audit.AuditAnalyzer;
+import app.mnema.ai.provider.support.IncrementalJsonArrayParser;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.vault.EncryptedSecret;
 import app.mnema.ai.vault.SecretVault;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -40,14 +47,20 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -57,6 +70,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -82,6 +97,11 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
     private static final int LOCAL_IMPORT_MIN_BATCH = 3;
     private static final int LOCAL_IMPORT_MAX_BATCH = 6;
     private static final int GENERATE_MAX_ATTEMPTS = 4;
+    private static final int STREAM_APPLY_CHUNK_SIZE = 5;
+    private static final int UNCERTAIN_CHUNK_PAGE_SIZE = 500;
+    // Margin for clock skew with core when a failed chunk is looked up in the change feed
+    private static final Duration UNCERTAIN_CHUNK_CLOCK_SKEW = Duration.ofMinutes(1);
+    private static final int BATCH_CARDS_PER_REQUEST = 20;
     private static final int NOVELTY_HINT_LIMIT = 24;
     private static final int LOCAL_IMPORT_FULL_CONTEXT_CHARS = 2400;
     private static final int REMOTE_IMPORT_FULL_CONTEXT_CHARS = 7000;
@@ -116,8 +136,12 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
     private final SecretVault secretVault;
     private final AiProviderCredentialRepository credentialRepository;
     private final MediaApiClient mediaApiClient;
+    private final AiMediaCache mediaCache;
     private final AiImportContentService importContentService;
     private final AudioChunkingService audioChunkingService;
+    private final ParallelTranscriptionExecutor transcriptionExecutor;
+    private final ParallelGenerationExecutor generationExecutor;
+    private final ProviderRateLimiter rateLimiter;
     private final CoreApiClient coreApiClient;
     private final CardNoveltyService noveltyService;
     private final ObjectMapper objectMapper;
@@ -125,16 +149,18 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
     private final AiJobExecutionService executionService;
     private final int maxImportChars;
     private final String systemApiKey;
-    private final Object ttsThrottleLock = new Object();
-    private long nextTtsRequestAtMs = 0L;
 
     public OpenAiJobProcessor(OpenAiClient openAiClient,
                               OpenAiProps props,
                               SecretVault secretVault,
                               AiProviderCredentialRepository credentialRepository,
                               MediaApiClient mediaApiClient,
+                              AiMediaCache mediaCache,
                               AiImportContentService importContentService,
                               AudioChunkingService audioChunkingService,
+                              ParallelTranscriptionExecutor transcriptionExecutor,
+                              ParallelGenerationExecutor generationExecutor,
+                              ProviderRateLimiter rateLimiter,
                               CoreApiClient coreApiClient,
                               CardNoveltyService noveltyService,
                               ObjectMapper objectMapper,
@@ -145,8 +171,12 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         this.secretVault = secretVault;
         this.credentialRepository = credentialRepository;
         this.mediaApiClient = mediaApiClient;
+        this.mediaCache = mediaCache;
         this.importContentService = importContentService;
         this.audioChunkingService = audioChunkingService;
+        this.transcriptionExecutor = transcriptionExecutor;
+        this.generationExecutor = generationExecutor;
+        this.rateLimiter = rateLimiter;
         this.coreApiClient = coreApiClient;
         this.noveltyService = noveltyService;
         this.objectMapper = objectMapper;
@@ -172,7 +202,10 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
             credentialRepository.save(credential);
         }
 
-        executionService.resetPlan(job.getJobId(), resolveExecutionPlan(job));
+        // A job resuming on its pending batch keeps the steps and progress of the first pickup.
+        if (job.getProviderBatchId() == null) {
+            executionService.resetPlan(job.getJobId(), resolveExecutionPlan(job));
+        }
 
         if (job.getType() == AiJobType.tts) {
             return runStep(job, safeParams(job), STEP_GENERATE_AUDIO, () -> handleTts(job, apiKey));
@@ -180,6 +213,15 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         return handleText(job, apiKey);
     }
 
+    @Override
+    public void cancelProviderBatch(AiJobEntity job) {
+        if (job.getProviderBatchId() == null) {
+            return;
+        }
+        OpenAiBatch batch = openAiClient.cancelBatch(resolveCredential(job).apiKey(), job.getProviderBatchId());
+        LOGGER.info("OpenAI batch cancel requested jobId={} batchId={} status={}", job.getJobId(), batch.id(), batch.status());
+    }
+
     private AiJobProcessingResult handleText(AiJobEntity job, String apiKey) {
         JsonNode params = safeParams(job);
         String mode = params.path("mode").asText();
@@ -816,7 +858,21 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         String encoding = textOrNull(params.path("encoding"));
         String language = textOrNull(params.path("language"));
         String accessToken = job.getUserAccessToken();
-        AiImportContentService.ImportSourcePayload source = importContentService.loadSource(sourceMediaId, accessToken);
+        // The transcript depends on the STT language, which can override the general language hint
+        String sttLanguage = resolveSttLanguage(params, language);
+        AiImportContentService.ImportExtractionKey cacheKey = new AiImportContentService.ImportExtractionKey(
+                sourceMediaId,
+                language,
+                encoding,
+                "vision:openai:" + textOrDefault(params.path("model"), props.defaultModel()),
+                "stt:openai:" + resolveSttModel(params) + ":" + (sttLanguage == null ? "auto" : sttLanguage)
+        );
+        MediaResolved resolved = importContentService.resolveSource(sourceMediaId, accessToken);
+        Optional<AiImportContentService.ImportTextPayload> cached = importContentService.findCachedText(cacheKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        AiImportContentService.ImportSourcePayload source = importContentService.loadSource(resolved);
         String mimeType = source.mimeType();
         if (mimeType == null) {
             throw new IllegalStateException("Source media type is missing");
@@ -824,6 +880,17 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         if (source.truncated() && !mimeType.startsWith("text/")) {
             throw new IllegalStateException("Source file is too large to process. Please upload a smaller file.");
         }
+        AiImportContentService.ImportTextPayload payload = extractImportPayload(apiKey, source, params, encoding, language);
+        importContentService.cacheText(cacheKey, mimeType, payload);
+        return payload;
+    }
+
+    private AiImportContentService.ImportTextPayload extractImportPayload(String apiKey,
+                                                                          AiImportContentService.ImportSourcePayload source,
+                                                                          JsonNode params,
+                                                                          String encoding,
+                                                                          String language) {
+        String mimeType = source.mimeType();
         if (mimeType.startsWith("text/")
                 || "application/pdf".equals(mimeType)
                 || "application/vnd.openxmlformats-officedocument.wordprocessingml.document".equals(mimeType)) {
@@ -885,50 +952,42 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                                                             AiImportContentService.ImportSourcePayload source,
                                                                             JsonNode params,
                                                                             String language) {
-        AudioChunkingService.AudioChunkingResult chunking = audioChunkingService.prepareChunks(source.bytes(), source.mimeType());
         String model = resolveSttModel(params);
         if (model == null || model.isBlank()) {
             throw new IllegalStateException("STT model is required for audio import");
         }
         String sttLanguage = resolveSttLanguage(params, language);
-        StringBuilder transcript = new StringBuilder();
-        boolean truncated = false;
-        int index = 0;
-        for (AudioChunkingService.AudioChunk chunk : chunking.chunks()) {
-            String fileName = resolveAudioFileName(index, chunk.mimeType());
-            String chunkText = openAiClient.createTranscription(
-                    apiKey,
-                    new OpenAiTranscriptionRequest(
-                            model,
-                            sttLanguage,
-                            "json",
-                            chunk.mimeType(),
-                            fileName,
-                            chunk.bytes()
-                    )
-            );
-            if (!chunkText.isBlank()) {
-                if (!transcript.isEmpty()) {
-                    transcript.append("\n");
-                }
-                transcript.append(chunkText.trim());
-            }
-            if (transcript.length() > maxImportChars) {
-                transcript.setLength(maxImportChars);
-                truncated = true;
-                break;
-            }
-            index += 1;
+        AudioChunkingService.AudioChunkingResult chunking;
+        ParallelTranscriptionExecutor.Transcript transcript;
+        try (InputStream audio = importContentService.openStream(source);
+             ParallelTranscriptionExecutor.Session session = transcriptionExecutor.open("openai", maxImportChars)) {
+            chunking = audioChunkingService.streamChunks(audio, source.mimeType(), (index, chunk) -> {
+                String fileName = resolveAudioFileName(index, chunk.mimeType());
+                return session.submit(() -> openAiClient.createTranscription(
+                        apiKey,
+                        new OpenAiTranscriptionRequest(
+                                model,
+                                sttLanguage,
+                                "json",
+                                chunk.mimeType(),
+                                fileName,
+                                chunk.bytes()
+                        )
+                ));
+            });
+            transcript = session.finish();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to process audio", ex);
         }
-        if (transcript.isEmpty()) {
+        if (transcript.text().isEmpty()) {
             throw new IllegalStateException("Audio transcription is empty");
         }
         return new AiImportContentService.ImportTextPayload(
-                transcript.toString(),
+                transcript.text(),
                 source.mimeType(),
                 source.sizeBytes(),
-                truncated,
-                transcript.length(),
+                transcript.truncated(),
+                transcript.text().length(),
                 null,
                 MAX_IMPORT_CARDS,
                 "stt",
@@ -1115,6 +1174,8 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         if (job.getDeckId() == null) {
             throw new IllegalStateException("Deck id is required for missing field generation");
         }
+        // A pending batch is checked before the deck is loaded again, so polling stays cheap.
+        OpenAiBatch finishedBatch = job.getProviderBatchId() == null ? null : awaitBatch(job, apiKey);
         String accessToken = job.getUserAccessToken();
         record MissingFieldsContext(CoreTemplateResponse template,
                                     CorePublicDeckResponse publicDeck,
@@ -1180,12 +1241,20 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         if (!promptCards.isEmpty()) {
             String userPrompt = extractTextParam(params, "input", "prompt", "notes");
             response = runStep(job, params, STEP_GENERATE_CONTENT, () -> {
-                String prompt = buildMissingFieldsPrompt(userPrompt, context.template(), context.publicDeck(), context.promptFields(), promptCards, job.getDeckId(), accessToken);
                 ObjectNode responseFormat = buildMissingFieldsResponseFormat(context.promptFields());
                 String model = textOrDefault(params.path("model"), props.defaultModel());
                 Integer maxOutputTokens = params.path("maxOutputTokens").isInt()
                         ? params.path("maxOutputTokens").asInt()
                         : null;
+                if (isBatchExecution(job, params)) {
+                    return runMissingFieldsBatch(job, apiKey, finishedBatch, promptCards, cards -> new OpenAiResponseRequest(
+                            model,
+                            buildMissingFieldsPrompt(userPrompt, context.template(), context.publicDeck(), context.promptFields(), cards, job.getDeckId(), accessToken),
+                            maxOutputTokens,
+                            responseFormat
+                    ));
+                }
+                String prompt = buildMissingFieldsPrompt(userPrompt, context.template(), context.publicDeck(), context.promptFields(), promptCards, job.getDeckId(), accessToken);
                 return openAiClient.createResponse(
                         apiKey,
                         new OpenAiResponseRequest(model, prompt, maxOutputTokens, responseFormat)
@@ -1255,6 +1324,15 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         summary.put("deckId", job.getDeckId().toString());
         summary.put("updatedCards", mediaResult.updatedCards());
         summary.put("candidates", missingCards.size());
+        int batchFailedRequests = job.getProviderBatchId() == null || response == null || response.raw() == null
+                ? 0
+                : response.raw().path("failedRequests").asInt(0);
+        if (job.getProviderBatchId() != null) {
+            summary.put("providerBatchId", job.getProviderBatchId());
+            if (batchFailedRequests > 0) {
+                summary.put("batchFailedRequests", batchFailedRequests);
+            }
+        }
         if (mediaResult.imagesGenerated() > 0) {
             summary.put("imagesGenerated", mediaResult.imagesGenerated());
         }
@@ -1284,11 +1362,137 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                 BigDecimal.ZERO,
                 job.getInputHash(),
                 resolveFinalStatus(ttsError != null
+                        || batchFailedRequests > 0
                         || !ttsResult.cardErrors().isEmpty()
                         || !mediaResult.cardErrors().isEmpty())
         );
     }
 
+    /**
+     * Returns the job's batch once it has completed. Defers the job while the batch is still
+     * running and fails it (dropping the batch id) when the batch ended in any other state.
+     */
+    private OpenAiBatch awaitBatch(AiJobEntity job, String apiKey) {
+        String batchId = job.getProviderBatchId();
+        // The results are applied with the token stored at submission, and a batch may run for
+        // up to 24h. Once that token has expired core would reject the writes, so stop here.
+        Instant tokenExpiresAt = accessTokenExpiresAt(job.getUserAccessToken());
+        if (tokenExpiresAt != null && !tokenExpiresAt.isAfter(Instant.now())) {
+            try {
+                openAiClient.cancelBatch(apiKey, batchId);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("OpenAI batch cancel failed batchId={} error={}", batchId, ex.getMessage());
+            }
+            job.setProviderBatchId(null);
+            throw new IllegalStateException("Access token expired at " + tokenExpiresAt
+                    + " while OpenAI batch " + batchId + " was running; retry the job to generate the fields again");
+        }
+        OpenAiBatch batch = openAiClient.getBatch(apiKey, batchId);
+        if (batch.isPending()) {
+            if (batch.totalRequests() > 0) {
+                double finished = batch.completedRequests() + batch.failedRequests();
+                executionService.updateStepProgress(job.getJobId(), STEP_GENERATE_CONTENT, finished / batch.totalRequests());
+            }
+            throw new AiJobDeferredException("OpenAI batch pending id=" + batchId + " status=" + batch.status());
+        }
+        if (!batch.isCompleted()) {
+            job.setProviderBatchId(null);
+            throw new IllegalStateException("OpenAI batch " + batchId + " ended with status " + batch.status());
+        }
+        return batch;
+    }
+
+    /**
+     * Reads the {@code exp} claim of a JWT access token without verifying it; the token was
+     * verified when the job was created. Returns null for opaque or malformed tokens.
+     */
+    private Instant accessTokenExpiresAt(String accessToken) {
+        if (accessToken == null) {
+            return null;
+        }
+        String[] parts = accessToken.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode exp = claims.path("exp");
+            return exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (IOException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private boolean isBatchExecution(AiJobEntity job, JsonNode params) {
+        return job.getProviderBatchId() != null
+                || "batch".equalsIgnoreCase(params.path("executionMode").asText(""));
+    }
+
+    /**
+     * Runs the missing-field prompt through the Batch API with one request per
+     * {@link #BATCH_CARDS_PER_REQUEST} cards. The first call submits the batch and defers the job;
+     * later calls poll it until it finishes and then merge the updates of all requests into one
+     * response, so the apply step does not know the difference. Requests that failed inside the
+     * batch or came back unusable are counted in {@code failedRequests} of the merged response, so
+     * the job ends as partial success. A batch that ends in any other state is dropped and the job
+     * fails normally, so a retry submits a fresh one.
+     */
+    private OpenAiResponseResult runMissingFieldsBatch(AiJobEntity job,
+                                                       String apiKey,
+                                                       OpenAiBatch finishedBatch,
+                                                       List<CoreUserCardResponse> promptCards,
+                                                       java.util.function.Function<List<CoreUserCardResponse>, OpenAiResponseRequest> requestFactory) {
+        if (finishedBatch == null) {
+            List<OpenAiBatchRequest> requests = new ArrayList<>();
+            for (int start = 0; start < promptCards.size(); start += BATCH_CARDS_PER_REQUEST) {
+                List<CoreUserCardResponse> chunk = promptCards.subList(start, Math.min(start + BATCH_CARDS_PER_REQUEST, promptCards.size()));
+                requests.add(new OpenAiBatchRequest("cards-" + start, requestFactory.apply(chunk)));
+            }
+            OpenAiBatch batch = openAiClient.createBatch(apiKey, requests);
+            job.setProviderBatchId(batch.id());
+            throw new AiJobDeferredException("OpenAI batch submitted id=" + batch.id() + " requests=" + requests.size());
+        }
+
+        String batchId = finishedBatch.id();
+        Map<String, OpenAiResponseResult> results = openAiClient.getBatchResults(apiKey, finishedBatch);
+        ObjectNode merged = objectMapper.createObjectNode();
+        ArrayNode updates = merged.putArray("updates");
+        String model = null;
+        Integer tokensIn = null;
+        Integer tokensOut = null;
+        int missing = 0;
+        for (int start = 0; start < promptCards.size(); start += BATCH_CARDS_PER_REQUEST) {
+            if (!results.containsKey("cards-" + start)) {
+                missing++;
+            }
+        }
+        int unusable = 0;
+        for (Map.Entry<String, OpenAiResponseResult> entry : results.entrySet()) {
+            OpenAiResponseResult result = entry.getValue();
+            model = result.model() != null ? result.model() : model;
+            tokensIn = sumNullable(tokensIn, result.inputTokens());
+            tokensOut = sumNullable(tokensOut, result.outputTokens());
+            try {
+                JsonNode parsed = parseJsonResponse(result.outputText());
+                parsed.path("updates").forEach(updates::add);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("OpenAI batch result is not usable batchId={} customId={} error={}", batchId, entry.getKey(), ex.getMessage());
+                unusable++;
+            }
+        }
+        if (results.isEmpty()) {
+            job.setProviderBatchId(null);
+            throw new IllegalStateException("OpenAI batch " + batchId + " returned no results");
+        }
+        int failedRequests = Math.max(finishedBatch.failedRequests(), missing) + unusable;
+        if (failedRequests > 0) {
+            LOGGER.warn("OpenAI batch finished with failed requests batchId={} failed={} missing={} unusable={}",
+                    batchId, finishedBatch.failedRequests(), missing, unusable);
+            merged.put("failedRequests", failedRequests);
+        }
+        return new OpenAiResponseResult(merged.toString(), model, tokensIn, tokensOut, merged);
+    }
+
     private AiJobProcessingResult handleMissingAudio(AiJobEntity job, String apiKey, JsonNode params) {
         if (job.getDeckId() == null) {
             throw new IllegalStateException("Deck id is required for missing audio generation");
@@ -1847,17 +2051,64 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         String accessToken = job.getUserAccessToken();
         GenerationContext context = runStep(job, params, STEP_PREPARE_CONTEXT, () -> prepareGenerationContext(job, params, accessToken));
         String userPrompt = extractTextParam(params, "input", "prompt", "text");
+        // A retry only generates what the failed attempt did not add to the deck while streaming.
+        int alreadyApplied = Math.max(0, job.getAppliedCards());
+        int remaining = context.count() - alreadyApplied;
+        if (remaining <= 0) {
+            return buildAlreadyAppliedResult(job, context, alreadyApplied);
+        }
+        StreamedDraftApplier applier = canApplyWhileGenerating(params)
+                ? new StreamedDraftApplier(job, accessToken, context.allowedFields(), alreadyApplied)
+                : null;
         GeneratedDraftBatch generated = runStep(job, params, STEP_GENERATE_CONTENT, () -> generateDrafts(
                 job,
                 apiKey,
                 params,
                 context,
-                context.count(),
+                remaining,
                 userPrompt,
-                true
+                true,
+                alreadyApplied,
+                context.count(),
+                applier
         ));
         GeneratedDraftBatch qualityChecked = maybeRunDraftQualityGate(job, apiKey, params, context, generated);
-        return applyGeneratedDrafts(job, apiKey, params, context, qualityChecked, context.count(), accessToken);
+        return applyGeneratedDrafts(job, apiKey, params, context, qualityChecked, context.count(), accessToken, applier);
+    }
+
+    private AiJobProcessingResult buildAlreadyAppliedResult(AiJobEntity job, GenerationContext context, int alreadyApplied) {
+        ObjectNode summary = objectMapper.createObjectNode();
+        summary.put("mode", MODE_GENERATE_CARDS);
+        summary.put("deckId", job.getDeckId().toString());
+        summary.put("templateId", context.publicDeck().templateId().toString());
+        summary.put("requestedCards", context.count());
+        summary.put("createdCards", alreadyApplied);
+        summary.put("appliedBeforeRetry", alreadyApplied);
+        ArrayNode fieldsNode = summary.putArray("fields");
+        context.allowedFields().forEach(fieldsNode::add);
+        return new AiJobProcessingResult(
+                summary,
+                PROVIDER,
+                null,
+                0,
+                0,
+                BigDecimal.ZERO,
+                job.getInputHash()
+        );
+    }
+
+    /**
+     * Cards are added to the deck while the response is still streaming only when nothing has to
+     * see the whole set first: the draft quality gate audits and repairs all drafts together, so
+     * with the gate on (the default) cards are added once, after it. Only this processor streams;
+     * the other providers always generate the full response and then apply it.
+     */
+    private boolean canApplyWhileGenerating(JsonNode params) {
+        return isStreamingGeneration(params) && !isDraftQualityGateEnabled(params);
+    }
+
+    private boolean isStreamingGeneration(JsonNode params) {
+        return Boolean.TRUE.equals(props.streamGeneration()) && !isLocalOllamaRequest(params);
     }
 
     private GenerationContext prepareGenerationContext(AiJobEntity job, JsonNode params, String accessToken) {
@@ -1902,13 +2153,24 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                                boolean expandCandidateCount,
                                                int completedCount,
                                                int totalCount) {
+        return generateDrafts(job, apiKey, params, context, requestedCount, userPrompt, expandCandidateCount, completedCount, totalCount, null);
+    }
+
+    private GeneratedDraftBatch generateDrafts(AiJobEntity job,
+                                               String apiKey,
+                                               JsonNode params,
+                                               GenerationContext context,
+                                               int requestedCount,
+                                               String userPrompt,
+                                               boolean expandCandidateCount,
+                                               int completedCount,
+                                               int totalCount,
+                                               StreamedDraftApplier applier) {
         String model = textOrDefault(params.path("model"), props.defaultModel());
         boolean localOllamaRequest = isLocalOllamaRequest(params);
+        boolean streaming = isStreamingGeneration(params);
         List<CardDraft> uniqueDrafts = new ArrayList<>();
-        int droppedEmpty = 0;
-        int droppedExact = 0;
-        int droppedPrimary = 0;
-        int droppedSemantic = 0;
+        List<CardNoveltyService.FilterResult<CardDraft>> filterResults = new ArrayList<>();
         Integer totalTokensIn = null;
         Integer totalTokensOut = null;
         String responseModel = null;
@@ -1935,11 +2197,43 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     candidateCount,
                     localOllamaRequest
             );
+            OpenAiResponseRequest request = new OpenAiResponseRequest(model, prompt, maxOutputTokens, responseFormat);
+            IncrementalJsonArrayParser streamParser = null;
             long startedAtNs = System.nanoTime();
-            OpenAiResponseResult response = openAiClient.createResponse(
-                    apiKey,
-                    new OpenAiResponseRequest(model, prompt, maxOutputTokens, responseFormat)
-            );
+            OpenAiResponseResult response;
+            if (streaming) {
+                int streamAttempt = attempt;
+                // Each card is filtered (and possibly applied) as soon as its object is complete.
+                streamParser = new IncrementalJsonArrayParser(objectMapper, "cards", cardNode -> {
+                    ObjectNode single = objectMapper.createObjectNode();
+                    single.putArray("cards").add(cardNode);
+                    acceptGeneratedDrafts(
+                            buildCardDrafts(single, context.allowedFields(), context.template(), context.fieldTypes()),
+                            context,
+                            requestedCount - uniqueDrafts.size(),
+                            uniqueDrafts,
+                            filterResults,
+                            applier
+                    );
+                    updateGenerateContentAttemptProgress(job, completedCount, totalCount, requestedCount, uniqueDrafts.size(), streamAttempt);
+                });
+                try {
+                    response = openAiClient.streamResponse(apiKey, request, streamParser::feed);
+                } catch (RuntimeException ex) {
+                    if (applier == null || !applier.hasApplied()) {
+                        throw ex;
+                    }
+                    // Cards already in the deck stay there; the job ends as a partial success.
+                    LOGGER.warn("OpenAI card stream failed after cards were applied jobId={} applied={} error={}",
+                            job == null ? null : job.getJobId(),
+                            applier.appliedCount(),
+                            ex.getMessage());
+                    applier.recordFailure(ex.getMessage());
+                    break;
+                }
+            } else {
+                response = openAiClient.createResponse(apiKey, request);
+            }
             long durationMs = elapsedMillis(startedAtNs);
             responseModel = response.model();
             totalTokensIn = sumNullable(totalTokensIn, response.inputTokens());
@@ -1953,20 +2247,11 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     durationMs
             ));
 
-            JsonNode parsed = parseJsonResponse(response.outputText());
-            List<CardDraft> drafts = buildCardDrafts(parsed, context.allowedFields(), context.template(), context.fieldTypes());
-            CardNoveltyService.FilterResult<CardDraft> filtered = noveltyService.filterCandidates(
-                    drafts,
-                    CardDraft::content,
-                    context.allowedFields(),
-                    context.noveltyIndex(),
-                    remaining
-            );
-            uniqueDrafts.addAll(filtered.accepted());
-            droppedEmpty += filtered.droppedEmpty();
-            droppedExact += filtered.droppedExact();
-            droppedPrimary += filtered.droppedPrimary();
-            droppedSemantic += filtered.droppedSemantic();
+            if (streamParser == null || streamParser.emitted() == 0) {
+                JsonNode parsed = parseJsonResponse(response.outputText());
+                List<CardDraft> drafts = buildCardDrafts(parsed, context.allowedFields(), context.template(), context.fieldTypes());
+                acceptGeneratedDrafts(drafts, context, remaining, uniqueDrafts, filterResults, applier);
+            }
             updateGenerateContentAttemptProgress(
                     job,
                     completedCount,
@@ -1977,15 +2262,30 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
             );
         }
 
+        int droppedEmpty = 0;
+        int droppedExact = 0;
+        int droppedPrimary = 0;
+        int droppedSemantic = 0;
+        for (CardNoveltyService.FilterResult<CardDraft> filtered : filterResults) {
+            droppedEmpty += filtered.droppedEmpty();
+            droppedExact += filtered.droppedExact();
+            droppedPrimary += filtered.droppedPrimary();
+            droppedSemantic += filtered.droppedSemantic();
+        }
+
         if (uniqueDrafts.size() < requestedCount) {
-            throw new IllegalStateException(CardNoveltyService.insufficientUniqueCardsMessage(
+            String message = CardNoveltyService.insufficientUniqueCardsMessage(
                     uniqueDrafts.size(),
                     requestedCount,
                     droppedEmpty,
                     droppedExact,
                     droppedPrimary,
                     droppedSemantic
-            ));
+            );
+            if (applier == null || !applier.hasApplied()) {
+                throw new IllegalStateException(message);
+            }
+            applier.recordFailure(message);
         }
 
         return new GeneratedDraftBatch(
@@ -2004,6 +2304,26 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         );
     }
 
+    private void acceptGeneratedDrafts(List<CardDraft> drafts,
+                                       GenerationContext context,
+                                       int limit,
+                                       List<CardDraft> uniqueDrafts,
+                                       List<CardNoveltyService.FilterResult<CardDraft>> filterResults,
+                                       StreamedDraftApplier applier) {
+        CardNoveltyService.FilterResult<CardDraft> filtered = noveltyService.filterCandidates(
+                drafts,
+                CardDraft::content,
+                context.allowedFields(),
+                context.noveltyIndex(),
+                limit
+        );
+        filterResults.add(filtered);
+        uniqueDrafts.addAll(filtered.accepted());
+        if (applier != null) {
+            applier.accept(filtered.accepted());
+        }
+    }
+
     private GeneratedDraftBatch generateDraftsBatched(AiJobEntity job,
                                                       String apiKey,
                                                       JsonNode params,
@@ -2044,8 +2364,41 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                                       int initialBatchSize,
                                                       BatchPromptFactory promptFactory,
                                                       boolean expandCandidateCount) {
+        // Batches run concurrently and share context.noveltyIndex, which admits each draft atomically;
+        // a batch that loses drafts to another one re-requests its shortfall in its own attempts
+        List<Callable<GeneratedDraftBatch>> batches = new ArrayList<>();
+        AtomicInteger completed = new AtomicInteger();
         int remaining = totalCount;
         int offset = 0;
+        while (remaining > 0) {
+            int currentBatchSize = offset == 0
+                    ? Math.max(1, Math.min(initialBatchSize, batchSize))
+                    : batchSize;
+            int count = Math.min(currentBatchSize, remaining);
+            int batchOffset = offset;
+            batches.add(() -> {
+                GeneratedDraftBatch batch = generateDrafts(
+                        job,
+                        apiKey,
+                        params,
+                        context,
+                        count,
+                        promptFactory.build(batchOffset, count),
+                        expandCandidateCount,
+                        completed.get(),
+                        totalCount
+                );
+                executionService.updateStepProgress(
+                        job.getJobId(),
+                        STEP_GENERATE_CONTENT,
+                        completed.addAndGet(count) / (double) Math.max(1, totalCount)
+                );
+                return batch;
+            });
+            remaining -= count;
+            offset += count;
+        }
+
         List<CardDraft> drafts = new ArrayList<>();
         int droppedEmpty = 0;
         int droppedExact = 0;
@@ -2055,23 +2408,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         Integer totalTokensOut = null;
         String model = null;
         List<UsageEvent> usageEvents = new ArrayList<>();
-
-        while (remaining > 0) {
-            int currentBatchSize = offset == 0
-                    ? Math.max(1, Math.min(initialBatchSize, batchSize))
-                    : batchSize;
-            int count = Math.min(currentBatchSize, remaining);
-            GeneratedDraftBatch batch = generateDrafts(
-                    job,
-                    apiKey,
-                    params,
-                    context,
-                    count,
-                    promptFactory.build(offset, count),
-                    expandCandidateCount,
-                    offset,
-                    totalCount
-            );
+        for (GeneratedDraftBatch batch : generationExecutor.runAll(PROVIDER, batches)) {
             drafts.addAll(batch.drafts());
             droppedEmpty += batch.droppedEmpty();
             droppedExact += batch.droppedExact();
@@ -2083,13 +2420,6 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
             if (model == null) {
                 model = batch.model();
             }
-            remaining -= count;
-            offset += count;
-            executionService.updateStepProgress(
-                    job.getJobId(),
-                    STEP_GENERATE_CONTENT,
-                    offset / (double) Math.max(1, totalCount)
-            );
         }
 
         return new GeneratedDraftBatch(
@@ -2118,8 +2448,38 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                                               JsonNode originalParams,
                                                               boolean truncated,
                                                               String sharedContext) {
+        List<Callable<GeneratedDraftBatch>> batches = new ArrayList<>();
+        AtomicInteger completed = new AtomicInteger();
         int remaining = items.size();
         int offset = 0;
+        while (remaining > 0) {
+            int count = Math.min(batchSize, remaining);
+            int batchOffset = offset;
+            List<ImportItemExtractor.SourceItem> batchItems = items.subList(offset, offset + count);
+            batches.add(() -> {
+                GeneratedDraftBatch batch = generateDraftsForItemsResilient(
+                        job,
+                        apiKey,
+                        params,
+                        context,
+                        batchItems,
+                        originalParams,
+                        truncated,
+                        sharedContext,
+                        batchOffset,
+                        items.size()
+                );
+                executionService.updateStepProgress(
+                        job.getJobId(),
+                        STEP_GENERATE_CONTENT,
+                        completed.addAndGet(count) / (double) Math.max(1, items.size())
+                );
+                return batch;
+            });
+            remaining -= count;
+            offset += count;
+        }
+
         List<CardDraft> drafts = new ArrayList<>();
         List<Integer> missingSourceIndexes = new ArrayList<>();
         int alteredSourceItems = 0;
@@ -2127,22 +2487,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         Integer totalTokensOut = null;
         String model = null;
         List<UsageEvent> usageEvents = new ArrayList<>();
-
-        while (remaining > 0) {
-            int count = Math.min(batchSize, remaining);
-            List<ImportItemExtractor.SourceItem> batchItems = items.subList(offset, offset + count);
-            GeneratedDraftBatch batch = generateDraftsForItemsResilient(
-                    job,
-                    apiKey,
-                    params,
-                    context,
-                    batchItems,
-                    originalParams,
-                    truncated,
-                    sharedContext,
-                    offset,
-                    items.size()
-            );
+        for (GeneratedDraftBatch batch : generationExecutor.runAll(PROVIDER, batches)) {
             drafts.addAll(batch.drafts());
             if (batch.sourceCoverage() != null) {
                 if (batch.sourceCoverage().missingSourceIndexes() != null) {
@@ -2156,13 +2501,6 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
             if (model == null) {
                 model = batch.model();
             }
-            remaining -= count;
-            offset += count;
-            executionService.updateStepProgress(
-                    job.getJobId(),
-                    STEP_GENERATE_CONTENT,
-                    offset / (double) Math.max(1, items.size())
-            );
         }
 
         return new GeneratedDraftBatch(
@@ -2678,6 +3016,17 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                                        GeneratedDraftBatch generated,
                                                        int requestedCount,
                                                        String accessToken) {
+        return applyGeneratedDrafts(job, apiKey, params, context, generated, requestedCount, accessToken, null);
+    }
+
+    private AiJobProcessingResult applyGeneratedDrafts(AiJobEntity job,
+                                                       String apiKey,
+                                                       JsonNode params,
+                                                       GenerationContext context,
+                                                       GeneratedDraftBatch generated,
+                                                       int requestedCount,
+                                                       String accessToken,
+                                                       StreamedDraftApplier applier) {
         if (generated == null || generated.drafts() == null || generated.drafts().isEmpty()) {
             throw new IllegalStateException("AI did not generate any valid cards");
         }
@@ -2686,12 +3035,11 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         List<CreateCardRequestPayload> requests = generated.drafts().stream()
                 .map(draft -> new CreateCardRequestPayload(draft.content(), null, null, null, null, null))
                 .toList();
-        List<CoreUserCardResponse> createdCards = runStep(job, params, STEP_APPLY_CHANGES, () -> coreApiClient.addCards(
-                job.getDeckId(),
-                requests,
-                accessToken,
-                job.getJobId()
-        ));
+        List<CoreUserCardResponse> createdCards = runStep(job, params, STEP_APPLY_CHANGES, () -> applier != null
+                ? applier.finish(generated.drafts())
+                : coreApiClient.addCards(job.getDeckId(), requests, accessToken, job.getJobId()));
+        String generationError = applier == null ? null : applier.failure();
+        int appliedBeforeRetry = applier == null ? 0 : applier.appliedBeforeRetry();
         AtomicApplyResult generatedMediaResult = applyGeneratedCardMediaAndTts(
                 job,
                 apiKey,
@@ -2711,7 +3059,10 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         summary.put("deckId", job.getDeckId().toString());
         summary.put("templateId", context.publicDeck().templateId().toString());
         summary.put("requestedCards", requestedCount);
-        summary.put("createdCards", requests.size());
+        summary.put("createdCards", requests.size() + appliedBeforeRetry);
+        if (appliedBeforeRetry > 0) {
+            summary.put("appliedBeforeRetry", appliedBeforeRetry);
+        }
         summary.put("mediaAppliedAfterCreate", true);
         summary.put("duplicatesSkippedExact", generated.droppedExact());
         summary.put("duplicatesSkippedPrimary", generated.droppedPrimary());
@@ -2719,6 +3070,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         if (generated.droppedEmpty() > 0) {
             summary.put("candidatesSkippedEmpty", generated.droppedEmpty());
         }
+        if (generationError != null) {
+            summary.put("generationError", generationError);
+        }
         if (ttsResult.generated() > 0) {
             summary.put("ttsGenerated", ttsResult.generated());
         }
@@ -2761,7 +3115,8 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                 generated.outputTokens(),
                 BigDecimal.ZERO,
                 job.getInputHash(),
-                resolveFinalStatus(ttsResult.error() != null
+                resolveFinalStatus(generationError != null
+                        || ttsResult.error() != null
                         || !ttsResult.cardErrors().isEmpty()
                         || !mediaResult.cardErrors().isEmpty()
                         || hasIncompleteSourceCoverage(generated.sourceCoverage())),
@@ -3259,40 +3614,49 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
             format = "mp3";
         }
 
-        byte[] audio = createValidatedSpeech(
-                job,
-                apiKey,
-                new OpenAiSpeechRequest(model, text, voice, format),
-                null,
-                null,
-                text
-        );
-
         String contentType = resolveAudioContentType(format);
         String fileName = "ai-tts-" + job.getJobId() + "." + format;
-        UUID mediaId = mediaApiClient.directUpload(
-                job.getUserId(),
-                "card_audio",
-                contentType,
-                fileName,
-                audio.length,
-                new ByteArrayInputStream(audio)
-        );
+        String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, format, text);
+        Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+        UUID mediaId;
+        if (cached.isPresent()) {
+            mediaId = cached.get().mediaId();
+        } else {
+            byte[] audio = createValidatedSpeech(
+                    job,
+                    apiKey,
+                    new OpenAiSpeechRequest(model, text, voice, format),
+                    null,
+                    null,
+                    text
+            );
+            mediaId = mediaApiClient.directUpload(
+                    job.getUserId(),
+                    "card_audio",
+                    contentType,
+                    fileName,
+                    audio.length,
+                    new ByteArrayInputStream(audio)
+            );
+            mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
+        }
+        int generated = cached.isPresent() ? 0 : 1;
+        int charsGenerated = cached.isPresent() ? 0 : text.length();
 
         ObjectNode summary = objectMapper.createObjectNode();
         summary.put("mediaId", mediaId.toString());
         summary.put("contentType", contentType);
         summary.put("fileName", fileName);
         summary.put("model", model);
-        summary.put("ttsGenerated", 1);
-        summary.put("ttsCharsGenerated", text.length());
+        summary.put("ttsGenerated", generated);
+        summary.put("ttsCharsGenerated", charsGenerated);
         if (voice != null && !voice.isBlank()) {
             summary.put("voice", voice);
         }
         ObjectNode usageDetails = objectMapper.createObjectNode();
         ObjectNode ttsDetails = usageDetails.putObject("tts");
-        ttsDetails.put("generated", 1);
-        ttsDetails.put("charsGenerated", text.length());
+        ttsDetails.put("generated", generated);
+        ttsDetails.put("charsGenerated", charsGenerated);
         ttsDetails.put("model", model);
 
         return new AiJobProcessingResult(
@@ -4421,7 +4785,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                         MediaUpload upload = generateImage(job, apiKey, imageConfig, text);
                         updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                         changed = true;
-                        imagesGenerated++;
+                        if (!upload.cached()) {
+                            imagesGenerated++;
+                        }
                     } catch (Exception ex) {
                         appendCardError(cardErrors, card.userCardId(), field, summarizeError(ex));
                         LOGGER.warn("OpenAI image generation failed jobId={} cardId={} field={} model={} promptLength={}",
@@ -4661,7 +5027,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     MediaUpload upload = generateImage(job, apiKey, imageConfig, prompt);
                     updatedContent.set(mapping.targetField(), buildMediaNode(upload.mediaId(), "image"));
                     changed = true;
-                    imagesGenerated++;
+                    if (!upload.cached()) {
+                        imagesGenerated++;
+                    }
                 } catch (Exception ex) {
                     errors.add(formatFieldError(mapping.targetField(), summarizeError(ex)));
                     LOGGER.warn("OpenAI mapped image generation failed jobId={} cardId={} content={} sourceField={} targetField={} model={} promptLength={}",
@@ -4801,7 +5169,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                             MediaUpload upload = generateImage(job, apiKey, imageConfig, value.trim());
                             updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                             changed = true;
-                            imagesGenerated++;
+                            if (!upload.cached()) {
+                                imagesGenerated++;
+                            }
                         } catch (Exception ex) {
                             appendCardError(cardErrors, update.userCardId(), field, summarizeError(ex));
                             LOGGER.warn("OpenAI image generation failed jobId={} cardId={} field={} model={} promptLength={}",
@@ -5019,7 +5389,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     MediaUpload upload = generateImage(job, apiKey, imageConfig, text);
                     updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                     changed = true;
-                    imagesGenerated++;
+                    if (!upload.cached()) {
+                        imagesGenerated++;
+                    }
                 } catch (Exception ex) {
                     errors.add(formatFieldError(field, summarizeError(ex)));
                     LOGGER.warn("OpenAI image generation failed jobId={} content={} field={} model={} promptLength={}",
@@ -5142,6 +5514,181 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                        SourceNormalizationResult sourceNormalizationResult) {
     }
 
+    /**
+     * Adds accepted drafts to the deck while generation is still running: the first card right
+     * away, then in chunks of {@link #STREAM_APPLY_CHUNK_SIZE}. Every chunk carries the job id as
+     * operation id, so core puts all of them into one deck version. A failed chunk stops early
+     * application; its drafts are retried by {@link #finish} in the apply step. The running total,
+     * including cards applied by an earlier attempt, is stored on the job after every chunk, so a
+     * retry of a job that failed later only generates the cards that are still missing.
+     * <p>
+     * A chunk whose request failed may still have been committed by core (a read timeout, for
+     * example), so it is not counted as applied, and before its drafts are sent again they are
+     * looked up in the deck's change feed; only the ones core does not have are resent.
+     */
+    private final class StreamedDraftApplier {
+
+        private final AiJobEntity job;
+        private final String accessToken;
+        private final List<String> fields;
+        private final int appliedBeforeRetry;
+        private final List<CardDraft> pending = new ArrayList<>();
+        private final List<CoreUserCardResponse> createdCards = new ArrayList<>();
+        private int appliedCount;
+        private boolean stopped;
+        private String failure;
+        private int uncertainCount;
+        private Instant uncertainSince;
+
+        private StreamedDraftApplier(AiJobEntity job, String accessToken, List<String> fields, int appliedBeforeRetry) {
+            this.job = job;
+            this.accessToken = accessToken;
+            this.fields = fields;
+            this.appliedBeforeRetry = appliedBeforeRetry;
+        }
+
+        void accept(List<CardDraft> drafts) {
+            if (drafts == null || drafts.isEmpty()) {
+                return;
+            }
+            pending.addAll(drafts);
+            if (!stopped && (appliedCount == 0 || pending.size() >= STREAM_APPLY_CHUNK_SIZE)) {
+                flush();
+            }
+        }
+
+        boolean hasApplied() {
+            return appliedCount > 0;
+        }
+
+        int appliedCount() {
+            return appliedCount;
+        }
+
+        int appliedBeforeRetry() {
+            return appliedBeforeRetry;
+        }
+
+        void recordFailure(String message) {
+            if (failure == null) {
+                failure = message;
+            }
+        }
+
+        String failure() {
+            return failure;
+        }
+
+        /**
+         * Applies the drafts that are not in the deck yet and returns the created cards for all
+         * of {@code drafts}, in order. Drafts that were applied early are always a prefix of it.
+         */
+        List<CoreUserCardResponse> finish(List<CardDraft> drafts) {
+            List<CardDraft> remaining = drafts.subList(Math.min(appliedCount, drafts.size()), drafts.size());
+            List<CoreUserCardResponse> result = new ArrayList<>(createdCards);
+            if (remaining.isEmpty()) {
+                return result;
+            }
+            Map<Integer, CoreUserCardResponse> committed = uncertainCount > 0
+                    ? findCommitted(remaining.subList(0, Math.min(uncertainCount, remaining.size())))
+                    : Map.of();
+            List<CardDraft> unsent = new ArrayList<>(remaining.size() - committed.size());
+            for (int i = 0; i < remaining.size(); i++) {
+                if (!committed.containsKey(i)) {
+                    unsent.add(remaining.get(i));
+                }
+            }
+            if (!committed.isEmpty()) {
+                LOGGER.info("Streamed cards were committed despite the failed request jobId={} committed={} resent={}",
+                        job.getJobId(),
+                        committed.size(),
+                        unsent.size());
+            }
+            Iterator<CoreUserCardResponse> added = addCards(unsent).iterator();
+            for (int i = 0; i < remaining.size(); i++) {
+                CoreUserCardResponse card = committed.get(i);
+                result.add(card != null ? card : added.hasNext() ? added.next() : null);
+            }
+            recordApplied(appliedCount + remaining.size());
+            return result;
+        }
+
+        private void flush() {
+            Instant startedAt = Instant.now();
+            try {
+                createdCards.addAll(addCards(pending));
+                appliedCount += pending.size();
+                pending.clear();
+                recordApplied(appliedCount);
+            } catch (RuntimeException ex) {
+                stopped = true;
+                uncertainCount = pending.size();
+                uncertainSince = startedAt.minus(UNCERTAIN_CHUNK_CLOCK_SKEW);
+                LOGGER.warn("Applying streamed cards failed, deferring to the apply step jobId={} error={}",
+                        job.getJobId(),
+                        ex.getMessage());
+            }
+        }
+
+        /**
+         * Finds which drafts of the failed chunk are in the deck anyway, by exact content among the
+         * cards changed since the request was sent. Returns the card per draft index. Throws when
+         * the deck cannot be read: resending blindly could add the chunk twice, and a retry of the
+         * job regenerates against the deck, so it cannot duplicate them.
+         */
+        private Map<Integer, CoreUserCardResponse> findCommitted(List<CardDraft> drafts) {
+            Map<String, Deque<UUID>> changedByKey = new HashMap<>();
+            try {
+                Instant afterChangedAt = uncertainSince;
+                UUID afterCardId = null;
+                while (true) {
+                    CoreApiClient.CoreUserCardChanges page = coreApiClient.getUserCardChanges(
+                            job.getDeckId(), afterChangedAt, afterCardId, UNCERTAIN_CHUNK_PAGE_SIZE, accessToken);
+                    List<CoreApiClient.CoreUserCardChange> changes = page.changes() == null ? List.of() : page.changes();
+                    for (CoreApiClient.CoreUserCardChange change : changes) {
+                        String key = change.isDeleted() ? null : noveltyService.exactKey(change.effectiveContent(), fields);
+                        if (key != null) {
+                            changedByKey.computeIfAbsent(key, ignored -> new ArrayDeque<>()).add(change.userCardId());
+                        }
+                    }
+                    if (changes.size() < UNCERTAIN_CHUNK_PAGE_SIZE) {
+                        break;
+                    }
+                    afterChangedAt = changes.getLast().changedAt();
+                    afterCardId = changes.getLast().userCardId();
+                }
+                Map<Integer, CoreUserCardResponse> committed = new HashMap<>();
+                for (int i = 0; i < drafts.size(); i++) {
+                    String key = noveltyService.exactKey(drafts.get(i).content(), fields);
+                    Deque<UUID> candidates = key == null ? null : changedByKey.get(key);
+                    if (candidates != null && !candidates.isEmpty()) {
+                        CoreApiClient.CoreUserCardDetail card = coreApiClient.getUserCard(job.getDeckId(), candidates.poll(), accessToken);
+                        committed.put(i, new CoreUserCardResponse(card.userCardId(), card.publicCardId(), card.isCustom(), card.effectiveContent()));
+                    }
+                }
+                return committed;
+            } catch (RuntimeException ex) {
+                throw new IllegalStateException("Could not check whether " + drafts.size()
+                        + " streamed cards were added after a failed request: " + ex.getMessage(), ex);
+            }
+        }
+
+        private void recordApplied(int applied) {
+            job.setAppliedCards(appliedBeforeRetry + applied);
+            executionService.recordAppliedCards(job.getJobId(), job.getAppliedCards());
+        }
+
+        private List<CoreUserCardResponse> addCards(List<CardDraft> drafts) {
+            if (drafts.isEmpty()) {
+                return List.of();
+            }
+            List<CreateCardRequestPayload> requests = drafts.stream()
+                    .map(draft -> new CreateCardRequestPayload(draft.content(), null, null, null, null, null))
+                    .toList();
+            return coreApiClient.addCards(job.getDeckId(), requests, accessToken, job.getJobId());
+        }
+    }
+
     private record UsageEvent(String stage,
                               int attempt,
                               int requestedCount,
@@ -5300,7 +5847,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                                String format) {
     }
 
-    private record MediaUpload(UUID mediaId, String contentType, String fileName) {
+    private record MediaUpload(UUID mediaId, String contentType, String fileName, boolean cached) {
     }
 
     private String buildCardsPrompt(String userPrompt,
@@ -5915,6 +6462,13 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     appendCardError(cardErrors, card.userCardId(), mapping.targetField(), "text exceeds TTS max input length " + maxChars);
                     continue;
                 }
+                String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, format, text);
+                Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+                if (cached.isPresent()) {
+                    updatedContent.set(mapping.targetField(), buildMediaNode(cached.get().mediaId(), "audio"));
+                    updated = true;
+                    continue;
+                }
                 byte[] audio;
                 try {
                     audio = createValidatedSpeech(
@@ -5947,6 +6501,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                         audio.length,
                         new ByteArrayInputStream(audio)
                 );
+                mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
                 ObjectNode audioNode = objectMapper.createObjectNode();
                 audioNode.put("mediaId", mediaId.toString());
                 audioNode.put("kind", "audio");
@@ -6046,6 +6601,13 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     appendCardError(cardErrors, card.userCardId(), mapping.targetField(), "text exceeds TTS max input length " + maxChars);
                     continue;
                 }
+                String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, format, text);
+                Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+                if (cached.isPresent()) {
+                    updatedContent.set(mapping.targetField(), buildMediaNode(cached.get().mediaId(), "audio"));
+                    updated = true;
+                    continue;
+                }
                 byte[] audio;
                 try {
                     audio = createValidatedSpeech(
@@ -6078,6 +6640,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                         audio.length,
                         new ByteArrayInputStream(audio)
                 );
+                mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
                 ObjectNode audioNode = objectMapper.createObjectNode();
                 audioNode.put("mediaId", mediaId.toString());
                 audioNode.put("kind", "audio");
@@ -6170,6 +6733,13 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                 errors.add(formatFieldError(mapping.targetField(), "text exceeds TTS max input length " + maxChars));
                 continue;
             }
+            String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, format, text);
+            Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+            if (cached.isPresent()) {
+                updatedContent.set(mapping.targetField(), buildMediaNode(cached.get().mediaId(), "audio"));
+                updated = true;
+                continue;
+            }
             byte[] audio;
             try {
                 audio = createValidatedSpeech(
@@ -6200,6 +6770,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     audio.length,
                     new ByteArrayInputStream(audio)
             );
+            mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
             updatedContent.set(mapping.targetField(), buildMediaNode(mediaId, "audio"));
             updated = true;
             generated++;
@@ -6519,7 +7090,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                         MediaUpload upload = generateImage(job, apiKey, imageConfig, prompt.trim());
                         updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                         changed = true;
-                        imagesGenerated++;
+                        if (!upload.cached()) {
+                            imagesGenerated++;
+                        }
                     } catch (Exception ex) {
                         appendCardError(cardErrors, card.userCardId(), field, summarizeError(ex));
                         LOGGER.warn("OpenAI image generation failed jobId={} cardId={} field={} model={} promptLength={}",
@@ -6604,7 +7177,9 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                     MediaUpload upload = generateImage(job, apiKey, imageConfig, prompt.trim());
                     updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                     changed = true;
-                    imagesGenerated++;
+                    if (!upload.cached()) {
+                        imagesGenerated++;
+                    }
                 } catch (Exception ex) {
                     errors.add(formatFieldError(field, summarizeError(ex)));
                     LOGGER.warn("OpenAI image generation failed jobId={} draft={} field={} model={} promptLength={}",
@@ -6714,6 +7289,11 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
     }
 
     private MediaUpload generateImage(AiJobEntity job, String apiKey, ImageConfig config, String prompt) {
+        String cacheKey = AiMediaCache.imageKey(job.getUserId(), PROVIDER, config.model(), String.join("|", config.size(), config.quality(), config.style(), config.format()), prompt);
+        Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+        if (cached.isPresent()) {
+            return new MediaUpload(cached.get().mediaId(), cached.get().contentType(), null, true);
+        }
         OpenAiImageResult result = openAiClient.createImage(
                 apiKey,
                 new OpenAiImageRequest(config.model(), prompt, config.size(), config.quality(), config.style(), config.format())
@@ -6729,7 +7309,8 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                 result.data().length,
                 new ByteArrayInputStream(result.data())
         );
-        return new MediaUpload(mediaId, contentType, fileName);
+        mediaCache.put(cacheKey, AiMediaCache.KIND_IMAGE, mediaId, contentType);
+        return new MediaUpload(mediaId, contentType, fileName, false);
     }
 
     private ObjectNode loadLatestContent(UUID jobId,
@@ -6770,7 +7351,7 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
                 data.length,
                 new ByteArrayInputStream(data)
         );
-        return new MediaUpload(mediaId, contentType, fileName);
+        return new MediaUpload(mediaId, contentType, fileName, false);
     }
 
     private OpenAiVideoJob waitForVideoCompletion(String apiKey, OpenAiVideoJob job) {
@@ -6911,9 +7492,14 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         long maxDelayMs = resolveTtsRetryMaxDelayMs();
         int attempts = 0;
         while (true) {
-            throttleTtsRequests(localProvider);
             try {
-                return openAiClient.createSpeech(apiKey, request);
+                return rateLimiter.call(
+                        PROVIDER,
+                        apiKey,
+                        ProviderRateLimiter.TTS,
+                        resolveTtsRequestsPerMinute(localProvider),
+                        () -> openAiClient.createSpeech(apiKey, request)
+                );
             } catch (RestClientResponseException ex) {
                 if (!isRetryableStatus(ex.getRawStatusCode())) {
                     throw ex;
@@ -7033,27 +7619,6 @@ public class OpenAiJobProcessor implements AiProviderProcessor {
         return distinct;
     }
 
-    private void throttleTtsRequests(boolean localProvider) {
-        int rpm = resolveTtsRequestsPerMinute(localProvider);
-        if (rpm <= 0) {
-            return;
-        }
-        long intervalMs = (long) Math.ceil(60000.0 / rpm);
-        long sleepMs = 0L;
-        long now = System.currentTimeMillis();
-        synchronized (ttsThrottleLock) {
-            if (nextTtsRequestAtMs > now) {
-                sleepMs = nextTtsRequestAtMs - now;
-                nextTtsRequestAtMs += intervalMs;
-            } else {
-                nextTtsRequestAtMs = now + intervalMs;
-            }
-        }
-        if (sleepMs > 0 && !sleepQuietly(sleepMs)) {
-            throw new IllegalStateException("OpenAI TTS throttling interrupted");
-        }
-    }
-
     private int resolveTtsRequestsPerMinute(boolean localProvider) {
         Integer rpm = localProvider ? props.localTtsRequestsPerMinute() : props.ttsRequestsPerMinute();
         if (rpm == null) {
@@ -25,6 +25,7 @@ public record OpenAiProps(
         Long ttsRetryInitialDelayMs,
         Long ttsRetryMaxDelayMs,
         Long requestConnectTimeoutMs,
-        Long requestReadTimeoutMs
+        Long requestReadTimeoutMs,
+        Boolean streamGeneration
 ) {
 }
@@ -1,5 +1,6 @@
 package app.mnema.ai.provider.qwen;
 
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.provider.support.ProviderRetrySupport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,14 +19,17 @@ import java.util.Base64;
 public class QwenClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QwenClient.class);
+    private static final String PROVIDER = "qwen";
 
     private final RestClient compatibleClient;
     private final RestClient dashscopeClient;
     private final ObjectMapper objectMapper;
+    private final ProviderRateLimiter rateLimiter;
 
     public QwenClient(RestClient.Builder restClientBuilder,
                       QwenProps props,
-                      ObjectMapper objectMapper) {
+                      ObjectMapper objectMapper,
+                      ProviderRateLimiter rateLimiter) {
         this.compatibleClient = restClientBuilder
                 .baseUrl(props.baseUrl())
                 .build();
@@ -33,6 +37,7 @@ public class QwenClient {
                 .baseUrl(props.dashscopeBaseUrl())
                 .build();
         this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
     }
 
     public QwenChatResult createChatCompletion(String apiKey, QwenChatRequest request) {
@@ -58,13 +63,13 @@ public class QwenClient {
             payload.set("response_format", normalizeResponseFormat(responseFormat));
         }
 
-        JsonNode response = ProviderRetrySupport.executeTextRequest("Qwen", LOGGER, () -> compatibleClient.post()
+        JsonNode response = ProviderRetrySupport.executeTextRequest("Qwen", LOGGER, () -> rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.TEXT, () -> compatibleClient.post()
                 .uri("/chat/completions")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(payload)
                 .retrieve()
-                .body(JsonNode.class));
+                .body(JsonNode.class)));
 
         if (response == null) {
             throw new IllegalStateException("Qwen response is empty");
@@ -132,7 +137,7 @@ public class QwenClient {
             parameters.put("size", request.size());
         }
 
-        JsonNode response = dashscopeClient.post()
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.IMAGE, () -> dashscopeClient.post()
                 .uri("/api/v1/services/aigc/multimodal-generation/generation")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .contentType(MediaType.APPLICATION_JSON)
@@ -174,7 +179,7 @@ public class QwenClient {
             parameters.put("size", request.size());
         }
 
-        JsonNode response = dashscopeClient.post()
+        JsonNode response = rateLimiter.call(PROVIDER, apiKey, ProviderRateLimiter.VIDEO, () -> dashscopeClient.post()
                 .uri("/api/v1/services/aigc/video-generation/video-synthesis")
                 .header(HttpHeaders.AUTHORIZATION, bearer(apiKey))
                 .header("X-DashScope-Async", "enable")
@@ -10,6 +10,7 @@ import app.mnema.ai.client.core.CoreApiClient.CoreUserCardResponse;
 import app.mnema.ai.client.core.CoreApiClient.CreateCardRequestPayload;
 import app.mnema.ai.client.core.CoreApiClient.UpdateUserCardRequest;
 import app.mnema.ai.client.media.MediaApiClient;
+import app.mnema.ai.client.media.MediaResolved;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.entity.AiProviderCredentialEntity;
 import app.mnema.ai.domain.type.AiJobType;
@@ -20,11 +21,15 @@ import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.AiImportContentService;
 import app.mnema.ai.service.AiJobExecutionService;
 import app.mnema.ai.service.AiJobProcessingResult;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AiProviderProcessor;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.support.ImportItemExtractor;
 import app.mnema.ai.provider.anki.AnkiTemplateSupport;
 import app.mnema.ai.provider.audit.AuditAnalyzer;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
 import app.mnema.ai.vault.EncryptedSecret;
 import app.mnema.ai.vault.SecretVault;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -39,6 +44,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientResponseException;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
@@ -56,6 +63,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -101,24 +110,30 @@ public class QwenJobProcessor implements AiProviderProcessor {
     private final SecretVault secretVault;
     private final AiProviderCredentialRepository credentialRepository;
     private final MediaApiClient mediaApiClient;
+    private final AiMediaCache mediaCache;
     private final AiImportContentService importContentService;
     private final AudioChunkingService audioChunkingService;
+    private final ParallelTranscriptionExecutor transcriptionExecutor;
+    private final ParallelGenerationExecutor generationExecutor;
+    private final ProviderRateLimiter rateLimiter;
     private final CoreApiClient coreApiClient;
     private final CardNoveltyService noveltyService;
     private final ObjectMapper objectMapper;
     private final AnkiTemplateSupport ankiSupport;
     private final AiJobExecutionService executionService;
     private final int maxImportChars;
-    private final Object ttsThrottleLock = new Object();
-    private long nextTtsRequestAtMs = 0L;
 
     public QwenJobProcessor(QwenClient qwenClient,
                               QwenProps props,
                               SecretVault secretVault,
                               AiProviderCredentialRepository credentialRepository,
                               MediaApiClient mediaApiClient,
+                              AiMediaCache mediaCache,
                               AiImportContentService importContentService,
                               AudioChunkingService audioChunkingService,
+                              ParallelTranscriptionExecutor transcriptionExecutor,
+                              ParallelGenerationExecutor generationExecutor,
+                              ProviderRateLimiter rateLimiter,
                               CoreApiClient coreApiClient,
                               CardNoveltyService noveltyService,
                               ObjectMapper objectMapper,
@@ -129,8 +144,12 @@ public class QwenJobProcessor implements AiProviderProcessor {
         this.secretVault = secretVault;
         this.credentialRepository = credentialRepository;
         this.mediaApiClient = mediaApiClient;
+        this.mediaCache = mediaCache;
         this.importContentService = importContentService;
         this.audioChunkingService = audioChunkingService;
+        this.transcriptionExecutor = transcriptionExecutor;
+        this.generationExecutor = generationExecutor;
+        this.rateLimiter = rateLimiter;
         this.coreApiClient = coreApiClient;
         this.noveltyService = noveltyService;
         this.objectMapper = objectMapper;
@@ -336,96 +355,16 @@ public class QwenJobProcessor implements AiProviderProcessor {
                                                              ObjectNode baseParams,
                                                              int totalCount,
                                                              int batchSize) {
+        List<ObjectNode> batchParams = new ArrayList<>();
         int remaining = totalCount;
-        int totalCreated = 0;
-        int totalImages = 0;
-        int totalTts = 0;
-        int totalTtsChars = 0;
-        String ttsError = null;
-        Integer tokensIn = null;
-        Integer tokensOut = null;
-        BigDecimal cost = BigDecimal.ZERO;
-        String model = null;
-        String templateId = null;
-        JsonNode fieldsNode = null;
-        ArrayNode itemResults = objectMapper.createArrayNode();
-        boolean hasPartialFailures = false;
-
         while (remaining > 0) {
             int count = Math.min(batchSize, remaining);
-            ObjectNode batchParams = baseParams.deepCopy();
-            batchParams.put("count", count);
-            AiJobProcessingResult batchResult = handleGenerateCards(job, apiKey, batchParams);
-            model = batchResult.model();
-            if (batchResult.tokensIn() != null) {
-                tokensIn = (tokensIn == null ? 0 : tokensIn) + batchResult.tokensIn();
-            }
-            if (batchResult.tokensOut() != null) {
-                tokensOut = (tokensOut == null ? 0 : tokensOut) + batchResult.tokensOut();
-            }
-            if (batchResult.costEstimate() != null) {
-                cost = cost.add(batchResult.costEstimate());
-            }
-            JsonNode summary = batchResult.resultSummary();
-            if (summary != null && summary.isObject()) {
-                if (templateId == null && summary.hasNonNull("templateId")) {
-                    templateId = summary.get("templateId").asText();
-                }
-                if (fieldsNode == null && summary.has("fields")) {
-                    fieldsNode = summary.get("fields");
-                }
-                totalCreated += summary.path("createdCards").asInt(0);
-                totalImages += summary.path("imagesGenerated").asInt(0);
-                totalTts += summary.path("ttsGenerated").asInt(0);
-                totalTtsChars += summary.path("ttsCharsGenerated").asInt(0);
-                if (ttsError == null && summary.hasNonNull("ttsError")) {
-                    ttsError = summary.get("ttsError").asText();
-                }
-                if (summary.has("items") && summary.get("items").isArray()) {
-                    summary.get("items").forEach(itemResults::add);
-                }
-            }
-            hasPartialFailures = hasPartialFailures || batchResult.finalStatus() == AiJobStatus.partial_success;
+            ObjectNode params = baseParams.deepCopy();
+            params.put("count", count);
+            batchParams.add(params);
             remaining -= count;
         }
-
-        ObjectNode summary = objectMapper.createObjectNode();
-        summary.put("mode", MODE_GENERATE_CARDS);
-        summary.put("deckId", job.getDeckId().toString());
-        if (templateId != null) {
-            summary.put("templateId", templateId);
-        }
-        summary.put("requestedCards", totalCount);
-        summary.put("createdCards", totalCreated);
-        if (totalImages > 0) {
-            summary.put("imagesGenerated", totalImages);
-        }
-        if (totalTts > 0) {
-            summary.put("ttsGenerated", totalTts);
-        }
-        if (totalTtsChars > 0) {
-            summary.put("ttsCharsGenerated", totalTtsChars);
-        }
-        if (ttsError != null) {
-            summary.put("ttsError", ttsError);
-        }
-        if (fieldsNode != null) {
-            summary.set("fields", fieldsNode);
-        }
-        if (!itemResults.isEmpty()) {
-            summary.set("items", itemResults);
-        }
-
-        return new AiJobProcessingResult(
-                summary,
-                PROVIDER,
-                model,
-                tokensIn,
-                tokensOut,
-                cost,
-                job.getInputHash(),
-                resolveFinalStatus(hasPartialFailures || ttsError != null)
-        );
+        return generateBatchesAndApply(job, apiKey, baseParams, batchParams, totalCount);
     }
 
     private AiJobProcessingResult handleGenerateCardsBatchedForItems(AiJobEntity job,
@@ -435,100 +374,77 @@ public class QwenJobProcessor implements AiProviderProcessor {
                                                                      int batchSize,
                                                                      JsonNode params,
                                                                      boolean truncated) {
+        List<ObjectNode> batchParams = new ArrayList<>();
         int remaining = items.size();
-        int totalCreated = 0;
-        int totalImages = 0;
-        int totalTts = 0;
-        int totalTtsChars = 0;
-        String ttsError = null;
-        Integer tokensIn = null;
-        Integer tokensOut = null;
-        BigDecimal cost = BigDecimal.ZERO;
-        String model = null;
-        String templateId = null;
-        JsonNode fieldsNode = null;
         int offset = 0;
-        ArrayNode itemResults = objectMapper.createArrayNode();
-        boolean hasPartialFailures = false;
-
         while (remaining > 0) {
             int count = Math.min(batchSize, remaining);
             List<String> batchItems = items.subList(offset, offset + count);
-            ObjectNode batchParams = baseParams.deepCopy();
-            batchParams.put("count", count);
-            batchParams.put("input", buildImportGenerateItemsPrompt(batchItems, params, truncated));
-            AiJobProcessingResult batchResult = handleGenerateCards(job, apiKey, batchParams);
-            model = batchResult.model();
-            if (batchResult.tokensIn() != null) {
-                tokensIn = (tokensIn == null ? 0 : tokensIn) + batchResult.tokensIn();
-            }
-            if (batchResult.tokensOut() != null) {
-                tokensOut = (tokensOut == null ? 0 : tokensOut) + batchResult.tokensOut();
-            }
-            if (batchResult.costEstimate() != null) {
-                cost = cost.add(batchResult.costEstimate());
-            }
-            JsonNode summary = batchResult.resultSummary();
-            if (summary != null && summary.isObject()) {
-                if (templateId == null && summary.hasNonNull("templateId")) {
-                    templateId = summary.get("templateId").asText();
-                }
-                if (fieldsNode == null && summary.has("fields")) {
-                    fieldsNode = summary.get("fields");
-                }
-                totalCreated += summary.path("createdCards").asInt(0);
-                totalImages += summary.path("imagesGenerated").asInt(0);
-                totalTts += summary.path("ttsGenerated").asInt(0);
-                totalTtsChars += summary.path("ttsCharsGenerated").asInt(0);
-                if (ttsError == null && summary.hasNonNull("ttsError")) {
-                    ttsError = summary.get("ttsError").asText();
-                }
-                if (summary.has("items") && summary.get("items").isArray()) {
-                    summary.get("items").forEach(itemResults::add);
-                }
-            }
-            hasPartialFailures = hasPartialFailures || batchResult.finalStatus() == AiJobStatus.partial_success;
+            ObjectNode batch = baseParams.deepCopy();
+            batch.put("count", count);
+            batch.put("input", buildImportGenerateItemsPrompt(batchItems, params, truncated));
+            batchParams.add(batch);
             remaining -= count;
             offset += count;
         }
-
-        ObjectNode summary = objectMapper.createObjectNode();
-        summary.put("mode", MODE_GENERATE_CARDS);
-        summary.put("deckId", job.getDeckId().toString());
-        if (templateId != null) {
-            summary.put("templateId", templateId);
-        }
-        summary.put("requestedCards", items.size());
-        summary.put("createdCards", totalCreated);
-        if (totalImages > 0) {
-            summary.put("imagesGenerated", totalImages);
-        }
-        if (totalTts > 0) {
-            summary.put("ttsGenerated", totalTts);
-        }
-        if (totalTtsChars > 0) {
-            summary.put("ttsCharsGenerated", totalTtsChars);
-        }
-        if (ttsError != null) {
-            summary.put("ttsError", ttsError);
-        }
-        if (fieldsNode != null) {
-            summary.set("fields", fieldsNode);
-        }
-        if (!itemResults.isEmpty()) {
-            summary.set("items", itemResults);
+        return generateBatchesAndApply(job, apiKey, baseParams, batchParams, items.size());
+    }
+
+    // Only generation and novelty filtering run concurrently; the shared index keeps batches from
+    // accepting the same card. The cards go to core in a single addCards call afterwards, so the
+    // job's operation id maps to one deck version write
+    private AiJobProcessingResult generateBatchesAndApply(AiJobEntity job,
+                                                          String apiKey,
+                                                          ObjectNode baseParams,
+                                                          List<ObjectNode> batchParams,
+                                                          int requestedCards) {
+        GenerateContext context = prepareGenerateContext(job, baseParams);
+        CardNoveltyService.NoveltyIndex noveltyIndex = noveltyService.buildIndex(job.getDeckId(), job.getUserAccessToken(), context.allowedFields());
+        AtomicInteger completed = new AtomicInteger();
+        List<Callable<GeneratedCards>> batches = new ArrayList<>();
+        for (ObjectNode params : batchParams) {
+            int count = resolveCount(params);
+            batches.add(() -> {
+                GeneratedCards batch = generateUniqueCards(job, apiKey, params, context, noveltyIndex, count, false);
+                executionService.updateStepProgress(
+                        job.getJobId(),
+                        STEP_GENERATE_CONTENT,
+                        completed.addAndGet(count) / (double) Math.max(1, requestedCards)
+                );
+                return batch;
+            });
         }
+        GeneratedCards generated = runStep(job, STEP_GENERATE_CONTENT,
+                () -> mergeGeneratedCards(generationExecutor.runAll(PROVIDER, batches)));
+        return applyGeneratedCards(job, apiKey, baseParams, context, generated, requestedCards);
+    }
 
-        return new AiJobProcessingResult(
-                summary,
-                PROVIDER,
-                model,
-                tokensIn,
-                tokensOut,
-                cost,
-                job.getInputHash(),
-                resolveFinalStatus(hasPartialFailures || ttsError != null)
-        );
+    private GeneratedCards mergeGeneratedCards(List<GeneratedCards> batches) {
+        List<CardDraft> drafts = new ArrayList<>();
+        int droppedEmpty = 0;
+        int droppedExact = 0;
+        int droppedPrimary = 0;
+        int droppedSemantic = 0;
+        String model = null;
+        Integer tokensIn = null;
+        Integer tokensOut = null;
+        for (GeneratedCards batch : batches) {
+            drafts.addAll(batch.drafts());
+            droppedEmpty += batch.droppedEmpty();
+            droppedExact += batch.droppedExact();
+            droppedPrimary += batch.droppedPrimary();
+            droppedSemantic += batch.droppedSemantic();
+            if (batch.model() != null) {
+                model = batch.model();
+            }
+            if (batch.inputTokens() != null) {
+                tokensIn = (tokensIn == null ? 0 : tokensIn) + batch.inputTokens();
+            }
+            if (batch.outputTokens() != null) {
+                tokensOut = (tokensOut == null ? 0 : tokensOut) + batch.outputTokens();
+            }
+        }
+        return new GeneratedCards(List.copyOf(drafts), droppedEmpty, droppedExact, droppedPrimary, droppedSemantic, model, tokensIn, tokensOut);
     }
 
     private String buildImportPreviewPrompt(AiImportContentService.ImportTextPayload payload, JsonNode params) {
@@ -597,7 +513,21 @@ public class QwenJobProcessor implements AiProviderProcessor {
         String encoding = textOrNull(params.path("encoding"));
         String language = textOrNull(params.path("language"));
         String accessToken = job.getUserAccessToken();
-        AiImportContentService.ImportSourcePayload source = importContentService.loadSource(sourceMediaId, accessToken);
+        // The transcript depends on the STT language, which can override the general language hint
+        String sttLanguage = resolveSttLanguage(params, language);
+        AiImportContentService.ImportExtractionKey cacheKey = new AiImportContentService.ImportExtractionKey(
+                sourceMediaId,
+                language,
+                encoding,
+                "vision:qwen:" + textOrDefault(params.path("vision").path("model"), props.defaultVisionModel()),
+                "stt:qwen:" + resolveSttModel(params) + ":" + (sttLanguage == null ? "auto" : sttLanguage)
+        );
+        MediaResolved resolved = importContentService.resolveSource(sourceMediaId, accessToken);
+        Optional<AiImportContentService.ImportTextPayload> cached = importContentService.findCachedText(cacheKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        AiImportContentService.ImportSourcePayload source = importContentService.loadSource(resolved);
         String mimeType = source.mimeType();
         if (mimeType == null) {
             throw new IllegalStateException("Source media type is missing");
@@ -605,6 +535,17 @@ public class QwenJobProcessor implements AiProviderProcessor {
         if (source.truncated() && !mimeType.startsWith("text/")) {
             throw new IllegalStateException("Source file is too large to process. Please upload a smaller file.");
         }
+        AiImportContentService.ImportTextPayload payload = extractImportPayload(apiKey, source, params, encoding, language);
+        importContentService.cacheText(cacheKey, mimeType, payload);
+        return payload;
+    }
+
+    private AiImportContentService.ImportTextPayload extractImportPayload(String apiKey,
+                                                                          AiImportContentService.ImportSourcePayload source,
+                                                                          JsonNode params,
+                                                                          String encoding,
+                                                                          String language) {
+        String mimeType = source.mimeType();
         if (mimeType.startsWith("text/")
                 || "application/pdf".equals(mimeType)
                 || "application/vnd.openxmlformats-officedocument.wordprocessingml.document".equals(mimeType)) {
@@ -669,44 +610,35 @@ public class QwenJobProcessor implements AiProviderProcessor {
                                                                             AiImportContentService.ImportSourcePayload source,
                                                                             JsonNode params,
                                                                             String language) {
-        AudioChunkingService.AudioChunkingResult chunking = audioChunkingService.prepareChunks(source.bytes(), source.mimeType());
         String model = resolveSttModel(params);
         String sttLanguage = resolveSttLanguage(params, language);
-        StringBuilder transcript = new StringBuilder();
-        boolean truncated = false;
-        int index = 0;
-        for (AudioChunkingService.AudioChunk chunk : chunking.chunks()) {
-            ArrayNode messages = buildAudioMessages(sttLanguage, chunk.bytes(), chunk.mimeType());
-            QwenChatResult response = qwenClient.createChatCompletionWithMessages(
-                    apiKey,
-                    model,
-                    messages,
-                    null,
-                    null
-            );
-            String chunkText = response.outputText();
-            if (!chunkText.isBlank()) {
-                if (!transcript.isEmpty()) {
-                    transcript.append("\n");
-                }
-                transcript.append(chunkText.trim());
-            }
-            if (transcript.length() > maxImportChars) {
-                transcript.setLength(maxImportChars);
-                truncated = true;
-                break;
-            }
-            index += 1;
+        AudioChunkingService.AudioChunkingResult chunking;
+        ParallelTranscriptionExecutor.Transcript transcript;
+        try (InputStream audio = importContentService.openStream(source);
+             ParallelTranscriptionExecutor.Session session = transcriptionExecutor.open("qwen", maxImportChars)) {
+            chunking = audioChunkingService.streamChunks(audio, source.mimeType(), (index, chunk) -> {
+                ArrayNode messages = buildAudioMessages(sttLanguage, chunk.bytes(), chunk.mimeType());
+                return session.submitOnce(() -> qwenClient.createChatCompletionWithMessages(
+                        apiKey,
+                        model,
+                        messages,
+                        null,
+                        null
+                ).outputText());
+            });
+            transcript = session.finish();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to process audio", ex);
         }
-        if (transcript.isEmpty()) {
+        if (transcript.text().isEmpty()) {
             throw new IllegalStateException("Audio transcription is empty");
         }
         return new AiImportContentService.ImportTextPayload(
-                transcript.toString(),
+                transcript.text(),
                 source.mimeType(),
                 source.sizeBytes(),
-                truncated,
-                transcript.length(),
+                transcript.truncated(),
+                transcript.text().length(),
                 null,
                 MAX_IMPORT_CARDS,
                 "stt",
@@ -1569,17 +1501,36 @@ public class QwenJobProcessor implements AiProviderProcessor {
     }
 
     private AiJobProcessingResult handleGenerateCards(AiJobEntity job, String apiKey, JsonNode params) {
+        GenerateContext context = prepareGenerateContext(job, params);
+        CardNoveltyService.NoveltyIndex noveltyIndex = noveltyService.buildIndex(job.getDeckId(), job.getUserAccessToken(), context.allowedFields());
+        GeneratedCards generated = generateUniqueCards(job, apiKey, params, context, noveltyIndex, context.count(), true);
+        return applyGeneratedCards(job, apiKey, params, context, generated, context.count());
+    }
+
+    private record GenerateContext(CorePublicDeckResponse publicDeck,
+                                   CoreTemplateResponse template,
+                                   String updateScope,
+                                   int count,
+                                   List<String> allowedFields,
+                                   Map<String, String> fieldTypes) {
+    }
+
+    private record GeneratedCards(List<CardDraft> drafts,
+                                  int droppedEmpty,
+                                  int droppedExact,
+                                  int droppedPrimary,
+                                  int droppedSemantic,
+                                  String model,
+                                  Integer inputTokens,
+                                  Integer outputTokens) {
+    }
+
+    private GenerateContext prepareGenerateContext(AiJobEntity job, JsonNode params) {
         if (job.getDeckId() == null) {
             throw new IllegalStateException("Deck id is required for card generation");
         }
         String accessToken = job.getUserAccessToken();
-        record GenerateContext(CorePublicDeckResponse publicDeck,
-                               CoreTemplateResponse template,
-                               String updateScope,
-                               int count,
-                               List<String> allowedFields,
-                               Map<String, String> fieldTypes) {}
-        GenerateContext context = runStep(job, STEP_PREPARE_CONTEXT, () -> {
+        return runStep(job, STEP_PREPARE_CONTEXT, () -> {
             CoreUserDeckResponse deck = coreApiClient.getUserDeck(job.getDeckId(), accessToken);
             if (deck.publicDeckId() == null) {
                 throw new IllegalStateException("Deck template not found");
@@ -1599,14 +1550,25 @@ public class QwenJobProcessor implements AiProviderProcessor {
             Map<String, String> fieldTypes = resolveFieldTypes(template);
             return new GenerateContext(publicDeck, template, updateScope, count, allowedFields, fieldTypes);
         });
+    }
 
+    /**
+     * Requests candidates until {@code count} of them pass the novelty gate. Concurrent batches pass
+     * {@code trackSteps = false}: their caller reports one generate_content step for all of them.
+     */
+    private GeneratedCards generateUniqueCards(AiJobEntity job,
+                                               String apiKey,
+                                               JsonNode params,
+                                               GenerateContext context,
+                                               CardNoveltyService.NoveltyIndex noveltyIndex,
+                                               int count,
+                                               boolean trackSteps) {
         String userPrompt = extractTextParam(params, "input", "prompt", "text");
         String model = textOrDefault(params.path("model"), props.defaultModel());
         Integer maxOutputTokens = params.path("maxOutputTokens").isInt()
                 ? params.path("maxOutputTokens").asInt()
                 : null;
 
-        CardNoveltyService.NoveltyIndex noveltyIndex = noveltyService.buildIndex(job.getDeckId(), accessToken, context.allowedFields());
         List<CardDraft> uniqueDrafts = new ArrayList<>();
         int droppedEmpty = 0;
         int droppedExact = 0;
@@ -1614,8 +1576,8 @@ public class QwenJobProcessor implements AiProviderProcessor {
         int droppedSemantic = 0;
         QwenChatResult response = null;
 
-        for (int attempt = 0; attempt < GENERATE_MAX_ATTEMPTS && uniqueDrafts.size() < context.count(); attempt++) {
-            int remaining = context.count() - uniqueDrafts.size();
+        for (int attempt = 0; attempt < GENERATE_MAX_ATTEMPTS && uniqueDrafts.size() < count; attempt++) {
+            int remaining = count - uniqueDrafts.size();
             int candidateCount = resolveCandidateCount(remaining, attempt);
             String prompt = buildCardsPrompt(
                     augmentGeneratePrompt(userPrompt, noveltyIndex, attempt),
@@ -1628,7 +1590,7 @@ public class QwenJobProcessor implements AiProviderProcessor {
             );
             JsonNode responseFormat = buildCardsSchema(context.allowedFields(), candidateCount);
 
-            response = runStep(job, STEP_GENERATE_CONTENT, () -> qwenClient.createChatCompletion(
+            response = runStep(trackSteps ? job : null, STEP_GENERATE_CONTENT, () -> qwenClient.createChatCompletion(
                     apiKey,
                     new QwenChatRequest(model, prompt, maxOutputTokens, responseFormat)
             ));
@@ -1649,10 +1611,10 @@ public class QwenJobProcessor implements AiProviderProcessor {
             droppedSemantic += filtered.droppedSemantic();
         }
 
-        if (uniqueDrafts.size() < context.count()) {
+        if (uniqueDrafts.size() < count) {
             throw new IllegalStateException(CardNoveltyService.insufficientUniqueCardsMessage(
                     uniqueDrafts.size(),
-                    context.count(),
+                    count,
                     droppedEmpty,
                     droppedExact,
                     droppedPrimary,
@@ -1660,9 +1622,26 @@ public class QwenJobProcessor implements AiProviderProcessor {
             ));
         }
 
-        List<CardDraft> limitedDrafts = uniqueDrafts.stream()
-                .limit(context.count())
-                .toList();
+        return new GeneratedCards(
+                uniqueDrafts.stream().limit(count).toList(),
+                droppedEmpty,
+                droppedExact,
+                droppedPrimary,
+                droppedSemantic,
+                response.model(),
+                response.inputTokens(),
+                response.outputTokens()
+        );
+    }
+
+    private AiJobProcessingResult applyGeneratedCards(AiJobEntity job,
+                                                      String apiKey,
+                                                      JsonNode params,
+                                                      GenerateContext context,
+                                                      GeneratedCards generated,
+                                                      int requestedCards) {
+        String accessToken = job.getUserAccessToken();
+        List<CardDraft> limitedDrafts = generated.drafts();
         ImageConfig imageConfig = resolveImageConfig(params, true);
         VideoConfig videoConfig = resolveVideoConfig(params, true);
         MediaApplyResult mediaResult = runStep(job, STEP_GENERATE_MEDIA, () -> prepareDraftMedia(job, apiKey, context.template(), limitedDrafts, context.fieldTypes(), imageConfig, videoConfig));
@@ -1684,13 +1663,13 @@ public class QwenJobProcessor implements AiProviderProcessor {
         summary.put("mode", MODE_GENERATE_CARDS);
         summary.put("deckId", job.getDeckId().toString());
         summary.put("templateId", context.publicDeck().templateId().toString());
-        summary.put("requestedCards", context.count());
+        summary.put("requestedCards", requestedCards);
         summary.put("createdCards", limitedRequests.size());
-        summary.put("duplicatesSkippedExact", droppedExact);
-        summary.put("duplicatesSkippedPrimary", droppedPrimary);
-        summary.put("duplicatesSkippedSemantic", droppedSemantic);
-        if (droppedEmpty > 0) {
-            summary.put("candidatesSkippedEmpty", droppedEmpty);
+        summary.put("duplicatesSkippedExact", generated.droppedExact());
+        summary.put("duplicatesSkippedPrimary", generated.droppedPrimary());
+        summary.put("duplicatesSkippedSemantic", generated.droppedSemantic());
+        if (generated.droppedEmpty() > 0) {
+            summary.put("candidatesSkippedEmpty", generated.droppedEmpty());
         }
         if (ttsResult.generated() > 0) {
             summary.put("ttsGenerated", ttsResult.generated());
@@ -1716,9 +1695,9 @@ public class QwenJobProcessor implements AiProviderProcessor {
         return new AiJobProcessingResult(
                 summary,
                 PROVIDER,
-                response.model(),
-                response.inputTokens(),
-                response.outputTokens(),
+                generated.model(),
+                generated.inputTokens(),
+                generated.outputTokens(),
                 BigDecimal.ZERO,
                 job.getInputHash(),
                 resolveFinalStatus(ttsResult.error() != null)
@@ -1738,27 +1717,39 @@ public class QwenJobProcessor implements AiProviderProcessor {
             format = "wav";
         }
 
-        QwenSpeechResult audio = createSpeechWithRetry(
-                job,
-                apiKey,
-                new QwenSpeechRequest(model, text, voice, null),
-                null,
-                null
-        );
+        String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, null, text);
+        Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+        String contentType;
+        String fileName;
+        UUID mediaId;
+        if (cached.isPresent()) {
+            contentType = cached.get().contentType() == null ? resolveAudioContentType(format) : cached.get().contentType();
+            fileName = "ai-tts-" + job.getJobId() + "." + resolveAudioExtensionFromMimeType(contentType, format);
+            mediaId = cached.get().mediaId();
+        } else {
+            QwenSpeechResult audio = createSpeechWithRetry(
+                    job,
+                    apiKey,
+                    new QwenSpeechRequest(model, text, voice, null),
+                    null,
+                    null
+            );
 
-        String contentType = audio.mimeType() == null || audio.mimeType().isBlank()
-                ? resolveAudioContentType(format)
-                : audio.mimeType();
-        String extension = resolveAudioExtensionFromMimeType(contentType, format);
-        String fileName = "ai-tts-" + job.getJobId() + "." + extension;
-        UUID mediaId = mediaApiClient.directUpload(
-                job.getUserId(),
-                "card_audio",
-                contentType,
-                fileName,
-                audio.data().length,
-                new ByteArrayInputStream(audio.data())
-        );
+            contentType = audio.mimeType() == null || audio.mimeType().isBlank()
+                    ? resolveAudioContentType(format)
+                    : audio.mimeType();
+            String extension = resolveAudioExtensionFromMimeType(contentType, format);
+            fileName = "ai-tts-" + job.getJobId() + "." + extension;
+            mediaId = mediaApiClient.directUpload(
+                    job.getUserId(),
+                    "card_audio",
+                    contentType,
+                    fileName,
+                    audio.data().length,
+                    new ByteArrayInputStream(audio.data())
+            );
+            mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
+        }
 
         ObjectNode summary = objectMapper.createObjectNode();
         summary.put("mediaId", mediaId.toString());
@@ -2486,7 +2477,9 @@ public class QwenJobProcessor implements AiProviderProcessor {
                         MediaUpload upload = generateImage(job, apiKey, imageConfig, text);
                         updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                         changed = true;
-                        imagesGenerated++;
+                        if (!upload.cached()) {
+                            imagesGenerated++;
+                        }
                     } catch (Exception ex) {
                         LOGGER.warn("Qwen image generation failed jobId={} cardId={} field={} model={} promptLength={}",
                                 job.getJobId(),
@@ -2704,7 +2697,9 @@ public class QwenJobProcessor implements AiProviderProcessor {
                             MediaUpload upload = generateImage(job, apiKey, imageConfig, value.trim());
                             updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                             changed = true;
-                            imagesGenerated++;
+                            if (!upload.cached()) {
+                                imagesGenerated++;
+                            }
                         } catch (Exception ex) {
                             LOGGER.warn("Qwen image generation failed jobId={} cardId={} field={} model={} promptLength={}",
                                     job.getJobId(),
@@ -2916,7 +2911,9 @@ public class QwenJobProcessor implements AiProviderProcessor {
                     MediaUpload upload = generateImage(job, apiKey, imageConfig, text);
                     updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                     changed = true;
-                    imagesGenerated++;
+                    if (!upload.cached()) {
+                        imagesGenerated++;
+                    }
                 } catch (Exception ex) {
                     LOGGER.warn("Qwen image generation failed jobId={} content={} field={} model={} promptLength={}",
                             job.getJobId(),
@@ -3195,7 +3192,7 @@ public class QwenJobProcessor implements AiProviderProcessor {
                                String format) {
     }
 
-    private record MediaUpload(UUID mediaId, String contentType, String fileName) {
+    private record MediaUpload(UUID mediaId, String contentType, String fileName, boolean cached) {
     }
 
     private String buildCardsPrompt(String userPrompt,
@@ -3510,6 +3507,13 @@ public class QwenJobProcessor implements AiProviderProcessor {
                 if (text.length() > maxChars) {
                     continue;
                 }
+                String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, null, text);
+                Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+                if (cached.isPresent()) {
+                    updatedContent.set(mapping.targetField(), buildMediaNode(cached.get().mediaId(), "audio"));
+                    updated = true;
+                    continue;
+                }
                 QwenSpeechResult audio;
                 try {
                     audio = createSpeechWithRetry(
@@ -3543,6 +3547,7 @@ public class QwenJobProcessor implements AiProviderProcessor {
                         audio.data().length,
                         new ByteArrayInputStream(audio.data())
                 );
+                mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
                 ObjectNode audioNode = objectMapper.createObjectNode();
                 audioNode.put("mediaId", mediaId.toString());
                 audioNode.put("kind", "audio");
@@ -3634,6 +3639,13 @@ public class QwenJobProcessor implements AiProviderProcessor {
                 if (text.length() > maxChars) {
                     continue;
                 }
+                String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, null, text);
+                Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+                if (cached.isPresent()) {
+                    updatedContent.set(mapping.targetField(), buildMediaNode(cached.get().mediaId(), "audio"));
+                    updated = true;
+                    continue;
+                }
                 QwenSpeechResult audio;
                 try {
                     audio = createSpeechWithRetry(
@@ -3667,6 +3679,7 @@ public class QwenJobProcessor implements AiProviderProcessor {
                         audio.data().length,
                         new ByteArrayInputStream(audio.data())
                 );
+                mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
                 ObjectNode audioNode = objectMapper.createObjectNode();
                 audioNode.put("mediaId", mediaId.toString());
                 audioNode.put("kind", "audio");
@@ -3796,6 +3809,13 @@ public class QwenJobProcessor implements AiProviderProcessor {
             if (text == null || text.isBlank() || text.length() > maxChars) {
                 continue;
             }
+            String cacheKey = AiMediaCache.ttsKey(job.getUserId(), PROVIDER, model, voice, null, text);
+            Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+            if (cached.isPresent()) {
+                updatedContent.set(mapping.targetField(), buildMediaNode(cached.get().mediaId(), "audio"));
+                updated = true;
+                continue;
+            }
             QwenSpeechResult audio;
             try {
                 audio = createSpeechWithRetry(
@@ -3829,6 +3849,7 @@ public class QwenJobProcessor implements AiProviderProcessor {
                     audio.data().length,
                     new ByteArrayInputStream(audio.data())
             );
+            mediaCache.put(cacheKey, AiMediaCache.KIND_TTS, mediaId, contentType);
             updatedContent.set(mapping.targetField(), buildMediaNode(mediaId, "audio"));
             updated = true;
             generated++;
@@ -4162,7 +4183,9 @@ public class QwenJobProcessor implements AiProviderProcessor {
                         MediaUpload upload = generateImage(job, apiKey, imageConfig, prompt.trim());
                         updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                         changed = true;
-                        imagesGenerated++;
+                        if (!upload.cached()) {
+                            imagesGenerated++;
+                        }
                     } catch (Exception ex) {
                         LOGGER.warn("Qwen image generation failed jobId={} cardId={} field={} model={} promptLength={}",
                                 job.getJobId(),
@@ -4272,7 +4295,9 @@ public class QwenJobProcessor implements AiProviderProcessor {
                     MediaUpload upload = generateImage(job, apiKey, imageConfig, prompt.trim());
                     updatedContent.set(field, buildMediaNode(upload.mediaId(), "image"));
                     changed = true;
-                    imagesGenerated++;
+                    if (!upload.cached()) {
+                        imagesGenerated++;
+                    }
                 } catch (Exception ex) {
                     LOGGER.warn("Qwen image generation failed jobId={} draft={} field={} model={} promptLength={}",
                             job.getJobId(),
@@ -4363,6 +4388,11 @@ public class QwenJobProcessor implements AiProviderProcessor {
     }
 
     private MediaUpload generateImage(AiJobEntity job, String apiKey, ImageConfig config, String prompt) {
+        String cacheKey = AiMediaCache.imageKey(job.getUserId(), PROVIDER, config.model(), String.join("|", config.size(), config.quality(), config.style(), config.format()), prompt);
+        Optional<AiMediaCache.CachedMedia> cached = mediaCache.find(cacheKey);
+        if (cached.isPresent()) {
+            return new MediaUpload(cached.get().mediaId(), cached.get().contentType(), null, true);
+        }
         String size = resolveQwenSize(config.size());
         QwenImageResult result = qwenClient.createImage(
                 apiKey,
@@ -4379,7 +4409,8 @@ public class QwenJobProcessor implements AiProviderProcessor {
                 result.data().length,
                 new ByteArrayInputStream(result.data())
         );
-        return new MediaUpload(mediaId, contentType, fileName);
+        mediaCache.put(cacheKey, AiMediaCache.KIND_IMAGE, mediaId, contentType);
+        return new MediaUpload(mediaId, contentType, fileName, false);
     }
 
     private ObjectNode loadLatestContent(UUID jobId,
@@ -4424,7 +4455,7 @@ public class QwenJobProcessor implements AiProviderProcessor {
                 data.length,
                 new ByteArrayInputStream(data)
         );
-        return new MediaUpload(mediaId, contentType, fileName);
+        return new MediaUpload(mediaId, contentType, fileName, false);
     }
 
     private QwenVideoJob waitForVideoCompletion(String apiKey, QwenVideoJob job) {
@@ -4546,9 +4577,14 @@ public class QwenJobProcessor implements AiProviderProcessor {
         long maxDelayMs = resolveTtsRetryMaxDelayMs();
         int attempts = 0;
         while (true) {
-            throttleTtsRequests();
             try {
-                return qwenClient.createSpeech(apiKey, request);
+                return rateLimiter.call(
+                        PROVIDER,
+                        apiKey,
+                        ProviderRateLimiter.TTS,
+                        resolveTtsRequestsPerMinute(),
+                        () -> qwenClient.createSpeech(apiKey, request)
+                );
             } catch (RestClientResponseException ex) {
                 if (!isRetryableStatus(ex.getRawStatusCode())) {
                     throw ex;
@@ -4577,27 +4613,6 @@ public class QwenJobProcessor implements AiProviderProcessor {
         }
     }
 
-    private void throttleTtsRequests() {
-        int rpm = resolveTtsRequestsPerMinute();
-        if (rpm <= 0) {
-            return;
-        }
-        long intervalMs = (long) Math.ceil(60000.0 / rpm);
-        long sleepMs = 0L;
-        long now = System.currentTimeMillis();
-        synchronized (ttsThrottleLock) {
-            if (nextTtsRequestAtMs > now) {
-                sleepMs = nextTtsRequestAtMs - now;
-                nextTtsRequestAtMs += intervalMs;
-            } else {
-                nextTtsRequestAtMs = now + intervalMs;
-            }
-        }
-        if (sleepMs > 0 && !sleepQuietly(sleepMs)) {
-            throw new IllegalStateException("Qwen TTS throttling interrupted");
-        }
-    }
-
     private int resolveTtsRequestsPerMinute() {
         Integer rpm = props.ttsRequestsPerMinute();
         if (rpm == null) {
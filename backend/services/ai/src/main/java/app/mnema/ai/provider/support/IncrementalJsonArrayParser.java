@@ -0,0 +1,135 @@
+package app.mnema.ai.provider.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.function.Consumer;
+
+/**
+ * Extracts the objects of one JSON array from text that arrives in chunks, such as a streamed
+ * LLM response. The array is either the top-level value or the value of {@code arrayField} in the
+ * top-level object; every object element is handed to the listener as soon as its closing brace
+ * arrives. Text outside the JSON value (markdown fences, prose) is ignored, and an element that
+ * fails to parse is skipped so the caller can still fall back to parsing the full response.
+ *
+ * <p>Instances are single-use and not thread-safe.
+ */
+public final class IncrementalJsonArrayParser {
+
+    private final ObjectMapper objectMapper;
+    private final String arrayField;
+    private final Consumer<JsonNode> listener;
+    private final StringBuilder element = new StringBuilder();
+    private final StringBuilder key = new StringBuilder();
+
+    private int depth;
+    private int arrayDepth = -1;
+    private boolean inString;
+    private boolean escaped;
+    private boolean capturing;
+    private boolean readingKey;
+    private String lastString;
+    private String pendingKey;
+    private int emitted;
+    private boolean finished;
+
+    public IncrementalJsonArrayParser(ObjectMapper objectMapper, String arrayField, Consumer<JsonNode> listener) {
+        this.objectMapper = objectMapper;
+        this.arrayField = arrayField;
+        this.listener = listener;
+    }
+
+    public void feed(CharSequence chunk) {
+        if (chunk == null || finished) {
+            return;
+        }
+        for (int i = 0; i < chunk.length() && !finished; i++) {
+            accept(chunk.charAt(i));
+        }
+    }
+
+    /** Number of elements handed to the listener so far. */
+    public int emitted() {
+        return emitted;
+    }
+
+    private void accept(char ch) {
+        if (capturing) {
+            element.append(ch);
+        }
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (ch == '\\') {
+                escaped = true;
+            } else if (ch == '"') {
+                inString = false;
+                if (readingKey) {
+                    lastString = key.toString();
+                    readingKey = false;
+                }
+            } else if (readingKey) {
+                key.append(ch);
+            }
+            return;
+        }
+        switch (ch) {
+            case '"' -> {
+                inString = true;
+                // Only strings directly inside the top-level object can name the target array.
+                readingKey = depth == 1 && arrayDepth < 0;
+                key.setLength(0);
+            }
+            case ':' -> {
+                if (depth == 1 && arrayDepth < 0) {
+                    pendingKey = lastString;
+                }
+            }
+            case ',' -> pendingKey = depth == 1 ? null : pendingKey;
+            case '{' -> {
+                depth++;
+                if (arrayDepth > 0 && depth == arrayDepth + 1 && !capturing) {
+                    capturing = true;
+                    element.setLength(0);
+                    element.append(ch);
+                }
+            }
+            case '[' -> {
+                depth++;
+                if (arrayDepth < 0 && (depth == 1 || (depth == 2 && arrayField != null && arrayField.equals(pendingKey)))) {
+                    arrayDepth = depth;
+                }
+            }
+            case '}', ']' -> {
+                if (depth == 0) {
+                    return;
+                }
+                depth--;
+                if (capturing && ch == '}' && depth == arrayDepth) {
+                    capturing = false;
+                    emit();
+                } else if (ch == ']' && arrayDepth > 0 && depth == arrayDepth - 1) {
+                    finished = true;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void emit() {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(element.toString());
+        } catch (JsonProcessingException ex) {
+            return;
+        } finally {
+            element.setLength(0);
+        }
+        if (node != null && node.isObject()) {
+            emitted++;
+            listener.accept(node);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package app.mnema.ai.provider.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the generation batches of one job concurrently. Each batch is a blocking LLM round trip,
+ * so a job keeps up to {@code batch-parallelism} batches in flight, bounded by a per-provider
+ * limit shared by all jobs. Results come back in batch order; the first failed batch cancels
+ * the rest and its exception is rethrown to the caller.
+ */
+@Component
+public class ParallelGenerationExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelGenerationExecutor.class);
+    private static final long PERMIT_POLL_MS = 100L;
+
+    private final int jobParallelism;
+    private final int defaultProviderParallelism;
+    private final Map<String, Integer> providerOverrides;
+    private final Map<String, Semaphore> providerPermits = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public ParallelGenerationExecutor(@Value("${app.ai.generation.batch-parallelism:4}") int jobParallelism,
+                                      @Value("${app.ai.generation.provider-parallelism:8}") int defaultProviderParallelism,
+                                      @Value("${app.ai.generation.provider-parallelism-overrides:}") String providerOverrides) {
+        this.jobParallelism = Math.max(jobParallelism, 1);
+        this.defaultProviderParallelism = Math.max(defaultProviderParallelism, 1);
+        this.providerOverrides = parseOverrides(providerOverrides);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ai-generation-batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executes the batches and returns their results in submission order. A single batch runs
+     * on the calling thread.
+     */
+    public <T> List<T> runAll(String provider, List<? extends Callable<T>> batches) {
+        if (batches == null || batches.isEmpty()) {
+            return List.of();
+        }
+        if (batches.size() == 1 || jobParallelism == 1) {
+            List<T> results = new ArrayList<>(batches.size());
+            for (Callable<T> batch : batches) {
+                results.add(callInline(batch));
+            }
+            return results;
+        }
+        Semaphore jobPermits = new Semaphore(jobParallelism);
+        Semaphore sharedPermits = providerPermits.computeIfAbsent(
+                normalizeProvider(provider),
+                name -> new Semaphore(providerOverrides.getOrDefault(name, defaultProviderParallelism))
+        );
+        List<Future<T>> futures = new ArrayList<>(batches.size());
+        boolean finished = false;
+        try {
+            for (Callable<T> batch : batches) {
+                acquire(jobPermits, futures);
+                try {
+                    acquire(sharedPermits, futures);
+                } catch (RuntimeException ex) {
+                    jobPermits.release();
+                    throw ex;
+                }
+                FutureTask<T> task = new FutureTask<>(batch) {
+                    @Override
+                    protected void done() {
+                        sharedPermits.release();
+                        jobPermits.release();
+                    }
+                };
+                futures.add(task);
+                executor.execute(task);
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(await(future));
+            }
+            finished = true;
+            return results;
+        } finally {
+            if (!finished) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> void acquire(Semaphore permits, List<Future<T>> inFlight) {
+        try {
+            while (!permits.tryAcquire(PERMIT_POLL_MS, TimeUnit.MILLISECONDS)) {
+                rethrowFirstFailure(inFlight);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generation batches interrupted", ex);
+        }
+        try {
+            rethrowFirstFailure(inFlight);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private <T> void rethrowFirstFailure(List<Future<T>> inFlight) {
+        for (Future<T> future : inFlight) {
+            if (future.state() == Future.State.FAILED) {
+                throw unwrap(future.exceptionNow());
+            }
+        }
+    }
+
+    private static <T> T callInline(Callable<T> batch) {
+        try {
+            return batch.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generation batches interrupted", ex);
+        } catch (CancellationException ex) {
+            throw new IllegalStateException("Generation batch cancelled", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        if (failure instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(failure == null ? "Generation batch failed" : failure.getMessage(), failure);
+    }
+
+    private static String normalizeProvider(String provider) {
+        return provider == null || provider.isBlank() ? "default" : provider.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Integer> parseOverrides(String raw) {
+        Map<String, Integer> overrides = new HashMap<>();
+        if (raw == null || raw.isBlank()) {
+            return overrides;
+        }
+        for (String entry : raw.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                int value = Integer.parseInt(entry.substring(separator + 1).trim());
+                if (value > 0) {
+                    overrides.put(normalizeProvider(entry.substring(0, separator)), value);
+                }
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring invalid generation parallelism override: {}", entry.trim());
+            }
+        }
+        return overrides;
+    }
+}
@@ -0,0 +1,236 @@
+package app.mnema.ai.provider.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs audio chunk transcriptions concurrently. Requests are latency-bound, so chunks of one
+ * job are sent in parallel up to a per-provider limit shared by all jobs, retried one by one
+ * through {@link ProviderRetrySupport} unless the client already retries on its own, and
+ * reassembled in chunk order.
+ */
+@Component
+public class ParallelTranscriptionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelTranscriptionExecutor.class);
+    private static final long PERMIT_POLL_MS = 100L;
+
+    private final int defaultParallelism;
+    private final Map<String, Integer> parallelismOverrides;
+    private final int maxRetries;
+    private final long retryInitialDelayMs;
+    private final long retryMaxDelayMs;
+    private final Map<String, Semaphore> providerPermits = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public ParallelTranscriptionExecutor(@Value("${app.ai.import.transcription-parallelism:4}") int defaultParallelism,
+                                         @Value("${app.ai.import.transcription-parallelism-overrides:}") String parallelismOverrides,
+                                         @Value("${app.ai.import.transcription-max-retries:2}") int maxRetries,
+                                         @Value("${app.ai.import.transcription-retry-initial-delay-ms:2000}") long retryInitialDelayMs,
+                                         @Value("${app.ai.import.transcription-retry-max-delay-ms:30000}") long retryMaxDelayMs) {
+        this.defaultParallelism = Math.max(defaultParallelism, 1);
+        this.parallelismOverrides = parseOverrides(parallelismOverrides);
+        this.maxRetries = Math.max(maxRetries, 0);
+        this.retryInitialDelayMs = Math.max(retryInitialDelayMs, 1L);
+        this.retryMaxDelayMs = Math.max(retryMaxDelayMs, this.retryInitialDelayMs);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "audio-transcription-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a transcription session for one audio source. The transcript is capped at
+     * {@code maxChars}; once the in-order prefix reaches it, further chunks are rejected.
+     */
+    public Session open(String provider, int maxChars) {
+        String key = normalizeProvider(provider);
+        Semaphore permits = providerPermits.computeIfAbsent(
+                key,
+                name -> new Semaphore(parallelismOverrides.getOrDefault(name, defaultParallelism))
+        );
+        return new Session(key, permits, Math.max(maxChars, 1));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String normalizeProvider(String provider) {
+        return provider == null || provider.isBlank() ? "default" : provider.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Integer> parseOverrides(String raw) {
+        Map<String, Integer> overrides = new HashMap<>();
+        if (raw == null || raw.isBlank()) {
+            return overrides;
+        }
+        for (String entry : raw.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                int value = Integer.parseInt(entry.substring(separator + 1).trim());
+                if (value > 0) {
+                    overrides.put(normalizeProvider(entry.substring(0, separator)), value);
+                }
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring invalid transcription parallelism override: {}", entry.trim());
+            }
+        }
+        return overrides;
+    }
+
+    public final class Session implements AutoCloseable {
+        private final String provider;
+        private final Semaphore permits;
+        private final int maxChars;
+        private final List<Future<String>> chunks = new ArrayList<>();
+        private final StringBuilder transcript = new StringBuilder();
+        private int assembled;
+        private boolean truncated;
+
+        private Session(String provider, Semaphore permits, int maxChars) {
+            this.provider = provider;
+            this.permits = permits;
+            this.maxChars = maxChars;
+        }
+
+        /**
+         * Queues the next chunk, blocking while the provider is at its concurrency limit. Failed
+         * attempts are retried with the executor's transcription retry settings.
+         *
+         * @return {@code false} once the transcript is already full and the caller should stop
+         */
+        public boolean submit(ProviderRetrySupport.RetriableSupplier<String> transcription) {
+            return enqueue(transcription, maxRetries);
+        }
+
+        /**
+         * Same as {@link #submit} for clients whose call already goes through
+         * {@link ProviderRetrySupport}; the chunk is attempted once so retries do not nest while
+         * the provider permit is held.
+         */
+        public boolean submitOnce(ProviderRetrySupport.RetriableSupplier<String> transcription) {
+            return enqueue(transcription, 0);
+        }
+
+        private boolean enqueue(ProviderRetrySupport.RetriableSupplier<String> transcription, int retries) {
+            assemble(false);
+            try {
+                while (!permits.tryAcquire(PERMIT_POLL_MS, TimeUnit.MILLISECONDS)) {
+                    assemble(false);
+                    if (truncated) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Audio transcription interrupted", ex);
+            }
+            if (truncated) {
+                permits.release();
+                return false;
+            }
+            FutureTask<String> task = new FutureTask<>(() -> ProviderRetrySupport.executeTextRequest(
+                    provider + " transcription",
+                    log,
+                    retries,
+                    retryInitialDelayMs,
+                    retryMaxDelayMs,
+                    transcription
+            )) {
+                @Override
+                protected void done() {
+                    permits.release();
+                }
+            };
+            chunks.add(task);
+            executor.execute(task);
+            return true;
+        }
+
+        /**
+         * Waits for the outstanding chunks and returns the transcript joined in chunk order.
+         */
+        public Transcript finish() {
+            assemble(true);
+            return new Transcript(transcript.toString(), truncated);
+        }
+
+        @Override
+        public void close() {
+            for (int i = assembled; i < chunks.size(); i++) {
+                chunks.get(i).cancel(true);
+            }
+        }
+
+        private void assemble(boolean wait) {
+            while (!truncated && assembled < chunks.size()) {
+                Future<String> head = chunks.get(assembled);
+                if (!wait && !head.isDone()) {
+                    return;
+                }
+                append(await(head));
+                chunks.set(assembled, null);
+                assembled++;
+            }
+            if (truncated) {
+                close();
+            }
+        }
+
+        private void append(String text) {
+            if (text != null && !text.isBlank()) {
+                if (!transcript.isEmpty()) {
+                    transcript.append("\n");
+                }
+                transcript.append(text.trim());
+            }
+            if (transcript.length() > maxChars) {
+                transcript.setLength(maxChars);
+                truncated = true;
+            }
+        }
+
+        private String await(Future<String> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Audio transcription interrupted", ex);
+            } catch (CancellationException ex) {
+                throw new IllegalStateException("Audio transcription cancelled", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Audio transcription failed", ex.getCause());
+            }
+        }
+    }
+
+    public record Transcript(String text, boolean truncated) {
+    }
+}
@@ -0,0 +1,422 @@
+package app.mnema.ai.provider.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Cluster-wide limiter for provider calls, keyed by (provider, credential, operation). Every key
+ * is a token bucket in {@code app_ai.ai_provider_rate_limits} shared by all worker replicas; an
+ * instance leases a few tokens per round trip and hands them out locally. A 429 (or a 503 with
+ * Retry-After) pauses the key for every replica for the advertised time, so the calls queued
+ * behind it wait instead of turning into a retry storm. When the database is unavailable the
+ * limiter lets calls through and the retry loops in {@link ProviderRetrySupport} take over.
+ */
+@Component
+public class ProviderRateLimiter {
+
+    public static final String TEXT = "text";
+    public static final String IMAGE = "image";
+    public static final String TTS = "tts";
+    public static final String TRANSCRIPTION = "stt";
+    public static final String VIDEO = "video";
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderRateLimiter.class);
+    private static final long DEFAULT_PAUSE_MS = 1_000L;
+    private static final long MAX_PAUSE_MS = 120_000L;
+    private static final long MAX_WAIT_SLICE_MS = 1_000L;
+    private static final long LEASE_TTL_MS = 2_000L;
+    private static final long PAUSE_SYNC_MS = 1_000L;
+    private static final int BURST_SECONDS = 5;
+
+    private final BucketStore store;
+    private final boolean enabled;
+    private final int defaultRequestsPerMinute;
+    private final Map<String, Integer> overrides;
+    private final int leaseSize;
+    private final ProviderRetrySupport.Sleeper sleeper;
+    private final LongSupplier clock;
+    private final Map<String, LocalLease> leases = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProviderRateLimiter(JdbcTemplate jdbcTemplate,
+                               @Value("${app.ai.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${app.ai.rate-limit.requests-per-minute:0}") int defaultRequestsPerMinute,
+                               @Value("${app.ai.rate-limit.requests-per-minute-overrides:}") String overrides,
+                               @Value("${app.ai.rate-limit.lease-size:5}") int leaseSize) {
+        this(new JdbcBucketStore(jdbcTemplate),
+                enabled,
+                defaultRequestsPerMinute,
+                overrides,
+                leaseSize,
+                ProviderRateLimiter::sleepQuietly,
+                System::currentTimeMillis);
+    }
+
+    ProviderRateLimiter(BucketStore store,
+                        boolean enabled,
+                        int defaultRequestsPerMinute,
+                        String overrides,
+                        int leaseSize,
+                        ProviderRetrySupport.Sleeper sleeper,
+                        LongSupplier clock) {
+        this.store = store;
+        this.enabled = enabled;
+        this.defaultRequestsPerMinute = Math.max(defaultRequestsPerMinute, 0);
+        this.overrides = parseOverrides(overrides);
+        this.leaseSize = Math.max(leaseSize, 1);
+        this.sleeper = sleeper;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs one provider request under the configured limit for {@code provider.operation}.
+     * Meant to sit inside the retry supplier, so every attempt takes its own token.
+     */
+    public <T> T call(String provider,
+                      String credential,
+                      String operation,
+                      ProviderRetrySupport.RetriableSupplier<T> request) {
+        return call(provider, credential, operation, requestsPerMinute(provider, operation), request);
+    }
+
+    public <T> T call(String provider,
+                      String credential,
+                      String operation,
+                      int requestsPerMinute,
+                      ProviderRetrySupport.RetriableSupplier<T> request) {
+        acquire(provider, credential, operation, requestsPerMinute);
+        try {
+            return request.get();
+        } catch (RestClientResponseException ex) {
+            long retryAfterMs = ProviderRetrySupport.resolveRetryAfterMs(ex);
+            if (ex.getRawStatusCode() == 429 || (ex.getRawStatusCode() == 503 && retryAfterMs > 0L)) {
+                backOff(provider, credential, operation, retryAfterMs);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Blocks until a request for the key may be sent. {@code requestsPerMinute <= 0} disables
+     * the token bucket; the call still waits out a pause reported by any replica.
+     */
+    public void acquire(String provider, String credential, String operation, int requestsPerMinute) {
+        if (!enabled) {
+            return;
+        }
+        String key = limitKey(provider, credential, operation);
+        LocalLease lease = leases.computeIfAbsent(key, ignored -> new LocalLease());
+        while (true) {
+            long waitMs;
+            synchronized (lease) {
+                waitMs = reserve(key, lease, requestsPerMinute);
+            }
+            if (waitMs <= 0L) {
+                return;
+            }
+            if (!sleeper.sleep(Math.min(waitMs, MAX_WAIT_SLICE_MS))) {
+                throw new IllegalStateException(provider + " rate limit wait interrupted");
+            }
+        }
+    }
+
+    /**
+     * Pauses the key on every replica. Without a Retry-After hint the pause is one second,
+     * enough to spread the queued calls instead of resending them at once.
+     */
+    public void backOff(String provider, String credential, String operation, long retryAfterMs) {
+        if (!enabled) {
+            return;
+        }
+        long pauseMs = retryAfterMs > 0L ? Math.min(retryAfterMs, MAX_PAUSE_MS) : DEFAULT_PAUSE_MS;
+        String key = limitKey(provider, credential, operation);
+        LocalLease lease = leases.computeIfAbsent(key, ignored -> new LocalLease());
+        synchronized (lease) {
+            lease.tokens = 0;
+            lease.pausedUntilMs = Math.max(lease.pausedUntilMs, clock.getAsLong() + pauseMs);
+        }
+        try {
+            store.pause(key, pauseMs);
+        } catch (RuntimeException ex) {
+            log.warn("Provider rate limit pause store failed key={} error={}", key, ex.getMessage());
+        }
+        log.warn("Provider rate limit pause key={} pauseMs={}", key, pauseMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.rate-limit.cleanup-interval-ms:3600000}")
+    public void purgeIdleBuckets() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            store.purgeIdle();
+        } catch (RuntimeException ex) {
+            log.warn("Provider rate limit cleanup failed error={}", ex.getMessage());
+        }
+    }
+
+    int requestsPerMinute(String provider, String operation) {
+        String normalizedProvider = normalize(provider);
+        Integer exact = overrides.get(normalizedProvider + "." + normalize(operation));
+        if (exact != null) {
+            return exact;
+        }
+        return overrides.getOrDefault(normalizedProvider, defaultRequestsPerMinute);
+    }
+
+    private long reserve(String key, LocalLease lease, int requestsPerMinute) {
+        long now = clock.getAsLong();
+        if (lease.pausedUntilMs > now) {
+            return lease.pausedUntilMs - now;
+        }
+        if (requestsPerMinute <= 0) {
+            if (now - lease.pauseCheckedAtMs < PAUSE_SYNC_MS) {
+                return 0L;
+            }
+            lease.pauseCheckedAtMs = now;
+            long remoteWaitMs = storeOrDefault(() -> store.pausedFor(key), 0L, key);
+            if (remoteWaitMs > 0L) {
+                lease.pausedUntilMs = now + remoteWaitMs;
+            }
+            return remoteWaitMs;
+        }
+        if (lease.tokens > 0 && lease.expiresAtMs > now) {
+            lease.tokens--;
+            return 0L;
+        }
+        double ratePerSecond = requestsPerMinute / 60.0d;
+        int batch = (int) Math.min(leaseSize, Math.max(1L, (long) Math.floor(ratePerSecond)));
+        double capacity = Math.max(batch, ratePerSecond * BURST_SECONDS);
+        Grant grant = storeOrDefault(() -> store.lease(key, capacity, ratePerSecond, batch), null, key);
+        if (grant == null) {
+            return 0L;
+        }
+        if (grant.granted() > 0) {
+            lease.tokens = grant.granted() - 1;
+            lease.expiresAtMs = now + LEASE_TTL_MS;
+            return 0L;
+        }
+        return Math.max(grant.waitMs(), 1L);
+    }
+
+    private <T> T storeOrDefault(StoreCall<T> call, T fallback, String key) {
+        try {
+            return call.run();
+        } catch (RuntimeException ex) {
+            log.warn("Provider rate limit store unavailable key={} error={}", key, ex.getMessage());
+            return fallback;
+        }
+    }
+
+    static String limitKey(String provider, String credential, String operation) {
+        return normalize(provider) + ":" + normalize(operation) + ":" + fingerprint(credential);
+    }
+
+    // API keys never reach the table; a short digest is enough to separate credentials
+    private static String fingerprint(String credential) {
+        if (credential == null || credential.isBlank()) {
+            return "none";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(credential.trim().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? "default" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Integer> parseOverrides(String raw) {
+        Map<String, Integer> parsed = new HashMap<>();
+        if (raw == null || raw.isBlank()) {
+            return parsed;
+        }
+        for (String entry : raw.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                int value = Integer.parseInt(entry.substring(separator + 1).trim());
+                if (value >= 0) {
+                    parsed.put(normalize(entry.substring(0, separator)), value);
+                }
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring invalid provider rate limit override: {}", entry.trim());
+            }
+        }
+        return parsed;
+    }
+
+    private static boolean sleepQuietly(long waitMs) {
+        try {
+            Thread.sleep(waitMs);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class LocalLease {
+        private int tokens;
+        private long expiresAtMs;
+        private long pausedUntilMs;
+        private long pauseCheckedAtMs = Long.MIN_VALUE / 2;
+    }
+
+    record Grant(int granted, long waitMs) {
+    }
+
+    @FunctionalInterface
+    private interface StoreCall<T> {
+        T run();
+    }
+
+    interface BucketStore {
+        /**
+         * Refills the bucket, takes up to {@code tokens} and reports how long to wait when
+         * nothing could be taken.
+         */
+        Grant lease(String key, double capacity, double ratePerSecond, int tokens);
+
+        long pausedFor(String key);
+
+        void pause(String key, long pauseMs);
+
+        void purgeIdle();
+    }
+
+    static final class JdbcBucketStore implements BucketStore {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        JdbcBucketStore(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public Grant lease(String key, double capacity, double ratePerSecond, int tokens) {
+            List<Grant> rows = takeTokens(key, capacity, ratePerSecond, tokens);
+            if (rows.isEmpty()) {
+                jdbcTemplate.update(
+                        """
+                        insert into app_ai.ai_provider_rate_limits (limit_key, tokens, refilled_at)
+                        values (?, ?, now())
+                        on conflict (limit_key) do nothing
+                        """,
+                        key,
+                        capacity
+                );
+                rows = takeTokens(key, capacity, ratePerSecond, tokens);
+            }
+            return rows.isEmpty() ? new Grant(0, MAX_WAIT_SLICE_MS) : rows.getFirst();
+        }
+
+        // A pause leaves the bucket empty at its end (refilled_at moves past now), so the
+        // replicas resume at the configured rate rather than with a burst
+        private List<Grant> takeTokens(String key, double capacity, double ratePerSecond, int tokens) {
+            return jdbcTemplate.query(
+                    """
+                    update app_ai.ai_provider_rate_limits b
+                    set tokens = s.refilled - s.granted,
+                        refilled_at = greatest(b.refilled_at, now())
+                    from (
+                        select limit_key,
+                               refilled,
+                               blocked_until,
+                               case when blocked_until > now() or refilled_at > now() then 0
+                                    else cast(least(?, floor(greatest(refilled, 0))) as integer)
+                               end as granted
+                        from (
+                            select limit_key,
+                                   blocked_until,
+                                   refilled_at,
+                                   least(?, tokens + greatest(extract(epoch from (now() - refilled_at)), 0) * ?) as refilled
+                            from app_ai.ai_provider_rate_limits
+                            where limit_key = ?
+                            for update
+                        ) locked
+                    ) s
+                    where b.limit_key = s.limit_key
+                    returning s.granted,
+                              case when s.blocked_until > now()
+                                       then cast(ceil(extract(epoch from (s.blocked_until - now())) * 1000) as bigint)
+                                   when s.granted = 0
+                                       then cast(ceil(greatest(1 - s.refilled, 0) / ? * 1000) as bigint)
+                                   else 0
+                              end as wait_ms
+                    """,
+                    (rs, rowNum) -> new Grant(rs.getInt("granted"), rs.getLong("wait_ms")),
+                    tokens,
+                    capacity,
+                    ratePerSecond,
+                    key,
+                    ratePerSecond
+            );
+        }
+
+        @Override
+        public long pausedFor(String key) {
+            List<Long> rows = jdbcTemplate.query(
+                    """
+                    select cast(ceil(extract(epoch from (blocked_until - now())) * 1000) as bigint) as wait_ms
+                    from app_ai.ai_provider_rate_limits
+                    where limit_key = ?
+                      and blocked_until > now()
+                    """,
+                    (rs, rowNum) -> rs.getLong("wait_ms"),
+                    key
+            );
+            return rows.isEmpty() ? 0L : rows.getFirst();
+        }
+
+        @Override
+        public void pause(String key, long pauseMs) {
+            jdbcTemplate.update(
+                    """
+                    insert into app_ai.ai_provider_rate_limits as b (limit_key, tokens, refilled_at, blocked_until)
+                    values (?, 0, now() + cast(? as bigint) * interval '1 millisecond',
+                            now() + cast(? as bigint) * interval '1 millisecond')
+                    on conflict (limit_key) do update
+                    set tokens = 0,
+                        refilled_at = greatest(b.refilled_at, excluded.refilled_at),
+                        blocked_until = greatest(coalesce(b.blocked_until, excluded.blocked_until), excluded.blocked_until)
+                    """,
+                    key,
+                    pauseMs,
+                    pauseMs
+            );
+        }
+
+        @Override
+        public void purgeIdle() {
+            jdbcTemplate.update(
+                    """
+                    delete from app_ai.ai_provider_rate_limits
+                    where refilled_at < now() - interval '1 day'
+                    """
+            );
+        }
+    }
+}
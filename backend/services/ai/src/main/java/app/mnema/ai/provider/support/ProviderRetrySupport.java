@@ -65,6 +65,24 @@ public final class ProviderRetrySupport {
         );
     }
 
+    public static <T> T executeTextRequest(String provider,
+                                           Logger logger,
+                                           int maxRetries,
+                                           long initialDelayMs,
+                                           long maxDelayMs,
+                                           RetriableSupplier<T> supplier) {
+        return executeTextRequest(
+                provider,
+                logger,
+                maxRetries,
+                initialDelayMs,
+                maxDelayMs,
+                ProviderRetrySupport::sleepQuietly,
+                () -> ThreadLocalRandom.current().nextDouble(MIN_JITTER_RATIO, MAX_JITTER_RATIO),
+                supplier
+        );
+    }
+
     static <T> T executeTextRequest(String provider,
                                     Logger logger,
                                     int maxRetries,
@@ -2,6 +2,7 @@ package app.mnema.ai.repository;
 
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
+import app.mnema.ai.domain.type.AiJobType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +12,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.time.Instant;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -26,6 +28,42 @@ public interface AiJobRepository extends JpaRepository<AiJobEntity, UUID> {
 
     Page<AiJobEntity> findByUserIdAndDeckIdOrderByCreatedAtDesc(UUID userId, UUID deckId, Pageable pageable);
 
+    Optional<AiJobEntity> findFirstByUserIdAndTypeAndInputHashAndStatusInOrderByCreatedAtDesc(UUID userId,
+                                                                                             AiJobType type,
+                                                                                             String inputHash,
+                                                                                             List<AiJobStatus> statuses);
+
+    Optional<AiJobEntity> findFirstByUserIdAndTypeAndInputHashAndStatusAndCompletedAtAfterOrderByCompletedAtDesc(UUID userId,
+                                                                                                                 AiJobType type,
+                                                                                                                 String inputHash,
+                                                                                                                 AiJobStatus status,
+                                                                                                                 Instant completedAfter);
+
+    @Query(value = "select 1 from pg_advisory_xact_lock(hashtext(:key))", nativeQuery = true)
+    Integer lockInputHash(@Param("key") String key);
+
+    @Modifying
+    @Query("""
+            update AiJobEntity j
+            set j.progress = :progress,
+                j.updatedAt = :updatedAt
+            where j.jobId = :jobId
+              and j.status in :statuses
+            """)
+    int updateProgress(@Param("jobId") UUID jobId,
+                       @Param("progress") int progress,
+                       @Param("updatedAt") Instant updatedAt,
+                       @Param("statuses") List<AiJobStatus> statuses);
+
+    @Modifying
+    @Query("""
+            update AiJobEntity j
+            set j.appliedCards = :appliedCards
+            where j.jobId = :jobId
+            """)
+    int updateAppliedCards(@Param("jobId") UUID jobId,
+                           @Param("appliedCards") int appliedCards);
+
     @Query("""
             select count(j)
             from AiJobEntity j
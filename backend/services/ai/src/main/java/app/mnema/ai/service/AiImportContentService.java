@@ -10,15 +10,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -27,11 +31,14 @@ public class AiImportContentService {
     private static final long KB = 1024L;
     private static final long MB = 1024L * KB;
     private static final int BUFFER_SIZE = 8192;
+    private static final String SOURCE_TOO_LARGE = "Source file is too large to process. Please upload a smaller file.";
     private static final int MAX_PREVIEW_CARDS = 500;
+    public static final String DOCUMENT_EXTRACTOR = "document";
     private static final Logger log = LoggerFactory.getLogger(AiImportContentService.class);
 
     private final MediaApiClient mediaApiClient;
     private final PdfOcrService pdfOcrService;
+    private final AiImportExtractionCache extractionCache;
     private final HttpClient httpClient;
     private final long maxBytes;
     private final long maxPdfBytes;
@@ -43,6 +50,7 @@ public class AiImportContentService {
 
     public AiImportContentService(MediaApiClient mediaApiClient,
                                   PdfOcrService pdfOcrService,
+                                  AiImportExtractionCache extractionCache,
                                   @Value("${app.ai.import.max-bytes:10485760}") long maxBytes,
                                   @Value("${app.ai.import.pdf-max-bytes:31457280}") long maxPdfBytes,
                                   @Value("${app.ai.import.image-max-bytes:20971520}") long maxImageBytes,
@@ -52,6 +60,7 @@ public class AiImportContentService {
                                   @Value("${app.ai.import.download-timeout-seconds:30}") long timeoutSeconds) {
         this.mediaApiClient = mediaApiClient;
         this.pdfOcrService = pdfOcrService;
+        this.extractionCache = extractionCache;
         this.maxBytes = Math.max(maxBytes, MB);
         this.maxPdfBytes = Math.max(maxPdfBytes, MB);
         this.maxImageBytes = Math.max(maxImageBytes, MB);
@@ -66,15 +75,50 @@ public class AiImportContentService {
     }
 
     public ImportTextPayload loadText(UUID mediaId, String encoding, String language, String accessToken) {
-        ImportSourcePayload source = loadSource(mediaId, accessToken);
-        return extractText(source, encoding, language);
+        // The cache is shared, so the caller's access to the media is checked before it is consulted.
+        MediaResolved resolved = resolveSource(mediaId, accessToken);
+        ImportExtractionKey key = new ImportExtractionKey(mediaId, language, encoding, null, null);
+        Optional<ImportTextPayload> cached = findCachedText(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        ImportSourcePayload source = loadSource(resolved);
+        ImportTextPayload payload = extractText(source, encoding, language);
+        cacheText(key, source.mimeType(), payload);
+        return payload;
+    }
+
+    public Optional<ImportTextPayload> findCachedText(ImportExtractionKey key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        return extractionCache.find(key.mediaId(), key.extractors(), key.language(), key.encoding());
+    }
+
+    public void cacheText(ImportExtractionKey key, String mimeType, ImportTextPayload payload) {
+        if (key == null || payload == null || payload.degraded()) {
+            // A degraded extraction (failed or timed out OCR pages) is retried next time instead of being reused.
+            return;
+        }
+        extractionCache.put(key.mediaId(), key.extractorFor(normalizeMimeType(mimeType)), key.language(), key.encoding(), payload);
     }
 
     public ImportSourcePayload loadSource(UUID mediaId, String accessToken) {
+        return loadSource(resolveSource(mediaId, accessToken));
+    }
+
+    /**
+     * Resolves the import media with the caller's token, which fails when the media does not exist
+     * or belongs to someone else. Callers run this before looking at the extraction cache.
+     */
+    public MediaResolved resolveSource(UUID mediaId, String accessToken) {
         if (mediaId == null) {
             throw new IllegalStateException("sourceMediaId is required");
         }
-        MediaResolved resolved = resolveMedia(mediaId, accessToken);
+        return resolveMedia(mediaId, accessToken);
+    }
+
+    public ImportSourcePayload loadSource(MediaResolved resolved) {
         String url = resolved.url();
         if (url == null || url.isBlank()) {
             throw new IllegalStateException("Source media URL is missing");
@@ -84,6 +128,13 @@ public class AiImportContentService {
             throw new IllegalStateException("Unsupported source media type: " + resolved.mimeType());
         }
         long declaredSize = resolved.sizeBytes() == null ? -1 : resolved.sizeBytes();
+        if (mimeType.startsWith("audio/")) {
+            // Audio is piped into ffmpeg by the STT path, so it is opened lazily via openStream.
+            if (declaredSize > maxAudioBytes) {
+                throw new IllegalStateException(SOURCE_TOO_LARGE);
+            }
+            return new ImportSourcePayload(null, mimeType, declaredSize, false, url);
+        }
         DownloadResult download = downloadLimited(url, resolveMaxBytes(mimeType));
         return new ImportSourcePayload(
                 download.bytes(),
@@ -93,6 +144,32 @@ public class AiImportContentService {
         );
     }
 
+    public InputStream openStream(ImportSourcePayload source) {
+        if (source == null) {
+            throw new IllegalStateException("Source payload is missing");
+        }
+        if (source.streamUrl() == null) {
+            return new ByteArrayInputStream(source.bytes() == null ? new byte[0] : source.bytes());
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(source.streamUrl()))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() >= 400) {
+                response.body().close();
+                throw new IllegalStateException("Failed to download source media");
+            }
+            return new LimitedInputStream(response.body(), resolveMaxBytes(source.mimeType()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Failed to download source media", ex);
+        } catch (java.io.IOException ex) {
+            throw new IllegalStateException("Failed to download source media", ex);
+        }
+    }
+
     public ImportTextPayload extractText(ImportSourcePayload source, String encoding, String language) {
         if (source == null) {
             throw new IllegalStateException("Source payload is missing");
@@ -149,7 +226,8 @@ public class AiImportContentService {
                             ocr.pageCount(),
                             ocr.pagesProcessed(),
                             null,
-                            null
+                            null,
+                            ocr.degraded()
                     );
                 }
             }
@@ -337,16 +415,116 @@ public class AiImportContentService {
             Integer sourcePages,
             Integer ocrPages,
             Integer audioDurationSeconds,
-            Integer audioChunks
+            Integer audioChunks,
+            boolean degraded
     ) {
+        public ImportTextPayload(String text,
+                                 String mimeType,
+                                 long sizeBytes,
+                                 boolean truncated,
+                                 int charCount,
+                                 String detectedCharset,
+                                 int maxRecommendedCards,
+                                 String extraction,
+                                 Integer sourcePages,
+                                 Integer ocrPages,
+                                 Integer audioDurationSeconds,
+                                 Integer audioChunks) {
+            this(text, mimeType, sizeBytes, truncated, charCount, detectedCharset, maxRecommendedCards,
+                    extraction, sourcePages, ocrPages, audioDurationSeconds, audioChunks, false);
+        }
     }
 
+    /**
+     * Cache key for an import extraction. Documents are extracted locally and shared across providers;
+     * image and audio sources are keyed by the provider-specific vision/STT extractor that produced them.
+     */
+    public record ImportExtractionKey(
+            UUID mediaId,
+            String language,
+            String encoding,
+            String visionExtractor,
+            String sttExtractor
+    ) {
+        public List<String> extractors() {
+            List<String> extractors = new ArrayList<>(3);
+            extractors.add(DOCUMENT_EXTRACTOR);
+            if (visionExtractor != null) {
+                extractors.add(visionExtractor);
+            }
+            if (sttExtractor != null) {
+                extractors.add(sttExtractor);
+            }
+            return extractors;
+        }
+
+        public String extractorFor(String mimeType) {
+            if (mimeType == null) {
+                return null;
+            }
+            if (mimeType.startsWith("image/")) {
+                return visionExtractor;
+            }
+            if (mimeType.startsWith("audio/")) {
+                return sttExtractor;
+            }
+            return DOCUMENT_EXTRACTOR;
+        }
+    }
+
+    /**
+     * Downloaded import source. Audio is not buffered: {@code bytes} is {@code null} and
+     * {@code streamUrl} points at the media, to be read through {@link #openStream}.
+     */
     public record ImportSourcePayload(
             byte[] bytes,
             String mimeType,
             long sizeBytes,
-            boolean truncated
+            boolean truncated,
+            String streamUrl
     ) {
+        public ImportSourcePayload(byte[] bytes, String mimeType, long sizeBytes, boolean truncated) {
+            this(bytes, mimeType, sizeBytes, truncated, null);
+        }
+    }
+
+    /**
+     * Fails the read once more than {@code limit} bytes were consumed, mirroring the truncation
+     * check applied to buffered downloads.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long consumed;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws java.io.IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws java.io.IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            consumed += read;
+            if (consumed > limit) {
+                throw new IllegalStateException(SOURCE_TOO_LARGE);
+            }
+        }
     }
 
     private record DownloadResult(byte[] bytes, boolean truncated) {
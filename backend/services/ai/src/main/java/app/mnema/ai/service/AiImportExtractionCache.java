@@ -0,0 +1,199 @@
+package app.mnema.ai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistent cache of extracted import text keyed by (mediaId, extractor, language, encoding).
+ * Media content is immutable per id, so a preview and the following generate job can share one
+ * extraction. Total stored text is bounded by a periodic sweep that evicts the least recently
+ * used rows first, so inserts never pay for a scan of the whole table.
+ */
+@Service
+public class AiImportExtractionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AiImportExtractionCache.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    public AiImportExtractionCache(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.ai.import.extraction-cache-enabled:true}") boolean enabled,
+                                   @Value("${app.ai.import.extraction-cache-max-bytes:268435456}") long maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxBytes = Math.max(maxBytes, 0L);
+    }
+
+    public Optional<AiImportContentService.ImportTextPayload> find(UUID mediaId,
+                                                                   Collection<String> extractors,
+                                                                   String language,
+                                                                   String encoding) {
+        if (!enabled || mediaId == null || extractors == null || extractors.isEmpty()) {
+            return Optional.empty();
+        }
+        String[] keys = extractors.stream().filter(value -> value != null && !value.isBlank()).toArray(String[]::new);
+        if (keys.length == 0) {
+            return Optional.empty();
+        }
+        try {
+            List<AiImportContentService.ImportTextPayload> rows = jdbcTemplate.query(
+                    """
+                    update app_ai.ai_import_extractions
+                    set last_accessed_at = now()
+                    where media_id = ?
+                      and extractor = any(?)
+                      and language = ?
+                      and encoding = ?
+                    returning text, mime_type, size_bytes, truncated, char_count, detected_charset,
+                              max_recommended_cards, extraction, source_pages, ocr_pages,
+                              audio_duration_seconds, audio_chunks
+                    """,
+                    (rs, rowNum) -> mapPayload(rs),
+                    mediaId,
+                    keys,
+                    normalizeKeyPart(language),
+                    normalizeKeyPart(encoding)
+            );
+            return rows.stream().findFirst();
+        } catch (RuntimeException ex) {
+            log.warn("AI import extraction cache lookup failed mediaId={} error={}", mediaId, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void put(UUID mediaId,
+                    String extractor,
+                    String language,
+                    String encoding,
+                    AiImportContentService.ImportTextPayload payload) {
+        if (!enabled || mediaId == null || extractor == null || extractor.isBlank()
+                || payload == null || payload.text() == null) {
+            return;
+        }
+        long textBytes = payload.text().getBytes(StandardCharsets.UTF_8).length;
+        if (textBytes > maxBytes) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                    """
+                    insert into app_ai.ai_import_extractions (
+                        media_id, extractor, language, encoding, text, mime_type, size_bytes, truncated,
+                        char_count, detected_charset, max_recommended_cards, extraction, source_pages,
+                        ocr_pages, audio_duration_seconds, audio_chunks, text_bytes, created_at, last_accessed_at
+                    )
+                    values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+                    on conflict (media_id, extractor, language, encoding) do update
+                    set text = excluded.text,
+                        mime_type = excluded.mime_type,
+                        size_bytes = excluded.size_bytes,
+                        truncated = excluded.truncated,
+                        char_count = excluded.char_count,
+                        detected_charset = excluded.detected_charset,
+                        max_recommended_cards = excluded.max_recommended_cards,
+                        extraction = excluded.extraction,
+                        source_pages = excluded.source_pages,
+                        ocr_pages = excluded.ocr_pages,
+                        audio_duration_seconds = excluded.audio_duration_seconds,
+                        audio_chunks = excluded.audio_chunks,
+                        text_bytes = excluded.text_bytes,
+                        last_accessed_at = now()
+                    """,
+                    mediaId,
+                    extractor,
+                    normalizeKeyPart(language),
+                    normalizeKeyPart(encoding),
+                    payload.text(),
+                    payload.mimeType(),
+                    payload.sizeBytes(),
+                    payload.truncated(),
+                    payload.charCount(),
+                    payload.detectedCharset(),
+                    payload.maxRecommendedCards(),
+                    payload.extraction(),
+                    payload.sourcePages(),
+                    payload.ocrPages(),
+                    payload.audioDurationSeconds(),
+                    payload.audioChunks(),
+                    textBytes
+            );
+        } catch (RuntimeException ex) {
+            log.warn("AI import extraction cache store failed mediaId={} error={}", mediaId, ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.import.extraction-cache-sweep-interval-ms:300000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int evicted = evictOverflow();
+            if (evicted > 0) {
+                log.info("AI import extraction cache evicted rows={}", evicted);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("AI import extraction cache sweep failed error={}", ex.getMessage());
+        }
+    }
+
+    int evictOverflow() {
+        return jdbcTemplate.update(
+                """
+                delete from app_ai.ai_import_extractions e
+                using (
+                    select media_id, extractor, language, encoding
+                    from (
+                        select media_id, extractor, language, encoding,
+                               sum(text_bytes) over (
+                                   order by last_accessed_at desc, media_id, extractor, language, encoding
+                               ) as retained_bytes
+                        from app_ai.ai_import_extractions
+                    ) ranked
+                    where retained_bytes > ?
+                ) evicted
+                where e.media_id = evicted.media_id
+                  and e.extractor = evicted.extractor
+                  and e.language = evicted.language
+                  and e.encoding = evicted.encoding
+                """,
+                maxBytes
+        );
+    }
+
+    private AiImportContentService.ImportTextPayload mapPayload(ResultSet rs) throws SQLException {
+        return new AiImportContentService.ImportTextPayload(
+                rs.getString("text"),
+                rs.getString("mime_type"),
+                rs.getLong("size_bytes"),
+                rs.getBoolean("truncated"),
+                rs.getInt("char_count"),
+                rs.getString("detected_charset"),
+                rs.getInt("max_recommended_cards"),
+                rs.getString("extraction"),
+                rs.getObject("source_pages", Integer.class),
+                rs.getObject("ocr_pages", Integer.class),
+                rs.getObject("audio_duration_seconds", Integer.class),
+                rs.getObject("audio_chunks", Integer.class)
+        );
+    }
+
+    private String normalizeKeyPart(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,27 @@
+package app.mnema.ai.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown by a processor when the job waits on a provider-side batch. {@link AiJobWorker} puts the
+ * job back into the queue without counting an attempt and frees the slot; the next run picks the
+ * batch up again through {@link app.mnema.ai.domain.entity.AiJobEntity#getProviderBatchId()}.
+ */
+public class AiJobDeferredException extends RuntimeException {
+
+    private final Duration resumeAfter;
+
+    public AiJobDeferredException(String message) {
+        this(message, null);
+    }
+
+    public AiJobDeferredException(String message, Duration resumeAfter) {
+        super(message);
+        this.resumeAfter = resumeAfter;
+    }
+
+    /** Delay before the next check, or {@code null} for the worker's configured batch poll interval. */
+    public Duration resumeAfter() {
+        return resumeAfter;
+    }
+}
@@ -0,0 +1,208 @@
+package app.mnema.ai.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Wakes {@link AiJobWorker} as soon as a job becomes runnable. A trigger on {@code app_ai.ai_jobs}
+ * notifies {@link #CHANNEL} whenever a row enters {@code queued}, with the job's
+ * {@code next_run_at} in epoch milliseconds as payload (empty when it can run now). One dedicated
+ * connection per replica {@code LISTEN}s on that channel.
+ *
+ * <p>Every pending due time is kept, so several delayed retries each get their own wake-up. After
+ * a wake-up for a due time the dispatcher re-reads the earliest future {@code next_run_at}, which
+ * covers clock skew against the database and notifications it never saw.
+ *
+ * <p>While the listener is connected the scheduled tick runs no queries except when a retry
+ * becomes due or a safety sweep is due; the sweep also recovers jobs whose worker died holding
+ * the lock. If the listener connection is lost, the tick falls back to plain polling until it
+ * reconnects.
+ */
+@Component
+public class AiJobDispatcher {
+
+    static final String CHANNEL = "ai_jobs";
+
+    private static final Logger log = LoggerFactory.getLogger(AiJobDispatcher.class);
+    private static final int LISTEN_TIMEOUT_MS = 30_000;
+
+    private final DataSource dataSource;
+    private final AiJobWorker worker;
+    private final boolean enabled;
+    private final long idlePollIntervalMs;
+    private final long reconnectDelayMs;
+    private final LongSupplier clock;
+    private final NavigableSet<Long> dueTimes = new ConcurrentSkipListSet<>();
+    private volatile long lastWakeAt;
+    private volatile boolean listening;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Autowired
+    public AiJobDispatcher(DataSource dataSource,
+                           AiJobWorker worker,
+                           @Value("${app.ai.jobs.listen-enabled:true}") boolean enabled,
+                           @Value("${app.ai.jobs.idle-poll-interval-ms:300000}") long idlePollIntervalMs,
+                           @Value("${app.ai.jobs.listen-reconnect-ms:5000}") long reconnectDelayMs) {
+        this(dataSource, worker, enabled, idlePollIntervalMs, reconnectDelayMs, System::currentTimeMillis);
+    }
+
+    AiJobDispatcher(DataSource dataSource,
+                    AiJobWorker worker,
+                    boolean enabled,
+                    long idlePollIntervalMs,
+                    long reconnectDelayMs,
+                    LongSupplier clock) {
+        this.dataSource = dataSource;
+        this.worker = worker;
+        this.enabled = enabled;
+        this.idlePollIntervalMs = Math.max(idlePollIntervalMs, 1_000L);
+        this.reconnectDelayMs = Math.max(reconnectDelayMs, 100L);
+        this.clock = clock;
+        this.lastWakeAt = clock.getAsLong();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("ai-job-dispatcher")
+                .daemon()
+                .start(this::listenLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * Fallback tick. Polls every time while the listener is down; otherwise only when a delayed
+     * retry is due or the safety sweep interval has passed since the last wake-up.
+     */
+    @Scheduled(fixedDelayString = "${app.ai.jobs.poll-interval-ms:2000}")
+    public void tick() {
+        long now = clock.getAsLong();
+        if (!listening || isDue(now) || now - lastWakeAt >= idlePollIntervalMs) {
+            wake();
+        }
+    }
+
+    void setListening(boolean listening) {
+        this.listening = listening;
+    }
+
+    /** Handles one notification payload: wakes now, or remembers when a delayed retry is due. */
+    void onNotification(String payload) {
+        long dueAt = parseDueAt(payload);
+        if (dueAt > clock.getAsLong()) {
+            dueTimes.add(dueAt);
+            return;
+        }
+        wake();
+    }
+
+    void wake() {
+        long now = clock.getAsLong();
+        lastWakeAt = now;
+        NavigableSet<Long> reached = dueTimes.headSet(now, true);
+        boolean retryDue = !reached.isEmpty();
+        reached.clear();
+        try {
+            worker.poll();
+            if (retryDue) {
+                worker.nextScheduledRunAt()
+                        .map(Instant::toEpochMilli)
+                        .ifPresent(dueTimes::add);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("AI job dispatch failed error={}", ex.getMessage());
+        }
+    }
+
+    private boolean isDue(long now) {
+        Long first = dueTimes.ceiling(Long.MIN_VALUE);
+        return first != null && first <= now;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listening = true;
+                log.info("AI job dispatcher listening channel={}", CHANNEL);
+                // Jobs queued while nobody was listening produced no notification we could see.
+                wake();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (running) {
+                    log.warn("AI job dispatcher lost listener connection, falling back to polling error={}", ex.getMessage());
+                }
+            } finally {
+                listening = false;
+            }
+            if (!sleepBeforeReconnect()) {
+                return;
+            }
+        }
+    }
+
+    private boolean sleepBeforeReconnect() {
+        if (!running) {
+            return false;
+        }
+        try {
+            Thread.sleep(reconnectDelayMs);
+            return running;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long parseDueAt(String payload) {
+        if (payload == null || payload.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(payload.trim());
+        } catch (NumberFormatException ex) {
+            return 0L;
+        }
+    }
+}
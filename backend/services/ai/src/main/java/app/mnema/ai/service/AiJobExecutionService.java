@@ -1,12 +1,13 @@
 package app.mnema.ai.service;
 
 import app.mnema.ai.controller.dto.AiJobStepResponse;
-import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.entity.AiJobStepEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
 import app.mnema.ai.domain.type.AiJobStepStatus;
 import app.mnema.ai.repository.AiJobRepository;
 import app.mnema.ai.repository.AiJobStepRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -14,23 +15,54 @@ import org.springframework.transaction.support.TransactionTemplate;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
+/**
+ * Tracks the step plan of running jobs and derives the job's progress percentage from it.
+ *
+ * <p>Progress is aggregated in memory per running job. Fractional ticks from generation batches
+ * and per-card media loops are coalesced: the job row is written only when the percentage
+ * changes, and at most once per {@code app.ai.jobs.progress-flush-interval-ms}. Step transitions
+ * always write through. Each write is a single guarded UPDATE, so a job that has already finished
+ * or was canceled is never touched and the steps are not reloaded on every tick.
+ */
 @Service
 public class AiJobExecutionService {
 
+    private static final List<AiJobStatus> IN_FLIGHT_STATUSES = List.of(AiJobStatus.queued, AiJobStatus.processing);
+    private static final long STALE_PROGRESS_MS = 6 * 60 * 60 * 1000L;
+
     private final AiJobStepRepository stepRepository;
     private final AiJobRepository jobRepository;
     private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMs;
+    private final LongSupplier clock;
+    private final Map<UUID, JobProgress> progressByJob = new ConcurrentHashMap<>();
 
+    @Autowired
     public AiJobExecutionService(AiJobStepRepository stepRepository,
                                  AiJobRepository jobRepository,
-                                 TransactionTemplate transactionTemplate) {
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${app.ai.jobs.progress-flush-interval-ms:500}") long flushIntervalMs) {
+        this(stepRepository, jobRepository, transactionTemplate, flushIntervalMs, System::currentTimeMillis);
+    }
+
+    AiJobExecutionService(AiJobStepRepository stepRepository,
+                          AiJobRepository jobRepository,
+                          TransactionTemplate transactionTemplate,
+                          long flushIntervalMs,
+                          LongSupplier clock) {
         this.stepRepository = stepRepository;
         this.jobRepository = jobRepository;
         this.transactionTemplate = transactionTemplate;
+        this.flushIntervalMs = Math.max(flushIntervalMs, 0L);
+        this.clock = clock;
     }
 
     @Transactional
@@ -52,6 +84,9 @@ public class AiJobExecutionService {
             job.setUpdatedAt(now);
             jobRepository.save(job);
         });
+        JobProgress progress = new JobProgress(steps, clock.getAsLong());
+        progress.writtenProgress = steps.isEmpty() ? 0 : 1;
+        progressByJob.put(jobId, progress);
     }
 
     public <T> T runStep(UUID jobId, String stepName, StepOperation<T> operation) {
@@ -60,6 +95,9 @@ public class AiJobExecutionService {
             T result = operation.run();
             markCompleted(jobId, stepName);
             return result;
+        } catch (AiJobDeferredException ex) {
+            // The step is still running on the provider side; it resumes on the next pickup.
+            throw ex;
         } catch (Exception ex) {
             markFailed(jobId, stepName, summarizeError(ex));
             throw wrap(ex);
@@ -82,25 +120,32 @@ public class AiJobExecutionService {
         if (jobId == null || stepName == null || stepName.isBlank()) {
             return;
         }
-        transactionTemplate.executeWithoutResult(ignored -> {
-            List<AiJobStepEntity> steps = loadSteps(jobId);
-            Optional<AiJobEntity> jobOpt = jobRepository.findById(jobId);
-            if (jobOpt.isEmpty()) {
-                return;
-            }
-            AiJobEntity job = jobOpt.get();
-            if (job.getStatus() == AiJobStatus.completed
-                    || job.getStatus() == AiJobStatus.partial_success
-                    || job.getStatus() == AiJobStatus.failed
-                    || job.getStatus() == AiJobStatus.canceled) {
+        double normalizedFraction = Math.max(0.0d, Math.min(fraction, 1.0d));
+        long now = clock.getAsLong();
+        JobProgress state = progressState(jobId, now);
+        int progress;
+        synchronized (state) {
+            state.fractions.put(stepName.trim(), normalizedFraction);
+            state.touchedAt = now;
+            progress = calculateProgress(state.statuses, state.fractions);
+            if (progress == state.writtenProgress || now - state.flushedAt < flushIntervalMs) {
                 return;
             }
-            double normalizedFraction = Math.max(0.0d, Math.min(fraction, 1.0d));
-            int progress = calculateProgress(steps, stepName.trim(), normalizedFraction);
-            job.setProgress(progress);
-            job.setUpdatedAt(Instant.now());
-            jobRepository.save(job);
-        });
+            state.writtenProgress = progress;
+            state.flushedAt = now;
+        }
+        transactionTemplate.executeWithoutResult(ignored -> writeProgress(jobId, progress, Instant.ofEpochMilli(now)));
+    }
+
+    /**
+     * Records how many cards the job has already added to the deck. The count is committed right
+     * away, so a retry after a later failure knows which part of the work is done.
+     */
+    public void recordAppliedCards(UUID jobId, int appliedCards) {
+        if (jobId == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(ignored -> jobRepository.updateAppliedCards(jobId, appliedCards));
     }
 
     @Transactional(readOnly = true)
@@ -134,12 +179,11 @@ public class AiJobExecutionService {
         if (jobId == null || stepName == null || stepName.isBlank()) {
             return;
         }
-        Instant now = Instant.now();
+        Instant now = Instant.ofEpochMilli(clock.getAsLong());
         AiJobStepEntity step = stepRepository.findById(new app.mnema.ai.domain.composite.AiJobStepId(jobId, stepName))
                 .orElseGet(() -> new AiJobStepEntity(jobId, stepName, AiJobStepStatus.queued, null, null, null));
 
         if (status == AiJobStepStatus.processing && step.getStatus() == AiJobStepStatus.completed) {
-            refreshProgress(jobId, now);
             return;
         }
 
@@ -157,60 +201,71 @@ public class AiJobExecutionService {
         step.setStatus(status);
         step.setErrorSummary(errorSummary);
         stepRepository.save(step);
-        refreshProgress(jobId, now);
+        refreshProgress(jobId, stepName, status, now);
     }
 
     private void updateStepInTransaction(UUID jobId, String stepName, AiJobStepStatus status, String errorSummary) {
         transactionTemplate.executeWithoutResult(ignored -> updateStep(jobId, stepName, status, errorSummary));
     }
 
-    private void refreshProgress(UUID jobId, Instant now) {
-        List<AiJobStepEntity> steps = loadSteps(jobId);
-        Optional<AiJobEntity> jobOpt = jobRepository.findById(jobId);
-        if (jobOpt.isEmpty()) {
-            return;
-        }
-        AiJobEntity job = jobOpt.get();
-        if (job.getStatus() == AiJobStatus.completed
-                || job.getStatus() == AiJobStatus.partial_success
-                || job.getStatus() == AiJobStatus.failed
-                || job.getStatus() == AiJobStatus.canceled) {
-            return;
+    private void refreshProgress(UUID jobId, String stepName, AiJobStepStatus status, Instant now) {
+        long nowMs = now.toEpochMilli();
+        JobProgress state = progressState(jobId, nowMs);
+        int progress;
+        synchronized (state) {
+            state.statuses.put(stepName, status);
+            state.fractions.remove(stepName);
+            state.touchedAt = nowMs;
+            if (state.statuses.values().stream().allMatch(this::isTerminal)) {
+                progressByJob.remove(jobId, state);
+            }
+            progress = calculateProgress(state.statuses, state.fractions);
+            if (progress == state.writtenProgress) {
+                return;
+            }
+            state.writtenProgress = progress;
+            state.flushedAt = nowMs;
         }
-        int progress = calculateProgress(steps);
-        job.setProgress(progress);
-        job.setUpdatedAt(now);
-        jobRepository.save(job);
+        writeProgress(jobId, progress, now);
     }
 
-    private int calculateProgress(List<AiJobStepEntity> steps) {
-        return calculateProgress(steps, null, null);
+    private void writeProgress(UUID jobId, int progress, Instant now) {
+        jobRepository.updateProgress(jobId, progress, now, IN_FLIGHT_STATUSES);
     }
 
-    private int calculateProgress(List<AiJobStepEntity> steps, String hintedStepName, Double hintedFraction) {
-        if (steps == null || steps.isEmpty()) {
+    private JobProgress progressState(UUID jobId, long now) {
+        JobProgress state = progressByJob.get(jobId);
+        if (state != null) {
+            return state;
+        }
+        // Finished plans are dropped on their last transition; this catches jobs canceled mid-run.
+        progressByJob.entrySet().removeIf(entry -> now - entry.getValue().touchedAt > STALE_PROGRESS_MS);
+        return progressByJob.computeIfAbsent(jobId, id -> new JobProgress(loadSteps(id), now));
+    }
+
+    private int calculateProgress(Map<String, AiJobStepStatus> statuses, Map<String, Double> fractions) {
+        if (statuses == null || statuses.isEmpty()) {
             return 0;
         }
-        int totalWeight = steps.stream()
-                .mapToInt(step -> resolveStepWeight(step.getStepName()))
+        int totalWeight = statuses.keySet().stream()
+                .mapToInt(this::resolveStepWeight)
                 .sum();
         if (totalWeight <= 0) {
-            totalWeight = steps.size();
+            totalWeight = statuses.size();
         }
         double value = 0.0d;
         boolean processing = false;
-        for (AiJobStepEntity step : steps) {
-            int weight = resolveStepWeight(step.getStepName());
-            if (step.getStatus() == AiJobStepStatus.completed) {
+        for (Map.Entry<String, AiJobStepStatus> step : statuses.entrySet()) {
+            int weight = resolveStepWeight(step.getKey());
+            if (step.getValue() == AiJobStepStatus.completed) {
                 value += weight;
                 continue;
             }
-            if (step.getStatus() == AiJobStepStatus.processing) {
+            if (step.getValue() == AiJobStepStatus.processing) {
                 processing = true;
                 double fraction = 0.5d;
-                if (hintedStepName != null
-                        && hintedFraction != null
-                        && hintedStepName.equals(step.getStepName())) {
+                Double hintedFraction = fractions.get(step.getKey());
+                if (hintedFraction != null) {
                     fraction = Math.max(0.0d, Math.min(hintedFraction, 0.99d));
                 }
                 value += weight * fraction;
@@ -223,6 +278,10 @@ public class AiJobExecutionService {
         return Math.max(0, Math.min(progress, 99));
     }
 
+    private boolean isTerminal(AiJobStepStatus status) {
+        return status == AiJobStepStatus.completed || status == AiJobStepStatus.failed;
+    }
+
     private int resolveStepWeight(String stepName) {
         if (stepName == null || stepName.isBlank()) {
             return 10;
@@ -276,6 +335,21 @@ public class AiJobExecutionService {
         return message.length() > 200 ? message.substring(0, 200) + "..." : message;
     }
 
+    private static final class JobProgress {
+        private final Map<String, AiJobStepStatus> statuses = new LinkedHashMap<>();
+        private final Map<String, Double> fractions = new HashMap<>();
+        private int writtenProgress = -1;
+        private long flushedAt;
+        private long touchedAt;
+
+        private JobProgress(List<AiJobStepEntity> steps, long now) {
+            for (AiJobStepEntity step : steps) {
+                statuses.put(step.getStepName(), step.getStatus());
+            }
+            touchedAt = now;
+        }
+    }
+
     public record ExecutionSnapshot(
             String currentStep,
             int completedSteps,
@@ -4,4 +4,10 @@ import app.mnema.ai.domain.entity.AiJobEntity;
 
 public interface AiJobProcessor {
     AiJobProcessingResult process(AiJobEntity job);
+
+    /**
+     * Cancels the provider-side batch the job is waiting on, if the provider supports batches.
+     */
+    default void cancelProviderBatch(AiJobEntity job) {
+    }
 }
@@ -49,6 +49,17 @@ public class AiJobProcessorRouter implements AiJobProcessor {
         return processor.process(job);
     }
 
+    @Override
+    public void cancelProviderBatch(AiJobEntity job) {
+        if (job.getProviderBatchId() == null) {
+            return;
+        }
+        AiProviderProcessor processor = processors.get(resolveProvider(job));
+        if (processor != null) {
+            processor.cancelProviderBatch(job);
+        }
+    }
+
     private String resolveProvider(AiJobEntity job) {
         JsonNode params = job.getParamsJson() == null ? objectMapper.createObjectNode() : job.getParamsJson();
         UUID credentialId = parseUuid(params.path("providerCredentialId").asText(null));
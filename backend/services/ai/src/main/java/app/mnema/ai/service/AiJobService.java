@@ -20,11 +20,14 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.data.domain.PageRequest;
 
@@ -37,11 +40,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class AiJobService {
 
+    // Modes whose result is a read-only report, so an identical request can be answered by an
+    // earlier or in-flight job without calling the provider again. Modes that write cards or
+    // media into the deck are never reused.
+    private static final Set<String> REUSABLE_MODES = Set.of("audit", "card_audit", "import_preview");
+    // Reports over the live deck: the cards can change right after the job finishes, so these
+    // modes only attach to a job that is still queued or running, never to a completed one.
+    private static final Set<String> LIVE_DECK_MODES = Set.of("audit", "card_audit");
+    private static final List<AiJobStatus> IN_FLIGHT_STATUSES = List.of(AiJobStatus.queued, AiJobStatus.processing);
+
     private final AiJobRepository jobRepository;
     private final CurrentUserProvider currentUserProvider;
     private final AiQuotaService quotaService;
@@ -52,6 +65,8 @@ public class AiJobService {
     private final AiJobEtaEstimator etaEstimator;
     private final AiJobCostEstimator costEstimator;
     private final AiJobCancellationRegistry cancellationRegistry;
+    private final AiJobWorker jobWorker;
+    private final long resultReuseTtlSeconds;
 
     public AiJobService(AiJobRepository jobRepository,
                         CurrentUserProvider currentUserProvider,
@@ -62,7 +77,9 @@ public class AiJobService {
                         AiJobExecutionService executionService,
                         AiJobEtaEstimator etaEstimator,
                         AiJobCostEstimator costEstimator,
-                        AiJobCancellationRegistry cancellationRegistry) {
+                        AiJobCancellationRegistry cancellationRegistry,
+                        AiJobWorker jobWorker,
+                        @Value("${app.ai.jobs.result-reuse-ttl-seconds:600}") long resultReuseTtlSeconds) {
         this.jobRepository = jobRepository;
         this.currentUserProvider = currentUserProvider;
         this.quotaService = quotaService;
@@ -73,6 +90,8 @@ public class AiJobService {
         this.etaEstimator = etaEstimator;
         this.costEstimator = costEstimator;
         this.cancellationRegistry = cancellationRegistry;
+        this.jobWorker = jobWorker;
+        this.resultReuseTtlSeconds = Math.max(resultReuseTtlSeconds, 0L);
     }
 
     @Transactional
@@ -82,7 +101,11 @@ public class AiJobService {
         UUID requestId = requireRequestId(request.requestId());
         AiJobType jobType = defaultType(request.type());
         JsonNode params = request.params() == null ? NullNode.getInstance() : request.params();
-        String expectedHash = resolveInputHash(request.inputHash(), jobType, request.deckId(), params);
+        boolean reusable = isReusable(jobType, params);
+        // The reuse key is always computed here; a client-supplied hash could point at another input.
+        String expectedHash = reusable
+                ? computeHash(jobType, request.deckId(), params)
+                : resolveInputHash(request.inputHash(), jobType, request.deckId(), params);
 
         Optional<AiJobEntity> existing = jobRepository.findByRequestId(requestId);
         if (existing.isPresent()) {
@@ -98,6 +121,15 @@ public class AiJobService {
 
         Instant now = Instant.now();
         ProviderInfo requestProviderInfo = resolveProviderInfo(userId, params);
+        if (reusable) {
+            // Serializes identical submissions so a double click cannot start two provider runs.
+            jobRepository.lockInputHash(userId + ":" + expectedHash);
+            boolean includeCompleted = !LIVE_DECK_MODES.contains(resolveMode(params));
+            Optional<AiJobEntity> reusableJob = findReusableJob(userId, jobType, request.deckId(), expectedHash, requestProviderInfo, includeCompleted, now);
+            if (reusableJob.isPresent()) {
+                return toResponse(reusableJob.get());
+            }
+        }
         AiJobCostEstimator.PlannedCost plannedCost = costEstimator.estimatePlanned(jobType, params, requestProviderInfo.provider(), requestProviderInfo.model());
         int estimatedTokens = estimateTokens(jobType, request.deckId(), params, plannedCost);
 
@@ -222,6 +254,15 @@ public class AiJobService {
         job.setUserAccessToken(null);
         AiJobEntity saved = jobRepository.save(job);
         cancellationRegistry.cancel(jobId);
+        if (saved.getProviderBatchId() != null) {
+            // The provider call runs only once the cancel is committed.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jobWorker.cancelProviderBatch(saved);
+                }
+            });
+        }
         return toResponse(saved);
     }
 
@@ -273,6 +314,50 @@ public class AiJobService {
         return computeHash(type, deckId, params);
     }
 
+    private boolean isReusable(AiJobType type, JsonNode params) {
+        if (resultReuseTtlSeconds <= 0) {
+            return false;
+        }
+        String mode = resolveMode(params);
+        if (type == AiJobType.tts) {
+            return "generic".equals(mode);
+        }
+        return REUSABLE_MODES.contains(mode);
+    }
+
+    /**
+     * Finds a job of the same user with the same input hash, deck, provider and model that is still
+     * queued or running, or (when {@code includeCompleted} is set) that completed within the reuse
+     * TTL. The caller gets that job back instead of a new one, so no provider call and no quota is
+     * spent on the repeat.
+     */
+    private Optional<AiJobEntity> findReusableJob(UUID userId,
+                                                  AiJobType type,
+                                                  UUID deckId,
+                                                  String inputHash,
+                                                  ProviderInfo providerInfo,
+                                                  boolean includeCompleted,
+                                                  Instant now) {
+        Optional<AiJobEntity> candidate = jobRepository
+                .findFirstByUserIdAndTypeAndInputHashAndStatusInOrderByCreatedAtDesc(userId, type, inputHash, IN_FLIGHT_STATUSES);
+        if (candidate.isEmpty() && includeCompleted) {
+            candidate = jobRepository.findFirstByUserIdAndTypeAndInputHashAndStatusAndCompletedAtAfterOrderByCompletedAtDesc(
+                    userId,
+                    type,
+                    inputHash,
+                    AiJobStatus.completed,
+                    now.minusSeconds(resultReuseTtlSeconds)
+            );
+        }
+        return candidate.filter(job -> Objects.equals(job.getDeckId(), deckId) && sameProvider(resolveProviderInfo(job), providerInfo));
+    }
+
+    private boolean sameProvider(ProviderInfo left, ProviderInfo right) {
+        return Objects.equals(left.credentialId(), right.credentialId())
+                && Objects.equals(left.provider(), right.provider())
+                && Objects.equals(left.model(), right.model());
+    }
+
     private int estimateTokens(AiJobType type, UUID deckId, JsonNode params, AiJobCostEstimator.PlannedCost plannedCost) {
         int plannedTokens = 0;
         if (plannedCost != null) {
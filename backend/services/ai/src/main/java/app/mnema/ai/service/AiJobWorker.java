@@ -7,7 +7,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -41,6 +40,7 @@ public class AiJobWorker {
     private final long baseBackoffMs;
     private final long maxBackoffMs;
     private final int concurrentJobs;
+    private final Duration batchPollInterval;
     private final Semaphore jobSlots;
     private final ExecutorService executor;
     private final ScheduledExecutorService heartbeatScheduler;
@@ -57,7 +57,8 @@ public class AiJobWorker {
                        @Value("${app.ai.jobs.max-attempts:3}") int maxAttempts,
                        @Value("${app.ai.jobs.backoff-ms:2000}") long baseBackoffMs,
                        @Value("${app.ai.jobs.max-backoff-ms:30000}") long maxBackoffMs,
-                       @Value("${app.ai.jobs.concurrent-jobs:2}") int concurrentJobs) {
+                       @Value("${app.ai.jobs.concurrent-jobs:2}") int concurrentJobs,
+                       @Value("${app.ai.jobs.batch-poll-interval-ms:60000}") long batchPollIntervalMs) {
         this.jdbcTemplate = jdbcTemplate;
         this.jobRepository = jobRepository;
         this.jobProcessor = jobProcessor;
@@ -70,6 +71,7 @@ public class AiJobWorker {
         this.baseBackoffMs = Math.max(baseBackoffMs, 0);
         this.maxBackoffMs = Math.max(maxBackoffMs, this.baseBackoffMs);
         this.concurrentJobs = Math.max(concurrentJobs, 1);
+        this.batchPollInterval = Duration.ofMillis(Math.max(batchPollIntervalMs, 1_000L));
         this.jobSlots = new Semaphore(this.concurrentJobs);
         this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-job-worker-", 0).factory());
         this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
@@ -77,7 +79,10 @@ public class AiJobWorker {
         );
     }
 
-    @Scheduled(fixedDelayString = "${app.ai.jobs.poll-interval-ms:2000}")
+    /**
+     * Claims runnable jobs until every slot is busy or the queue is empty. Driven by
+     * {@link AiJobDispatcher} and by finished jobs; safe to call from several threads at once.
+     */
     public void poll() {
         while (jobSlots.tryAcquire()) {
             Optional<AiJobEntity> jobOpt = claimNextJob();
@@ -89,6 +94,23 @@ public class AiJobWorker {
         }
     }
 
+    /**
+     * Earliest {@code next_run_at} of a queued job that is not runnable yet by the database clock,
+     * so the dispatcher can re-arm after a delayed wake-up that came early or missed a notification.
+     */
+    public Optional<Instant> nextScheduledRunAt() {
+        Timestamp nextRunAt = jdbcTemplate.queryForObject(
+                """
+                select min(next_run_at)
+                from app_ai.ai_jobs
+                where status = 'queued'
+                  and next_run_at > now()
+                """,
+                Timestamp.class
+        );
+        return Optional.ofNullable(nextRunAt).map(Timestamp::toInstant);
+    }
+
     private void handleJob(AiJobEntity job) {
         try (AiJobCancellationRegistry.Registration ignored = cancellationRegistry.register(job.getJobId())) {
             if (isCanceled(job.getJobId())) {
@@ -98,6 +120,9 @@ public class AiJobWorker {
             try {
                 AiJobProcessingResult result = jobProcessor.process(job);
                 markCompleted(job, result);
+            } catch (AiJobDeferredException ex) {
+                log.info("AI job deferred jobId={} batchId={} reason={}", job.getJobId(), job.getProviderBatchId(), safeMessage(ex));
+                markDeferred(job, ex);
             } catch (Exception ex) {
                 log.warn("AI job failed jobId={} errorType={} message={}", job.getJobId(), ex.getClass().getSimpleName(), safeMessage(ex));
                 markFailed(job, ex);
@@ -156,6 +181,8 @@ public class AiJobWorker {
                 } finally {
                     jobSlots.release();
                 }
+                // A freed slot picks up the backlog right away instead of waiting for a notification.
+                pollAfterCompletion();
             });
         } catch (RejectedExecutionException ex) {
             jobSlots.release();
@@ -164,6 +191,14 @@ public class AiJobWorker {
         }
     }
 
+    private void pollAfterCompletion() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.warn("AI job poll after completion failed workerId={} error={}", workerId, safeMessage(ex));
+        }
+    }
+
     @Transactional
     public Optional<AiJobEntity> claimNextJob() {
         UUID jobId = jdbcTemplate.query(
@@ -265,6 +300,7 @@ public class AiJobWorker {
                     completed_at = ?,
                     error_message = ?,
                     user_access_token = case when cast(? as app_ai.ai_job_status) = 'failed'::app_ai.ai_job_status then null else user_access_token end,
+                    provider_batch_id = ?,
                     locked_at = null,
                     locked_by = null,
                     updated_at = ?
@@ -277,11 +313,67 @@ public class AiJobWorker {
                 toSqlTimestamp(completedAt),
                 errorSummary,
                 nextStatus.name(),
+                job.getProviderBatchId(),
+                toSqlTimestamp(now),
+                job.getJobId()
+        );
+    }
+
+    /**
+     * Requeues a job that waits on a provider batch. The attempt counter and the access token are
+     * kept, and the slot is freed until {@code next_run_at}.
+     */
+    @Transactional
+    public void markDeferred(AiJobEntity job, AiJobDeferredException ex) {
+        if (isCanceled(job.getJobId())) {
+            // Canceled while the batch was being submitted: nobody will poll it again.
+            cancelProviderBatch(job);
+            return;
+        }
+        Instant now = Instant.now();
+        Duration delay = ex.resumeAfter() != null ? ex.resumeAfter() : batchPollInterval;
+        Instant nextRunAt = now.plus(delay);
+
+        job.setStatus(AiJobStatus.queued);
+        job.setNextRunAt(nextRunAt);
+        job.setLockedAt(null);
+        job.setLockedBy(null);
+        job.setUpdatedAt(now);
+
+        jdbcTemplate.update(
+                """
+                update app_ai.ai_jobs
+                set status = 'queued'::app_ai.ai_job_status,
+                    next_run_at = ?,
+                    provider_batch_id = ?,
+                    locked_at = null,
+                    locked_by = null,
+                    updated_at = ?
+                where job_id = ?
+                  and status <> 'canceled'::app_ai.ai_job_status
+                """,
+                toSqlTimestamp(nextRunAt),
+                job.getProviderBatchId(),
                 toSqlTimestamp(now),
                 job.getJobId()
         );
     }
 
+    /**
+     * Best-effort cancel of the provider batch a canceled job was waiting on, so the provider
+     * stops processing (and billing) requests nobody will apply.
+     */
+    public void cancelProviderBatch(AiJobEntity job) {
+        if (job.getProviderBatchId() == null) {
+            return;
+        }
+        try {
+            jobProcessor.cancelProviderBatch(job);
+        } catch (RuntimeException ex) {
+            log.warn("AI job provider batch cancel failed jobId={} batchId={} message={}", job.getJobId(), job.getProviderBatchId(), safeMessage(ex));
+        }
+    }
+
     private Timestamp toSqlTimestamp(Instant value) {
         return value == null ? null : Timestamp.from(value);
     }
@@ -0,0 +1,179 @@
+package app.mnema.ai.service;
+
+import app.mnema.ai.client.media.MediaApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Maps a content hash of a synthesized speech or generated image request to the media id it was
+ * uploaded as, so the same word spoken with the same provider, model, voice and format is
+ * synthesized and uploaded once per user and then shared by every deck of that user. Keys are
+ * scoped by the owner of the uploaded media: a user may delete their own media, and that must not
+ * break cards of another user that would otherwise reference it. A hit is confirmed with the
+ * media service before it is returned, so deleted media is never referenced again.
+ */
+@Service
+public class AiMediaCache {
+
+    public static final String KIND_TTS = "tts";
+    public static final String KIND_IMAGE = "image";
+
+    private static final Logger log = LoggerFactory.getLogger(AiMediaCache.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MediaApiClient mediaApiClient;
+    private final boolean enabled;
+    private final int ttlDays;
+
+    public AiMediaCache(JdbcTemplate jdbcTemplate,
+                        MediaApiClient mediaApiClient,
+                        @Value("${app.ai.media-cache.enabled:true}") boolean enabled,
+                        @Value("${app.ai.media-cache.ttl-days:90}") int ttlDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mediaApiClient = mediaApiClient;
+        this.enabled = enabled;
+        this.ttlDays = Math.max(ttlDays, 1);
+    }
+
+    /**
+     * Cache key for a speech request. Text is compared after Unicode normalization and whitespace
+     * collapsing; case is kept because it can change pronunciation.
+     */
+    public static String ttsKey(UUID ownerId, String provider, String model, String voice, String format, String text) {
+        return hash(KIND_TTS, normalizeText(text), owner(ownerId), provider, model, voice, format);
+    }
+
+    public static String imageKey(UUID ownerId, String provider, String model, String options, String prompt) {
+        return hash(KIND_IMAGE, normalizeText(prompt), owner(ownerId), provider, model, options);
+    }
+
+    private static String owner(UUID ownerId) {
+        return ownerId == null ? null : ownerId.toString();
+    }
+
+    public Optional<CachedMedia> find(String cacheKey) {
+        if (!enabled || cacheKey == null) {
+            return Optional.empty();
+        }
+        Optional<CachedMedia> cached;
+        try {
+            cached = jdbcTemplate.query(
+                    """
+                    update app_ai.ai_media_cache
+                    set last_used_at = now()
+                    where cache_key = ?
+                    returning media_id, content_type
+                    """,
+                    (rs, rowNum) -> new CachedMedia(rs.getObject("media_id", UUID.class), rs.getString("content_type")),
+                    cacheKey
+            ).stream().findFirst();
+        } catch (RuntimeException ex) {
+            log.warn("AI media cache lookup failed error={}", ex.getMessage());
+            return Optional.empty();
+        }
+        if (cached.isEmpty()) {
+            return cached;
+        }
+        try {
+            mediaApiClient.resolve(List.of(cached.get().mediaId()), null);
+            return cached;
+        } catch (RuntimeException ex) {
+            log.info("AI media cache entry is no longer resolvable mediaId={} error={}", cached.get().mediaId(), ex.getMessage());
+            evict(cacheKey);
+            return Optional.empty();
+        }
+    }
+
+    public void put(String cacheKey, String kind, UUID mediaId, String contentType) {
+        if (!enabled || cacheKey == null || mediaId == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                    """
+                    insert into app_ai.ai_media_cache (cache_key, kind, media_id, content_type, created_at, last_used_at)
+                    values (?, ?, ?, ?, now(), now())
+                    on conflict (cache_key) do update
+                    set media_id = excluded.media_id,
+                        content_type = excluded.content_type,
+                        last_used_at = now()
+                    """,
+                    cacheKey,
+                    kind,
+                    mediaId,
+                    contentType
+            );
+        } catch (RuntimeException ex) {
+            log.warn("AI media cache store failed mediaId={} error={}", mediaId, ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.media-cache.cleanup-interval-ms:86400000}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                    "delete from app_ai.ai_media_cache where last_used_at < now() - make_interval(days => ?)",
+                    ttlDays
+            );
+        } catch (RuntimeException ex) {
+            log.warn("AI media cache cleanup failed error={}", ex.getMessage());
+        }
+    }
+
+    private void evict(String cacheKey) {
+        try {
+            jdbcTemplate.update("delete from app_ai.ai_media_cache where cache_key = ?", cacheKey);
+        } catch (RuntimeException ex) {
+            log.warn("AI media cache eviction failed error={}", ex.getMessage());
+        }
+    }
+
+    static String normalizeText(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private static String hash(String kind, String text, String... options) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        digest.update(kind.getBytes(StandardCharsets.UTF_8));
+        for (String option : options) {
+            digest.update((byte) 0x1f);
+            if (option != null) {
+                digest.update(option.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        digest.update((byte) 0x1e);
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public record CachedMedia(UUID mediaId, String contentType) {
+    }
+}
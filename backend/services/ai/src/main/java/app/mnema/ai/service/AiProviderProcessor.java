@@ -6,4 +6,7 @@ public interface AiProviderProcessor {
     String provider();
 
     AiJobProcessingResult process(AiJobEntity job);
+
+    default void cancelProviderBatch(AiJobEntity job) {
+    }
 }
@@ -5,22 +5,42 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
+/**
+ * Splits import audio into mono 16 kHz WAV segments with ffmpeg. The source is spooled to a temp
+ * file and segments are consumed from disk as soon as the segment muxer reports them, so heap
+ * usage is bounded by one chunk rather than the whole file.
+ */
 @Service
 public class AudioChunkingService {
 
     private static final Logger log = LoggerFactory.getLogger(AudioChunkingService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SAMPLE_RATE = 16_000;
+    private static final int BYTES_PER_SECOND = SAMPLE_RATE * 2;
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final int MAX_LOG_BYTES = 4096;
+    private static final String FFMPEG_LOG = "ffmpeg.log";
     private static final Pattern TERMINAL_CONTROL_SEQUENCE = Pattern.compile(
             "\\u001B\\][^\\u0007]*(?:\\u0007|\\u001B\\\\)?|\\u001B\\[[0-?]*[ -/]*[@-~]"
     );
@@ -31,6 +51,7 @@ public class AudioChunkingService {
     private final Duration ffmpegTimeout;
     private final String ffmpegPath;
     private final String ffprobePath;
+    private final ScheduledExecutorService watchdogExecutor;
 
     public AudioChunkingService(@Value("${app.ai.import.audio-max-seconds:300}") int maxSeconds,
                                 @Value("${app.ai.import.audio-chunk-seconds:60}") int chunkSeconds,
@@ -44,82 +65,215 @@ public class AudioChunkingService {
         this.ffmpegTimeout = Duration.ofSeconds(Math.max(timeoutSeconds, 5));
         this.ffmpegPath = ffmpegPath == null || ffmpegPath.isBlank() ? "ffmpeg" : ffmpegPath.trim();
         this.ffprobePath = ffprobePath == null || ffprobePath.isBlank() ? "ffprobe" : ffprobePath.trim();
+        this.watchdogExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audio-ffmpeg-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public AudioChunkingResult prepareChunks(byte[] bytes, String mimeType) {
-        if (bytes == null || bytes.length == 0) {
+    /**
+     * Cuts {@code input} with ffmpeg and hands every segment to {@code handler} as soon as ffmpeg
+     * closes it, so transcription of the first chunk overlaps with cutting the next one. Only one
+     * segment is held in memory at a time; the handler may return {@code false} to stop early.
+     *
+     * <p>The duration and chunk limits are checked before the first chunk reaches the handler,
+     * because every handed-out chunk is transcribed and billed. The source is spooled to disk and
+     * probed first; when ffprobe cannot tell the duration, segments are only handed out after
+     * ffmpeg has cut the whole file.
+     */
+    public AudioChunkingResult streamChunks(InputStream input, String mimeType, AudioChunkHandler handler) {
+        if (input == null) {
             throw new IllegalStateException("Audio is empty");
         }
         String normalizedMimeType = normalizeMimeType(mimeType);
-        Path input = null;
+        BufferedInputStream source = new BufferedInputStream(input, BUFFER_SIZE);
         Path outputDir = null;
+        Path spooled = null;
+        Process process = null;
+        AtomicBoolean timedOut = new AtomicBoolean();
         try {
-            String extension = resolveExtension(normalizedMimeType);
-            input = Files.createTempFile("mnema-audio-", extension);
-            Files.write(input, bytes);
-
-            int durationSeconds = (int) Math.ceil(probeDurationSeconds(input));
-            if (durationSeconds <= 0) {
-                throw new IllegalStateException("Audio duration is missing");
-            }
-            if (durationSeconds > maxSeconds) {
-                throw new IllegalStateException("Audio is too long. Please upload a shorter file.");
-            }
-            if (durationSeconds <= chunkSeconds) {
-                List<AudioChunk> chunks = List.of(new AudioChunk(bytes, normalizedMimeType, false));
-                return new AudioChunkingResult(chunks, durationSeconds, chunks.size());
+            source.mark(1);
+            if (source.read() == -1) {
+                throw new IllegalStateException("Audio is empty");
             }
+            source.reset();
 
             outputDir = Files.createTempDirectory("mnema-audio-chunks-");
-            String outputPattern = outputDir.resolve("chunk-%03d.wav").toString();
-            runCommand(List.of(
+            spooled = Files.createTempFile("mnema-audio-", resolveExtension(normalizedMimeType));
+            Files.copy(source, spooled, StandardCopyOption.REPLACE_EXISTING);
+            double probedSeconds = probeDurationSeconds(spooled);
+            if (Math.ceil(probedSeconds) > maxSeconds || Math.ceil(probedSeconds / chunkSeconds) > maxChunks) {
+                throw tooLong();
+            }
+            boolean deferDispatch = !(probedSeconds > 0);
+
+            List<String> command = new ArrayList<>(List.of(
                     ffmpegPath,
                     "-hide_banner",
                     "-loglevel", "error",
-                    "-i", input.toString(),
+                    "-i", spooled.toString()
+            ));
+            if (!deferDispatch) {
+                // The probe is an estimate; capping the output keeps the segments within both limits.
+                command.addAll(List.of("-t", Integer.toString(Math.min(maxSeconds, maxChunks * chunkSeconds))));
+            }
+            command.addAll(List.of(
+                    "-vn",
                     "-ac", "1",
-                    "-ar", "16000",
+                    "-ar", Integer.toString(SAMPLE_RATE),
+                    "-c:a", "pcm_s16le",
                     "-f", "segment",
                     "-segment_time", Integer.toString(chunkSeconds),
+                    "-segment_list", "pipe:1",
+                    "-segment_list_type", "flat",
                     "-reset_timestamps", "1",
-                    outputPattern
+                    outputDir.resolve("chunk-%03d.wav").toString()
             ));
-            List<Path> files;
-            try (var stream = Files.list(outputDir)) {
-                files = stream
-                        .filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".wav"))
-                        .sorted(Comparator.naturalOrder())
-                        .toList();
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.redirectError(outputDir.resolve(FFMPEG_LOG).toFile());
+            process = builder.start();
+            process.getOutputStream().close();
+
+            long durationMillis = 0;
+            int chunkCount = 0;
+            boolean stopped = false;
+            List<Path> pending = new ArrayList<>();
+            try (BufferedReader segments = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = awaitSegment(segments, process, timedOut)) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    Path segment = outputDir.resolve(line.trim()).normalize();
+                    if (!segment.startsWith(outputDir)) {
+                        throw new IllegalStateException("Audio chunking failed");
+                    }
+                    if (deferDispatch) {
+                        if (pending.size() >= maxChunks) {
+                            throw tooLong();
+                        }
+                        pending.add(segment);
+                        continue;
+                    }
+                    byte[] bytes = Files.readAllBytes(segment);
+                    cleanupPath(segment);
+                    durationMillis += wavDurationMillis(bytes);
+                    int index = chunkCount++;
+                    if (!handler.accept(index, new AudioChunk(bytes, "audio/wav", true))) {
+                        stopped = true;
+                        break;
+                    }
+                }
             }
-            if (files.isEmpty()) {
-                throw new IllegalStateException("Audio chunking failed");
+            if (timedOut.get()) {
+                throw new IllegalStateException("Audio processing timed out");
             }
-            if (files.size() > maxChunks) {
-                throw new IllegalStateException("Audio is too long. Please upload a shorter file.");
+            if (!stopped) {
+                awaitExit(process, outputDir.resolve(FFMPEG_LOG));
             }
-            List<AudioChunk> chunks = new ArrayList<>();
-            for (Path file : files) {
-                chunks.add(new AudioChunk(Files.readAllBytes(file), "audio/wav", true));
+            if (deferDispatch) {
+                for (Path segment : pending) {
+                    durationMillis += wavDurationMillis(Files.size(segment));
+                }
+                if (durationMillis > maxSeconds * 1000L) {
+                    throw tooLong();
+                }
+                for (Path segment : pending) {
+                    byte[] bytes = Files.readAllBytes(segment);
+                    cleanupPath(segment);
+                    int index = chunkCount++;
+                    if (!handler.accept(index, new AudioChunk(bytes, "audio/wav", true))) {
+                        break;
+                    }
+                }
+            }
+            if (chunkCount == 0) {
+                throw new IllegalStateException("Audio chunking failed");
             }
-            return new AudioChunkingResult(chunks, durationSeconds, chunks.size());
+            int durationSeconds = (int) Math.max(1, (durationMillis + 999) / 1000);
+            return new AudioChunkingResult(durationSeconds, chunkCount);
         } catch (IOException ex) {
             throw new IllegalStateException("Failed to process audio", ex);
         } finally {
-            cleanupPath(input);
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            closeQuietly(source);
+            cleanupPath(spooled);
             cleanupDirectory(outputDir);
         }
     }
 
-    private double probeDurationSeconds(Path input) throws IOException {
-        String output = runCommand(List.of(
-                ffprobePath,
-                "-v", "error",
-                "-show_entries", "format=duration",
-                "-of", "default=noprint_wrappers=1:nokey=1",
-                input.toString()
-        ));
+    private IllegalStateException tooLong() {
+        return new IllegalStateException("Audio is too long. Please upload a shorter file.");
+    }
+
+    private String awaitSegment(BufferedReader segments, Process process, AtomicBoolean timedOut) throws IOException {
+        ScheduledFuture<?> watchdog = watchdogExecutor.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, ffmpegTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return segments.readLine();
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private void awaitExit(Process process, Path logFile) throws IOException {
+        boolean finished;
+        try {
+            finished = process.waitFor(ffmpegTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Audio processing interrupted", ex);
+        }
+        if (!finished) {
+            throw new IllegalStateException("Audio processing timed out");
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("Audio processing failed: " + summarizeOutput(readLog(logFile)));
+        }
+    }
+
+    private String readLog(Path logFile) throws IOException {
+        if (!Files.exists(logFile)) {
+            return "";
+        }
+        try (InputStream stream = Files.newInputStream(logFile)) {
+            return new String(stream.readNBytes(MAX_LOG_BYTES), StandardCharsets.UTF_8);
+        }
+    }
+
+    private long wavDurationMillis(byte[] wav) {
+        return wavDurationMillis(wav.length);
+    }
+
+    private long wavDurationMillis(long wavBytes) {
+        long pcmBytes = Math.max(0, wavBytes - WAV_HEADER_BYTES);
+        return pcmBytes * 1000L / BYTES_PER_SECOND;
+    }
+
+    // 0 when the container does not tell its duration (e.g. streamed WebM) or ffprobe is unavailable
+    private double probeDurationSeconds(Path input) {
+        String output;
         try {
-            return Double.parseDouble(output.trim());
+            output = runCommand(List.of(
+                    ffprobePath,
+                    "-v", "error",
+                    "-show_entries", "format=duration",
+                    "-of", "default=noprint_wrappers=1:nokey=1",
+                    input.toString()
+            ));
+        } catch (IOException | IllegalStateException ex) {
+            log.warn("Failed to probe audio duration error={}", ex.getMessage());
+            return 0;
+        }
+        try {
+            double seconds = Double.parseDouble(output.trim());
+            return Double.isFinite(seconds) ? seconds : 0;
         } catch (NumberFormatException ex) {
             log.warn("Failed to parse ffprobe duration output: {}", output.trim());
             return 0;
@@ -201,6 +355,13 @@ public class AudioChunkingService {
         }
     }
 
+    private void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
     private void cleanupDirectory(Path dir) {
         if (dir == null) {
             return;
@@ -214,9 +375,22 @@ public class AudioChunkingService {
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        watchdogExecutor.shutdownNow();
+    }
+
     public record AudioChunk(byte[] bytes, String mimeType, boolean reencoded) {
     }
 
-    public record AudioChunkingResult(List<AudioChunk> chunks, int durationSeconds, int chunkCount) {
+    public record AudioChunkingResult(int durationSeconds, int chunkCount) {
+    }
+
+    @FunctionalInterface
+    public interface AudioChunkHandler {
+        /**
+         * @return {@code false} to stop chunking; remaining audio is not decoded
+         */
+        boolean accept(int index, AudioChunk chunk);
     }
 }
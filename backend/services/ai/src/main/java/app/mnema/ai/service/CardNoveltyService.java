@@ -1,17 +1,26 @@
 package app.mnema.ai.service;
 
 import app.mnema.ai.client.core.CoreApiClient;
+import app.mnema.ai.client.core.CoreApiClient.CoreUserCardChange;
+import app.mnema.ai.client.core.CoreApiClient.CoreUserCardChanges;
 import app.mnema.ai.client.core.CoreApiClient.CoreUserCardPage;
 import app.mnema.ai.client.core.CoreApiClient.CoreUserCardResponse;
 import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
@@ -20,27 +29,121 @@ import java.util.regex.Pattern;
 @Service
 public class CardNoveltyService {
 
+    private static final Logger log = LoggerFactory.getLogger(CardNoveltyService.class);
     private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{IsAlphabetic}\\p{IsDigit}]+", Pattern.UNICODE_CHARACTER_CLASS);
     private static final int PAGE_SIZE = 200;
-    private static final int MAX_INDEX_CARDS = 3000;
+    private static final int CHANGE_PAGE_SIZE = 500;
+    private static final long DEFAULT_CHANGE_FEED_OVERLAP_SECONDS = 600;
+    private static final UUID MIN_CARD_ID = new UUID(0L, 0L);
     private static final int VECTOR_DIM = 256;
     private static final double SEMANTIC_SIMILARITY_THRESHOLD = 0.92d;
 
     private final CoreApiClient coreApiClient;
+    private final CardNoveltyStore store;
+    // Core stamps updated_at before commit, so a slow transaction can surface behind the cursor.
+    // The window has to cover the longest write transaction in core (a bulk delete chunk or a
+    // large import); re-reading it is cheap because upserts and deletes are idempotent.
+    private final Duration changeFeedOverlap;
+
+    @Autowired
+    public CardNoveltyService(CoreApiClient coreApiClient,
+                              CardNoveltyStore store,
+                              @Value("${app.ai.novelty.change-feed-overlap-seconds:600}") long changeFeedOverlapSeconds) {
+        this.coreApiClient = coreApiClient;
+        this.store = store;
+        this.changeFeedOverlap = Duration.ofSeconds(Math.max(0, changeFeedOverlapSeconds));
+    }
+
+    public CardNoveltyService(CoreApiClient coreApiClient, CardNoveltyStore store) {
+        this(coreApiClient, store, DEFAULT_CHANGE_FEED_OVERLAP_SECONDS);
+    }
 
     public CardNoveltyService(CoreApiClient coreApiClient) {
-        this.coreApiClient = coreApiClient;
+        this(coreApiClient, null);
     }
 
+    /**
+     * Builds the novelty index for the whole deck. The persisted fingerprints are brought up to
+     * date from the core change feed and then loaded in one read; if the store or the feed is
+     * unavailable, the deck is paged and fingerprinted over HTTP instead.
+     */
     public NoveltyIndex buildIndex(UUID deckId, String accessToken, List<String> fields) {
-        NoveltyIndex index = new NoveltyIndex();
         if (deckId == null || accessToken == null || accessToken.isBlank() || fields == null || fields.isEmpty()) {
-            return index;
+            return new NoveltyIndex();
+        }
+        if (store != null) {
+            String fieldsKey = fieldsKey(fields);
+            try {
+                syncStore(deckId, fieldsKey, accessToken, fields);
+                NoveltyIndex index = new NoveltyIndex();
+                store.load(deckId, fieldsKey).forEach(index::add);
+                return index;
+            } catch (RuntimeException ex) {
+                log.warn("Novelty store unavailable, falling back to deck scan deckId={} error={}", deckId, ex.getMessage());
+            }
+        }
+        return scanDeck(deckId, accessToken, fields);
+    }
+
+    private void syncStore(UUID deckId, String fieldsKey, String accessToken, List<String> fields) {
+        CardNoveltyStore.SyncState state = store.state(deckId, fieldsKey).orElse(null);
+        Instant afterChangedAt = state == null ? null : state.cursorChangedAt().minus(changeFeedOverlap);
+        UUID afterCardId = null;
+        boolean firstPage = true;
+        while (true) {
+            CoreUserCardChanges page = coreApiClient.getUserCardChanges(deckId, afterChangedAt, afterCardId, CHANGE_PAGE_SIZE, accessToken);
+            List<CoreUserCardChange> changes = page.changes() == null ? List.of() : page.changes();
+            if (firstPage && state != null && !Objects.equals(state.deckVersion(), page.deckVersion())) {
+                // A public deck update changes the effective content of untouched cards too.
+                store.reset(deckId, fieldsKey);
+                state = null;
+                afterChangedAt = null;
+                firstPage = false;
+                continue;
+            }
+            firstPage = false;
+
+            Map<UUID, Fingerprint> upserts = new HashMap<>();
+            List<UUID> deletions = new ArrayList<>();
+            for (CoreUserCardChange change : changes) {
+                if (change == null || change.userCardId() == null) {
+                    continue;
+                }
+                Fingerprint fingerprint = change.isDeleted() ? null : fingerprint(change.effectiveContent(), fields);
+                if (fingerprint == null) {
+                    upserts.remove(change.userCardId());
+                    deletions.add(change.userCardId());
+                } else {
+                    upserts.put(change.userCardId(), fingerprint);
+                }
+            }
+            if (!changes.isEmpty()) {
+                CoreUserCardChange last = changes.getLast();
+                afterChangedAt = last.changedAt();
+                afterCardId = last.userCardId();
+            }
+            if (!changes.isEmpty() || state == null) {
+                store.apply(
+                        deckId,
+                        fieldsKey,
+                        page.deckVersion(),
+                        upserts,
+                        deletions,
+                        afterChangedAt == null ? Instant.EPOCH : afterChangedAt,
+                        afterCardId == null ? MIN_CARD_ID : afterCardId
+                );
+                state = new CardNoveltyStore.SyncState(page.deckVersion(), afterChangedAt, afterCardId);
+            }
+            if (changes.size() < CHANGE_PAGE_SIZE) {
+                return;
+            }
         }
+    }
 
+    private NoveltyIndex scanDeck(UUID deckId, String accessToken, List<String> fields) {
+        NoveltyIndex index = new NoveltyIndex();
         int page = 1;
-        int loaded = 0;
-        while (loaded < MAX_INDEX_CARDS) {
+        while (true) {
             CoreUserCardPage cardPage = coreApiClient.getUserCards(deckId, page, PAGE_SIZE, accessToken);
             if (cardPage == null || cardPage.content() == null || cardPage.content().isEmpty()) {
                 break;
@@ -51,13 +154,8 @@ public class CardNoveltyService {
                     continue;
                 }
                 Fingerprint fingerprint = fingerprint(card.effectiveContent(), fields);
-                if (fingerprint == null) {
-                    continue;
-                }
-                index.add(fingerprint);
-                loaded++;
-                if (loaded >= MAX_INDEX_CARDS) {
-                    break;
+                if (fingerprint != null) {
+                    index.add(fingerprint);
                 }
             }
 
@@ -66,7 +164,6 @@ public class CardNoveltyService {
             }
             page++;
         }
-
         return index;
     }
 
@@ -96,26 +193,26 @@ public class CardNoveltyService {
                 droppedEmpty++;
                 continue;
             }
-            if (safeIndex.containsExact(fp.exactKey())) {
-                droppedExact++;
-                continue;
-            }
-            if (fp.primaryKey() != null && safeIndex.containsPrimary(fp.primaryKey())) {
-                droppedPrimary++;
-                continue;
-            }
-            if (safeIndex.hasSemanticMatch(fp.vector(), fp.primaryKey())) {
-                droppedSemantic++;
-                continue;
+            switch (safeIndex.admit(fp)) {
+                case EXACT -> droppedExact++;
+                case PRIMARY -> droppedPrimary++;
+                case SEMANTIC -> droppedSemantic++;
+                case ACCEPTED -> accepted.add(candidate);
             }
-
-            safeIndex.add(fp);
-            accepted.add(candidate);
         }
 
         return new FilterResult<>(List.copyOf(accepted), droppedEmpty, droppedExact, droppedPrimary, droppedSemantic);
     }
 
+    /**
+     * Normalized exact-content key of a card over {@code fields}, or null when they are all empty.
+     * Two cards with the same key are rejected by the index as exact duplicates.
+     */
+    public String exactKey(JsonNode content, List<String> fields) {
+        Fingerprint fp = fingerprint(content, fields);
+        return fp == null ? null : fp.exactKey();
+    }
+
     public List<String> buildAvoidSnippets(NoveltyIndex index, int limit) {
         if (index == null || limit <= 0) {
             return List.of();
@@ -253,7 +350,18 @@ public class CardNoveltyService {
         return vector;
     }
 
-    private record Fingerprint(String exactKey, String primaryKey, float[] vector, String example) {
+    static String fieldsKey(List<String> fields) {
+        return String.join("\u001f", fields.stream().map(field -> field == null ? "" : field).toList());
+    }
+
+    record Fingerprint(String exactKey, String primaryKey, float[] vector, String example) {
+    }
+
+    private enum Admission {
+        ACCEPTED,
+        EXACT,
+        PRIMARY,
+        SEMANTIC
     }
 
     public record FilterResult<T>(
@@ -265,15 +373,33 @@ public class CardNoveltyService {
     ) {
     }
 
+    /**
+     * Deck fingerprints plus everything accepted so far. Thread-safe: concurrently returning
+     * generation batches check and register their candidates atomically, so two batches cannot
+     * both accept the same card.
+     */
     public static final class NoveltyIndex {
         private final Set<String> exactKeys = new HashSet<>();
         private final Set<String> primaryKeys = new HashSet<>();
-        private final List<float[]> vectors = new ArrayList<>();
-        private final List<String> vectorPrimary = new ArrayList<>();
+        private final NoveltyVectorIndex vectors = new NoveltyVectorIndex(VECTOR_DIM);
         private final List<String> examples = new ArrayList<>();
         private final Map<String, List<Integer>> primaryBuckets = new HashMap<>();
 
-        private void add(Fingerprint fp) {
+        private synchronized Admission admit(Fingerprint fp) {
+            if (containsExact(fp.exactKey())) {
+                return Admission.EXACT;
+            }
+            if (fp.primaryKey() != null && containsPrimary(fp.primaryKey())) {
+                return Admission.PRIMARY;
+            }
+            if (hasSemanticMatch(fp.vector(), fp.primaryKey())) {
+                return Admission.SEMANTIC;
+            }
+            add(fp);
+            return Admission.ACCEPTED;
+        }
+
+        private synchronized void add(Fingerprint fp) {
             if (fp == null) {
                 return;
             }
@@ -281,15 +407,16 @@ public class CardNoveltyService {
             if (fp.primaryKey() != null && !fp.primaryKey().isBlank()) {
                 primaryKeys.add(fp.primaryKey());
             }
-            int idx = vectors.size();
-            vectors.add(fp.vector());
-            vectorPrimary.add(fp.primaryKey());
-            if (fp.primaryKey() != null && !fp.primaryKey().isBlank()) {
-                primaryBuckets.computeIfAbsent(fp.primaryKey(), __ -> new ArrayList<>()).add(idx);
-            }
             if (fp.example() != null && !fp.example().isBlank() && examples.size() < 512) {
                 examples.add(fp.example());
             }
+            if (fp.vector() == null || fp.vector().length != VECTOR_DIM) {
+                return;
+            }
+            int idx = vectors.add(fp.vector());
+            if (fp.primaryKey() != null && !fp.primaryKey().isBlank()) {
+                primaryBuckets.computeIfAbsent(fp.primaryKey(), __ -> new ArrayList<>()).add(idx);
+            }
         }
 
         private boolean containsExact(String exactKey) {
@@ -301,7 +428,7 @@ public class CardNoveltyService {
         }
 
         private boolean hasSemanticMatch(float[] vector, String primaryKey) {
-            if (vector == null || vector.length == 0 || vectors.isEmpty()) {
+            if (vector == null || vector.length != VECTOR_DIM || vectors.size() == 0) {
                 return false;
             }
 
@@ -315,31 +442,17 @@ public class CardNoveltyService {
                     if (idx == null || idx < 0 || idx >= vectors.size()) {
                         continue;
                     }
-                    if (cosine(vectors.get(idx), vector) >= SEMANTIC_SIMILARITY_THRESHOLD) {
+                    if (vectors.similarity(idx, vector) >= SEMANTIC_SIMILARITY_THRESHOLD) {
                         return true;
                     }
                 }
                 return false;
             }
 
-            for (float[] existing : vectors) {
-                if (cosine(existing, vector) >= SEMANTIC_SIMILARITY_THRESHOLD) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        private float cosine(float[] a, float[] b) {
-            int len = Math.min(a.length, b.length);
-            float dot = 0f;
-            for (int i = 0; i < len; i++) {
-                dot += a[i] * b[i];
-            }
-            return dot;
+            return vectors.anyAtLeast(vector, SEMANTIC_SIMILARITY_THRESHOLD);
         }
 
-        private List<String> examples(int limit) {
+        private synchronized List<String> examples(int limit) {
             if (examples.isEmpty()) {
                 return List.of();
             }
@@ -0,0 +1,171 @@
+package app.mnema.ai.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistent per-deck novelty fingerprints, keyed by (deck, fields key, user card). The rows are
+ * maintained incrementally from the core card change feed, so a generation job loads the whole
+ * deck with one read instead of paging and fingerprinting every card again.
+ */
+@Service
+public class CardNoveltyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CardNoveltyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<SyncState> state(UUID deckId, String fieldsKey) {
+        List<SyncState> rows = jdbcTemplate.query(
+                """
+                select deck_version, cursor_changed_at, cursor_card_id
+                from app_ai.ai_novelty_sync
+                where deck_id = ? and fields_key = ?
+                """,
+                (rs, rowNum) -> new SyncState(
+                        rs.getObject("deck_version", Integer.class),
+                        rs.getTimestamp("cursor_changed_at").toInstant(),
+                        rs.getObject("cursor_card_id", UUID.class)
+                ),
+                deckId,
+                fieldsKey
+        );
+        return rows.stream().findFirst();
+    }
+
+    @Transactional
+    public void reset(UUID deckId, String fieldsKey) {
+        jdbcTemplate.update(
+                "delete from app_ai.ai_novelty_fingerprints where deck_id = ? and fields_key = ?",
+                deckId,
+                fieldsKey
+        );
+        jdbcTemplate.update(
+                "delete from app_ai.ai_novelty_sync where deck_id = ? and fields_key = ?",
+                deckId,
+                fieldsKey
+        );
+    }
+
+    /**
+     * Applies one page of the change feed and advances the cursor in the same transaction, so a
+     * crash mid-sync never leaves the cursor ahead of the stored fingerprints.
+     */
+    @Transactional
+    public void apply(UUID deckId,
+                      String fieldsKey,
+                      Integer deckVersion,
+                      Map<UUID, CardNoveltyService.Fingerprint> upserts,
+                      Collection<UUID> deletions,
+                      Instant cursorChangedAt,
+                      UUID cursorCardId) {
+        if (deletions != null && !deletions.isEmpty()) {
+            jdbcTemplate.update(
+                    """
+                    delete from app_ai.ai_novelty_fingerprints
+                    where deck_id = ? and fields_key = ? and user_card_id = any(?)
+                    """,
+                    ps -> {
+                        ps.setObject(1, deckId);
+                        ps.setString(2, fieldsKey);
+                        // A bare UUID[] has no reliable SQL type mapping, so bind an explicit uuid[]
+                        ps.setArray(3, ps.getConnection().createArrayOf("uuid", deletions.toArray()));
+                    }
+            );
+        }
+        if (upserts != null && !upserts.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(upserts.size());
+            upserts.forEach((userCardId, fp) -> rows.add(new Object[]{
+                    deckId,
+                    fieldsKey,
+                    userCardId,
+                    fp.exactKey(),
+                    fp.primaryKey(),
+                    encodeVector(fp.vector()),
+                    fp.example()
+            }));
+            jdbcTemplate.batchUpdate(
+                    """
+                    insert into app_ai.ai_novelty_fingerprints (
+                        deck_id, fields_key, user_card_id, exact_key, primary_key, vector, example
+                    )
+                    values (?, ?, ?, ?, ?, ?, ?)
+                    on conflict (deck_id, fields_key, user_card_id) do update
+                    set exact_key = excluded.exact_key,
+                        primary_key = excluded.primary_key,
+                        vector = excluded.vector,
+                        example = excluded.example
+                    """,
+                    rows
+            );
+        }
+        jdbcTemplate.update(
+                """
+                insert into app_ai.ai_novelty_sync (
+                    deck_id, fields_key, deck_version, cursor_changed_at, cursor_card_id, updated_at
+                )
+                values (?, ?, ?, ?, ?, now())
+                on conflict (deck_id, fields_key) do update
+                set deck_version = excluded.deck_version,
+                    cursor_changed_at = excluded.cursor_changed_at,
+                    cursor_card_id = excluded.cursor_card_id,
+                    updated_at = now()
+                """,
+                deckId,
+                fieldsKey,
+                deckVersion,
+                Timestamp.from(cursorChangedAt),
+                cursorCardId
+        );
+    }
+
+    public List<CardNoveltyService.Fingerprint> load(UUID deckId, String fieldsKey) {
+        return jdbcTemplate.query(
+                """
+                select exact_key, primary_key, vector, example
+                from app_ai.ai_novelty_fingerprints
+                where deck_id = ? and fields_key = ?
+                """,
+                (rs, rowNum) -> new CardNoveltyService.Fingerprint(
+                        rs.getString("exact_key"),
+                        rs.getString("primary_key"),
+                        decodeVector(rs.getBytes("vector")),
+                        rs.getString("example")
+                ),
+                deckId,
+                fieldsKey
+        );
+    }
+
+    static byte[] encodeVector(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    static float[] decodeVector(byte[] bytes) {
+        if (bytes == null) {
+            return new float[0];
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public record SyncState(Integer deckVersion, Instant cursorChangedAt, UUID cursorCardId) {
+    }
+}
@@ -0,0 +1,207 @@
+package app.mnema.ai.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Similarity search over unit-length fingerprint vectors stored row by row in one flat
+ * {@code float[]} matrix. Small indexes are scanned exactly. Once the index grows past
+ * {@link #LSH_MIN_ROWS}, candidates come from random-projection LSH (SimHash): {@link #TABLES}
+ * tables keyed by {@link #BITS} hyperplane signs, and only bucket members are compared exactly.
+ * A pair at the 0.92 cosine threshold shares a bucket in at least one table with probability
+ * ~0.99, while an unrelated card is compared with probability ~0.016.
+ *
+ * <p>Not thread-safe; {@code NoveltyIndex} serializes access.
+ */
+final class NoveltyVectorIndex {
+
+    static final int LSH_MIN_ROWS = 4096;
+    static final int TABLES = 16;
+    static final int BITS = 10;
+
+    private static final int INITIAL_ROWS = 64;
+    private static final int PLANES = TABLES * BITS;
+    private static final long HYPERPLANE_SEED = 0x6E6F76656CL;
+
+    private final int dim;
+    private float[] matrix;
+    private int rows;
+    // Hyperplanes stored column-major ([dim][plane]) so a signature only touches non-zero
+    // coordinates of the query; trigram fingerprints are mostly zeros.
+    private float[] hyperplanes;
+    private Map<Integer, Bucket>[] tables;
+    private int[] visited;
+    private int visitEpoch;
+
+    NoveltyVectorIndex(int dim) {
+        this.dim = dim;
+        this.matrix = new float[INITIAL_ROWS * dim];
+    }
+
+    int size() {
+        return rows;
+    }
+
+    /** Appends a vector and returns its row index. */
+    int add(float[] vector) {
+        if (vector.length != dim) {
+            throw new IllegalArgumentException("Expected vector of " + dim + " dimensions, got " + vector.length);
+        }
+        if ((rows + 1) * dim > matrix.length) {
+            matrix = Arrays.copyOf(matrix, Math.max(matrix.length * 2, (rows + 1) * dim));
+        }
+        int row = rows++;
+        System.arraycopy(vector, 0, matrix, row * dim, dim);
+        if (tables != null) {
+            insert(row, vector);
+        } else if (rows >= LSH_MIN_ROWS) {
+            buildTables();
+        }
+        return row;
+    }
+
+    float similarity(int row, float[] vector) {
+        return dot(matrix, row * dim, vector, dim);
+    }
+
+    /** True when some stored vector has a dot product of at least {@code threshold} with the query. */
+    boolean anyAtLeast(float[] vector, double threshold) {
+        if (vector.length != dim || rows == 0) {
+            return false;
+        }
+        if (tables == null) {
+            return scanAtLeast(vector, threshold);
+        }
+        if (++visitEpoch == 0) {
+            Arrays.fill(visited, 0);
+            visitEpoch = 1;
+        }
+        int[] signatures = signatures(vector);
+        for (int table = 0; table < TABLES; table++) {
+            Bucket bucket = tables[table].get(signatures[table]);
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                int row = bucket.rows[i];
+                if (visited[row] == visitEpoch) {
+                    continue;
+                }
+                visited[row] = visitEpoch;
+                if (dot(matrix, row * dim, vector, dim) >= threshold) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Exact scan over every stored row. */
+    boolean scanAtLeast(float[] vector, double threshold) {
+        for (int row = 0, offset = 0; row < rows; row++, offset += dim) {
+            if (dot(matrix, offset, vector, dim) >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dot product with four independent accumulators: the loop-carried dependency of a single
+     * float sum limits throughput to one add per FP latency, while four chains let the JIT keep
+     * the multiply-add units busy and unroll without bounds checks on the flat matrix.
+     */
+    static float dot(float[] matrix, int offset, float[] vector, int length) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += matrix[offset + i] * vector[i];
+            s1 += matrix[offset + i + 1] * vector[i + 1];
+            s2 += matrix[offset + i + 2] * vector[i + 2];
+            s3 += matrix[offset + i + 3] * vector[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += matrix[offset + i] * vector[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void buildTables() {
+        // Fixed seed keeps bucket assignment reproducible between runs and in benchmarks.
+        SplittableRandom random = new SplittableRandom(HYPERPLANE_SEED);
+        hyperplanes = new float[dim * PLANES];
+        for (int i = 0; i < hyperplanes.length; i++) {
+            hyperplanes[i] = (float) gaussian(random);
+        }
+        tables = new Map[TABLES];
+        for (int table = 0; table < TABLES; table++) {
+            tables[table] = new HashMap<>();
+        }
+        visited = new int[matrix.length / dim];
+        float[] row = new float[dim];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(matrix, i * dim, row, 0, dim);
+            insert(i, row);
+        }
+    }
+
+    private void insert(int row, float[] vector) {
+        if (visited.length <= row) {
+            visited = Arrays.copyOf(visited, Math.max(visited.length * 2, row + 1));
+        }
+        int[] signatures = signatures(vector);
+        for (int table = 0; table < TABLES; table++) {
+            tables[table].computeIfAbsent(signatures[table], __ -> new Bucket()).add(row);
+        }
+    }
+
+    private int[] signatures(float[] vector) {
+        float[] projections = new float[PLANES];
+        for (int d = 0; d < dim; d++) {
+            float value = vector[d];
+            if (value == 0f) {
+                continue;
+            }
+            int base = d * PLANES;
+            for (int plane = 0; plane < PLANES; plane++) {
+                projections[plane] += value * hyperplanes[base + plane];
+            }
+        }
+        int[] signatures = new int[TABLES];
+        for (int table = 0; table < TABLES; table++) {
+            int bits = 0;
+            for (int bit = 0; bit < BITS; bit++) {
+                if (projections[table * BITS + bit] >= 0f) {
+                    bits |= 1 << bit;
+                }
+            }
+            signatures[table] = bits;
+        }
+        return signatures;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; only the sign of a projection matters, so planes are not normalized.
+        double u1 = 1d - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2d * Math.log(u1)) * Math.cos(2d * Math.PI * u2);
+    }
+
+    private static final class Bucket {
+        private int[] rows = new int[4];
+        private int size;
+
+        private void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+}
@@ -13,21 +13,39 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PreDestroy;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Two-stage OCR pipeline: render workers rasterize pages (each with its own {@link PDDocument},
+ * since PDFBox documents are not thread-safe) into a bounded queue, and the calling thread feeds
+ * that queue into the OCR pool. Rendering stops as soon as the in-order text prefix reaches the
+ * requested character limit. Every call gets its own render threads, so a large PDF cannot hold
+ * back the pages of a concurrent extraction. A page whose rendering exceeds the page timeout is
+ * given up while the other pages keep going, and the call fails only when no page is rendering and
+ * none arrives. Pages that could not be rendered in time, or whose OCR failed or timed out, are
+ * counted in {@link PdfOcrResult#failedPages()}.
+ */
 @Service
 public class PdfOcrService {
 
     private static final Logger log = LoggerFactory.getLogger(PdfOcrService.class);
+    private static final long RENDER_OFFER_MS = 100L;
 
     private final OcrEngine ocrEngine;
     private final int maxPages;
     private final int dpi;
     private final int parallelism;
+    private final int renderParallelism;
     private final int queueCapacity;
     private final Duration pageTimeout;
     private final ExecutorService executor;
@@ -36,12 +54,14 @@ public class PdfOcrService {
                          @Value("${app.ai.import.pdf-ocr-max-pages:10}") int maxPages,
                          @Value("${app.ai.import.pdf-ocr-dpi:200}") int dpi,
                          @Value("${app.ai.import.pdf-ocr-parallelism:2}") int parallelism,
+                         @Value("${app.ai.import.pdf-ocr-render-parallelism:0}") int renderParallelism,
                          @Value("${app.ai.import.pdf-ocr-queue-capacity:64}") int queueCapacity,
                          @Value("${app.ai.import.pdf-ocr-page-timeout-seconds:20}") long pageTimeoutSeconds) {
         this.ocrEngine = ocrEngine;
         this.maxPages = Math.max(maxPages, 1);
         this.dpi = Math.max(dpi, 72);
-        this.parallelism = Math.max(parallelism, 1);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.renderParallelism = renderParallelism > 0 ? renderParallelism : this.parallelism;
         int resolvedQueue = queueCapacity > 0 ? queueCapacity : this.parallelism * 4;
         this.queueCapacity = Math.max(resolvedQueue, this.parallelism);
         this.pageTimeout = Duration.ofSeconds(Math.max(pageTimeoutSeconds, 5));
@@ -62,68 +82,238 @@ public class PdfOcrService {
 
     public PdfOcrResult extract(byte[] pdfBytes, int maxChars, String language) {
         if (pdfBytes == null || pdfBytes.length == 0) {
-            return new PdfOcrResult("", false, 0, 0);
+            return new PdfOcrResult("", false, 0, 0, 0);
         }
         int limit = Math.max(maxChars, 1);
-        MemoryUsageSetting memory = MemoryUsageSetting.setupTempFileOnly();
-        try (PDDocument document = Loader.loadPDF(pdfBytes, null, null, null, memory.streamCache)) {
+        try (PDDocument document = load(pdfBytes)) {
             if (document.isEncrypted()) {
                 throw new IllegalStateException("Encrypted PDF is not supported");
             }
             int pageCount = document.getNumberOfPages();
             int pagesToProcess = Math.min(pageCount, maxPages);
-            PDFRenderer renderer = new PDFRenderer(document);
+            if (pagesToProcess == 0) {
+                return new PdfOcrResult("", false, pageCount, 0, 0);
+            }
+            AtomicInteger failedPages = new AtomicInteger();
+            String[] texts = runPipeline(document, pdfBytes, pagesToProcess, limit, language, failedPages);
+
             StringBuilder combined = new StringBuilder();
             boolean truncated = false;
-            List<Future<PageResult>> pending = new ArrayList<>();
-
-            for (int pageIndex = 0; pageIndex < pagesToProcess; pageIndex++) {
-                BufferedImage image = renderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
-                int currentIndex = pageIndex;
-                pending.add(executor.submit(() -> new PageResult(currentIndex, ocrEngine.extractText(image, language, dpi))));
-
-                if (pending.size() >= parallelism || pageIndex == pagesToProcess - 1) {
-                    List<PageResult> results = collectBatch(pending);
-                    pending.clear();
-                    results.sort(Comparator.comparingInt(PageResult::index));
-                    for (PageResult result : results) {
-                        if (result.text() != null && !result.text().isBlank()) {
-                            if (!combined.isEmpty()) {
-                                combined.append("\n\n");
-                            }
-                            combined.append(result.text().trim());
+            for (String text : texts) {
+                if (text == null || text.isBlank()) {
+                    continue;
+                }
+                if (!combined.isEmpty()) {
+                    combined.append("\n\n");
+                }
+                combined.append(text.trim());
+                if (combined.length() >= limit) {
+                    truncated = true;
+                    combined.setLength(limit);
+                    break;
+                }
+            }
+            return new PdfOcrResult(combined.toString(), truncated, pageCount, pagesToProcess, failedPages.get());
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to run OCR on PDF", ex);
+        }
+    }
+
+    private String[] runPipeline(PDDocument document,
+                                 byte[] pdfBytes,
+                                 int pagesToProcess,
+                                 int limit,
+                                 String language,
+                                 AtomicInteger failedPages) throws Exception {
+        String[] texts = new String[pagesToProcess];
+        BlockingQueue<RenderedPage> rendered = new ArrayBlockingQueue<>(Math.max(parallelism, 2));
+        AtomicInteger nextPage = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Exception> renderError = new AtomicReference<>();
+        // Page index -> render start (nanoTime); whoever removes the entry first owns the page's outcome
+        ConcurrentMap<Integer, Long> rendering = new ConcurrentHashMap<>();
+
+        int renderers = Math.min(renderParallelism, pagesToProcess);
+        List<Thread> renderThreads = new ArrayList<>(renderers);
+        for (int worker = 0; worker < renderers; worker++) {
+            boolean ownsCopy = worker > 0;
+            renderThreads.add(Thread.ofPlatform()
+                    .name("pdf-render-worker-" + worker)
+                    .daemon()
+                    .start(() -> renderPages(ownsCopy ? null : document, pdfBytes, pagesToProcess, nextPage, stop, rendered, rendering, renderError)));
+        }
+
+        Deque<PendingPage> inFlight = new ArrayDeque<>();
+        try {
+            int received = 0;
+            PrefixTracker prefix = new PrefixTracker(texts, limit);
+            while (!stop.get() && (received < pagesToProcess || !inFlight.isEmpty())) {
+                while (inFlight.size() < parallelism && received < pagesToProcess) {
+                    RenderedPage page = inFlight.isEmpty()
+                            ? rendered.poll(pageTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                            : rendered.poll();
+                    if (page == null && !inFlight.isEmpty()) {
+                        break;
+                    }
+                    if (page == null) {
+                        if (renderError.get() != null) {
+                            throw renderError.get();
                         }
-                        if (combined.length() >= limit) {
-                            truncated = true;
-                            combined.setLength(limit);
-                            break;
+                        if (rendering.isEmpty()) {
+                            throw new TimeoutException("PDF rendering stalled after " + received + " of " + pagesToProcess + " pages");
+                        }
+                        // Pages rendering for longer than the timeout are given up; younger ones get more time
+                        for (int index : abandonStalledPages(rendering)) {
+                            received++;
+                            failedPages.incrementAndGet();
+                            log.warn("PDF page render timed out page={} after {}s", index, pageTimeout.toSeconds());
+                            stop.compareAndSet(false, prefix.complete(index, null));
                         }
-                    }
-                    if (truncated) {
                         break;
                     }
+                    received++;
+                    if (page.image() == null) {
+                        failedPages.incrementAndGet();
+                        stop.compareAndSet(false, prefix.complete(page.index(), null));
+                        continue;
+                    }
+                    BufferedImage image = page.image();
+                    inFlight.add(new PendingPage(page.index(), executor.submit(() -> ocrEngine.extractText(image, language, dpi))));
+                }
+                if (renderError.get() != null) {
+                    throw renderError.get();
+                }
+                if (inFlight.isEmpty()) {
+                    continue;
+                }
+                PendingPage head = inFlight.poll();
+                if (prefix.complete(head.index(), awaitText(head.future(), failedPages))) {
+                    stop.set(true);
+                }
+            }
+            if (renderError.get() != null) {
+                throw renderError.get();
+            }
+            return texts;
+        } finally {
+            stop.set(true);
+            for (PendingPage page : inFlight) {
+                page.future().cancel(true);
+            }
+            rendered.clear();
+            // Worker 0 renders from the caller's document: give renderers a bounded chance to finish before it is closed.
+            joinRenderers(renderThreads);
+        }
+    }
+
+    private void renderPages(PDDocument shared,
+                             byte[] pdfBytes,
+                             int pagesToProcess,
+                             AtomicInteger nextPage,
+                             AtomicBoolean stop,
+                             BlockingQueue<RenderedPage> rendered,
+                             ConcurrentMap<Integer, Long> rendering,
+                             AtomicReference<Exception> renderError) {
+        PDDocument copy = null;
+        try {
+            PDDocument document = shared;
+            if (document == null) {
+                copy = load(pdfBytes);
+                document = copy;
+            }
+            PDFRenderer renderer = new PDFRenderer(document);
+            int pageIndex;
+            while (!stop.get() && (pageIndex = nextPage.getAndIncrement()) < pagesToProcess) {
+                BufferedImage image = null;
+                rendering.put(pageIndex, System.nanoTime());
+                try {
+                    image = renderPage(renderer, pageIndex);
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("PDF page render failed page={} error={}", pageIndex, ex.getClass().getSimpleName());
+                }
+                if (rendering.remove(pageIndex) == null) {
+                    // The pipeline already gave this page up as timed out
+                    continue;
+                }
+                RenderedPage page = new RenderedPage(pageIndex, image);
+                while (!stop.get() && !rendered.offer(page, RENDER_OFFER_MS, TimeUnit.MILLISECONDS)) {
+                    // Back-pressure: wait for the OCR stage to drain the queue.
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            renderError.compareAndSet(null, ex);
+            stop.set(true);
+        } finally {
+            if (copy != null) {
+                try {
+                    copy.close();
+                } catch (IOException ignored) {
                 }
             }
+        }
+    }
 
-            return new PdfOcrResult(combined.toString(), truncated, pageCount, pagesToProcess);
+    BufferedImage renderPage(PDFRenderer renderer, int pageIndex) throws IOException {
+        return renderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
+    }
+
+    private String awaitText(Future<String> future, AtomicInteger failedPages) {
+        try {
+            return future.get(pageTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            log.warn("OCR page timed out after {}s", pageTimeout.toSeconds());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
         } catch (Exception ex) {
-            throw new IllegalStateException("Failed to run OCR on PDF", ex);
+            log.warn("OCR page failed: {}", ex.getClass().getSimpleName());
+        }
+        failedPages.incrementAndGet();
+        return null;
+    }
+
+    private List<Integer> abandonStalledPages(ConcurrentMap<Integer, Long> rendering) {
+        long now = System.nanoTime();
+        List<Integer> abandoned = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : rendering.entrySet()) {
+            if (now - entry.getValue() >= pageTimeout.toNanos() && rendering.remove(entry.getKey(), entry.getValue())) {
+                abandoned.add(entry.getKey());
+            }
         }
+        return abandoned;
     }
 
-    private List<PageResult> collectBatch(List<Future<PageResult>> futures) {
-        List<PageResult> results = new ArrayList<>();
-        for (Future<PageResult> future : futures) {
-            try {
-                results.add(future.get(pageTimeout.toMillis(), TimeUnit.MILLISECONDS));
-            } catch (TimeoutException ex) {
-                future.cancel(true);
-                log.warn("OCR page timed out after {}s", pageTimeout.toSeconds());
-            } catch (Exception ex) {
-                log.warn("OCR page failed: {}", ex.getClass().getSimpleName());
+    // Waits at most one page timeout in total: a renderer stuck inside PDFBox cannot be interrupted,
+    // and it only touches a document whose results are no longer read
+    private void joinRenderers(List<Thread> renderThreads) {
+        long deadline = System.nanoTime() + pageTimeout.toNanos();
+        boolean interrupted = false;
+        for (Thread thread : renderThreads) {
+            while (thread.isAlive()) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    log.warn("PDF render worker {} is still busy; leaving it to finish in the background", thread.getName());
+                    break;
+                }
+                try {
+                    thread.join(remainingMs);
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                    break;
+                }
             }
         }
-        return results;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PDDocument load(byte[] pdfBytes) throws IOException {
+        MemoryUsageSetting memory = MemoryUsageSetting.setupTempFileOnly();
+        return Loader.loadPDF(pdfBytes, null, null, null, memory.streamCache);
     }
 
     @PreDestroy
@@ -131,9 +321,46 @@ public class PdfOcrService {
         executor.shutdownNow();
     }
 
-    private record PageResult(int index, String text) {
+    /**
+     * Tracks the length of the text assembled from pages 0..n in order, so the pipeline can stop
+     * once the contiguous prefix alone already exceeds the character limit.
+     */
+    private static final class PrefixTracker {
+        private final String[] texts;
+        private final boolean[] done;
+        private final int limit;
+        private int next;
+        private int length;
+
+        private PrefixTracker(String[] texts, int limit) {
+            this.texts = texts;
+            this.done = new boolean[texts.length];
+            this.limit = limit;
+        }
+
+        private boolean complete(int index, String text) {
+            texts[index] = text;
+            done[index] = true;
+            while (next < done.length && done[next]) {
+                String value = texts[next];
+                if (value != null && !value.isBlank()) {
+                    length += (length > 0 ? 2 : 0) + value.trim().length();
+                }
+                next++;
+            }
+            return length >= limit;
+        }
+    }
+
+    private record RenderedPage(int index, BufferedImage image) {
+    }
+
+    private record PendingPage(int index, Future<String> future) {
     }
 
-    public record PdfOcrResult(String text, boolean truncated, int pageCount, int pagesProcessed) {
+    public record PdfOcrResult(String text, boolean truncated, int pageCount, int pagesProcessed, int failedPages) {
+        public boolean degraded() {
+            return failedPages > 0;
+        }
     }
 }
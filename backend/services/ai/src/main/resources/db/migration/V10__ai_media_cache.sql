@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS app_ai.ai_media_cache
+(
+    cache_key    TEXT        NOT NULL PRIMARY KEY,
+    kind         TEXT        NOT NULL,
+    media_id     UUID        NOT NULL,
+    content_type TEXT,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_used_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS ix_ai_media_cache_last_used
+    ON app_ai.ai_media_cache (last_used_at);
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS ix_ai_jobs_user_input_hash
+    ON app_ai.ai_jobs (user_id, input_hash, created_at DESC)
+    WHERE input_hash IS NOT NULL;
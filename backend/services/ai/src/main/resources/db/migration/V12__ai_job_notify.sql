@@ -0,0 +1,19 @@
+CREATE OR REPLACE FUNCTION app_ai.notify_ai_job_queued() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify(
+            'ai_jobs',
+            coalesce((floor(extract(epoch from NEW.next_run_at) * 1000))::bigint::text, '')
+            );
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_ai_jobs_notify_queued ON app_ai.ai_jobs;
+
+CREATE TRIGGER tr_ai_jobs_notify_queued
+    AFTER INSERT OR UPDATE OF status, next_run_at
+    ON app_ai.ai_jobs
+    FOR EACH ROW
+    WHEN (NEW.status = 'queued')
+EXECUTE FUNCTION app_ai.notify_ai_job_queued();
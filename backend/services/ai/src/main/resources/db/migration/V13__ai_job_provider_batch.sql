@@ -0,0 +1,2 @@
+ALTER TABLE IF EXISTS app_ai.ai_jobs
+    ADD COLUMN IF NOT EXISTS provider_batch_id TEXT;
@@ -0,0 +1,2 @@
+ALTER TABLE IF EXISTS app_ai.ai_jobs
+    ADD COLUMN IF NOT EXISTS applied_cards INTEGER NOT NULL DEFAULT 0;
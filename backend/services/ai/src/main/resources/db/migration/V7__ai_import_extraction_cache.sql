@@ -0,0 +1,26 @@
+CREATE TABLE IF NOT EXISTS app_ai.ai_import_extractions
+(
+    media_id               UUID        NOT NULL,
+    extractor              TEXT        NOT NULL,
+    language               TEXT        NOT NULL DEFAULT '',
+    encoding               TEXT        NOT NULL DEFAULT '',
+    text                   TEXT        NOT NULL,
+    mime_type              TEXT,
+    size_bytes             BIGINT      NOT NULL DEFAULT 0,
+    truncated              BOOLEAN     NOT NULL DEFAULT false,
+    char_count             INT         NOT NULL DEFAULT 0,
+    detected_charset       TEXT,
+    max_recommended_cards  INT         NOT NULL DEFAULT 0,
+    extraction             TEXT,
+    source_pages           INT,
+    ocr_pages              INT,
+    audio_duration_seconds INT,
+    audio_chunks           INT,
+    text_bytes             BIGINT      NOT NULL DEFAULT 0,
+    created_at             TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_accessed_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (media_id, extractor, language, encoding)
+);
+
+CREATE INDEX IF NOT EXISTS ix_ai_import_extractions_last_accessed
+    ON app_ai.ai_import_extractions (last_accessed_at DESC);
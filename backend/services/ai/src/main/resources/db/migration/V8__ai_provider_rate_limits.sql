@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS app_ai.ai_provider_rate_limits
+(
+    limit_key     TEXT             NOT NULL PRIMARY KEY,
+    tokens        DOUBLE PRECISION NOT NULL DEFAULT 0,
+    refilled_at   TIMESTAMPTZ      NOT NULL DEFAULT now(),
+    blocked_until TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS ix_ai_provider_rate_limits_refilled_at
+    ON app_ai.ai_provider_rate_limits (refilled_at);
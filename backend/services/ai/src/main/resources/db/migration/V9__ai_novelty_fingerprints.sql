@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS app_ai.ai_novelty_fingerprints
+(
+    deck_id      UUID  NOT NULL,
+    fields_key   TEXT  NOT NULL,
+    user_card_id UUID  NOT NULL,
+    exact_key    TEXT  NOT NULL,
+    primary_key  TEXT,
+    vector       BYTEA NOT NULL,
+    example      TEXT,
+    PRIMARY KEY (deck_id, fields_key, user_card_id)
+);
+
+CREATE TABLE IF NOT EXISTS app_ai.ai_novelty_sync
+(
+    deck_id           UUID        NOT NULL,
+    fields_key        TEXT        NOT NULL,
+    deck_version      INTEGER,
+    cursor_changed_at TIMESTAMPTZ NOT NULL,
+    cursor_card_id    UUID        NOT NULL,
+    updated_at        TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (deck_id, fields_key)
+);
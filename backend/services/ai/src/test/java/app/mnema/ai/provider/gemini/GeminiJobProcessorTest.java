@@ -5,9 +5,14 @@ import app.mnema.ai.client.media.MediaApiClient;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
 import app.mnema.ai.domain.type.AiJobType;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
 import app.mnema.ai.repository.AiProviderCredentialRepository;
+import app.mnema.ai.service.AiJobProcessingResult;
 import app.mnema.ai.service.AiImportContentService;
 import app.mnema.ai.service.AiJobExecutionService;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.vault.SecretVault;
@@ -15,16 +20,28 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class GeminiJobProcessorTest {
 
@@ -183,9 +200,90 @@ class GeminiJobProcessorTest {
         assertThat(item.path("completedStages")).extracting(JsonNode::asText).containsExactly("content", "tts");
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchedGenerationAddsAllCardsInOneCallAfterConcurrentBatches() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        GeminiClient geminiClient = mock(GeminiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        CardNoveltyService noveltyService = mock(CardNoveltyService.class);
+        AiJobExecutionService executionService = mock(AiJobExecutionService.class);
+        GeminiJobProcessor processor = createProcessor(
+                mapper, geminiClient, coreApiClient, noveltyService, executionService, new ParallelGenerationExecutor(2, 2, "")
+        );
+        UUID deckId = UUID.randomUUID();
+        UUID publicDeckId = UUID.randomUUID();
+        UUID templateId = UUID.randomUUID();
+        AiJobEntity job = createJob(mapper.createObjectNode(), AiJobType.generic);
+        job.setDeckId(deckId);
+
+        when(executionService.runStep(any(), anyString(), any()))
+                .thenAnswer(invocation -> invocation.<AiJobExecutionService.StepOperation<?>>getArgument(2).run());
+        when(coreApiClient.getUserDeck(eq(deckId), any()))
+                .thenReturn(new CoreApiClient.CoreUserDeckResponse(deckId, publicDeckId, 1, 1));
+        when(coreApiClient.getPublicDeck(publicDeckId, 1))
+                .thenReturn(new CoreApiClient.CorePublicDeckResponse(publicDeckId, 1, UUID.randomUUID(), "Deck", null, "en", templateId, 1));
+        when(coreApiClient.getTemplate(eq(templateId), eq(1), any())).thenReturn(new CoreApiClient.CoreTemplateResponse(
+                templateId, 1, 1, "template", null, NullNode.getInstance(), NullNode.getInstance(),
+                List.of(
+                        new CoreApiClient.CoreFieldTemplate(UUID.randomUUID(), "front", "Front", "text", true, true, 1),
+                        new CoreApiClient.CoreFieldTemplate(UUID.randomUUID(), "back", "Back", "text", true, false, 2)
+                )
+        ));
+        when(noveltyService.buildIndex(eq(deckId), any(), anyList())).thenReturn(new CardNoveltyService.NoveltyIndex());
+        when(noveltyService.filterCandidates(anyList(), any(), anyList(), any(), anyInt())).thenAnswer(invocation -> {
+            List<?> candidates = invocation.getArgument(0);
+            int limit = invocation.getArgument(4);
+            return new CardNoveltyService.FilterResult<>(List.copyOf(candidates.subList(0, Math.min(limit, candidates.size()))), 0, 0, 0, 0);
+        });
+        AtomicInteger calls = new AtomicInteger();
+        when(geminiClient.createResponse(any(), any())).thenAnswer(invocation -> {
+            int call = calls.incrementAndGet();
+            String cards = "{\"cards\":[{\"fields\":{\"front\":\"q" + call + "a\",\"back\":\"a\"}},"
+                    + "{\"fields\":{\"front\":\"q" + call + "b\",\"back\":\"b\"}}]}";
+            return new GeminiResponseResult(cards, "gemini-2.5-flash", 10, 20, null);
+        });
+        when(coreApiClient.addCards(eq(deckId), anyList(), any(), eq(job.getJobId()))).thenAnswer(invocation -> {
+            List<?> requests = invocation.getArgument(1);
+            return requests.stream()
+                    .map(request -> new CoreApiClient.CoreUserCardResponse(UUID.randomUUID(), null, true, mapper.createObjectNode()))
+                    .toList();
+        });
+
+        Method batched = GeminiJobProcessor.class.getDeclaredMethod(
+                "handleGenerateCardsBatched", AiJobEntity.class, String.class, ObjectNode.class, int.class, int.class
+        );
+        batched.setAccessible(true);
+        AiJobProcessingResult result = (AiJobProcessingResult) batched.invoke(processor, job, "key", mapper.createObjectNode(), 4, 2);
+
+        ArgumentCaptor<List<CoreApiClient.CreateCardRequestPayload>> requests = ArgumentCaptor.forClass(List.class);
+        verify(coreApiClient, times(1)).addCards(eq(deckId), requests.capture(), any(), eq(job.getJobId()));
+        assertThat(requests.getValue()).hasSize(4);
+        verify(executionService, times(1)).runStep(eq(job.getJobId()), eq("apply_changes"), any());
+        verify(executionService, times(1)).runStep(eq(job.getJobId()), eq("generate_content"), any());
+        assertThat(result.resultSummary().path("createdCards").asInt()).isEqualTo(4);
+        assertThat(result.tokensIn()).isEqualTo(20);
+    }
+
     private static GeminiJobProcessor createProcessor(ObjectMapper mapper) {
-        return new GeminiJobProcessor(
+        return createProcessor(
+                mapper,
                 mock(GeminiClient.class),
+                mock(CoreApiClient.class),
+                mock(CardNoveltyService.class),
+                mock(AiJobExecutionService.class),
+                new ParallelGenerationExecutor(1, 1, "")
+        );
+    }
+
+    private static GeminiJobProcessor createProcessor(ObjectMapper mapper,
+                                                      GeminiClient geminiClient,
+                                                      CoreApiClient coreApiClient,
+                                                      CardNoveltyService noveltyService,
+                                                      AiJobExecutionService executionService,
+                                                      ParallelGenerationExecutor generationExecutor) {
+        return new GeminiJobProcessor(
+                geminiClient,
                 new GeminiProps(
                         "https://generativelanguage.googleapis.com",
                         "gemini-2.5-flash",
@@ -202,12 +300,16 @@ class GeminiJobProcessorTest {
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
-                mock(CoreApiClient.class),
-                mock(CardNoveltyService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                generationExecutor,
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
+                coreApiClient,
+                noveltyService,
                 mapper,
-                mock(AiJobExecutionService.class),
+                executionService,
                 200_000
         );
     }
@@ -5,9 +5,13 @@ import app.mnema.ai.client.media.MediaApiClient;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
 import app.mnema.ai.domain.type.AiJobType;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
 import app.mnema.ai.repository.AiProviderCredentialRepository;
 import app.mnema.ai.service.AiImportContentService;
 import app.mnema.ai.service.AiJobExecutionService;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.vault.SecretVault;
@@ -15,6 +19,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -126,8 +131,12 @@ class GrokJobProcessorTest {
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 mock(CoreApiClient.class),
                 mock(CardNoveltyService.class),
                 OBJECT_MAPPER,
@@ -1,15 +1,35 @@
 package app.mnema.ai.provider.openai;
 
+import app.mnema.ai.provider.support.ProviderRateLimiter;
+import app.mnema.ai.provider.support.ProviderRetrySupport;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class OpenAiClientTest {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
@@ -55,7 +75,7 @@ class OpenAiClientTest {
 
     @Test
     void imageResponseFormatIsOmittedForGptImageModelsOnOpenAiApi() throws Exception {
-        OpenAiClient client = new OpenAiClient(RestClient.builder(), openAiProps("https://api.openai.com"), OBJECT_MAPPER);
+        OpenAiClient client = new OpenAiClient(RestClient.builder(), openAiProps("https://api.openai.com"), OBJECT_MAPPER, mock(ProviderRateLimiter.class));
         Method method = OpenAiClient.class.getDeclaredMethod("shouldSendImageResponseFormat", String.class);
         method.setAccessible(true);
 
@@ -65,13 +85,102 @@ class OpenAiClientTest {
 
     @Test
     void imageResponseFormatIsKeptForLocalGatewayCompatibility() throws Exception {
-        OpenAiClient client = new OpenAiClient(RestClient.builder(), openAiProps("http://localhost:8089"), OBJECT_MAPPER);
+        OpenAiClient client = new OpenAiClient(RestClient.builder(), openAiProps("http://localhost:8089"), OBJECT_MAPPER, mock(ProviderRateLimiter.class));
         Method method = OpenAiClient.class.getDeclaredMethod("shouldSendImageResponseFormat", String.class);
         method.setAccessible(true);
 
         assertThat((boolean) method.invoke(client, "gpt-image-1-mini")).isTrue();
     }
 
+    @Test
+    void readResponseStreamForwardsDeltasAndKeepsUsageFromCompletedEvent() throws Exception {
+        String stream = """
+                event: response.created
+                data: {"type":"response.created","response":{"status":"in_progress"}}
+
+                event: response.output_text.delta
+                data: {"type":"response.output_text.delta","delta":"{\\"cards\\": ["}
+
+                event: response.output_text.delta
+                data: {"type":"response.output_text.delta","delta":"]}"}
+
+                event: response.completed
+                data: {"type":"response.completed","response":{"model":"gpt-5-mini","usage":{"input_tokens":12,"output_tokens":5}}}
+
+                """;
+        List<String> deltas = new ArrayList<>();
+
+        JsonNode response = OpenAiClient.readResponseStream(new BufferedReader(new StringReader(stream)), OBJECT_MAPPER, deltas::add);
+
+        assertThat(deltas).containsExactly("{\"cards\": [", "]}");
+        assertThat(OpenAiResponseParser.extractText(response)).isEqualTo("{\"cards\": []}");
+        assertThat(response.path("model").asText()).isEqualTo("gpt-5-mini");
+        assertThat(response.path("usage").path("output_tokens").asInt()).isEqualTo(5);
+    }
+
+    @Test
+    void readResponseStreamFailsOnFailedEvent() {
+        String stream = """
+                data: {"type":"response.failed","response":{"error":{"message":"quota exceeded"}}}
+
+                """;
+
+        assertThatThrownBy(() -> OpenAiClient.readResponseStream(new BufferedReader(new StringReader(stream)), OBJECT_MAPPER, delta -> {
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("quota exceeded");
+    }
+
+    @Test
+    void batchUploadsJsonlPollsStatusAndReadsResultsByCustomId() throws Exception {
+        List<String> uploads = new ArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/files", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/v1/files")) {
+                uploads.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                respond(exchange, "application/json", "{\"id\":\"file-in\"}");
+            } else {
+                respond(exchange, "application/octet-stream", """
+                        {"custom_id":"cards-0","response":{"status_code":200,"body":{"model":"gpt-5-mini","output":[{"type":"message","content":[{"type":"output_text","text":"{\\"updates\\": []}"}]}],"usage":{"input_tokens":3,"output_tokens":2}}}}
+                        {"custom_id":"cards-20","response":{"status_code":500,"body":null},"error":{"message":"boom"}}
+                        """);
+            }
+        });
+        server.createContext("/v1/batches", exchange -> respond(exchange, "application/json", """
+                {"id":"batch_1","status":"completed","output_file_id":"file-out","request_counts":{"total":2,"completed":1,"failed":1}}
+                """));
+        server.start();
+        try {
+            ProviderRateLimiter rateLimiter = mock(ProviderRateLimiter.class);
+            when(rateLimiter.call(anyString(), any(), anyString(), any())).thenAnswer(invocation ->
+                    invocation.<ProviderRetrySupport.RetriableSupplier<?>>getArgument(3).get());
+            OpenAiClient client = new OpenAiClient(RestClient.builder(), openAiProps("http://127.0.0.1:" + server.getAddress().getPort()), OBJECT_MAPPER, rateLimiter);
+            OpenAiResponseRequest request = new OpenAiResponseRequest("gpt-5-mini", "fill", 100, null);
+
+            OpenAiBatch created = client.createBatch("key", List.of(
+                    new OpenAiBatchRequest("cards-0", request),
+                    new OpenAiBatchRequest("cards-20", request)));
+            OpenAiBatch polled = client.getBatch("key", created.id());
+            Map<String, OpenAiResponseResult> results = client.getBatchResults("key", polled);
+
+            assertThat(uploads).hasSize(1);
+            assertThat(uploads.get(0))
+                    .contains("\"custom_id\":\"cards-0\"")
+                    .contains("\"url\":\"/v1/responses\"")
+                    .contains("batch");
+            assertThat(polled.isCompleted()).isTrue();
+            assertThat(polled.failedRequests()).isEqualTo(1);
+            assertThat(results).containsOnlyKeys("cards-0");
+            assertThat(results.get("cards-0").outputText()).isEqualTo("{\"updates\": []}");
+            assertThat(results.get("cards-0").inputTokens()).isEqualTo(3);
+            // upload, create, poll and download all go through the limiter
+            verify(rateLimiter, times(4)).call(anyString(), any(), anyString(), any());
+        } finally {
+            server.stop(0);
+        }
+    }
+
     @Test
     void summarizeResponseIncludesStatusModelAndOutputTypes() {
         ObjectNode response = OBJECT_MAPPER.createObjectNode();
@@ -86,6 +195,14 @@ class OpenAiClientTest {
                 .contains("outputTypes=reasoning");
     }
 
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
     private static OpenAiProps openAiProps(String baseUrl) {
         return new OpenAiProps(
                 baseUrl,
@@ -109,7 +226,8 @@ class OpenAiClientTest {
                 2_000L,
                 30_000L,
                 10_000L,
-                600_000L
+                600_000L,
+                null
         );
     }
 }
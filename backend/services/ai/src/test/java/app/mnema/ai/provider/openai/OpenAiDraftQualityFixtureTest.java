@@ -2,12 +2,17 @@ package app.mnema.ai.provider.openai;
 
 import app.mnema.ai.client.core.CoreApiClient;
 import app.mnema.ai.client.media.MediaApiClient;
+import app.mnema.ai.client.media.MediaResolved;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
 import app.mnema.ai.domain.type.AiJobType;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
 import app.mnema.ai.repository.AiProviderCredentialRepository;
 import app.mnema.ai.service.AiImportContentService;
 import app.mnema.ai.service.AiJobExecutionService;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.vault.SecretVault;
@@ -16,6 +21,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.io.InputStream;
 import java.lang.reflect.Method;
@@ -70,8 +76,12 @@ class OpenAiDraftQualityFixtureTest {
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 importContentService,
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -95,7 +105,7 @@ class OpenAiDraftQualityFixtureTest {
         job.setDeckId(deckId);
         job.setUserAccessToken("token");
 
-        when(importContentService.loadSource(any(), any()))
+        when(importContentService.loadSource((MediaResolved) any()))
                 .thenReturn(new AiImportContentService.ImportSourcePayload(new byte[0], "text/plain", 64, false));
         when(importContentService.extractText(any(), any(), any()))
                 .thenReturn(new AiImportContentService.ImportTextPayload(
@@ -267,8 +277,12 @@ class OpenAiDraftQualityFixtureTest {
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 importContentService,
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -292,7 +306,7 @@ class OpenAiDraftQualityFixtureTest {
         job.setDeckId(deckId);
         job.setUserAccessToken("token");
 
-        when(importContentService.loadSource(any(), any()))
+        when(importContentService.loadSource((MediaResolved) any()))
                 .thenReturn(new AiImportContentService.ImportSourcePayload(new byte[0], "application/pdf", 64, false));
         when(importContentService.extractText(any(), any(), any()))
                 .thenReturn(new AiImportContentService.ImportTextPayload(
@@ -2,12 +2,17 @@ package app.mnema.ai.provider.openai;
 
 import app.mnema.ai.client.core.CoreApiClient;
 import app.mnema.ai.client.media.MediaApiClient;
+import app.mnema.ai.client.media.MediaResolved;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
 import app.mnema.ai.domain.type.AiJobType;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
 import app.mnema.ai.repository.AiProviderCredentialRepository;
 import app.mnema.ai.service.AiImportContentService;
 import app.mnema.ai.service.AiJobExecutionService;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.vault.SecretVault;
@@ -17,6 +22,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.io.InputStream;
 import java.lang.reflect.Method;
@@ -71,13 +77,18 @@ class OpenAiImportEvalHarnessTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 importContentService,
                 audioChunkingService,
+                new ParallelTranscriptionExecutor(2, "", 0, 1L, 1L),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -103,24 +114,22 @@ class OpenAiImportEvalHarnessTest {
         job.setDeckId(deckId);
         job.setUserAccessToken("token");
 
-        when(importContentService.loadSource(any(), any()))
+        when(importContentService.loadSource((MediaResolved) any()))
                 .thenReturn(new AiImportContentService.ImportSourcePayload(new byte[] {1, 2, 3}, scenario.mimeType(), 64, false));
 
         if ("audio_stt".equals(scenario.sourceKind())) {
-            when(audioChunkingService.prepareChunks(any(), eq(scenario.mimeType())))
-                    .thenReturn(new AudioChunkingService.AudioChunkingResult(
-                            List.of(
-                                    new AudioChunkingService.AudioChunk(new byte[] {1}, "audio/wav", true),
-                                    new AudioChunkingService.AudioChunk(new byte[] {2}, "audio/wav", true)
-                            ),
-                            42,
-                            2
-                    ));
+            when(audioChunkingService.streamChunks(any(), eq(scenario.mimeType()), any())).thenAnswer(invocation -> {
+                AudioChunkingService.AudioChunkHandler handler = invocation.getArgument(2);
+                handler.accept(0, new AudioChunkingService.AudioChunk(new byte[] {1}, "audio/wav", true));
+                handler.accept(1, new AudioChunkingService.AudioChunk(new byte[] {2}, "audio/wav", true));
+                return new AudioChunkingService.AudioChunkingResult(42, 2);
+            });
             List<String> transcriptChunks = splitTranscriptChunks(buildSourceText(scenario.items()), 2);
-            AtomicInteger transcriptCall = new AtomicInteger();
-            when(openAiClient.createTranscription(any(), any())).thenAnswer(invocation ->
-                    transcriptChunks.get(Math.min(transcriptCall.getAndIncrement(), transcriptChunks.size() - 1))
-            );
+            // Chunks are transcribed concurrently, so answer by chunk payload rather than call order.
+            when(openAiClient.createTranscription(any(), any())).thenAnswer(invocation -> {
+                OpenAiTranscriptionRequest request = invocation.getArgument(1);
+                return transcriptChunks.get(Math.min(request.audio()[0] - 1, transcriptChunks.size() - 1));
+            });
         } else {
             when(importContentService.extractText(any(), any(), any()))
                     .thenReturn(new AiImportContentService.ImportTextPayload(
@@ -3,14 +3,21 @@ package app.mnema.ai.provider.openai;
 import app.mnema.ai.client.core.CoreApiClient;
 import app.mnema.ai.client.media.MediaApiClient;
 import app.mnema.ai.client.media.MediaClientProps;
+import app.mnema.ai.client.media.MediaResolved;
 import app.mnema.ai.domain.entity.AiJobEntity;
 import app.mnema.ai.domain.entity.AiProviderCredentialEntity;
 import app.mnema.ai.domain.type.AiJobStatus;
 import app.mnema.ai.domain.type.AiJobType;
 import app.mnema.ai.domain.type.AiProviderStatus;
+import app.mnema.ai.provider.support.ParallelGenerationExecutor;
+import app.mnema.ai.provider.support.ProviderRateLimiter;
+import app.mnema.ai.provider.support.ParallelTranscriptionExecutor;
 import app.mnema.ai.repository.AiProviderCredentialRepository;
 import app.mnema.ai.service.AiImportContentService;
+import app.mnema.ai.service.AiJobDeferredException;
 import app.mnema.ai.service.AiJobExecutionService;
+import app.mnema.ai.service.AiJobProcessingResult;
+import app.mnema.ai.service.AiMediaCache;
 import app.mnema.ai.service.AudioChunkingService;
 import app.mnema.ai.service.CardNoveltyService;
 import app.mnema.ai.vault.SecretVault;
@@ -21,20 +28,25 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.lang.reflect.Method;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
@@ -234,6 +246,166 @@ class OpenAiJobProcessorTest {
         assertThat(updateCaptor.getValue().effectiveContent().path("image").path("kind").asText()).isEqualTo("image");
     }
 
+    @Test
+    void missingFieldsBatchSubmitsDefersAndAppliesResultsOnResume() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        AiJobExecutionService executionService = mock(AiJobExecutionService.class);
+        OpenAiJobProcessor processor = createProcessor(
+                openAiClient,
+                coreApiClient,
+                mock(MediaApiClient.class),
+                executionService,
+                mock(CardNoveltyService.class)
+        );
+
+        UUID deckId = UUID.randomUUID();
+        UUID publicDeckId = UUID.randomUUID();
+        UUID templateId = UUID.randomUUID();
+        ObjectNode params = OBJECT_MAPPER.readValue("""
+                {
+                  "__skipStepTracking": true,
+                  "mode": "missing_fields",
+                  "executionMode": "batch",
+                  "fields": ["back"],
+                  "updateScope": "local"
+                }
+                """, ObjectNode.class);
+        AiJobEntity job = createJob(params, AiJobType.generic);
+        job.setDeckId(deckId);
+        job.setUserAccessToken("token");
+
+        List<CoreApiClient.CoreUserCardResponse> cards = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            ObjectNode content = OBJECT_MAPPER.createObjectNode();
+            content.put("front", "word " + i);
+            content.putNull("back");
+            cards.add(new CoreApiClient.CoreUserCardResponse(UUID.randomUUID(), null, true, content));
+        }
+        when(coreApiClient.getUserDeck(deckId, "token"))
+                .thenReturn(new CoreApiClient.CoreUserDeckResponse(deckId, publicDeckId, 1, 1));
+        when(coreApiClient.getPublicDeck(publicDeckId, 1))
+                .thenReturn(new CoreApiClient.CorePublicDeckResponse(
+                        publicDeckId,
+                        1,
+                        UUID.randomUUID(),
+                        "Vocab",
+                        "Vocabulary",
+                        "en",
+                        templateId,
+                        1
+                ));
+        when(coreApiClient.getTemplate(templateId, 1, "token"))
+                .thenReturn(new CoreApiClient.CoreTemplateResponse(
+                        templateId,
+                        1,
+                        1,
+                        "Vocab",
+                        "",
+                        null,
+                        null,
+                        List.of(
+                                new CoreApiClient.CoreFieldTemplate(UUID.randomUUID(), "front", "Front", "text", true, true, 0),
+                                new CoreApiClient.CoreFieldTemplate(UUID.randomUUID(), "back", "Back", "text", false, false, 1)
+                        )
+                ));
+        when(coreApiClient.getMissingFieldCards(eq(deckId), any(), eq("token"))).thenReturn(cards);
+        when(openAiClient.createBatch(any(), any()))
+                .thenReturn(new OpenAiBatch("batch-1", "validating", null, null, 0, 0, 2));
+
+        try {
+            processor.process(job);
+            fail("Expected the job to be deferred after submitting the batch");
+        } catch (AiJobDeferredException expected) {
+            assertThat(job.getProviderBatchId()).isEqualTo("batch-1");
+        }
+        ArgumentCaptor<List<OpenAiBatchRequest>> requestsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(openAiClient).createBatch(any(), requestsCaptor.capture());
+        assertThat(requestsCaptor.getValue()).extracting(OpenAiBatchRequest::customId).containsExactly("cards-0", "cards-20");
+
+        OpenAiBatch finished = new OpenAiBatch("batch-1", "completed", "file-out", "file-err", 1, 1, 2);
+        when(openAiClient.getBatch(any(), eq("batch-1"))).thenReturn(finished);
+        UUID updatedCardId = cards.getFirst().userCardId();
+        String output = """
+                {"updates":[{"userCardId":"%s","fields":{"back":"translation"}}]}
+                """.formatted(updatedCardId);
+        when(openAiClient.getBatchResults(any(), eq(finished)))
+                .thenReturn(java.util.Map.of("cards-0", new OpenAiResponseResult(output, "gpt-5-mini", 10, 5, OBJECT_MAPPER.readTree(output))));
+        when(coreApiClient.updateUserCard(any(), any(), any(), any(), any(), any()))
+                .thenReturn(cards.getFirst());
+
+        AiJobProcessingResult result = processor.process(job);
+
+        verify(executionService, times(1)).resetPlan(eq(job.getJobId()), any());
+        verify(openAiClient, times(1)).createBatch(any(), any());
+        ArgumentCaptor<CoreApiClient.UpdateUserCardRequest> updateCaptor =
+                ArgumentCaptor.forClass(CoreApiClient.UpdateUserCardRequest.class);
+        verify(coreApiClient).updateUserCard(eq(deckId), eq(updatedCardId), updateCaptor.capture(), eq("token"), eq("local"), any());
+        assertThat(updateCaptor.getValue().effectiveContent().path("back").asText()).isEqualTo("translation");
+        assertThat(result.finalStatus()).isEqualTo(AiJobStatus.partial_success);
+        assertThat(result.resultSummary().path("updatedCards").asInt()).isEqualTo(1);
+        assertThat(result.resultSummary().path("batchFailedRequests").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void missingFieldsBatchFailsAndCancelsBatchWhenStoredAccessTokenExpired() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        OpenAiJobProcessor processor = createProcessor(
+                openAiClient,
+                coreApiClient,
+                mock(MediaApiClient.class),
+                mock(AiJobExecutionService.class),
+                mock(CardNoveltyService.class)
+        );
+        ObjectNode params = OBJECT_MAPPER.readValue("""
+                {
+                  "__skipStepTracking": true,
+                  "mode": "missing_fields",
+                  "executionMode": "batch",
+                  "fields": ["back"]
+                }
+                """, ObjectNode.class);
+        AiJobEntity job = createJob(params, AiJobType.generic);
+        job.setDeckId(UUID.randomUUID());
+        job.setProviderBatchId("batch-1");
+        String claims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("{\"sub\":\"user\",\"exp\":" + Instant.now().minusSeconds(60).getEpochSecond() + "}")
+                        .getBytes(StandardCharsets.UTF_8));
+        job.setUserAccessToken("eyJhbGciOiJSUzI1NiJ9." + claims + ".signature");
+        when(openAiClient.cancelBatch(any(), eq("batch-1")))
+                .thenReturn(new OpenAiBatch("batch-1", "cancelling", null, null, 0, 0, 2));
+
+        assertThatThrownBy(() -> processor.process(job))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Access token expired");
+
+        verify(openAiClient).cancelBatch(any(), eq("batch-1"));
+        verify(openAiClient, never()).getBatch(any(), any());
+        verify(coreApiClient, never()).getUserDeck(any(), any());
+        assertThat(job.getProviderBatchId()).isNull();
+    }
+
+    @Test
+    void cancelProviderBatchCancelsTheJobsOpenAiBatch() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        OpenAiJobProcessor processor = createProcessor(
+                openAiClient,
+                mock(CoreApiClient.class),
+                mock(MediaApiClient.class),
+                mock(AiJobExecutionService.class),
+                mock(CardNoveltyService.class)
+        );
+        AiJobEntity job = createJob(OBJECT_MAPPER.createObjectNode().put("mode", "missing_fields"), AiJobType.generic);
+        job.setProviderBatchId("batch-1");
+        when(openAiClient.cancelBatch(any(), eq("batch-1")))
+                .thenReturn(new OpenAiBatch("batch-1", "cancelling", null, null, 0, 0, 2));
+
+        processor.cancelProviderBatch(job);
+
+        verify(openAiClient).cancelBatch(any(), eq("batch-1"));
+    }
+
     @Test
     void handleGenerateCardsDoesNotGenerateMediaOrTtsBeforeCoreApplySucceeds() throws Exception {
         OpenAiClient openAiClient = mock(OpenAiClient.class);
@@ -314,6 +486,147 @@ class OpenAiJobProcessorTest {
         verify(mediaApiClient, never()).directUpload(any(), any(), any(), any(), org.mockito.ArgumentMatchers.anyLong(), any());
     }
 
+    @Test
+    void handleGenerateCardsAppliesStreamedCardsEarlyAndRecordsThemOnTheJob() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        AiJobExecutionService executionService = mock(AiJobExecutionService.class);
+        OpenAiJobProcessor processor = createStreamingProcessor(openAiClient, coreApiClient, executionService);
+        UUID deckId = UUID.randomUUID();
+        ObjectNode params = streamingGenerateParams(3);
+        AiJobEntity job = createJob(params, AiJobType.generic);
+        job.setDeckId(deckId);
+        job.setUserAccessToken("token");
+        stubGenerationDeck(coreApiClient, deckId);
+        stubCardStream(openAiClient, "alpha", "beta", "gamma");
+        List<Integer> addedBatchSizes = new ArrayList<>();
+        when(coreApiClient.addCards(eq(deckId), any(), eq("token"), eq(job.getJobId()))).thenAnswer(invocation -> {
+            List<?> requests = invocation.getArgument(1);
+            addedBatchSizes.add(requests.size());
+            return requests.stream()
+                    .map(request -> new CoreApiClient.CoreUserCardResponse(UUID.randomUUID(), null, true, OBJECT_MAPPER.createObjectNode()))
+                    .toList();
+        });
+
+        AiJobProcessingResult result = invokeHandleGenerateCards(processor, job, params);
+
+        // The first card goes in while the stream is still open, the rest in the apply step.
+        assertThat(addedBatchSizes).containsExactly(1, 2);
+        verify(executionService).recordAppliedCards(job.getJobId(), 1);
+        verify(executionService).recordAppliedCards(job.getJobId(), 3);
+        verify(openAiClient, never()).createResponse(any(), any());
+        assertThat(job.getAppliedCards()).isEqualTo(3);
+        assertThat(result.resultSummary().path("createdCards").asInt()).isEqualTo(3);
+        assertThat(result.finalStatus()).isEqualTo(AiJobStatus.completed);
+    }
+
+    @Test
+    void handleGenerateCardsDoesNotResendStreamedCardsCoreCommittedDespiteTheFailure() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        AiJobExecutionService executionService = mock(AiJobExecutionService.class);
+        OpenAiJobProcessor processor = createStreamingProcessor(openAiClient, coreApiClient, executionService);
+        UUID deckId = UUID.randomUUID();
+        ObjectNode params = streamingGenerateParams(3);
+        AiJobEntity job = createJob(params, AiJobType.generic);
+        job.setDeckId(deckId);
+        job.setUserAccessToken("token");
+        stubGenerationDeck(coreApiClient, deckId);
+        stubCardStream(openAiClient, "alpha", "beta", "gamma");
+        List<List<String>> addedFronts = new ArrayList<>();
+        when(coreApiClient.addCards(eq(deckId), any(), eq("token"), eq(job.getJobId()))).thenAnswer(invocation -> {
+            List<CoreApiClient.CreateCardRequestPayload> requests = invocation.getArgument(1);
+            addedFronts.add(requests.stream().map(request -> request.content().path("front").asText()).toList());
+            if (addedFronts.size() == 1) {
+                // Core committed the first chunk, but the response never arrived
+                throw new ResourceAccessException("Read timed out");
+            }
+            return requests.stream()
+                    .map(request -> new CoreApiClient.CoreUserCardResponse(UUID.randomUUID(), null, true, request.content()))
+                    .toList();
+        });
+        UUID committedCardId = UUID.randomUUID();
+        ObjectNode committedContent = OBJECT_MAPPER.createObjectNode().put("front", "alpha");
+        when(coreApiClient.getUserCardChanges(eq(deckId), any(), any(), eq(500), eq("token")))
+                .thenReturn(new CoreApiClient.CoreUserCardChanges(1, List.of(
+                        new CoreApiClient.CoreUserCardChange(committedCardId, false, Instant.now(), committedContent)
+                )));
+        when(coreApiClient.getUserCard(deckId, committedCardId, "token"))
+                .thenReturn(new CoreApiClient.CoreUserCardDetail(committedCardId, null, true, false, null, null, committedContent));
+
+        AiJobProcessingResult result = invokeHandleGenerateCards(processor, job, params);
+
+        assertThat(addedFronts).containsExactly(List.of("alpha"), List.of("beta", "gamma"));
+        assertThat(job.getAppliedCards()).isEqualTo(3);
+        assertThat(result.resultSummary().path("createdCards").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void handleGenerateCardsFailsInsteadOfResendingWhenTheFailedChunkCannotBeChecked() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        OpenAiJobProcessor processor = createStreamingProcessor(openAiClient, coreApiClient, mock(AiJobExecutionService.class));
+        UUID deckId = UUID.randomUUID();
+        ObjectNode params = streamingGenerateParams(3);
+        AiJobEntity job = createJob(params, AiJobType.generic);
+        job.setDeckId(deckId);
+        job.setUserAccessToken("token");
+        stubGenerationDeck(coreApiClient, deckId);
+        stubCardStream(openAiClient, "alpha", "beta", "gamma");
+        when(coreApiClient.addCards(eq(deckId), any(), eq("token"), eq(job.getJobId())))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        when(coreApiClient.getUserCardChanges(any(), any(), any(), anyInt(), any()))
+                .thenThrow(new IllegalStateException("Card change feed requires the internal core token"));
+
+        try {
+            invokeHandleGenerateCards(processor, job, params);
+            fail("Expected the apply step to fail");
+        } catch (java.lang.reflect.InvocationTargetException ex) {
+            assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("streamed cards were added");
+        }
+
+        verify(coreApiClient, times(1)).addCards(any(), any(), any(), any());
+        assertThat(job.getAppliedCards()).isZero();
+    }
+
+    @Test
+    void handleGenerateCardsRetryOnlyGeneratesCardsMissingAfterEarlyApply() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        AiJobExecutionService executionService = mock(AiJobExecutionService.class);
+        OpenAiJobProcessor processor = createStreamingProcessor(openAiClient, coreApiClient, executionService);
+        UUID deckId = UUID.randomUUID();
+        ObjectNode params = streamingGenerateParams(3);
+        AiJobEntity job = createJob(params, AiJobType.generic);
+        job.setDeckId(deckId);
+        job.setUserAccessToken("token");
+        job.setAppliedCards(2);
+        stubGenerationDeck(coreApiClient, deckId);
+        stubCardStream(openAiClient, "delta");
+        when(coreApiClient.addCards(eq(deckId), any(), eq("token"), eq(job.getJobId())))
+                .thenReturn(List.of(new CoreApiClient.CoreUserCardResponse(UUID.randomUUID(), null, true, OBJECT_MAPPER.createObjectNode())));
+
+        AiJobProcessingResult result = invokeHandleGenerateCards(processor, job, params);
+
+        ArgumentCaptor<List<CoreApiClient.CreateCardRequestPayload>> requestsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(coreApiClient).addCards(eq(deckId), requestsCaptor.capture(), eq("token"), eq(job.getJobId()));
+        assertThat(requestsCaptor.getValue()).hasSize(1);
+        assertThat(job.getAppliedCards()).isEqualTo(3);
+        verify(executionService).recordAppliedCards(job.getJobId(), 3);
+        assertThat(result.resultSummary().path("createdCards").asInt()).isEqualTo(3);
+        assertThat(result.resultSummary().path("appliedBeforeRetry").asInt()).isEqualTo(2);
+
+        AiJobEntity finishedJob = createJob(params, AiJobType.generic);
+        finishedJob.setDeckId(deckId);
+        finishedJob.setUserAccessToken("token");
+        finishedJob.setAppliedCards(3);
+        AiJobProcessingResult skipped = invokeHandleGenerateCards(processor, finishedJob, params);
+
+        verify(openAiClient, times(1)).streamResponse(any(), any(), any());
+        assertThat(skipped.resultSummary().path("createdCards").asInt()).isEqualTo(3);
+    }
+
     @Test
     void handleTtsRecordsGeneratedCountAndCharactersForCostAccounting() throws Exception {
         OpenAiClient openAiClient = mock(OpenAiClient.class);
@@ -356,6 +669,40 @@ class OpenAiJobProcessorTest {
         assertThat(result.usageDetails().path("tts").path("charsGenerated").asInt()).isEqualTo("Hello world".length());
     }
 
+    @Test
+    void handleTtsReusesCachedMediaWithoutProviderCallOrUpload() throws Exception {
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+        MediaApiClient mediaApiClient = mock(MediaApiClient.class);
+        AiMediaCache mediaCache = mock(AiMediaCache.class);
+        UUID cachedMediaId = UUID.randomUUID();
+        OpenAiJobProcessor processor = createProcessor(
+                openAiClient,
+                mock(CoreApiClient.class),
+                mediaApiClient,
+                mediaCache,
+                mock(AiJobExecutionService.class),
+                mock(CardNoveltyService.class)
+        );
+        ObjectNode params = OBJECT_MAPPER.createObjectNode();
+        params.put("text", "Hello  world");
+        params.put("model", "gpt-4o-mini-tts");
+        params.put("voice", "alloy");
+        params.put("format", "mp3");
+        AiJobEntity job = createJob(params, AiJobType.tts);
+        String cacheKey = AiMediaCache.ttsKey(job.getUserId(), "openai", "gpt-4o-mini-tts", "alloy", "mp3", "Hello world");
+        when(mediaCache.find(cacheKey)).thenReturn(Optional.of(new AiMediaCache.CachedMedia(cachedMediaId, "audio/mpeg")));
+
+        Method handleTts = OpenAiJobProcessor.class.getDeclaredMethod("handleTts", AiJobEntity.class, String.class);
+        handleTts.setAccessible(true);
+        app.mnema.ai.service.AiJobProcessingResult result = (app.mnema.ai.service.AiJobProcessingResult) handleTts.invoke(processor, job, "sk-test");
+
+        assertThat(result.resultSummary().path("mediaId").asText()).isEqualTo(cachedMediaId.toString());
+        assertThat(result.resultSummary().path("ttsGenerated").asInt()).isZero();
+        assertThat(result.resultSummary().path("ttsCharsGenerated").asInt()).isZero();
+        verify(openAiClient, never()).createSpeech(any(), any());
+        verify(mediaApiClient, never()).directUpload(any(), any(), any(), any(), org.mockito.ArgumentMatchers.anyLong(), any());
+    }
+
     @Test
     void isLocalOllamaRequestRecognizesLocalProviderAliases() throws Exception {
         OpenAiJobProcessor processor = createProcessor();
@@ -564,13 +911,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 credentialRepository,
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 mock(CoreApiClient.class),
                 mock(CardNoveltyService.class),
                 OBJECT_MAPPER,
@@ -625,13 +977,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -775,13 +1132,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -919,13 +1281,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -1050,13 +1417,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 importContentService,
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -1091,7 +1463,7 @@ class OpenAiJobProcessorTest {
                 64,
                 false
         );
-        when(importContentService.loadSource(any(), any())).thenReturn(source);
+        when(importContentService.loadSource((MediaResolved) any())).thenReturn(source);
         when(importContentService.extractText(any(), any(), any()))
                 .thenReturn(new AiImportContentService.ImportTextPayload(
                         """
@@ -1281,13 +1653,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 importContentService,
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 new CardNoveltyService(coreApiClient),
                 OBJECT_MAPPER,
@@ -1317,7 +1694,7 @@ class OpenAiJobProcessorTest {
         job.setDeckId(deckId);
         job.setUserAccessToken("token");
 
-        when(importContentService.loadSource(any(), any()))
+        when(importContentService.loadSource((MediaResolved) any()))
                 .thenReturn(new AiImportContentService.ImportSourcePayload(new byte[0], "text/plain", 32, false));
         when(importContentService.extractText(any(), any(), any()))
                 .thenReturn(new AiImportContentService.ImportTextPayload(
@@ -1471,13 +1848,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        null
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
                 importContentService,
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -1501,7 +1883,7 @@ class OpenAiJobProcessorTest {
         job.setDeckId(deckId);
         job.setUserAccessToken("token");
 
-        when(importContentService.loadSource(any(), any())).thenReturn(new AiImportContentService.ImportSourcePayload(new byte[0], "text/plain", 32, false));
+        when(importContentService.loadSource((MediaResolved) any())).thenReturn(new AiImportContentService.ImportSourcePayload(new byte[0], "text/plain", 32, false));
         when(importContentService.extractText(any(), any(), any()))
                 .thenReturn(new AiImportContentService.ImportTextPayload(
                         """
@@ -1671,6 +2053,25 @@ class OpenAiJobProcessorTest {
                                                       MediaApiClient mediaApiClient,
                                                       AiJobExecutionService executionService,
                                                       CardNoveltyService noveltyService) {
+        return createProcessor(openAiClient, coreApiClient, mediaApiClient, mock(AiMediaCache.class), executionService, noveltyService);
+    }
+
+    private static OpenAiJobProcessor createProcessor(OpenAiClient openAiClient,
+                                                      CoreApiClient coreApiClient,
+                                                      MediaApiClient mediaApiClient,
+                                                      AiMediaCache mediaCache,
+                                                      AiJobExecutionService executionService,
+                                                      CardNoveltyService noveltyService) {
+        return createProcessor(openAiClient, coreApiClient, mediaApiClient, mediaCache, executionService, noveltyService, null);
+    }
+
+    private static OpenAiJobProcessor createProcessor(OpenAiClient openAiClient,
+                                                      CoreApiClient coreApiClient,
+                                                      MediaApiClient mediaApiClient,
+                                                      AiMediaCache mediaCache,
+                                                      AiJobExecutionService executionService,
+                                                      CardNoveltyService noveltyService,
+                                                      Boolean streamGeneration) {
         return new OpenAiJobProcessor(
                 openAiClient,
                 new OpenAiProps(
@@ -1695,13 +2096,18 @@ class OpenAiJobProcessorTest {
                         2_000L,
                         30_000L,
                         10_000L,
-                        600_000L
+                        600_000L,
+                        streamGeneration
                 ),
                 mock(SecretVault.class),
                 mock(AiProviderCredentialRepository.class),
                 mediaApiClient,
+                mediaCache,
                 mock(AiImportContentService.class),
                 mock(AudioChunkingService.class),
+                mock(ParallelTranscriptionExecutor.class),
+                new ParallelGenerationExecutor(1, 1, ""),
+                new ProviderRateLimiter(mock(JdbcTemplate.class), false, 0, "", 1),
                 coreApiClient,
                 noveltyService,
                 OBJECT_MAPPER,
@@ -1710,6 +2116,82 @@ class OpenAiJobProcessorTest {
         );
     }
 
+    private static OpenAiJobProcessor createStreamingProcessor(OpenAiClient openAiClient,
+                                                               CoreApiClient coreApiClient,
+                                                               AiJobExecutionService executionService) {
+        return createProcessor(
+                openAiClient,
+                coreApiClient,
+                mock(MediaApiClient.class),
+                mock(AiMediaCache.class),
+                executionService,
+                new CardNoveltyService(coreApiClient),
+                true
+        );
+    }
+
+    private static ObjectNode streamingGenerateParams(int count) {
+        ObjectNode params = OBJECT_MAPPER.createObjectNode();
+        params.put("__skipStepTracking", true);
+        params.put("mode", "generate_cards");
+        params.put("count", count);
+        params.put("input", "basic words");
+        params.putArray("fields").add("front");
+        params.putObject("qualityGate").put("enabled", false);
+        return params;
+    }
+
+    private static void stubGenerationDeck(CoreApiClient coreApiClient, UUID deckId) {
+        UUID publicDeckId = UUID.randomUUID();
+        UUID templateId = UUID.randomUUID();
+        when(coreApiClient.getUserDeck(deckId, "token"))
+                .thenReturn(new CoreApiClient.CoreUserDeckResponse(deckId, publicDeckId, 1, 1));
+        when(coreApiClient.getPublicDeck(publicDeckId, 1))
+                .thenReturn(new CoreApiClient.CorePublicDeckResponse(publicDeckId, 1, UUID.randomUUID(), "Deck", "Context", "en", templateId, 1));
+        when(coreApiClient.getTemplate(templateId, 1, "token"))
+                .thenReturn(new CoreApiClient.CoreTemplateResponse(
+                        templateId,
+                        1,
+                        1,
+                        "Basic",
+                        "",
+                        null,
+                        null,
+                        List.of(new CoreApiClient.CoreFieldTemplate(UUID.randomUUID(), "front", "Front", "text", true, true, 0))
+                ));
+        when(coreApiClient.getUserCards(deckId, 1, 3, "token")).thenReturn(new CoreApiClient.CoreUserCardPage(List.of()));
+        when(coreApiClient.getUserCards(deckId, 1, 200, "token")).thenReturn(new CoreApiClient.CoreUserCardPage(List.of()));
+    }
+
+    private static void stubCardStream(OpenAiClient openAiClient, String... fronts) {
+        StringBuilder cards = new StringBuilder();
+        for (String front : fronts) {
+            if (!cards.isEmpty()) {
+                cards.append(',');
+            }
+            cards.append("{\"fields\":{\"front\":\"").append(front).append("\"}}");
+        }
+        String text = "{\"cards\":[" + cards + "]}";
+        when(openAiClient.streamResponse(any(), any(), any())).thenAnswer(invocation -> {
+            java.util.function.Consumer<String> listener = invocation.getArgument(2);
+            listener.accept(text);
+            return new OpenAiResponseResult(text, "gpt-5-mini", 12, 6, OBJECT_MAPPER.createObjectNode());
+        });
+    }
+
+    private static AiJobProcessingResult invokeHandleGenerateCards(OpenAiJobProcessor processor,
+                                                                   AiJobEntity job,
+                                                                   JsonNode params) throws Exception {
+        Method handleGenerateCards = OpenAiJobProcessor.class.getDeclaredMethod(
+                "handleGenerateCards",
+                AiJobEntity.class,
+                String.class,
+                JsonNode.class
+        );
+        handleGenerateCards.setAccessible(true);
+        return (AiJobProcessingResult) handleGenerateCards.invoke(processor, job, "sk-test", params);
+    }
+
     private static AiJobEntity createJob(JsonNode params, AiJobType type) {
         AiJobEntity job = new AiJobEntity();
         job.setJobId(UUID.randomUUID());
@@ -0,0 +1,67 @@
+package app.mnema.ai.provider.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalJsonArrayParserTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void emitsEachCardAsSoonAsItsObjectCloses() {
+        List<JsonNode> cards = new ArrayList<>();
+        IncrementalJsonArrayParser parser = new IncrementalJsonArrayParser(OBJECT_MAPPER, "cards", cards::add);
+
+        parser.feed("{\"cards\": [{\"fields\": {\"Front\": \"a\"");
+        assertThat(cards).isEmpty();
+
+        parser.feed("}}, {\"fields\": {\"Front\": \"b\"}}");
+        assertThat(cards).hasSize(2);
+        assertThat(cards.get(0).path("fields").path("Front").asText()).isEqualTo("a");
+
+        parser.feed("]}");
+        assertThat(parser.emitted()).isEqualTo(2);
+    }
+
+    @Test
+    void bracesAndQuotesInsideStringsDoNotConfuseTheParser() {
+        List<JsonNode> cards = new ArrayList<>();
+        IncrementalJsonArrayParser parser = new IncrementalJsonArrayParser(OBJECT_MAPPER, "cards", cards::add);
+        String json = "{\"note\": \"cards\", \"cards\": [{\"fields\": {\"Front\": \"say \\\"}]{\\\" please\"}}]}";
+
+        for (char ch : json.toCharArray()) {
+            parser.feed(String.valueOf(ch));
+        }
+
+        assertThat(cards).hasSize(1);
+        assertThat(cards.get(0).path("fields").path("Front").asText()).isEqualTo("say \"}]{\" please");
+    }
+
+    @Test
+    void ignoresOtherArraysAndTextAroundTheJson() {
+        List<JsonNode> cards = new ArrayList<>();
+        IncrementalJsonArrayParser parser = new IncrementalJsonArrayParser(OBJECT_MAPPER, "cards", cards::add);
+
+        parser.feed("```json\n{\"tags\": [{\"x\": 1}], \"cards\": [{\"fields\": {}}]}\n```");
+
+        assertThat(cards).hasSize(1);
+        assertThat(cards.get(0).has("fields")).isTrue();
+    }
+
+    @Test
+    void acceptsTopLevelArray() {
+        List<JsonNode> cards = new ArrayList<>();
+        IncrementalJsonArrayParser parser = new IncrementalJsonArrayParser(OBJECT_MAPPER, "cards", cards::add);
+
+        parser.feed("[{\"a\": 1}, {\"a\": [2, {\"b\": 3}]}]");
+
+        assertThat(cards).hasSize(2);
+        assertThat(cards.get(1).path("a").get(1).path("b").asInt()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,107 @@
+package app.mnema.ai.provider.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelGenerationExecutorTest {
+
+    private final ParallelGenerationExecutor executor = new ParallelGenerationExecutor(3, 8, "grok:2");
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void returnsResultsInBatchOrderWhenLaterBatchesFinishFirst() {
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        List<String> results = executor.runAll("openai", List.<Callable<String>>of(
+                () -> {
+                    awaitQuietly(secondDone);
+                    return "first";
+                },
+                () -> {
+                    secondDone.countDown();
+                    return "second";
+                }
+        ));
+
+        assertThat(results).containsExactly("first", "second");
+    }
+
+    @Test
+    void limitsInFlightBatchesPerJobAndPerProvider() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        assertThat(executor.runAll("openai", trackedBatches(9, active, peak))).hasSize(9);
+        assertThat(peak.get()).isBetween(2, 3);
+
+        peak.set(0);
+        assertThat(executor.runAll("Grok", trackedBatches(6, active, peak))).hasSize(6);
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void failedBatchCancelsTheRestAndPropagates() {
+        AtomicInteger started = new AtomicInteger();
+        List<Callable<String>> batches = new ArrayList<>();
+        batches.add(() -> {
+            throw new IllegalStateException("boom");
+        });
+        for (int i = 0; i < 20; i++) {
+            batches.add(() -> {
+                started.incrementAndGet();
+                Thread.sleep(50);
+                return "late";
+            });
+        }
+
+        assertThatThrownBy(() -> executor.runAll("gemini", batches))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+        assertThat(started.get()).isLessThan(20);
+    }
+
+    @Test
+    void singleBatchRunsOnCallingThread() {
+        Thread caller = Thread.currentThread();
+
+        List<Boolean> results = executor.runAll("qwen", List.<Callable<Boolean>>of(() -> Thread.currentThread() == caller));
+
+        assertThat(results).containsExactly(true);
+    }
+
+    private static List<Callable<Integer>> trackedBatches(int count, AtomicInteger active, AtomicInteger peak) {
+        List<Callable<Integer>> batches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            batches.add(() -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Thread.sleep(30);
+                active.decrementAndGet();
+                return index;
+            });
+        }
+        return batches;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package app.mnema.ai.provider.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelTranscriptionExecutorTest {
+
+    private final ParallelTranscriptionExecutor executor = new ParallelTranscriptionExecutor(4, "grok:2", 2, 1L, 5L);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void reassemblesChunksInOrderWhenLaterChunksFinishFirst() throws Exception {
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        ParallelTranscriptionExecutor.Transcript transcript;
+        try (ParallelTranscriptionExecutor.Session session = executor.open("openai", 1000)) {
+            session.submit(() -> {
+                awaitQuietly(secondDone);
+                return "first";
+            });
+            session.submit(() -> {
+                secondDone.countDown();
+                return "second";
+            });
+            transcript = session.finish();
+        }
+
+        assertThat(transcript.text()).isEqualTo("first\nsecond");
+        assertThat(transcript.truncated()).isFalse();
+    }
+
+    @Test
+    void limitsConcurrentRequestsPerProvider() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (ParallelTranscriptionExecutor.Session session = executor.open("Grok", 1000)) {
+            for (int i = 0; i < 6; i++) {
+                String text = "chunk-" + i;
+                session.submit(() -> {
+                    peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    sleepQuietly(20);
+                    active.decrementAndGet();
+                    return text;
+                });
+            }
+            assertThat(session.finish().text()).isEqualTo("chunk-0\nchunk-1\nchunk-2\nchunk-3\nchunk-4\nchunk-5");
+        }
+
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void retriesFailedChunkIndividually() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try (ParallelTranscriptionExecutor.Session session = executor.open("gemini", 1000)) {
+            session.submit(() -> "stable");
+            session.submit(() -> {
+                if (attempts.getAndIncrement() == 0) {
+                    throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null);
+                }
+                return "recovered";
+            });
+
+            assertThat(session.finish().text()).isEqualTo("stable\nrecovered");
+        }
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    void submitOnceLeavesRetriesToTheClient() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try (ParallelTranscriptionExecutor.Session session = executor.open("qwen", 1000)) {
+            session.submitOnce(() -> {
+                attempts.incrementAndGet();
+                throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null);
+            });
+
+            assertThatThrownBy(session::finish).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsAcceptingChunksOnceTranscriptIsFullAndPropagatesFailures() {
+        try (ParallelTranscriptionExecutor.Session session = executor.open("qwen", 5)) {
+            session.submit(() -> "abcdefgh");
+            ParallelTranscriptionExecutor.Transcript transcript = session.finish();
+
+            assertThat(transcript.text()).isEqualTo("abcde");
+            assertThat(transcript.truncated()).isTrue();
+            assertThat(session.submit(() -> "ignored")).isFalse();
+        }
+
+        try (ParallelTranscriptionExecutor.Session session = executor.open("qwen", 100)) {
+            session.submit(() -> {
+                throw new IllegalStateException("boom");
+            });
+            assertThatThrownBy(session::finish)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("boom");
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package app.mnema.ai.provider.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final List<Long> sleeps = new ArrayList<>();
+    private final FakeStore store = new FakeStore();
+
+    @Test
+    void handsOutLeasedTokensLocallyBeforeGoingBackToTheStore() {
+        ProviderRateLimiter limiter = limiter(true, 0, "openai.text:600", 5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("openai", "sk-test", ProviderRateLimiter.TEXT, limiter.requestsPerMinute("openai", "text"));
+        }
+
+        assertThat(store.leases).isEqualTo(2);
+        assertThat(store.lastCapacity).isEqualTo(50.0d);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    void waitsForTheStoreWhenTheBucketIsEmpty() {
+        ProviderRateLimiter limiter = limiter(true, 60, "", 5);
+        store.grants.add(new ProviderRateLimiter.Grant(0, 400L));
+
+        limiter.acquire("gemini", "key", ProviderRateLimiter.TEXT, 60);
+
+        assertThat(sleeps).containsExactly(400L);
+        assertThat(store.leases).isEqualTo(2);
+    }
+
+    @Test
+    void rateLimitedResponsePausesTheKeyForRetryAfter() {
+        ProviderRateLimiter limiter = limiter(true, 0, "", 5);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.RETRY_AFTER, "3");
+
+        assertThatThrownBy(() -> limiter.call("grok", "key", ProviderRateLimiter.TEXT, () -> {
+            throw HttpClientErrorException.create(
+                    HttpStatus.TOO_MANY_REQUESTS,
+                    "Too Many Requests",
+                    headers,
+                    new byte[0],
+                    StandardCharsets.UTF_8
+            );
+        })).isInstanceOf(HttpClientErrorException.class);
+
+        assertThat(store.pauses).containsExactly(3_000L);
+        assertThat(limiter.call("grok", "key", ProviderRateLimiter.TEXT, () -> "ok")).isEqualTo("ok");
+        assertThat(sleeps).containsExactly(1_000L, 1_000L, 1_000L);
+    }
+
+    @Test
+    void unlimitedKeysPickUpPausesFromOtherReplicas() {
+        ProviderRateLimiter limiter = limiter(true, 0, "", 5);
+        store.remotePauseMs = 700L;
+
+        limiter.acquire("qwen", "key", ProviderRateLimiter.TTS, 0);
+
+        assertThat(sleeps).containsExactly(700L);
+    }
+
+    @Test
+    void keysSeparateProvidersOperationsAndCredentialsWithoutStoringTheKey() {
+        String key = ProviderRateLimiter.limitKey("OpenAI", "sk-secret", "TTS");
+
+        assertThat(key).startsWith("openai:tts:").doesNotContain("sk-secret");
+        assertThat(key).isNotEqualTo(ProviderRateLimiter.limitKey("openai", "sk-other", "tts"));
+        assertThat(ProviderRateLimiter.limitKey("openai", null, "tts")).isEqualTo("openai:tts:none");
+    }
+
+    @Test
+    void providerOverridesApplyToAllOperationsUnlessOperationIsSet() {
+        ProviderRateLimiter limiter = limiter(true, 30, "openai:100, openai.image:5, broken", 5);
+
+        assertThat(limiter.requestsPerMinute("OpenAI", "text")).isEqualTo(100);
+        assertThat(limiter.requestsPerMinute("openai", "image")).isEqualTo(5);
+        assertThat(limiter.requestsPerMinute("gemini", "text")).isEqualTo(30);
+    }
+
+    @Test
+    void disabledLimiterNeverTouchesTheStore() {
+        ProviderRateLimiter limiter = limiter(false, 60, "", 5);
+
+        limiter.acquire("openai", "key", ProviderRateLimiter.TEXT, 60);
+        limiter.backOff("openai", "key", ProviderRateLimiter.TEXT, 5_000L);
+
+        assertThat(store.leases).isZero();
+        assertThat(store.pauses).isEmpty();
+    }
+
+    private ProviderRateLimiter limiter(boolean enabled, int defaultRpm, String overrides, int leaseSize) {
+        return new ProviderRateLimiter(
+                store,
+                enabled,
+                defaultRpm,
+                overrides,
+                leaseSize,
+                waitMs -> {
+                    sleeps.add(waitMs);
+                    clock.addAndGet(waitMs);
+                    return true;
+                },
+                clock::get
+        );
+    }
+
+    private static final class FakeStore implements ProviderRateLimiter.BucketStore {
+        private final List<ProviderRateLimiter.Grant> grants = new ArrayList<>();
+        private final List<Long> pauses = new ArrayList<>();
+        private int leases;
+        private double lastCapacity;
+        private long remotePauseMs;
+
+        @Override
+        public ProviderRateLimiter.Grant lease(String key, double capacity, double ratePerSecond, int tokens) {
+            leases++;
+            lastCapacity = capacity;
+            return grants.isEmpty() ? new ProviderRateLimiter.Grant(tokens, 0L) : grants.removeFirst();
+        }
+
+        @Override
+        public long pausedFor(String key) {
+            long pause = remotePauseMs;
+            remotePauseMs = 0L;
+            return pause;
+        }
+
+        @Override
+        public void pause(String key, long pauseMs) {
+            pauses.add(pauseMs);
+        }
+
+        @Override
+        public void purgeIdle() {
+        }
+    }
+}
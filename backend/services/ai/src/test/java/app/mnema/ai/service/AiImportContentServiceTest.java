@@ -1,6 +1,7 @@
 package app.mnema.ai.service;
 
 import app.mnema.ai.client.media.MediaApiClient;
+import app.mnema.ai.client.media.MediaResolved;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.junit.jupiter.api.Test;
@@ -8,15 +9,23 @@ import org.mockito.ArgumentCaptor;
 
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class AiImportContentServiceTest {
@@ -26,10 +35,11 @@ class AiImportContentServiceTest {
         byte[] pdfBytes = createPdfWithPages(2);
         PdfOcrService pdfOcrService = mock(PdfOcrService.class);
         when(pdfOcrService.extract(eq(pdfBytes), anyInt(), eq("eng")))
-                .thenReturn(new PdfOcrService.PdfOcrResult("OCR text", false, 2, 2));
+                .thenReturn(new PdfOcrService.PdfOcrResult("OCR text", false, 2, 2, 0));
         AiImportContentService service = new AiImportContentService(
                 mock(MediaApiClient.class),
                 pdfOcrService,
+                mock(AiImportExtractionCache.class),
                 10_485_760L,
                 31_457_280L,
                 20_971_520L,
@@ -50,6 +60,7 @@ class AiImportContentServiceTest {
         assertEquals(2, payload.sourcePages());
         assertEquals(2, payload.ocrPages());
         assertFalse(payload.truncated());
+        assertFalse(payload.degraded());
         ArgumentCaptor<String> languageCaptor = ArgumentCaptor.forClass(String.class);
         verify(pdfOcrService).extract(eq(pdfBytes), anyInt(), languageCaptor.capture());
         assertEquals("eng", languageCaptor.getValue());
@@ -61,6 +72,7 @@ class AiImportContentServiceTest {
         AiImportContentService service = new AiImportContentService(
                 mock(MediaApiClient.class),
                 pdfOcrService,
+                mock(AiImportExtractionCache.class),
                 10_485_760L,
                 31_457_280L,
                 20_971_520L,
@@ -84,6 +96,92 @@ class AiImportContentServiceTest {
         assertEquals(1000, payload.text().length());
     }
 
+    @Test
+    void degradedOcrExtractionIsNotCached() throws Exception {
+        byte[] pdfBytes = createPdfWithPages(2);
+        PdfOcrService pdfOcrService = mock(PdfOcrService.class);
+        when(pdfOcrService.extract(eq(pdfBytes), anyInt(), any()))
+                .thenReturn(new PdfOcrService.PdfOcrResult("OCR text", false, 2, 2, 1));
+        AiImportExtractionCache extractionCache = mock(AiImportExtractionCache.class);
+        AiImportContentService service = new AiImportContentService(
+                mock(MediaApiClient.class),
+                pdfOcrService,
+                extractionCache,
+                10_485_760L,
+                31_457_280L,
+                20_971_520L,
+                52_428_800L,
+                1000,
+                10,
+                30
+        );
+
+        AiImportContentService.ImportTextPayload payload = service.extractText(
+                new AiImportContentService.ImportSourcePayload(pdfBytes, "application/pdf", pdfBytes.length, false),
+                null,
+                "en"
+        );
+        service.cacheText(new AiImportContentService.ImportExtractionKey(UUID.randomUUID(), "en", null, null, null), payload.mimeType(), payload);
+
+        assertTrue(payload.degraded());
+        verify(extractionCache, never()).put(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void loadTextChecksMediaAccessBeforeReadingTheCache() {
+        MediaApiClient mediaApiClient = mock(MediaApiClient.class);
+        AiImportExtractionCache extractionCache = mock(AiImportExtractionCache.class);
+        AiImportContentService service = new AiImportContentService(
+                mediaApiClient,
+                mock(PdfOcrService.class),
+                extractionCache,
+                10_485_760L,
+                31_457_280L,
+                20_971_520L,
+                52_428_800L,
+                1000,
+                50,
+                30
+        );
+        UUID mediaId = UUID.randomUUID();
+        when(mediaApiClient.resolve(List.of(mediaId), "foreign-token")).thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> service.loadText(mediaId, "utf-8", "eng", "foreign-token"));
+        verifyNoInteractions(extractionCache);
+    }
+
+    @Test
+    void loadTextReturnsCachedExtractionWithoutDownloadingMedia() {
+        MediaApiClient mediaApiClient = mock(MediaApiClient.class);
+        AiImportExtractionCache extractionCache = mock(AiImportExtractionCache.class);
+        AiImportContentService service = new AiImportContentService(
+                mediaApiClient,
+                mock(PdfOcrService.class),
+                extractionCache,
+                10_485_760L,
+                31_457_280L,
+                20_971_520L,
+                52_428_800L,
+                1000,
+                50,
+                30
+        );
+        UUID mediaId = UUID.randomUUID();
+        AiImportContentService.ImportTextPayload cached = new AiImportContentService.ImportTextPayload(
+                "cached text", "application/pdf", 2048L, false, 11, null, 5, "pdf", 2, 0, null, null
+        );
+        when(extractionCache.find(eq(mediaId), anyList(), eq("eng"), eq("utf-8"))).thenReturn(Optional.of(cached));
+        when(mediaApiClient.resolve(List.of(mediaId), "token")).thenReturn(List.of(new MediaResolved(
+                mediaId, "ai_import", "http://127.0.0.1:9/unused", "application/pdf", 2048L, null, null, null, null
+        )));
+
+        AiImportContentService.ImportTextPayload payload = service.loadText(mediaId, "utf-8", "eng", "token");
+
+        assertEquals(cached, payload);
+        verify(mediaApiClient).resolve(List.of(mediaId), "token");
+        verify(extractionCache, never()).put(any(), any(), any(), any(), any());
+    }
+
     private byte[] createPdfWithPages(int pages) throws Exception {
         try (PDDocument doc = new PDDocument()) {
             for (int i = 0; i < pages; i++) {
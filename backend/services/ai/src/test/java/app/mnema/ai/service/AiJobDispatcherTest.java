@@ -0,0 +1,124 @@
+package app.mnema.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AiJobDispatcherTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final AiJobWorker worker = mock(AiJobWorker.class);
+
+    @Test
+    void tickPollsOnEveryRunWhileNotListening() {
+        AiJobDispatcher dispatcher = dispatcher();
+
+        dispatcher.tick();
+        dispatcher.tick();
+
+        verify(worker, times(2)).poll();
+    }
+
+    @Test
+    void idleListeningTickMakesNoQueriesUntilTheSafetySweep() {
+        AiJobDispatcher dispatcher = dispatcher();
+        dispatcher.setListening(true);
+
+        clock.addAndGet(2_000L);
+        dispatcher.tick();
+        verifyNoInteractions(worker);
+
+        clock.addAndGet(60_000L);
+        dispatcher.tick();
+        verify(worker).poll();
+    }
+
+    @Test
+    void notificationWakesImmediatelyOrWhenTheRetryIsDue() {
+        AiJobDispatcher dispatcher = dispatcher();
+        dispatcher.setListening(true);
+
+        dispatcher.onNotification("");
+        verify(worker, times(1)).poll();
+
+        dispatcher.onNotification(Long.toString(clock.get() + 5_000L));
+        dispatcher.tick();
+        verify(worker, times(1)).poll();
+
+        clock.addAndGet(5_000L);
+        dispatcher.tick();
+        verify(worker, times(2)).poll();
+
+        clock.addAndGet(2_000L);
+        dispatcher.tick();
+        verify(worker, times(2)).poll();
+    }
+
+    @Test
+    void everyPendingRetryGetsItsOwnWakeUp() {
+        AiJobDispatcher dispatcher = dispatcher();
+        dispatcher.setListening(true);
+
+        dispatcher.onNotification(Long.toString(clock.get() + 5_000L));
+        dispatcher.onNotification(Long.toString(clock.get() + 20_000L));
+
+        clock.addAndGet(5_000L);
+        dispatcher.tick();
+        verify(worker, times(1)).poll();
+
+        clock.addAndGet(10_000L);
+        dispatcher.tick();
+        verify(worker, times(1)).poll();
+
+        clock.addAndGet(5_000L);
+        dispatcher.tick();
+        verify(worker, times(2)).poll();
+    }
+
+    @Test
+    void reArmsFromTheDatabaseAfterARetryWakeUp() {
+        AiJobDispatcher dispatcher = dispatcher();
+        dispatcher.setListening(true);
+        // The database clock is behind: the job is still scheduled a moment after the app's due time.
+        when(worker.nextScheduledRunAt()).thenReturn(Optional.of(Instant.ofEpochMilli(clock.get() + 5_500L)), Optional.empty());
+
+        dispatcher.onNotification(Long.toString(clock.get() + 5_000L));
+        clock.addAndGet(5_000L);
+        dispatcher.tick();
+        verify(worker, times(1)).poll();
+
+        clock.addAndGet(2_000L);
+        dispatcher.tick();
+        verify(worker, times(2)).poll();
+
+        clock.addAndGet(2_000L);
+        dispatcher.tick();
+        verify(worker, times(2)).poll();
+    }
+
+    @Test
+    void disabledDispatcherNeverStartsAListener() {
+        DataSource dataSource = mock(DataSource.class);
+        AiJobDispatcher dispatcher = new AiJobDispatcher(dataSource, worker, false, 60_000L, 1_000L, clock::get);
+
+        dispatcher.start();
+        dispatcher.stop();
+
+        verifyNoInteractions(dataSource);
+        verify(worker, never()).poll();
+    }
+
+    private AiJobDispatcher dispatcher() {
+        return new AiJobDispatcher(mock(DataSource.class), worker, true, 60_000L, 1_000L, clock::get);
+    }
+}
@@ -9,6 +9,7 @@ import app.mnema.ai.repository.AiJobStepRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -17,11 +18,14 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +41,8 @@ class AiJobExecutionServiceTest {
     @Mock
     private TransactionTemplate transactionTemplate;
 
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
     private AiJobExecutionService service;
 
     @BeforeEach
@@ -47,50 +53,59 @@ class AiJobExecutionServiceTest {
             callback.accept(null);
             return null;
         }).when(transactionTemplate).executeWithoutResult(any());
-        service = new AiJobExecutionService(stepRepository, jobRepository, transactionTemplate);
+        service = new AiJobExecutionService(stepRepository, jobRepository, transactionTemplate, 500L, clock::get);
     }
 
     @Test
     void updateStepProgressUsesWeightedFractionForCurrentStep() {
         UUID jobId = UUID.randomUUID();
-        AiJobEntity job = new AiJobEntity();
-        job.setJobId(jobId);
-        job.setStatus(AiJobStatus.processing);
-        job.setProgress(1);
-        job.setUpdatedAt(Instant.now().minusSeconds(30));
-
         when(stepRepository.findByJobIdOrderByStartedAtAscStepNameAsc(jobId)).thenReturn(List.of(
                 new AiJobStepEntity(jobId, "prepare_context", AiJobStepStatus.completed, Instant.now().minusSeconds(20), Instant.now().minusSeconds(15), null),
                 new AiJobStepEntity(jobId, "generate_content", AiJobStepStatus.processing, Instant.now().minusSeconds(10), null, null),
                 new AiJobStepEntity(jobId, "generate_audio", AiJobStepStatus.queued, null, null, null),
                 new AiJobStepEntity(jobId, "apply_changes", AiJobStepStatus.queued, null, null, null)
         ));
-        when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
-        when(jobRepository.save(any(AiJobEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         service.updateStepProgress(jobId, "generate_content", 0.5d);
 
-        assertThat(job.getProgress()).isEqualTo(40);
-        assertThat(job.getUpdatedAt()).isNotNull();
-        verify(jobRepository).save(job);
+        verify(jobRepository).updateProgress(eq(jobId), eq(40), any(Instant.class), eq(List.of(AiJobStatus.queued, AiJobStatus.processing)));
+        verify(jobRepository, never()).save(any(AiJobEntity.class));
     }
 
     @Test
-    void updateStepProgressSkipsTerminalJobs() {
+    void updateStepProgressCoalescesTicksAndLoadsStepsOnce() {
         UUID jobId = UUID.randomUUID();
-        AiJobEntity job = new AiJobEntity();
-        job.setJobId(jobId);
-        job.setStatus(AiJobStatus.completed);
-        job.setProgress(88);
-
         when(stepRepository.findByJobIdOrderByStartedAtAscStepNameAsc(jobId)).thenReturn(List.of(
                 new AiJobStepEntity(jobId, "generate_content", AiJobStepStatus.processing, Instant.now().minusSeconds(10), null, null)
         ));
-        when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
 
-        service.updateStepProgress(jobId, "generate_content", 0.8d);
+        for (int card = 1; card <= 64; card++) {
+            service.updateStepProgress(jobId, "generate_content", card / 64.0d);
+            clock.addAndGet(10L);
+        }
+        clock.addAndGet(500L);
+        service.updateStepProgress(jobId, "generate_content", 0.875d);
+
+        ArgumentCaptor<Integer> written = ArgumentCaptor.forClass(Integer.class);
+        verify(jobRepository, times(3)).updateProgress(eq(jobId), written.capture(), any(Instant.class), any());
+        assertThat(written.getAllValues()).containsExactly(1, 79, 87);
+        verify(stepRepository, times(1)).findByJobIdOrderByStartedAtAscStepNameAsc(jobId);
+    }
 
-        assertThat(job.getProgress()).isEqualTo(88);
-        verify(jobRepository, never()).save(job);
+    @Test
+    void stepTransitionsWriteThroughInsideTheFlushInterval() {
+        UUID jobId = UUID.randomUUID();
+        when(stepRepository.findById(any())).thenReturn(Optional.empty());
+        when(stepRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        service.resetPlan(jobId, List.of("generate_content", "apply_changes"));
+
+        service.markProcessing(jobId, "generate_content");
+        service.updateStepProgress(jobId, "generate_content", 0.75d);
+        service.markCompleted(jobId, "generate_content");
+
+        ArgumentCaptor<Integer> written = ArgumentCaptor.forClass(Integer.class);
+        verify(jobRepository, times(2)).updateProgress(eq(jobId), written.capture(), any(Instant.class), any());
+        assertThat(written.getAllValues()).containsExactly(42, 85);
+        verify(stepRepository, never()).findByJobIdOrderByStartedAtAscStepNameAsc(jobId);
     }
 }
@@ -36,6 +36,8 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -186,6 +188,105 @@ class AiJobServiceTest extends PostgresIntegrationTest {
         assertThat(canceled.completedAt()).isNotNull();
     }
 
+    @Test
+    void cancelJobCancelsTheProviderBatchTheJobWaitsOn() {
+        UUID userId = UUID.randomUUID();
+        seedQuota(userId, 10000);
+        AiJobResponse created = jobService.createJob(jwtFor(userId), "token", new CreateAiJobRequest(
+                UUID.randomUUID(),
+                null,
+                AiJobType.generic,
+                objectMapper.createObjectNode().put("input", "batch"),
+                null,
+                10,
+                null
+        ));
+        AiJobEntity job = jobRepository.findById(created.jobId()).orElseThrow();
+        job.setProviderBatchId("batch_1");
+        jobRepository.save(job);
+
+        jobService.cancelJob(jwtFor(userId), created.jobId());
+
+        verify(aiJobWorker).cancelProviderBatch(argThat(canceled -> "batch_1".equals(canceled.getProviderBatchId())));
+    }
+
+    @Test
+    void identicalAuditRequestsAttachToInFlightJobButNotToCompletedReport() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        seedQuota(userId, 10000);
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("mode", "audit");
+        params.put("provider", "openai");
+        params.put("model", "gpt-4o-mini");
+
+        AiJobResponse first = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, null, 10, null));
+        AiJobResponse attached = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, null, 10, null));
+
+        assertThat(attached.jobId()).isEqualTo(first.jobId());
+        assertThat(jobRepository.count()).isEqualTo(1);
+        AiQuotaEntity quota = quotaRepository.findByUserIdAndPeriodStart(userId, currentPeriodStart(userId))
+                .orElseThrow();
+        assertThat(quota.getTokensUsed()).isEqualTo(estimateTokens(AiJobType.generic, params, "openai", "gpt-4o-mini"));
+
+        AiJobEntity job = jobRepository.findById(first.jobId()).orElseThrow();
+        job.setStatus(AiJobStatus.completed);
+        job.setCompletedAt(Instant.now());
+        jobRepository.save(job);
+
+        // The deck may have changed since the report was written, so a re-run gets a fresh job.
+        AiJobResponse rerun = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, null, 10, null));
+        assertThat(rerun.jobId()).isNotEqualTo(first.jobId());
+        assertThat(rerun.status()).isEqualTo(AiJobStatus.queued);
+
+        ObjectNode otherModel = params.deepCopy().put("model", "gpt-4.1-mini");
+        AiJobResponse fresh = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, otherModel, null, 10, null));
+        assertThat(fresh.jobId()).isNotEqualTo(rerun.jobId());
+    }
+
+    @Test
+    void reuseIgnoresClientSuppliedInputHash() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        seedQuota(userId, 10000);
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("mode", "audit");
+        ObjectNode otherParams = params.deepCopy().put("notes", "check grammar only");
+
+        AiJobResponse first = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, "client-hash", 10, null));
+        AiJobResponse other = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, otherParams, "client-hash", 10, null));
+        AiJobResponse attached = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, "another-hash", 10, null));
+
+        assertThat(other.jobId()).isNotEqualTo(first.jobId());
+        assertThat(attached.jobId()).isEqualTo(first.jobId());
+        assertThat(jobRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void identicalGenerateRequestsAreNeverReused() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        seedQuota(userId, 10000);
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("mode", "generate_cards");
+        params.put("count", 2);
+
+        AiJobResponse first = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, null, 10, null));
+        AiJobResponse second = jobService.createJob(jwtFor(userId), "token",
+                new CreateAiJobRequest(UUID.randomUUID(), deckId, AiJobType.generic, params, null, 10, null));
+
+        assertThat(second.jobId()).isNotEqualTo(first.jobId());
+        assertThat(jobRepository.count()).isEqualTo(2);
+    }
+
     @Test
     void listAndCancelValidateInputAndJobOwnership() {
         UUID userId = UUID.randomUUID();
@@ -52,7 +52,7 @@ class AiJobWorkerTest {
 
     @Test
     void claimNextJobReturnsEmptyWhenNothingClaimedAndEntityWhenFound() {
-        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 3, 1000, 8000, 1);
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 3, 1000, 8000, 1, 60000);
         UUID jobId = UUID.randomUUID();
         AiJobEntity job = queuedJob(jobId);
 
@@ -67,7 +67,7 @@ class AiJobWorkerTest {
 
     @Test
     void markCompletedStoresSummaryAndUsage() {
-        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 3, 1000, 8000, 1);
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 3, 1000, 8000, 1, 60000);
         AiJobEntity job = queuedJob(UUID.randomUUID());
         job.setStatus(AiJobStatus.processing);
         job.setLockedAt(Instant.now());
@@ -103,7 +103,7 @@ class AiJobWorkerTest {
 
     @Test
     void markFailedRetriesThenFailsPermanently() {
-        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 2, 1000, 8000, 1);
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 2, 1000, 8000, 1, 60000);
         AiJobEntity job = queuedJob(UUID.randomUUID());
         job.setAttempts(0);
 
@@ -120,27 +120,62 @@ class AiJobWorkerTest {
         assertThat(job.getNextRunAt()).isNull();
         assertThat(job.getUserAccessToken()).isNull();
         ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-        verify(jdbcTemplate).update(any(String.class), eq(1), eq("queued"), any(Timestamp.class), isNull(), eq("boom"), eq("queued"), any(Timestamp.class), eq(job.getJobId()));
-        verify(jdbcTemplate).update(any(String.class), eq(2), eq("failed"), isNull(), any(Timestamp.class), eq("still boom"), eq("failed"), any(Timestamp.class), eq(job.getJobId()));
-        verify(jdbcTemplate, times(2)).update(sqlCaptor.capture(), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(jdbcTemplate).update(any(String.class), eq(1), eq("queued"), any(Timestamp.class), isNull(), eq("boom"), eq("queued"), isNull(), any(Timestamp.class), eq(job.getJobId()));
+        verify(jdbcTemplate).update(any(String.class), eq(2), eq("failed"), isNull(), any(Timestamp.class), eq("still boom"), eq("failed"), isNull(), any(Timestamp.class), eq(job.getJobId()));
+        verify(jdbcTemplate, times(2)).update(sqlCaptor.capture(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         assertThat(sqlCaptor.getAllValues())
                 .allSatisfy(sql -> assertThat(sql).contains("status = cast(? as app_ai.ai_job_status)"));
     }
 
     @Test
     void markFailedFallsBackToExceptionTypeWhenMessageIsMissing() {
-        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 2, 1000, 8000, 1);
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 2, 1000, 8000, 1, 60000);
         AiJobEntity job = queuedJob(UUID.randomUUID());
 
         worker.markFailed(job, new IllegalStateException());
 
         assertThat(job.getErrorMessage()).isEqualTo("IllegalStateException");
-        verify(jdbcTemplate).update(any(String.class), eq(1), eq("queued"), any(Timestamp.class), isNull(), eq("IllegalStateException"), eq("queued"), any(Timestamp.class), eq(job.getJobId()));
+        verify(jdbcTemplate).update(any(String.class), eq(1), eq("queued"), any(Timestamp.class), isNull(), eq("IllegalStateException"), eq("queued"), isNull(), any(Timestamp.class), eq(job.getJobId()));
+    }
+
+    @Test
+    void markDeferredRequeuesWithoutCountingAnAttemptAndKeepsTheBatchId() {
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 2, 1000, 8000, 1, 60000);
+        AiJobEntity job = queuedJob(UUID.randomUUID());
+        job.setStatus(AiJobStatus.processing);
+        job.setLockedBy("worker-1");
+        job.setAttempts(1);
+        job.setProviderBatchId("batch_1");
+        job.setUserAccessToken("token");
+        Instant before = Instant.now();
+
+        worker.markDeferred(job, new AiJobDeferredException("batch pending"));
+
+        assertThat(job.getStatus()).isEqualTo(AiJobStatus.queued);
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getLockedBy()).isNull();
+        assertThat(job.getUserAccessToken()).isEqualTo("token");
+        assertThat(job.getNextRunAt()).isAfterOrEqualTo(before.plusSeconds(60));
+        verify(jdbcTemplate).update(any(String.class), any(Timestamp.class), eq("batch_1"), any(Timestamp.class), eq(job.getJobId()));
+    }
+
+    @Test
+    void markDeferredCancelsTheProviderBatchOfAJobCanceledMeanwhile() {
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 300, 2, 1000, 8000, 1, 60000);
+        AiJobEntity job = queuedJob(UUID.randomUUID());
+        job.setProviderBatchId("batch_1");
+        when(jdbcTemplate.query(eq("select status from app_ai.ai_jobs where job_id = ?"), any(org.springframework.jdbc.core.ResultSetExtractor.class), eq(job.getJobId())))
+                .thenReturn("canceled");
+
+        worker.markDeferred(job, new AiJobDeferredException("batch submitted"));
+
+        verify(jobProcessor).cancelProviderBatch(job);
+        verify(jdbcTemplate, never()).update(any(String.class), any(), any(), any(), any());
     }
 
     @Test
     void markMethodsSkipCanceledJobsAndPrivateTimingHelpersStayBounded() throws Exception {
-        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 30, 3, 1000, 8000, 1);
+        AiJobWorker worker = new AiJobWorker(jdbcTemplate, jobRepository, jobProcessor, usageLedgerService, costEstimator, cancellationRegistry, "worker-1", 30, 3, 1000, 8000, 1, 60000);
         AiJobEntity canceled = queuedJob(UUID.randomUUID());
         canceled.setStatus(AiJobStatus.canceled);
         when(jdbcTemplate.query(eq("select status from app_ai.ai_jobs where job_id = ?"), any(org.springframework.jdbc.core.ResultSetExtractor.class), eq(canceled.getJobId())))
@@ -0,0 +1,41 @@
+package app.mnema.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiMediaCacheTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    @Test
+    void ttsKeyIgnoresWhitespaceAndOptionCaseButKeepsTextCase() {
+        String key = AiMediaCache.ttsKey(OWNER, "openai", "gpt-4o-mini-tts", "alloy", "mp3", "Hello world");
+
+        assertThat(AiMediaCache.ttsKey(OWNER, "OpenAI", " gpt-4o-mini-tts", "Alloy", "MP3", "  Hello \n world ")).isEqualTo(key);
+        assertThat(AiMediaCache.ttsKey(OWNER, "openai", "gpt-4o-mini-tts", "alloy", "mp3", "hello world")).isNotEqualTo(key);
+        assertThat(AiMediaCache.ttsKey(OWNER, "openai", "gpt-4o-mini-tts", "echo", "mp3", "Hello world")).isNotEqualTo(key);
+    }
+
+    @Test
+    void keysAreNotSharedBetweenOwners() {
+        assertThat(AiMediaCache.ttsKey(UUID.randomUUID(), "openai", "gpt-4o-mini-tts", "alloy", "mp3", "Hello world"))
+                .isNotEqualTo(AiMediaCache.ttsKey(OWNER, "openai", "gpt-4o-mini-tts", "alloy", "mp3", "Hello world"));
+        assertThat(AiMediaCache.imageKey(UUID.randomUUID(), "openai", "gpt-image-1", "low", "A cat"))
+                .isNotEqualTo(AiMediaCache.imageKey(OWNER, "openai", "gpt-image-1", "low", "A cat"));
+    }
+
+    @Test
+    void ttsAndImageKeysNeverCollide() {
+        assertThat(AiMediaCache.imageKey(OWNER, "openai", "gpt-image-1", "mp3", "Hello world"))
+                .isNotEqualTo(AiMediaCache.ttsKey(OWNER, "openai", "gpt-image-1", "mp3", null, "Hello world"));
+    }
+
+    @Test
+    void unicodeTextIsComparedAfterNormalization() {
+        assertThat(AiMediaCache.ttsKey(OWNER, "qwen", "qwen-tts", "Cherry", null, "caf\u00e9"))
+                .isEqualTo(AiMediaCache.ttsKey(OWNER, "qwen", "qwen-tts", "Cherry", null, "cafe\u0301"));
+    }
+}
@@ -2,9 +2,11 @@ package app.mnema.ai.service;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -20,7 +22,7 @@ class AudioChunkingServiceTest {
         assertThat(invoke(service, "resolveExtension", new Class[]{String.class}, "audio/x-m4a")).isEqualTo(".m4a");
         assertThat(invoke(service, "resolveExtension", new Class[]{String.class}, "application/octet-stream")).isEqualTo(".bin");
         assertThat(invoke(service, "summarizeOutput", new Class[]{String.class}, "x".repeat(320))).isEqualTo("x".repeat(300) + "...");
-        assertThatThrownBy(() -> service.prepareChunks(new byte[0], "audio/mpeg"))
+        assertThatThrownBy(() -> service.streamChunks(new ByteArrayInputStream(new byte[0]), "audio/mpeg", (index, chunk) -> true))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("Audio is empty");
     }
@@ -45,6 +47,91 @@ class AudioChunkingServiceTest {
         assertThat(Files.exists(dir)).isFalse();
     }
 
+    @Test
+    void streamChunksHandsSegmentsToHandlerAsFfmpegReportsThem() throws Exception {
+        Path ffmpeg = fakeFfmpeg(3);
+        AudioChunkingService service = new AudioChunkingService(300, 60, 8, 30, ffmpeg.toString(), "ffprobe");
+        List<Integer> indexes = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+
+        AudioChunkingService.AudioChunkingResult result = service.streamChunks(
+                new ByteArrayInputStream(new byte[128 * 1024]),
+                "audio/mpeg",
+                (index, chunk) -> {
+                    indexes.add(index);
+                    sizes.add(chunk.bytes().length);
+                    assertThat(chunk.mimeType()).isEqualTo("audio/wav");
+                    return true;
+                }
+        );
+
+        assertThat(indexes).containsExactly(0, 1, 2);
+        assertThat(sizes).containsOnly(44 + 32_000);
+        assertThat(result.chunkCount()).isEqualTo(3);
+        assertThat(result.durationSeconds()).isEqualTo(3);
+    }
+
+    @Test
+    void streamChunksStopsWhenHandlerDeclinesAndEnforcesLimits() throws Exception {
+        Path ffmpeg = fakeFfmpeg(3);
+        AudioChunkingService service = new AudioChunkingService(300, 60, 8, 30, ffmpeg.toString(), "ffprobe");
+        List<Integer> indexes = new ArrayList<>();
+
+        AudioChunkingService.AudioChunkingResult result = service.streamChunks(
+                new ByteArrayInputStream(new byte[16]),
+                "audio/mpeg",
+                (index, chunk) -> {
+                    indexes.add(index);
+                    return false;
+                }
+        );
+
+        assertThat(indexes).containsExactly(0);
+        assertThat(result.chunkCount()).isEqualTo(1);
+
+        AudioChunkingService limited = new AudioChunkingService(300, 60, 2, 30, ffmpeg.toString(), "ffprobe");
+        List<Integer> dispatched = new ArrayList<>();
+        assertThatThrownBy(() -> limited.streamChunks(new ByteArrayInputStream(new byte[16]), "audio/mpeg", (index, chunk) -> dispatched.add(index)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Audio is too long. Please upload a shorter file.");
+        // Without a probed duration nothing is handed out (and billed) before the limits are known to hold.
+        assertThat(dispatched).isEmpty();
+    }
+
+    @Test
+    void streamChunksRejectsAudioThatProbesTooLongBeforeCutting() throws Exception {
+        Path ffprobe = Files.createTempFile("mnema-fake-ffprobe", ".sh");
+        Files.writeString(ffprobe, "#!/usr/bin/env bash\necho 400.5\n");
+        ffprobe.toFile().setExecutable(true);
+        ffprobe.toFile().deleteOnExit();
+        AudioChunkingService service = new AudioChunkingService(300, 60, 8, 30, fakeFfmpeg(3).toString(), ffprobe.toString());
+        List<Integer> dispatched = new ArrayList<>();
+
+        assertThatThrownBy(() -> service.streamChunks(new ByteArrayInputStream(new byte[16]), "audio/ogg", (index, chunk) -> dispatched.add(index)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Audio is too long. Please upload a shorter file.");
+        assertThat(dispatched).isEmpty();
+    }
+
+    private Path fakeFfmpeg(int segments) throws Exception {
+        // Mimics the segment muxer: writes one-second WAV files and lists each on stdout.
+        Path script = Files.createTempFile("mnema-fake-ffmpeg", ".sh");
+        Files.writeString(script, """
+                #!/usr/bin/env bash
+                out="${@: -1}"
+                dir="$(dirname "$out")"
+                cat > /dev/null
+                for i in $(seq 0 %d); do
+                  name="chunk-$(printf '%%03d' "$i").wav"
+                  head -c 32044 /dev/zero > "$dir/$name"
+                  echo "$name"
+                done
+                """.formatted(segments - 1));
+        script.toFile().setExecutable(true);
+        script.toFile().deleteOnExit();
+        return script;
+    }
+
     private Object invoke(Object target, String name, Class<?>[] types, Object... args) throws Exception {
         Method method = target.getClass().getDeclaredMethod(name, types);
         method.setAccessible(true);
@@ -5,12 +5,26 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CardNoveltyServiceTest {
@@ -87,6 +101,124 @@ class CardNoveltyServiceTest {
         assertEquals(0, filtered.droppedEmpty());
     }
 
+    @Test
+    void concurrentBatchesNeverAcceptTheSameCardTwice() throws Exception {
+        CardNoveltyService noveltyService = new CardNoveltyService(mock(CoreApiClient.class));
+        List<String> fields = List.of("front", "back");
+        List<ObjectNode> candidates = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            candidates.add(card("term " + i, "definition " + UUID.randomUUID()));
+        }
+        int expected = noveltyService.filterCandidates(
+                candidates, node -> node, fields, new CardNoveltyService.NoveltyIndex(), 200
+        ).accepted().size();
+        CardNoveltyService.NoveltyIndex index = new CardNoveltyService.NoveltyIndex();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CardNoveltyService.FilterResult<ObjectNode>>> batches = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                batches.add(pool.submit(() -> noveltyService.filterCandidates(candidates, node -> node, fields, index, 200)));
+            }
+            int accepted = 0;
+            for (Future<CardNoveltyService.FilterResult<ObjectNode>> batch : batches) {
+                accepted += batch.get(10, TimeUnit.SECONDS).accepted().size();
+            }
+            assertEquals(expected, accepted);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void buildIndexSyncsStoreFromChangeFeedAndLoadsWholeDeck() {
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        CardNoveltyStore store = mock(CardNoveltyStore.class);
+        CardNoveltyService noveltyService = new CardNoveltyService(coreApiClient, store);
+        UUID deckId = UUID.randomUUID();
+        UUID liveCardId = UUID.randomUUID();
+        UUID deletedCardId = UUID.randomUUID();
+        List<String> fields = List.of("front", "back");
+        String fieldsKey = CardNoveltyService.fieldsKey(fields);
+        Instant changedAt = Instant.parse("2026-01-01T00:00:00Z");
+
+        when(store.state(deckId, fieldsKey)).thenReturn(Optional.empty());
+        when(coreApiClient.getUserCardChanges(deckId, null, null, 500, "token"))
+                .thenReturn(new CoreApiClient.CoreUserCardChanges(3, List.of(
+                        new CoreApiClient.CoreUserCardChange(liveCardId, false, changedAt, card("alpha", "first letter")),
+                        new CoreApiClient.CoreUserCardChange(deletedCardId, true, changedAt.plusSeconds(1), null)
+                )));
+        List<CardNoveltyService.Fingerprint> stored = new ArrayList<>();
+        doAnswer(invocation -> {
+            Map<UUID, CardNoveltyService.Fingerprint> upserts = invocation.getArgument(3);
+            stored.addAll(upserts.values());
+            return null;
+        }).when(store).apply(eq(deckId), eq(fieldsKey), eq(3), anyMap(), eq(List.of(deletedCardId)),
+                eq(changedAt.plusSeconds(1)), eq(deletedCardId));
+        when(store.load(deckId, fieldsKey)).thenAnswer(invocation -> stored);
+
+        CardNoveltyService.NoveltyIndex index = noveltyService.buildIndex(deckId, "token", fields);
+        CardNoveltyService.FilterResult<ObjectNode> filtered = noveltyService.filterCandidates(
+                List.of(card("alpha", "first letter"), card("omega", "last letter")), node -> node, fields, index, 10
+        );
+
+        assertEquals(1, stored.size());
+        assertEquals(1, filtered.droppedExact());
+        assertEquals("omega", filtered.accepted().getFirst().path("front").asText());
+        verify(coreApiClient, never()).getUserCards(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void buildIndexRebuildsStoreWhenDeckVersionChanged() {
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        CardNoveltyStore store = mock(CardNoveltyStore.class);
+        CardNoveltyService noveltyService = new CardNoveltyService(coreApiClient, store, 120);
+        UUID deckId = UUID.randomUUID();
+        UUID cardId = UUID.randomUUID();
+        List<String> fields = List.of("front", "back");
+        String fieldsKey = CardNoveltyService.fieldsKey(fields);
+        Instant cursor = Instant.parse("2026-01-01T00:00:00Z");
+
+        when(store.state(deckId, fieldsKey))
+                .thenReturn(Optional.of(new CardNoveltyStore.SyncState(2, cursor, UUID.randomUUID())));
+        when(coreApiClient.getUserCardChanges(deckId, cursor.minusSeconds(120), null, 500, "token"))
+                .thenReturn(new CoreApiClient.CoreUserCardChanges(3, List.of()));
+        when(coreApiClient.getUserCardChanges(deckId, null, null, 500, "token"))
+                .thenReturn(new CoreApiClient.CoreUserCardChanges(3, List.of(
+                        new CoreApiClient.CoreUserCardChange(cardId, false, cursor.plusSeconds(5), card("alpha", "first letter"))
+                )));
+        when(store.load(deckId, fieldsKey)).thenReturn(List.of());
+
+        noveltyService.buildIndex(deckId, "token", fields);
+
+        verify(store).reset(deckId, fieldsKey);
+        verify(store).apply(eq(deckId), eq(fieldsKey), eq(3), anyMap(), eq(List.of()), eq(cursor.plusSeconds(5)), eq(cardId));
+    }
+
+    @Test
+    void buildIndexFallsBackToDeckScanWhenFeedFails() {
+        CoreApiClient coreApiClient = mock(CoreApiClient.class);
+        CardNoveltyStore store = mock(CardNoveltyStore.class);
+        CardNoveltyService noveltyService = new CardNoveltyService(coreApiClient, store);
+        UUID deckId = UUID.randomUUID();
+        List<String> fields = List.of("front", "back");
+
+        when(store.state(any(), any())).thenReturn(Optional.empty());
+        when(coreApiClient.getUserCardChanges(any(), any(), any(), anyInt(), any()))
+                .thenThrow(new IllegalStateException("Card change feed requires the internal core token"));
+        when(coreApiClient.getUserCards(deckId, 1, 200, "token"))
+                .thenReturn(new CoreApiClient.CoreUserCardPage(List.of(
+                        new CoreApiClient.CoreUserCardResponse(UUID.randomUUID(), null, true, card("alpha", "first letter"))
+                )));
+
+        CardNoveltyService.NoveltyIndex index = noveltyService.buildIndex(deckId, "token", fields);
+        CardNoveltyService.FilterResult<ObjectNode> filtered = noveltyService.filterCandidates(
+                List.of(card("alpha", "first letter")), node -> node, fields, index, 10
+        );
+
+        assertEquals(1, filtered.droppedExact());
+    }
+
     @Test
     void insufficientUniqueCardsMessageIncludesDuplicateBreakdown() {
         String message = CardNoveltyService.insufficientUniqueCardsMessage(7, 10, 1, 2, 3, 4);
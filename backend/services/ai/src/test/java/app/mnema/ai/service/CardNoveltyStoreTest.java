@@ -0,0 +1,71 @@
+package app.mnema.ai.service;
+
+import app.mnema.ai.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CardNoveltyStoreTest extends PostgresIntegrationTest {
+
+    @MockitoBean
+    private AiJobWorker aiJobWorker;
+
+    @Autowired
+    private CardNoveltyStore store;
+
+    @Test
+    void applyUpsertsAndDeletesFingerprintsAndAdvancesCursor() {
+        UUID deckId = UUID.randomUUID();
+        UUID otherDeckId = UUID.randomUUID();
+        String fieldsKey = CardNoveltyService.fieldsKey(List.of("front", "back"));
+        UUID keptId = UUID.randomUUID();
+        UUID deletedId = UUID.randomUUID();
+        UUID secondDeletedId = UUID.randomUUID();
+        Instant firstCursor = Instant.parse("2026-01-01T00:00:00Z");
+        Instant secondCursor = firstCursor.plusSeconds(60);
+
+        store.apply(deckId, fieldsKey, 1, Map.of(
+                keptId, fingerprint("alpha"),
+                deletedId, fingerprint("beta"),
+                secondDeletedId, fingerprint("gamma")
+        ), List.of(), firstCursor, secondDeletedId);
+        store.apply(otherDeckId, fieldsKey, 1, Map.of(deletedId, fingerprint("beta")), List.of(), firstCursor, deletedId);
+
+        assertThat(store.load(deckId, fieldsKey)).hasSize(3);
+
+        store.apply(deckId, fieldsKey, 1, Map.of(keptId, fingerprint("alpha updated")),
+                List.of(deletedId, secondDeletedId), secondCursor, deletedId);
+
+        List<CardNoveltyService.Fingerprint> loaded = store.load(deckId, fieldsKey);
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.getFirst().exactKey()).isEqualTo("alpha updated");
+        assertThat(loaded.getFirst().vector()).containsExactly(1.0f, 0.5f, -0.25f);
+        assertThat(store.load(otherDeckId, fieldsKey)).hasSize(1);
+        assertThat(store.state(deckId, fieldsKey)).hasValueSatisfying(state -> {
+            assertThat(state.deckVersion()).isEqualTo(1);
+            assertThat(state.cursorChangedAt()).isEqualTo(secondCursor);
+            assertThat(state.cursorCardId()).isEqualTo(deletedId);
+        });
+
+        store.reset(deckId, fieldsKey);
+
+        assertThat(store.load(deckId, fieldsKey)).isEmpty();
+        assertThat(store.state(deckId, fieldsKey)).isEmpty();
+        assertThat(store.load(otherDeckId, fieldsKey)).hasSize(1);
+    }
+
+    private static CardNoveltyService.Fingerprint fingerprint(String key) {
+        return new CardNoveltyService.Fingerprint(key, key, new float[]{1.0f, 0.5f, -0.25f}, key);
+    }
+}
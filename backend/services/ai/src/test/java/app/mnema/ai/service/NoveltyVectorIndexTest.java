@@ -0,0 +1,105 @@
+package app.mnema.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class NoveltyVectorIndexTest {
+
+    private static final int DIM = 256;
+
+    @Test
+    void unrolledDotMatchesScalarProductIncludingTail() {
+        SplittableRandom random = new SplittableRandom(7);
+        float[] matrix = new float[2 * 259];
+        float[] vector = new float[259];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = (float) random.nextDouble(-1d, 1d);
+        }
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextDouble(-1d, 1d);
+        }
+
+        double expected = 0d;
+        for (int i = 0; i < vector.length; i++) {
+            expected += matrix[259 + i] * vector[i];
+        }
+
+        assertThat((double) NoveltyVectorIndex.dot(matrix, 259, vector, vector.length))
+                .isCloseTo(expected, offset(1e-4));
+    }
+
+    @Test
+    void smallIndexScansExactly() {
+        NoveltyVectorIndex index = new NoveltyVectorIndex(DIM);
+        SplittableRandom random = new SplittableRandom(11);
+        float[] stored = unitVector(random);
+        index.add(stored);
+        index.add(unitVector(random));
+
+        assertThat(index.anyAtLeast(perturb(stored, 0.1d, random), 0.92d)).isTrue();
+        assertThat(index.anyAtLeast(unitVector(random), 0.92d)).isFalse();
+    }
+
+    @Test
+    void largeIndexFindsNearDuplicatesThroughLsh() {
+        NoveltyVectorIndex index = new NoveltyVectorIndex(DIM);
+        SplittableRandom random = new SplittableRandom(13);
+        int rows = NoveltyVectorIndex.LSH_MIN_ROWS * 2;
+        float[][] stored = new float[rows][];
+        for (int i = 0; i < rows; i++) {
+            stored[i] = unitVector(random);
+            index.add(stored[i]);
+        }
+
+        int found = 0;
+        int queries = 200;
+        for (int i = 0; i < queries; i++) {
+            float[] query = perturb(stored[random.nextInt(rows)], 0.1d, random);
+            if (index.anyAtLeast(query, 0.92d)) {
+                found++;
+            }
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < queries; i++) {
+            if (index.anyAtLeast(unitVector(random), 0.92d)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(rows);
+        assertThat(found).isGreaterThanOrEqualTo(queries * 95 / 100);
+        assertThat(falsePositives).isZero();
+    }
+
+    private static float[] unitVector(SplittableRandom random) {
+        float[] vector = new float[DIM];
+        for (int i = 0; i < DIM; i++) {
+            vector[i] = (float) random.nextDouble(-1d, 1d);
+        }
+        return normalize(vector);
+    }
+
+    private static float[] perturb(float[] source, double noise, SplittableRandom random) {
+        float[] vector = new float[DIM];
+        for (int i = 0; i < DIM; i++) {
+            vector[i] = source[i] + (float) (random.nextDouble(-1d, 1d) * noise / Math.sqrt(DIM));
+        }
+        return normalize(vector);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0d;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float inv = (float) (1d / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inv;
+        }
+        return vector;
+    }
+}
@@ -3,9 +3,16 @@ package app.mnema.ai.service;
 import app.mnema.ai.support.OcrEngine;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
 import org.junit.jupiter.api.Test;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -16,7 +23,7 @@ class PdfOcrServiceTest {
     @Test
     void limitsPagesForOcr() throws Exception {
         byte[] pdfBytes = createPdfWithPages(2);
-        PdfOcrService service = new PdfOcrService(new StubOcrEngine("Page"), 1, 200, 1, 4, 5);
+        PdfOcrService service = new PdfOcrService(new StubOcrEngine("Page"), 1, 200, 1, 1, 4, 5);
         try {
             PdfOcrService.PdfOcrResult result = service.extract(pdfBytes, 5000, "eng");
             assertEquals(2, result.pageCount());
@@ -30,7 +37,7 @@ class PdfOcrServiceTest {
     @Test
     void truncatesOcrText() throws Exception {
         byte[] pdfBytes = createPdfWithPages(1);
-        PdfOcrService service = new PdfOcrService(new StubOcrEngine("abcdef"), 1, 200, 1, 4, 5);
+        PdfOcrService service = new PdfOcrService(new StubOcrEngine("abcdef"), 1, 200, 1, 1, 4, 5);
         try {
             PdfOcrService.PdfOcrResult result = service.extract(pdfBytes, 4, "eng");
             assertTrue(result.truncated());
@@ -40,6 +47,105 @@ class PdfOcrServiceTest {
         }
     }
 
+    @Test
+    void keepsPageOrderWhenRenderingAndOcrRunInParallel() throws Exception {
+        int[] widths = {144, 216, 288, 360, 432, 504};
+        byte[] pdfBytes = createPdfWithPageWidths(widths);
+        PdfOcrService service = new PdfOcrService(new WidthOcrEngine(), 10, 72, 3, 3, 4, 5);
+        try {
+            PdfOcrService.PdfOcrResult result = service.extract(pdfBytes, 5000, "eng");
+            assertEquals("w144\n\nw216\n\nw288\n\nw360\n\nw432\n\nw504", result.text());
+            assertEquals(6, result.pagesProcessed());
+            assertFalse(result.truncated());
+            assertFalse(result.degraded());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void stopsRenderingOnceCharacterLimitIsReached() throws Exception {
+        byte[] pdfBytes = createPdfWithPages(10);
+        AtomicInteger calls = new AtomicInteger();
+        OcrEngine engine = (image, language, dpi) -> {
+            calls.incrementAndGet();
+            return "abcdef";
+        };
+        PdfOcrService service = new PdfOcrService(engine, 10, 72, 1, 1, 4, 5);
+        try {
+            PdfOcrService.PdfOcrResult result = service.extract(pdfBytes, 10, "eng");
+            assertTrue(result.truncated());
+            assertEquals("abcdef\n\nab", result.text());
+            assertTrue(calls.get() < 10);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void countsPagesWhoseOcrFailed() throws Exception {
+        byte[] pdfBytes = createPdfWithPageWidths(new int[] {144, 216});
+        OcrEngine engine = (image, language, dpi) -> {
+            if (image.getWidth() == 216) {
+                throw new IllegalStateException("tesseract crashed");
+            }
+            return "ok";
+        };
+        PdfOcrService service = new PdfOcrService(engine, 10, 72, 1, 1, 4, 5);
+        try {
+            PdfOcrService.PdfOcrResult result = service.extract(pdfBytes, 5000, "eng");
+            assertEquals("ok", result.text());
+            assertEquals(1, result.failedPages());
+            assertTrue(result.degraded());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void givesUpOnPageWhoseRenderingStallsAndKeepsTheRest() throws Exception {
+        byte[] pdfBytes = createPdfWithPageWidths(new int[] {144, 216, 288});
+        CountDownLatch release = new CountDownLatch(1);
+        PdfOcrService service = new PdfOcrService(new WidthOcrEngine(), 10, 72, 2, 2, 4, 5) {
+            @Override
+            BufferedImage renderPage(PDFRenderer renderer, int pageIndex) throws IOException {
+                if (pageIndex == 0) {
+                    try {
+                        release.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.renderPage(renderer, pageIndex);
+            }
+        };
+        try {
+            long started = System.nanoTime();
+            PdfOcrService.PdfOcrResult result = service.extract(pdfBytes, 5000, "eng");
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+
+            assertEquals("w216\n\nw288", result.text());
+            assertEquals(1, result.failedPages());
+            assertTrue(result.degraded());
+            assertTrue(elapsedSeconds < 25, "extract returned after " + elapsedSeconds + "s");
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private byte[] createPdfWithPageWidths(int[] widths) throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            for (int width : widths) {
+                doc.addPage(new PDPage(new PDRectangle(width, 72)));
+            }
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                doc.save(out);
+                return out.toByteArray();
+            }
+        }
+    }
+
     private byte[] createPdfWithPages(int pages) throws Exception {
         try (PDDocument doc = new PDDocument()) {
             for (int i = 0; i < pages; i++) {
@@ -64,4 +170,17 @@ class PdfOcrServiceTest {
             return text;
         }
     }
+
+    private static final class WidthOcrEngine implements OcrEngine {
+        @Override
+        public String extractText(java.awt.image.BufferedImage image, String language, int dpi) {
+            try {
+                // Wider pages finish first so completion order differs from page order.
+                Thread.sleep(Math.max(0, 60 - image.getWidth() / 10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "w" + image.getWidth();
+        }
+    }
 }
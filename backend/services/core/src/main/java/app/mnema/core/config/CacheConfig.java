@@ -1,5 +1,7 @@
 package app.mnema.core.config;
 
+import app.mnema.core.deck.domain.dto.DeckSizeDTO;
+import app.mnema.core.deck.service.PublicDeckCatalogCache;
 import app.mnema.core.media.client.MediaResolved;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -56,9 +58,23 @@ public class CacheConfig {
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
                 .withCacheConfiguration("core-media-resolve", resolvedConfig)
+                .withCacheConfiguration(
+                        PublicDeckCatalogCache.PAGES_CACHE,
+                        typedConfig(baseMapper, PublicDeckCatalogCache.CatalogPage.class)
+                )
+                .withCacheConfiguration(PublicDeckCatalogCache.SIZES_CACHE, typedConfig(baseMapper, DeckSizeDTO.class))
                 .build();
     }
 
+    private static <T> RedisCacheConfiguration typedConfig(ObjectMapper mapper, Class<T> type) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(CACHE_TTL)
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new Jackson2JsonRedisSerializer<>(mapper, type)
+                ));
+    }
+
     @Bean
     public CacheErrorHandler cacheErrorHandler() {
         return new CacheErrorHandler() {
@@ -6,6 +6,7 @@ import app.mnema.core.deck.repository.PublicCardRepository;
 import app.mnema.core.deck.repository.UserCardRepository;
 import app.mnema.core.review.api.CardViewPort;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.stereotype.Component;
 
@@ -18,11 +19,14 @@ public class DeckCardViewAdapter implements CardViewPort {
 
     private final UserCardRepository userCardRepository;
     private final PublicCardRepository publicCardRepository;
+    private final PublicCardContentCache publicCardContentCache;
 
     public DeckCardViewAdapter(UserCardRepository userCardRepository,
-                               PublicCardRepository publicCardRepository) {
+                               PublicCardRepository publicCardRepository,
+                               PublicCardContentCache publicCardContentCache) {
         this.userCardRepository = userCardRepository;
         this.publicCardRepository = publicCardRepository;
+        this.publicCardContentCache = publicCardContentCache;
     }
 
     @Override
@@ -50,15 +54,15 @@ public class DeckCardViewAdapter implements CardViewPort {
             }
         }
 
-        // Батч-загрузка публичных карточек
-        Set<UUID> publicCardIds = cards.stream()
-                .map(UserCardEntity::getPublicCardId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        // Публичный контент той версии, на которой стоит колода пользователя
+        List<UUID> linkedUserCardIds = cards.stream()
+                .filter(card -> card.getPublicCardId() != null)
+                .map(UserCardEntity::getUserCardId)
+                .toList();
 
-        Map<UUID, PublicCardEntity> publicById = publicCardIds.isEmpty()
+        Map<UUID, JsonNode> publicContentByUserCard = linkedUserCardIds.isEmpty()
                 ? Map.of()
-                : resolveLatestPublicCards(publicCardIds);
+                : resolveVisiblePublicContent(linkedUserCardIds, byId);
 
         // Собираем результат в исходном порядке userCardIds
         List<CardView> result = new ArrayList<>(userCardIds.size());
@@ -72,11 +76,11 @@ public class DeckCardViewAdapter implements CardViewPort {
                 // Кастомная карта: contentOverride у тебя фактически и есть контент
                 effective = uc.getContentOverride();
             } else {
-                PublicCardEntity pc = publicById.get(publicCardId);
-                if (pc == null) {
+                JsonNode publicContent = publicContentByUserCard.get(userCardId);
+                if (publicContent == null) {
                     throw new IllegalStateException("Public card not found: " + publicCardId);
                 }
-                effective = merge(pc.getContent(), uc.getContentOverride());
+                effective = merge(publicContent, uc.getContentOverride());
             }
 
             result.add(new CardView(
@@ -90,16 +94,92 @@ public class DeckCardViewAdapter implements CardViewPort {
         return result;
     }
 
+    // Базовый контент общий для всех пользователей (кэш), поэтому его не мутируем:
+    // без override отдаём как есть, с override - новый объект верхнего уровня, поля-значения разделяются
     private JsonNode merge(JsonNode base, JsonNode override) {
         if (override == null || override.isNull()) return base;
         if (base == null || base.isNull()) return override;
         if (!base.isObject() || !override.isObject()) return override;
 
-        ObjectNode out = base.deepCopy();
-        override.properties().forEach(e -> out.set(e.getKey(), e.getValue()));
+        ObjectNode out = JsonNodeFactory.instance.objectNode();
+        out.setAll((ObjectNode) base);
+        out.setAll((ObjectNode) override);
         return out;
     }
 
+    private Map<UUID, JsonNode> resolveVisiblePublicContent(List<UUID> linkedUserCardIds,
+                                                            Map<UUID, UserCardEntity> byId) {
+        Map<UUID, JsonNode> contentByUserCard = new HashMap<>();
+        Map<UUID, PublicCardRepository.CardVersionProjection> missing = new HashMap<>();
+
+        List<PublicCardRepository.CardVersionProjection> versions =
+                publicCardRepository.findVisibleVersionsForUserCards(linkedUserCardIds);
+        for (PublicCardRepository.CardVersionProjection version : versions) {
+            JsonNode cached = publicCardContentCache.get(
+                    version.getCardId(), version.getDeckVersion(), version.getChecksum());
+            if (cached != null) {
+                contentByUserCard.put(version.getUserCardId(), cached);
+            } else {
+                missing.put(version.getUserCardId(), version);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, PublicCardEntity> loaded = loadCardVersions(missing.values());
+            missing.forEach((userCardId, version) -> {
+                PublicCardEntity pc = loaded.get(versionKey(version.getCardId(), version.getDeckVersion()));
+                if (pc == null) {
+                    return;
+                }
+                publicCardContentCache.put(pc.getCardId(), pc.getDeckVersion(), pc.getChecksum(), pc.getContent());
+                contentByUserCard.put(userCardId, pc.getContent());
+            });
+        }
+
+        // Карты без видимой строки (колода без current_version и т.п.) - как раньше, последняя версия карты
+        Map<UUID, UUID> unresolved = new HashMap<>();
+        for (UUID userCardId : linkedUserCardIds) {
+            if (!contentByUserCard.containsKey(userCardId)) {
+                unresolved.put(userCardId, byId.get(userCardId).getPublicCardId());
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            Map<UUID, PublicCardEntity> latest = resolveLatestPublicCards(new HashSet<>(unresolved.values()));
+            unresolved.forEach((userCardId, publicCardId) -> {
+                PublicCardEntity pc = latest.get(publicCardId);
+                if (pc != null) {
+                    contentByUserCard.put(userCardId, pc.getContent());
+                }
+            });
+        }
+
+        return contentByUserCard;
+    }
+
+    private Map<String, PublicCardEntity> loadCardVersions(
+            Collection<PublicCardRepository.CardVersionProjection> versions) {
+        Map<String, PublicCardRepository.CardVersionProjection> distinct = new LinkedHashMap<>();
+        for (PublicCardRepository.CardVersionProjection version : versions) {
+            distinct.putIfAbsent(versionKey(version.getCardId(), version.getDeckVersion()), version);
+        }
+        String[] cardIds = distinct.values().stream()
+                .map(version -> version.getCardId().toString())
+                .toArray(String[]::new);
+        String[] deckVersions = distinct.values().stream()
+                .map(version -> version.getDeckVersion().toString())
+                .toArray(String[]::new);
+
+        Map<String, PublicCardEntity> loaded = new HashMap<>();
+        for (PublicCardEntity pc : publicCardRepository.findByCardVersions(cardIds, deckVersions)) {
+            loaded.put(versionKey(pc.getCardId(), pc.getDeckVersion()), pc);
+        }
+        return loaded;
+    }
+
+    private static String versionKey(UUID cardId, Integer deckVersion) {
+        return cardId + ":" + deckVersion;
+    }
+
     private Map<UUID, PublicCardEntity> resolveLatestPublicCards(Set<UUID> publicCardIds) {
         List<PublicCardEntity> cards = publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(publicCardIds);
         Map<UUID, PublicCardEntity> map = new HashMap<>();
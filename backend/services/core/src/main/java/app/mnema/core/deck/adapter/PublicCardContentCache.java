@@ -0,0 +1,62 @@
+package app.mnema.core.deck.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/*
+  Общий для всех пользователей LRU-кэш контента публичных карт по (card_id, deck_version).
+  Строка версии меняется только пока автор правит эту версию в рамках update-сессии, поэтому
+  запись хранит checksum и считается попаданием лишь при совпадении с актуальным checksum.
+  Контент отдаётся без копирования: вызывающие не должны его мутировать.
+ */
+@Component
+public class PublicCardContentCache {
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+
+    public PublicCardContentCache(@Value("${app.core.card-view-cache.max-entries:20000}") int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PublicCardContentCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized JsonNode get(UUID cardId, int deckVersion, String checksum) {
+        Entry entry = entries.get(new Key(cardId, deckVersion));
+        if (entry == null) {
+            return null;
+        }
+        if (!Objects.equals(entry.checksum(), checksum)) {
+            entries.remove(new Key(cardId, deckVersion));
+            return null;
+        }
+        return entry.content();
+    }
+
+    public synchronized void put(UUID cardId, int deckVersion, String checksum, JsonNode content) {
+        if (content == null) {
+            return;
+        }
+        entries.put(new Key(cardId, deckVersion), new Entry(checksum, content));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Key(UUID cardId, int deckVersion) {
+    }
+
+    private record Entry(String checksum, JsonNode content) {
+    }
+}
@@ -1,6 +1,7 @@
 package app.mnema.core.deck.controller;
 
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
+import app.mnema.core.deck.domain.dto.UserCardChangesDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
 import app.mnema.core.deck.domain.dto.UserDeckDTO;
 import app.mnema.core.deck.domain.request.CreateCardRequest;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -57,6 +59,14 @@ public class InternalAiController {
         return cardService.getUserCardsByDeckInternal(userDeckId, page, limit);
     }
 
+    @GetMapping("/decks/{userDeckId}/cards/changes")
+    public UserCardChangesDTO getCardChanges(@PathVariable UUID userDeckId,
+                                             @RequestParam(required = false) Instant afterChangedAt,
+                                             @RequestParam(required = false) UUID afterCardId,
+                                             @RequestParam(defaultValue = "500") int limit) {
+        return cardService.getUserCardChangesInternal(userDeckId, afterChangedAt, afterCardId, limit);
+    }
+
     @GetMapping("/decks/{userDeckId}/cards/{cardId}")
     public UserCardDTO getCard(@PathVariable UUID userDeckId,
                                @PathVariable UUID cardId) {
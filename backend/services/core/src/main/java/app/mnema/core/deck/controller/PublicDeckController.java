@@ -5,10 +5,16 @@ import app.mnema.core.deck.service.CardService;
 import app.mnema.core.deck.service.DeckService;
 import app.mnema.core.security.CurrentUserProvider;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,12 +37,23 @@ public class PublicDeckController {
     }
 
     // GET /decks/public?page=1&limit=10
+    // ETag считается по содержимому страницы: при совпадении If-None-Match отдаётся 304 без тела
     @GetMapping
-    public Page<PublicDeckDTO> getPublicDecksPaginated(
+    public ResponseEntity<Page<PublicDeckDTO>> getPublicDecksPaginated(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int limit
     ) {
-        return deckService.getPublicDecksByPage(page, limit);
+        Page<PublicDeckDTO> decks = deckService.getPublicDecksByPage(page, limit);
+
+        StringBuilder fingerprint = new StringBuilder()
+                .append(page).append('|').append(limit).append('|').append(decks.getTotalElements());
+        for (PublicDeckDTO deck : decks.getContent()) {
+            fingerprint.append('|').append(deck.deckId())
+                    .append(':').append(deck.version())
+                    .append(':').append(deck.updatedAt())
+                    .append(':').append(deck.iconUrl());
+        }
+        return withEtag(decks, fingerprint);
     }
 
     // GET /decks/public/{deckId}?version=...
@@ -109,11 +126,12 @@ public class PublicDeckController {
 
     // GET /decks/public/{deckId}/size?version=...
     @GetMapping("/{deckId}/size")
-    public DeckSizeDTO getPublicDeckSize(
+    public ResponseEntity<DeckSizeDTO> getPublicDeckSize(
             @PathVariable UUID deckId,
             @RequestParam(required = false) Integer version
     ) {
-        return deckService.getPublicDeckSize(deckId, version);
+        DeckSizeDTO size = deckService.getPublicDeckSize(deckId, version);
+        return withEtag(size, size.deckId() + "|" + version + "|" + size.cardsQty());
     }
 
     // DELETE /decks/public/{deckId}
@@ -149,4 +167,16 @@ public class PublicDeckController {
         cardService.deleteManagedPublicCard(userId, deckId, cardId, operationId);
     }
 
+    private static <T> ResponseEntity<T> withEtag(T body, CharSequence fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(HexFormat.of().formatHex(digest, 0, 16))
+                    .body(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
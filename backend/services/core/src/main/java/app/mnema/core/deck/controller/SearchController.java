@@ -1,7 +1,8 @@
 package app.mnema.core.deck.controller;
 
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
-import app.mnema.core.deck.domain.dto.UserCardDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchPageDTO;
+import app.mnema.core.deck.domain.dto.UserCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserDeckDTO;
 import app.mnema.core.deck.service.SearchService;
 import app.mnema.core.security.CurrentUserProvider;
@@ -42,18 +43,30 @@ public class SearchController {
         return searchService.searchUserDecks(userId, query, tags, page, limit);
     }
 
-    // GET /search/decks/{userDeckId}/cards?query=...&tags=tag1&page=1&limit=50
+    // GET /search/decks/{userDeckId}/cards?query=...&tags=tag1&cursor=...&limit=50
     @GetMapping("/decks/{userDeckId}/cards")
-    public Page<UserCardDTO> searchUserCards(
+    public UserCardSearchPageDTO searchUserCards(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable UUID userDeckId,
             @RequestParam(required = false) String query,
             @RequestParam(required = false) List<String> tags,
-            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "50") int limit
     ) {
         var userId = currentUserProvider.getUserId(jwt);
-        return searchService.searchUserCards(userId, userDeckId, query, tags, page, limit);
+        return searchService.searchUserCards(userId, userDeckId, query, tags, cursor, limit);
+    }
+
+    // GET /search/cards?query=...&cursor=...&limit=20
+    @GetMapping("/cards")
+    public GlobalCardSearchPageDTO searchAllUserCards(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        var userId = currentUserProvider.getUserId(jwt);
+        return searchService.searchAllUserCards(userId, query, cursor, limit);
     }
 
     // GET /search/templates?query=...&scope=public&page=1&limit=10
@@ -1,9 +1,11 @@
 package app.mnema.core.deck.controller;
 
+import app.mnema.core.deck.domain.dto.BulkCardDeleteResultDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
 import app.mnema.core.deck.domain.dto.MissingFieldSummaryDTO;
 import app.mnema.core.deck.domain.dto.DuplicateGroupDTO;
 import app.mnema.core.deck.domain.dto.DuplicateResolveResultDTO;
+import app.mnema.core.deck.domain.request.BulkCardDeleteRequest;
 import app.mnema.core.deck.domain.request.CreateCardRequest;
 import app.mnema.core.deck.domain.request.DuplicateResolveRequest;
 import app.mnema.core.deck.domain.request.DuplicateSearchRequest;
@@ -100,6 +102,17 @@ public class UserCardController {
         return cardService.resolveDuplicateGroups(userId, userDeckId, request);
     }
 
+    // POST /decks/{userDeckId}/cards/bulk-delete
+    @PostMapping("/bulk-delete")
+    public BulkCardDeleteResultDTO deleteCardsBulk(
+            @AuthenticationPrincipal Jwt jwt,
+            @PathVariable UUID userDeckId,
+            @RequestBody BulkCardDeleteRequest request
+    ) {
+        var userId = currentUserProvider.getUserId(jwt);
+        return cardService.deleteUserCards(userId, userDeckId, request);
+    }
+
     // POST /decks/{userDeckId}/cards
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
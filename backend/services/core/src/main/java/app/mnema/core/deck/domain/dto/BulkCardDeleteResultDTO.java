@@ -0,0 +1,7 @@
+package app.mnema.core.deck.domain.dto;
+
+public record BulkCardDeleteResultDTO(
+        int requestedCards,
+        int deletedCards
+) {
+}
@@ -0,0 +1,12 @@
+package app.mnema.core.deck.domain.dto;
+
+import java.util.UUID;
+
+public record GlobalCardSearchHitDTO(
+        UUID userDeckId,
+        String deckName,
+        UserCardDTO card,
+        float rank,
+        String highlight
+) {
+}
@@ -0,0 +1,9 @@
+package app.mnema.core.deck.domain.dto;
+
+import java.util.List;
+
+public record GlobalCardSearchPageDTO(
+        List<GlobalCardSearchHitDTO> content,
+        String nextCursor
+) {
+}
@@ -0,0 +1,14 @@
+package app.mnema.core.deck.domain.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record UserCardChangeDTO(
+        UUID userCardId,
+        boolean isDeleted,
+        Instant changedAt,
+        JsonNode effectiveContent
+) {
+}
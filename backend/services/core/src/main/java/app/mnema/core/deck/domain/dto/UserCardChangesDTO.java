@@ -0,0 +1,9 @@
+package app.mnema.core.deck.domain.dto;
+
+import java.util.List;
+
+public record UserCardChangesDTO(
+        Integer deckVersion,
+        List<UserCardChangeDTO> changes
+) {
+}
@@ -0,0 +1,44 @@
+package app.mnema.core.deck.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "card_field_signatures", schema = "app_core")
+public class CardFieldSignatureEntity {
+
+    @Id
+    @Column(name = "value_hash", nullable = false, updatable = false)
+    private String valueHash;
+
+    @Column(name = "signature", nullable = false, updatable = false)
+    private byte[] signature;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected CardFieldSignatureEntity() {
+    }
+
+    public CardFieldSignatureEntity(String valueHash, byte[] signature, Instant createdAt) {
+        this.valueHash = valueHash;
+        this.signature = signature;
+        this.createdAt = createdAt;
+    }
+
+    public String getValueHash() {
+        return valueHash;
+    }
+
+    public byte[] getSignature() {
+        return signature;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
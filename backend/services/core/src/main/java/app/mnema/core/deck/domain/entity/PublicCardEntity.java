@@ -66,6 +66,10 @@ public class PublicCardEntity {
     @Column(name = "checksum")
     private String checksum;
 
+    // Версия, с которой строку заменила новая (null - строка актуальна)
+    @Column(name = "valid_to")
+    private Integer validTo;
+
     // --- JPA-конструктор ---
     protected PublicCardEntity() {
     }
@@ -188,4 +192,12 @@ public class PublicCardEntity {
     public void setChecksum(String checksum) {
         this.checksum = checksum;
     }
+
+    public Integer getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(Integer validTo) {
+        this.validTo = validTo;
+    }
 }
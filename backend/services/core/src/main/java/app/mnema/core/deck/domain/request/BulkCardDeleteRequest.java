@@ -0,0 +1,10 @@
+package app.mnema.core.deck.domain.request;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BulkCardDeleteRequest(
+        List<UUID> cardIds,
+        UUID survivorId
+) {
+}
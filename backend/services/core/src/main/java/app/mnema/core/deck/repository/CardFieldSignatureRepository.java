@@ -0,0 +1,26 @@
+package app.mnema.core.deck.repository;
+
+import app.mnema.core.deck.domain.entity.CardFieldSignatureEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CardFieldSignatureRepository extends JpaRepository<CardFieldSignatureEntity, String> {
+
+    // Сигнатуры передаются hex-строками параллельно хэшам; уже известные значения пропускаются
+    @Modifying
+    @Query(value = """
+            insert into app_core.card_field_signatures (value_hash, signature)
+            select v.value_hash, decode(v.signature, 'hex')
+            from unnest(
+                cast(:valueHashes as text[]),
+                cast(:signatures as text[])
+            ) as v(value_hash, signature)
+            on conflict (value_hash) do nothing
+            """, nativeQuery = true)
+    int insertMissing(@Param("valueHashes") String[] valueHashes,
+                      @Param("signatures") String[] signatures);
+}
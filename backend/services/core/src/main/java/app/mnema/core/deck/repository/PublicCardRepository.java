@@ -7,6 +7,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -17,35 +18,225 @@ import java.util.Optional;
 @Repository
 public interface PublicCardRepository extends JpaRepository<PublicCardEntity, PublicCardId> {
 
+    /*
+      Версия колоды хранит только изменённые строки: строка действует с deck_version
+      до valid_to (не включительно). Все выборки "карты версии N" разрешают последнюю
+      строку каждой карты на момент N.
+     */
+
+    @Query("""
+            select pc
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+            """)
     List<PublicCardEntity> findByDeckIdAndDeckVersion(UUID deckId, Integer deckVersion);
 
+    @Query("""
+            select pc
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+            order by pc.orderIndex
+            """)
     Page<PublicCardEntity> findByDeckIdAndDeckVersionOrderByOrderIndex(
             UUID deckId,
             Integer deckVersion,
             Pageable pageable
     );
 
+    @Query("""
+            select pc
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+              and pc.active = true
+            order by pc.orderIndex
+            """)
     Page<PublicCardEntity> findByDeckIdAndDeckVersionAndActiveTrueOrderByOrderIndex(
             UUID deckId,
             Integer deckVersion,
             Pageable pageable
     );
 
+    @Query("""
+            select pc
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.cardId = :cardId
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+            """)
+    Optional<PublicCardEntity> findLiveCard(UUID deckId, UUID cardId, Integer deckVersion);
+
     Optional<PublicCardEntity> findFirstByCardIdOrderByDeckVersionDesc(UUID cardId);
 
+    @Query("""
+            select count(pc)
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+            """)
     long countByDeckIdAndDeckVersion(UUID deckId, Integer deckVersion);
 
+    @Query("""
+            select count(pc)
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+              and pc.active = true
+            """)
     long countByDeckIdAndDeckVersionAndActiveTrue(UUID deckId, Integer deckVersion);
 
     @Query("""
             select max(pc.orderIndex)
             from PublicCardEntity pc
             where pc.deckId = :deckId
-              and pc.deckVersion = :deckVersion
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
             """)
     Integer findMaxOrderIndex(UUID deckId, Integer deckVersion);
 
+    // Change set между версиями: строки, записанные после fromVersion и живые на toVersion
+    @Query(value = """
+            select pc.*
+            from app_core.public_cards pc
+            where pc.deck_id = :deckId
+              and pc.deck_version > :fromVersion
+              and pc.deck_version <= :toVersion
+              and (pc.valid_to is null or pc.valid_to > :toVersion)
+              and pc.card_id > :afterCardId
+            order by pc.card_id
+            limit :limit
+            """, nativeQuery = true)
+    List<PublicCardEntity> findChangedSince(
+            @Param("deckId") UUID deckId,
+            @Param("fromVersion") Integer fromVersion,
+            @Param("toVersion") Integer toVersion,
+            @Param("afterCardId") UUID afterCardId,
+            @Param("limit") int limit
+    );
+
+    @Query("""
+            select pc
+            from PublicCardEntity pc
+            where pc.deckId = :deckId
+              and pc.cardId in :cardIds
+              and pc.deckVersion <= :deckVersion
+              and (pc.validTo is null or pc.validTo > :deckVersion)
+            """)
+    List<PublicCardEntity> findLiveCards(UUID deckId, Collection<UUID> cardIds, Integer deckVersion);
+
+    /*
+      Поиск по контенту идёт через checksum_digest (bytea, generated из hex checksum) и индекс
+      (deck_id, checksum_digest, deck_version): читаются только строки с нужным checksum,
+      а не весь срез версии. Значения, не похожие на SHA-256 hex, отбрасываются.
+     */
+
+    @Query(value = """
+            select pc.*
+            from app_core.public_cards pc
+            where pc.deck_id = :deckId
+              and pc.checksum_digest in (
+                  select decode(c, 'hex')
+                  from unnest(cast(:checksums as text[])) as c
+                  where c ~ '^[0-9a-f]{64}$'
+              )
+              and pc.deck_version <= :deckVersion
+              and (pc.valid_to is null or pc.valid_to > :deckVersion)
+            """, nativeQuery = true)
+    List<PublicCardEntity> findLiveByChecksums(
+            @Param("deckId") UUID deckId,
+            @Param("deckVersion") Integer deckVersion,
+            @Param("checksums") String[] checksums
+    );
+
+    @Query(value = """
+            select encode(pc.checksum_digest, 'hex')
+            from app_core.public_cards pc
+            where pc.deck_id = :deckId
+              and pc.checksum_digest in (
+                  select decode(c, 'hex')
+                  from unnest(cast(:checksums as text[])) as c
+                  where c ~ '^[0-9a-f]{64}$'
+              )
+              and pc.deck_version <= :deckVersion
+              and (pc.valid_to is null or pc.valid_to > :deckVersion)
+              and pc.is_active = true
+            group by pc.checksum_digest
+            having count(*) > 1
+            """, nativeQuery = true)
+    List<String> findDuplicateActiveChecksums(
+            @Param("deckId") UUID deckId,
+            @Param("deckVersion") Integer deckVersion,
+            @Param("checksums") String[] checksums
+    );
+
+    // Очередь backfill: строки, которые не находятся по checksum_digest
+    @Query(value = """
+            select pc.*
+            from app_core.public_cards pc
+            where pc.checksum_digest is null
+              and (pc.deck_id, pc.deck_version, pc.card_id) > (:afterDeckId, :afterDeckVersion, :afterCardId)
+            order by pc.deck_id, pc.deck_version, pc.card_id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<PublicCardEntity> findMissingChecksumDigest(
+            @Param("afterDeckId") UUID afterDeckId,
+            @Param("afterDeckVersion") int afterDeckVersion,
+            @Param("afterCardId") UUID afterCardId,
+            @Param("limit") int limit
+    );
+
     List<PublicCardEntity> findAllByCardIdInOrderByDeckVersionDesc(Collection<UUID> cardIds);
 
+    // Какая строка public_cards видна user-карте в текущей версии её колоды. Контент не читается:
+    // по (card_id, deck_version, checksum) вызывающий решает, что можно взять из кэша
+    @Query(value = """
+            select uc.user_card_id as userCardId,
+                   pc.card_id as cardId,
+                   pc.deck_version as deckVersion,
+                   pc.checksum as checksum
+            from app_core.user_cards uc
+            join app_core.user_decks ud
+              on ud.user_deck_id = uc.subscription_id
+            join app_core.public_cards pc
+              on pc.card_id = uc.public_card_id
+             and pc.deck_id = ud.public_deck_id
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
+            where uc.user_card_id in (:userCardIds)
+            """, nativeQuery = true)
+    List<CardVersionProjection> findVisibleVersionsForUserCards(@Param("userCardIds") Collection<UUID> userCardIds);
+
+    interface CardVersionProjection {
+        UUID getUserCardId();
+        UUID getCardId();
+        Integer getDeckVersion();
+        String getChecksum();
+    }
+
+    // Точечная загрузка строк по парам (card_id, deck_version); массивы передаются параллельно
+    @Query(value = """
+            select pc.*
+            from unnest(
+                cast(cast(:cardIds as text[]) as uuid[]),
+                cast(cast(:deckVersions as text[]) as int[])
+            ) as k(card_id, deck_version)
+            join app_core.public_cards pc
+              on pc.card_id = k.card_id
+             and pc.deck_version = k.deck_version
+            """, nativeQuery = true)
+    List<PublicCardEntity> findByCardVersions(
+            @Param("cardIds") String[] cardIds,
+            @Param("deckVersions") String[] deckVersions
+    );
+
     List<PublicCardEntity> findAllByCardIdIn(Collection<UUID> cardIds);
 }
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
@@ -25,109 +26,235 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
 
     List<UserCardEntity> findByUserDeckId(UUID userDeckId);
 
+    List<UserCardEntity> findByUserDeckIdAndPublicCardIdIn(UUID userDeckId, Collection<UUID> publicCardIds);
+
+    // user_cards колоды, чья публичная карта (последняя строка по card_id) имеет один из checksum.
+    // Сравнение идёт по checksum_digest, чтобы кандидаты находились индексом (deck_id, checksum_digest, ...)
+    @Query(value = """
+        with wanted as (
+            select decode(c, 'hex') as digest
+            from unnest(cast(:checksums as text[])) as c
+            where c ~ '^[0-9a-f]{64}$'
+        )
+        select uc.user_card_id as userCardId,
+               uc.public_card_id as publicCardId,
+               latest.checksum as checksum
+        from (
+            select distinct pc.card_id
+            from app_core.public_cards pc
+            where pc.deck_id = :publicDeckId
+              and pc.checksum_digest in (select digest from wanted)
+        ) matched
+        join app_core.user_cards uc
+          on uc.public_card_id = matched.card_id
+         and uc.subscription_id = :userDeckId
+        cross join lateral (
+            select pc.checksum, pc.checksum_digest
+            from app_core.public_cards pc
+            where pc.card_id = matched.card_id
+            order by pc.deck_version desc
+            limit 1
+        ) latest
+        where latest.checksum_digest in (select digest from wanted)
+        order by uc.created_at, uc.user_card_id
+        """, nativeQuery = true)
+    List<LinkedChecksumProjection> findLinkedByChecksums(
+            @Param("userDeckId") UUID userDeckId,
+            @Param("publicDeckId") UUID publicDeckId,
+            @Param("checksums") String[] checksums
+    );
+
+    interface LinkedChecksumProjection {
+        UUID getUserCardId();
+        UUID getPublicCardId();
+        String getChecksum();
+    }
+
     Optional<UserCardEntity> findByUserDeckIdAndPublicCardId(UUID userDeckId, UUID publicCardId);
 
+    /*
+      Поиск идёт по предвычисленным search_vector (GIN), без to_tsvector на каждую строку.
+      Страницы - keyset по (rank, created_at, user_card_id) без count-запроса: сервис берёт
+      limit + 1 строку, чтобы понять, есть ли следующая страница.
+     */
     @Query(value = """
-        select uc.*
+        select uc.user_card_id as userCardId,
+               uc.created_at as createdAt,
+               hit.rank as rank
         from app_core.user_cards uc
         left join app_core.user_decks ud
           on ud.user_deck_id = uc.subscription_id
         left join app_core.public_cards pc
           on pc.card_id = uc.public_card_id
          and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
+        cross join websearch_to_tsquery('simple', :query) as q(query)
+        cross join lateral (
+            select greatest(
+                ts_rank(coalesce(pc.search_vector, ''::tsvector), q.query),
+                ts_rank(uc.search_vector, q.query)
+            ) as rank
+        ) hit
         where uc.user_id = :userId
           and uc.subscription_id = :userDeckId
           and uc.is_deleted = false
-          and (
-            to_tsvector('simple', coalesce(pc.content::text, ''))
-              @@ websearch_to_tsquery('simple', :query)
-            or to_tsvector('simple', coalesce(uc.content_override::text, ''))
-              @@ websearch_to_tsquery('simple', :query)
-            or to_tsvector('simple', coalesce(uc.personal_note, ''))
-              @@ websearch_to_tsquery('simple', :query)
-          )
-          and (:tags is null or coalesce(uc.tags, pc.tags) && string_to_array(:tags, ','))
-        order by greatest(
-            ts_rank(
-                to_tsvector('simple', coalesce(pc.content::text, '')),
-                websearch_to_tsquery('simple', :query)
-            ),
-            ts_rank(
-                to_tsvector('simple', coalesce(uc.content_override::text, '')),
-                websearch_to_tsquery('simple', :query)
-            ),
-            ts_rank(
-                to_tsvector('simple', coalesce(uc.personal_note, '')),
-                websearch_to_tsquery('simple', :query)
-            )
-        ) desc,
-        uc.created_at desc
-        """, countQuery = """
-        select count(*)
-        from app_core.user_cards uc
-        left join app_core.user_decks ud
-          on ud.user_deck_id = uc.subscription_id
-        left join app_core.public_cards pc
-          on pc.card_id = uc.public_card_id
-         and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
-        where uc.user_id = :userId
-          and uc.subscription_id = :userDeckId
-          and uc.is_deleted = false
-          and (
-            to_tsvector('simple', coalesce(pc.content::text, ''))
-              @@ websearch_to_tsquery('simple', :query)
-            or to_tsvector('simple', coalesce(uc.content_override::text, ''))
-              @@ websearch_to_tsquery('simple', :query)
-            or to_tsvector('simple', coalesce(uc.personal_note, ''))
-              @@ websearch_to_tsquery('simple', :query)
-          )
+          and (pc.search_vector @@ q.query or uc.search_vector @@ q.query)
           and (:tags is null or coalesce(uc.tags, pc.tags) && string_to_array(:tags, ','))
+          and (hit.rank, uc.created_at, uc.user_card_id)
+              < (cast(:afterRank as real), cast(:afterCreatedAt as timestamptz), :afterCardId)
+        order by hit.rank desc, uc.created_at desc, uc.user_card_id desc
+        limit :limit
         """, nativeQuery = true)
-    Page<UserCardEntity> searchUserCards(
+    List<SearchHitProjection> searchUserCardHits(
             @Param("userId") UUID userId,
             @Param("userDeckId") UUID userDeckId,
             @Param("query") String query,
             @Param("tags") String tags,
-            Pageable pageable
+            @Param("afterRank") float afterRank,
+            @Param("afterCreatedAt") Instant afterCreatedAt,
+            @Param("afterCardId") UUID afterCardId,
+            @Param("limit") int limit
     );
 
     @Query(value = """
-        select uc.*
+        select uc.user_card_id as userCardId,
+               uc.created_at as createdAt,
+               cast(null as real) as rank
         from app_core.user_cards uc
         left join app_core.user_decks ud
           on ud.user_deck_id = uc.subscription_id
         left join app_core.public_cards pc
           on pc.card_id = uc.public_card_id
          and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
         where uc.user_id = :userId
           and uc.subscription_id = :userDeckId
           and uc.is_deleted = false
           and coalesce(uc.tags, pc.tags) && string_to_array(:tags, ',')
-        order by uc.created_at desc
-        """, countQuery = """
-        select count(*)
-        from app_core.user_cards uc
+          and (uc.created_at, uc.user_card_id) < (cast(:afterCreatedAt as timestamptz), :afterCardId)
+        order by uc.created_at desc, uc.user_card_id desc
+        limit :limit
+        """, nativeQuery = true)
+    List<SearchHitProjection> searchUserCardHitsByTags(
+            @Param("userId") UUID userId,
+            @Param("userDeckId") UUID userDeckId,
+            @Param("tags") String tags,
+            @Param("afterCreatedAt") Instant afterCreatedAt,
+            @Param("afterCardId") UUID afterCardId,
+            @Param("limit") int limit
+    );
+
+    interface SearchHitProjection {
+        UUID getUserCardId();
+        Instant getCreatedAt();
+        Float getRank();
+    }
+
+    /*
+      Глобальный поиск по всем колодам пользователя. Кандидаты собираются двумя ветками по GIN:
+      совпадения в публичном контенте (через подписки пользователя) и в его override/заметках;
+      архивные колоды исключаются в обеих ветках. Карта получает лучший rank из двух. ts_headline считается только для строк страницы.
+     */
+    @Query(value = """
+        with q as (
+            select websearch_to_tsquery('simple', :query) as query
+        ),
+        matched as (
+            select uc.user_card_id, ts_rank(pc.search_vector, q.query) as rank
+            from q
+            join app_core.public_cards pc
+              on pc.search_vector @@ q.query
+            join app_core.user_decks ud
+              on ud.public_deck_id = pc.deck_id
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
+            join app_core.user_cards uc
+              on uc.subscription_id = ud.user_deck_id
+             and uc.public_card_id = pc.card_id
+            where ud.user_id = :userId
+              and ud.is_archived = false
+              and uc.is_deleted = false
+            union all
+            select uc.user_card_id, ts_rank(uc.search_vector, q.query) as rank
+            from q
+            join app_core.user_cards uc
+              on uc.search_vector @@ q.query
+            join app_core.user_decks ud
+              on ud.user_deck_id = uc.subscription_id
+            where uc.user_id = :userId
+              and ud.is_archived = false
+              and uc.is_deleted = false
+        ),
+        ranked as (
+            select user_card_id, max(rank) as rank
+            from matched
+            group by user_card_id
+        ),
+        page as (
+            select uc.user_card_id,
+                   uc.subscription_id,
+                   uc.public_card_id,
+                   uc.content_override,
+                   uc.personal_note,
+                   uc.created_at,
+                   r.rank
+            from ranked r
+            join app_core.user_cards uc
+              on uc.user_card_id = r.user_card_id
+            where (r.rank, uc.created_at, uc.user_card_id)
+                  < (cast(:afterRank as real), cast(:afterCreatedAt as timestamptz), :afterCardId)
+            order by r.rank desc, uc.created_at desc, uc.user_card_id desc
+            limit :limit
+        )
+        select p.user_card_id as userCardId,
+               p.subscription_id as userDeckId,
+               p.created_at as createdAt,
+               p.rank as rank,
+               ts_headline(
+                   'simple',
+                   replace(replace(replace(doc.raw, '&', '&amp;'), '<', '&lt;'), '>', '&gt;'),
+                   q.query,
+                   'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5'
+               ) as highlight
+        from page p
+        cross join q
         left join app_core.user_decks ud
-          on ud.user_deck_id = uc.subscription_id
+          on ud.user_deck_id = p.subscription_id
         left join app_core.public_cards pc
-          on pc.card_id = uc.public_card_id
+          on pc.card_id = p.public_card_id
          and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
-        where uc.user_id = :userId
-          and uc.subscription_id = :userDeckId
-          and uc.is_deleted = false
-          and coalesce(uc.tags, pc.tags) && string_to_array(:tags, ',')
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
+        cross join lateral (
+            select coalesce(pc.content, '{}'::jsonb) || coalesce(p.content_override, '{}'::jsonb) as content
+        ) merged
+        cross join lateral (
+            select concat_ws(' ',
+                (select string_agg(f.value, ' ')
+                 from jsonb_each_text(
+                     case when jsonb_typeof(merged.content) = 'object' then merged.content else '{}'::jsonb end
+                 ) f),
+                p.personal_note
+            ) as raw
+        ) doc
+        order by p.rank desc, p.created_at desc, p.user_card_id desc
         """, nativeQuery = true)
-    Page<UserCardEntity> searchUserCardsByTags(
+    List<GlobalSearchHitProjection> searchAllUserCardHits(
             @Param("userId") UUID userId,
-            @Param("userDeckId") UUID userDeckId,
-            @Param("tags") String tags,
-            Pageable pageable
+            @Param("query") String query,
+            @Param("afterRank") float afterRank,
+            @Param("afterCreatedAt") Instant afterCreatedAt,
+            @Param("afterCardId") UUID afterCardId,
+            @Param("limit") int limit
     );
 
+    interface GlobalSearchHitProjection extends SearchHitProjection {
+        UUID getUserDeckId();
+        String getHighlight();
+    }
+
     @Query(value = """
         select count(*)
         from app_core.user_cards uc
@@ -136,7 +263,8 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
         left join app_core.public_cards pc
           on pc.card_id = uc.public_card_id
          and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
         where uc.user_id = :userId
           and uc.subscription_id = :userDeckId
           and uc.is_deleted = false
@@ -161,7 +289,8 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
         left join app_core.public_cards pc
           on pc.card_id = uc.public_card_id
          and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
         where uc.user_id = :userId
           and uc.subscription_id = :userDeckId
           and uc.is_deleted = false
@@ -181,6 +310,200 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
             @Param("limit") int limit
     );
 
+    // Пересчёт битовой карты полей для пачки устаревших карт колоды; возвращает число обновлённых строк
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        with layout as (
+            select f.name, cast(f.ord - 1 as integer) as bit_index
+            from unnest(cast(:fields as text[])) with ordinality as f(name, ord)
+        ),
+        target as (
+            select uc.user_card_id, uc.public_card_id, uc.content_override
+            from app_core.user_cards uc
+            where uc.user_id = :userId
+              and uc.subscription_id = :userDeckId
+              and uc.is_deleted = false
+              and (uc.field_presence is null
+                   or uc.field_presence_version is distinct from :deckVersion
+                   or uc.field_presence_layout is distinct from :layout)
+            limit :limit
+        ),
+        computed as (
+            select s.user_card_id,
+                   coalesce(bit_or(
+                       case
+                           when coalesce(
+                                   nullif(jsonb_extract_path_text(s.content_override, l.name), ''),
+                                   nullif(jsonb_extract_path_text(pc.content, l.name), ''),
+                                   nullif(jsonb_extract_path_text(s.content_override, l.name, 'mediaId'), ''),
+                                   nullif(jsonb_extract_path_text(pc.content, l.name, 'mediaId'), '')
+                                ) is not null
+                           then cast(1 as bigint) << l.bit_index
+                       end
+                   ), 0) as presence
+            from target s
+            left join app_core.public_cards pc
+              on pc.card_id = s.public_card_id
+             and pc.deck_id = :publicDeckId
+             and pc.deck_version <= :deckVersion
+             and (pc.valid_to is null or pc.valid_to > :deckVersion)
+            cross join layout l
+            group by s.user_card_id
+        )
+        update app_core.user_cards uc
+           set field_presence = c.presence,
+               field_presence_version = :deckVersion,
+               field_presence_layout = :layout
+          from computed c
+         where uc.user_card_id = c.user_card_id
+        """, nativeQuery = true)
+    int refreshStaleFieldPresence(
+            @Param("userId") UUID userId,
+            @Param("userDeckId") UUID userDeckId,
+            @Param("publicDeckId") UUID publicDeckId,
+            @Param("deckVersion") int deckVersion,
+            @Param("layout") int layout,
+            @Param("fields") String[] fields,
+            @Param("limit") int limit
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        update app_core.user_cards
+           set field_presence = null
+         where public_card_id = :publicCardId
+           and field_presence is not null
+        """, nativeQuery = true)
+    int clearFieldPresenceByPublicCard(@Param("publicCardId") UUID publicCardId);
+
+    // Пересчёт битовой карты для только что записанных карт, независимо от отметки версии
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        with layout as (
+            select f.name, cast(f.ord - 1 as integer) as bit_index
+            from unnest(cast(:fields as text[])) with ordinality as f(name, ord)
+        ),
+        target as (
+            select uc.user_card_id, uc.public_card_id, uc.content_override
+            from app_core.user_cards uc
+            where uc.subscription_id = :userDeckId
+              and uc.user_card_id = any(cast(cast(:cardIds as text[]) as uuid[]))
+        ),
+        computed as (
+            select s.user_card_id,
+                   coalesce(bit_or(
+                       case
+                           when coalesce(
+                                   nullif(jsonb_extract_path_text(s.content_override, l.name), ''),
+                                   nullif(jsonb_extract_path_text(pc.content, l.name), ''),
+                                   nullif(jsonb_extract_path_text(s.content_override, l.name, 'mediaId'), ''),
+                                   nullif(jsonb_extract_path_text(pc.content, l.name, 'mediaId'), '')
+                                ) is not null
+                           then cast(1 as bigint) << l.bit_index
+                       end
+                   ), 0) as presence
+            from target s
+            left join app_core.public_cards pc
+              on pc.card_id = s.public_card_id
+             and pc.deck_id = :publicDeckId
+             and pc.deck_version <= :deckVersion
+             and (pc.valid_to is null or pc.valid_to > :deckVersion)
+            cross join layout l
+            group by s.user_card_id
+        )
+        update app_core.user_cards uc
+           set field_presence = c.presence,
+               field_presence_version = :deckVersion,
+               field_presence_layout = :layout
+          from computed c
+         where uc.user_card_id = c.user_card_id
+        """, nativeQuery = true)
+    int refreshFieldPresence(
+            @Param("userDeckId") UUID userDeckId,
+            @Param("publicDeckId") UUID publicDeckId,
+            @Param("deckVersion") int deckVersion,
+            @Param("layout") int layout,
+            @Param("fields") String[] fields,
+            @Param("cardIds") String[] cardIds
+    );
+
+    /*
+      Маске верим только на строках с текущей отметкой (версия колоды, раскладка). Строки, которые
+      появились или устарели после prepare (синк, запись в другой транзакции), проверяются по контенту.
+     */
+    @Query(value = """
+        select count(*)
+        from app_core.user_cards uc
+        left join app_core.user_decks ud
+          on ud.user_deck_id = uc.subscription_id
+        left join app_core.public_cards pc
+          on pc.card_id = uc.public_card_id
+         and pc.deck_id = ud.public_deck_id
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
+        where uc.user_id = :userId
+          and uc.subscription_id = :userDeckId
+          and uc.is_deleted = false
+          and case
+                when uc.field_presence is not null
+                 and uc.field_presence_version = :deckVersion
+                 and uc.field_presence_layout = :layout
+                then (uc.field_presence & :mask) = 0
+                else coalesce(
+                       nullif(jsonb_extract_path_text(uc.content_override, :field), ''),
+                       nullif(jsonb_extract_path_text(pc.content, :field), ''),
+                       nullif(jsonb_extract_path_text(uc.content_override, :field, 'mediaId'), ''),
+                       nullif(jsonb_extract_path_text(pc.content, :field, 'mediaId'), '')
+                     ) is null
+              end
+        """, nativeQuery = true)
+    long countMissingFieldByPresence(
+            @Param("userId") UUID userId,
+            @Param("userDeckId") UUID userDeckId,
+            @Param("field") String field,
+            @Param("mask") long mask,
+            @Param("deckVersion") int deckVersion,
+            @Param("layout") int layout
+    );
+
+    @Query(value = """
+        select uc.user_card_id
+        from app_core.user_cards uc
+        left join app_core.user_decks ud
+          on ud.user_deck_id = uc.subscription_id
+        left join app_core.public_cards pc
+          on pc.card_id = uc.public_card_id
+         and pc.deck_id = ud.public_deck_id
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
+        where uc.user_id = :userId
+          and uc.subscription_id = :userDeckId
+          and uc.is_deleted = false
+          and case
+                when uc.field_presence is not null
+                 and uc.field_presence_version = :deckVersion
+                 and uc.field_presence_layout = :layout
+                then (uc.field_presence & :mask) = 0
+                else coalesce(
+                       nullif(jsonb_extract_path_text(uc.content_override, :field), ''),
+                       nullif(jsonb_extract_path_text(pc.content, :field), ''),
+                       nullif(jsonb_extract_path_text(uc.content_override, :field, 'mediaId'), ''),
+                       nullif(jsonb_extract_path_text(pc.content, :field, 'mediaId'), '')
+                     ) is null
+              end
+        order by uc.created_at desc, uc.user_card_id desc
+        limit :limit
+        """, nativeQuery = true)
+    List<UUID> findMissingFieldCardIdsByPresence(
+            @Param("userId") UUID userId,
+            @Param("userDeckId") UUID userDeckId,
+            @Param("field") String field,
+            @Param("mask") long mask,
+            @Param("deckVersion") int deckVersion,
+            @Param("layout") int layout,
+            @Param("limit") int limit
+    );
+
     @Query("""
         select uc
         from UserCardEntity uc
@@ -223,7 +546,8 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
             left join app_core.public_cards pc
               on pc.card_id = uc.public_card_id
              and pc.deck_id = ud.public_deck_id
-             and pc.deck_version = ud.current_version
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
             join input_fields f on true
             where uc.user_id = :userId
               and uc.subscription_id = :userDeckId
@@ -279,20 +603,21 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
         left join app_core.public_cards pc
           on pc.card_id = uc.public_card_id
          and pc.deck_id = ud.public_deck_id
-         and pc.deck_version = ud.current_version
+         and pc.deck_version <= ud.current_version
+         and (pc.valid_to is null or pc.valid_to > ud.current_version)
         join input_fields f on true
         where uc.user_id = :userId
           and uc.subscription_id = :userDeckId
           and uc.is_deleted = false
+          and uc.user_card_id = any(cast(cast(:userCardIds as text[]) as uuid[]))
         group by uc.user_card_id, uc.created_at
         order by uc.created_at asc, uc.user_card_id asc
-        limit :limit
         """, nativeQuery = true)
     List<SemanticCandidateProjection> findSemanticDuplicateCandidates(
             @Param("userId") UUID userId,
             @Param("userDeckId") UUID userDeckId,
             @Param("fields") String[] fields,
-            @Param("limit") int limit
+            @Param("userCardIds") String[] userCardIds
     );
 
     interface SemanticCandidateProjection {
@@ -301,6 +626,62 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
         String[] getValues();
     }
 
+    // Строка на каждое непустое поле карты: md5 значения и сохранённая сигнатура.
+    // Текст возвращается только для значений без сигнатуры, чтобы их досчитать
+    @Query(value = """
+        with input_fields as (
+            select f.field_name, f.ord
+            from unnest(cast(:fields as text[])) with ordinality as f(field_name, ord)
+        ),
+        field_values as (
+            select
+                uc.user_card_id,
+                uc.created_at,
+                f.ord,
+                coalesce(
+                    nullif(jsonb_extract_path_text(uc.content_override, f.field_name), ''),
+                    nullif(jsonb_extract_path_text(pc.content, f.field_name), '')
+                ) as value
+            from app_core.user_cards uc
+            left join app_core.user_decks ud
+              on ud.user_deck_id = uc.subscription_id
+            left join app_core.public_cards pc
+              on pc.card_id = uc.public_card_id
+             and pc.deck_id = ud.public_deck_id
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
+            join input_fields f on true
+            where uc.user_id = :userId
+              and uc.subscription_id = :userDeckId
+              and uc.is_deleted = false
+        )
+        select
+            v.user_card_id as userCardId,
+            v.created_at as createdAt,
+            cast(v.ord as int) as ord,
+            md5(v.value) as valueHash,
+            s.signature as signature,
+            case when s.signature is null then v.value end as value
+        from field_values v
+        left join app_core.card_field_signatures s
+          on s.value_hash = md5(v.value)
+        where v.value is not null
+        """, nativeQuery = true)
+    List<FieldSignatureProjection> findDuplicateFieldSignatures(
+            @Param("userId") UUID userId,
+            @Param("userDeckId") UUID userDeckId,
+            @Param("fields") String[] fields
+    );
+
+    interface FieldSignatureProjection {
+        UUID getUserCardId();
+        Instant getCreatedAt();
+        int getOrd();
+        String getValueHash();
+        byte[] getSignature();
+        String getValue();
+    }
+
     @Query(value = """
         with input_fields as (
             select f.field_name, f.ord
@@ -336,7 +717,8 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
             left join app_core.public_cards pc
               on pc.card_id = uc.public_card_id
              and pc.deck_id = ud.public_deck_id
-             and pc.deck_version = ud.current_version
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
             join input_fields f on true
             where uc.user_id = :userId
               and uc.subscription_id = :userDeckId
@@ -360,7 +742,8 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
             left join app_core.public_cards pc
               on pc.card_id = uc.public_card_id
              and pc.deck_id = ud.public_deck_id
-             and pc.deck_version = ud.current_version
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
             join score_fields sf on true
             where uc.user_id = :userId
               and uc.subscription_id = :userDeckId
@@ -383,12 +766,16 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
                 row_number() over (
                     partition by c.norm_values
                     order by s.filled_count desc, c.created_at asc, c.user_card_id asc
-                ) as rn
+                ) as rn,
+                first_value(c.user_card_id) over (
+                    partition by c.norm_values
+                    order by s.filled_count desc, c.created_at asc, c.user_card_id asc
+                ) as survivor_id
             from cards c
             join dup_groups d on c.norm_values = d.norm_values
             join scores s on s.user_card_id = c.user_card_id
         )
-        select user_card_id, public_card_id, rn
+        select user_card_id, public_card_id, rn, survivor_id
         from ranked
         """, nativeQuery = true)
     List<DuplicateResolutionProjection> findDuplicateResolutionCandidates(
@@ -398,6 +785,21 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
             @Param("scoreFields") String[] scoreFields
     );
 
+    // Живые карты пользователя в колоде из переданных id: источники переноса SR-состояния
+    @Query("""
+        select uc.userCardId
+        from UserCardEntity uc
+        where uc.userId = :userId
+          and uc.userDeckId = :userDeckId
+          and uc.userCardId in :cardIds
+          and uc.deleted = false
+        """)
+    List<UUID> findLiveCardIds(
+            @Param("userId") UUID userId,
+            @Param("userDeckId") UUID userDeckId,
+            @Param("cardIds") List<UUID> cardIds
+    );
+
     @Modifying
     @Query("""
         update UserCardEntity uc
@@ -406,6 +808,7 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
          where uc.userId = :userId
            and uc.userDeckId = :userDeckId
            and uc.userCardId in :cardIds
+           and uc.deleted = false
         """)
     int markDeletedByIds(
             @Param("userId") UUID userId,
@@ -414,9 +817,30 @@ public interface UserCardRepository extends JpaRepository<UserCardEntity, UUID>
             @Param("updatedAt") java.time.Instant updatedAt
     );
 
+    /*
+      Лента изменений карт колоды для внешних индексов (novelty-индекс AI-сервиса): новые,
+      изменённые и удалённые карты по возрастанию времени изменения, keyset по (changed_at, id).
+     */
+    @Query(value = """
+        select uc.*
+        from app_core.user_cards uc
+        where uc.subscription_id = :userDeckId
+          and (coalesce(uc.updated_at, uc.created_at), uc.user_card_id)
+              > (cast(:afterChangedAt as timestamptz), :afterCardId)
+        order by coalesce(uc.updated_at, uc.created_at), uc.user_card_id
+        limit :limit
+        """, nativeQuery = true)
+    List<UserCardEntity> findChangedAfter(
+            @Param("userDeckId") UUID userDeckId,
+            @Param("afterChangedAt") Instant afterChangedAt,
+            @Param("afterCardId") UUID afterCardId,
+            @Param("limit") int limit
+    );
+
     interface DuplicateResolutionProjection {
         UUID getUserCardId();
         UUID getPublicCardId();
         int getRn();
+        UUID getSurvivorId();
     }
 }
@@ -0,0 +1,87 @@
+package app.mnema.core.deck.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+/*
+  Детерминированный checksum контента карты: SHA-256 (hex, 64 символа) от канонического JSON.
+  Один алгоритм для записи карт и для фонового заполнения checksum у старых строк,
+  иначе индекс по checksum_digest разойдётся с тем, что считает сервис.
+ */
+final class CardChecksums {
+
+    private CardChecksums() {
+    }
+
+    static String compute(ObjectMapper objectMapper, JsonNode content) {
+        if (content == null || content.isNull()) {
+            return null;
+        }
+
+        JsonNode canonical = canonicalize(content);
+
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(canonical);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize card content for checksum", e);
+        }
+
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String normalize(String checksum) {
+        if (checksum == null) {
+            return null;
+        }
+        String s = checksum.trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    // Мы каноникалим объект: сортируем ключи рекурсивно, массивы оставляем в порядке
+    static JsonNode canonicalize(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return NullNode.getInstance();
+        }
+
+        if (node.isObject()) {
+            ObjectNode obj = (ObjectNode) node;
+            ObjectNode out = JsonNodeFactory.instance.objectNode();
+
+            List<String> names = new ArrayList<>();
+            obj.fieldNames().forEachRemaining(names::add);
+            Collections.sort(names);
+
+            for (String name : names) {
+                out.set(name, canonicalize(obj.get(name)));
+            }
+            return out;
+        }
+
+        if (node.isArray()) {
+            ArrayNode arr = (ArrayNode) node;
+            ArrayNode out = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode el : arr) {
+                out.add(canonicalize(el));
+            }
+            return out;
+        }
+
+        return node;
+    }
+}
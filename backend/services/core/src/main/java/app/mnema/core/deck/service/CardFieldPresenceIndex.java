@@ -0,0 +1,169 @@
+package app.mnema.core.deck.service;
+
+import app.mnema.core.deck.domain.entity.FieldTemplateEntity;
+import app.mnema.core.deck.domain.entity.PublicDeckEntity;
+import app.mnema.core.deck.domain.entity.UserDeckEntity;
+import app.mnema.core.deck.repository.FieldTemplateRepository;
+import app.mnema.core.deck.repository.PublicDeckRepository;
+import app.mnema.core.deck.repository.UserCardRepository;
+import app.mnema.core.deck.repository.UserDeckRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/*
+  Битовая карта заполненных полей карт (user_cards.field_presence).
+  Бит i - i-е поле шаблона колоды в порядке (order_index, name), поэтому запрос "карты без поля X"
+  сводится к проверке маски по индексу колоды. Записи карт пересчитывают биты в своей транзакции;
+  синк и смена шаблона меняют отметку (версия колоды, раскладка полей), и такие строки
+  досчитываются пачками перед чтением отдельной транзакцией. Правка публичной карты внутри
+  сессии обновления версию колоды не меняет, поэтому битовые карты её подписчиков сбрасываются явно.
+ */
+@Service
+public class CardFieldPresenceIndex {
+    private static final Logger log = LoggerFactory.getLogger(CardFieldPresenceIndex.class);
+
+    static final int MAX_FIELDS = Long.SIZE;
+    private static final int REFRESH_CHUNK = 5000;
+
+    private final UserCardRepository userCardRepository;
+    private final UserDeckRepository userDeckRepository;
+    private final PublicDeckRepository publicDeckRepository;
+    private final FieldTemplateRepository fieldTemplateRepository;
+    private final TransactionTemplate requiresNew;
+
+    public CardFieldPresenceIndex(UserCardRepository userCardRepository,
+                                  UserDeckRepository userDeckRepository,
+                                  PublicDeckRepository publicDeckRepository,
+                                  FieldTemplateRepository fieldTemplateRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.userCardRepository = userCardRepository;
+        this.userDeckRepository = userDeckRepository;
+        this.publicDeckRepository = publicDeckRepository;
+        this.fieldTemplateRepository = fieldTemplateRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record Layout(UUID publicDeckId, int deckVersion, List<String> fields) {
+
+        // Первые 4 байта SHA-256 от упорядоченных имён полей: не зависит от JVM и реже совпадает, чем List.hashCode
+        public int hash() {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                for (String field : fields) {
+                    md.update(field.getBytes(StandardCharsets.UTF_8));
+                    md.update((byte) 0);
+                }
+                return ByteBuffer.wrap(md.digest()).getInt();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        // 0 - поле вне раскладки (нет в шаблоне или дальше 64-го), его нужно искать по контенту
+        public long mask(String field) {
+            int index = fields.indexOf(field);
+            return index < 0 ? 0L : 1L << index;
+        }
+    }
+
+    // Раскладка колоды с досчитанными устаревшими картами; null - битовой картой пользоваться нельзя
+    public Layout prepare(UserDeckEntity deck) {
+        Layout layout = resolveLayout(deck);
+        if (layout == null) {
+            return null;
+        }
+        String[] fields = layout.fields().toArray(String[]::new);
+        try {
+            requiresNew.execute(status -> {
+                int updated;
+                do {
+                    updated = userCardRepository.refreshStaleFieldPresence(
+                            deck.getUserId(),
+                            deck.getUserDeckId(),
+                            layout.publicDeckId(),
+                            layout.deckVersion(),
+                            layout.hash(),
+                            fields,
+                            REFRESH_CHUNK
+                    );
+                } while (updated == REFRESH_CHUNK);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Field presence refresh failed deckId={} error={}", deck.getUserDeckId(), ex.getMessage());
+            return null;
+        }
+        return layout;
+    }
+
+    // Вызывается из транзакции записи карт после их сохранения
+    public void refreshCards(UUID userDeckId, Collection<UUID> userCardIds) {
+        if (userCardIds == null || userCardIds.isEmpty()) {
+            return;
+        }
+        UserDeckEntity deck = userDeckRepository.findById(userDeckId).orElse(null);
+        Layout layout = deck == null ? null : resolveLayout(deck);
+        if (layout == null) {
+            return;
+        }
+        userCardRepository.refreshFieldPresence(
+                userDeckId,
+                layout.publicDeckId(),
+                layout.deckVersion(),
+                layout.hash(),
+                layout.fields().toArray(String[]::new),
+                userCardIds.stream().filter(Objects::nonNull).map(UUID::toString).toArray(String[]::new)
+        );
+    }
+
+    // Контент публичной карты изменён без новой версии колоды: пересчёт у всех подписчиков при следующем чтении
+    public void invalidatePublicCard(UUID publicCardId) {
+        if (publicCardId != null) {
+            userCardRepository.clearFieldPresenceByPublicCard(publicCardId);
+        }
+    }
+
+    Layout resolveLayout(UserDeckEntity deck) {
+        UUID publicDeckId = deck.getPublicDeckId();
+        if (publicDeckId == null) {
+            return null;
+        }
+        int deckVersion = deck.getCurrentVersion() == null ? 0 : deck.getCurrentVersion();
+        PublicDeckEntity publicDeck = publicDeckRepository.findByDeckIdAndVersion(publicDeckId, deckVersion)
+                .or(() -> publicDeckRepository.findLatestByDeckId(publicDeckId))
+                .orElse(null);
+        if (publicDeck == null) {
+            return null;
+        }
+        Integer templateVersion = deck.getTemplateVersion() != null ? deck.getTemplateVersion() : publicDeck.getTemplateVersion();
+        if (templateVersion == null) {
+            return null;
+        }
+        List<String> fields = fieldTemplateRepository
+                .findByTemplateIdAndTemplateVersionOrderByOrderIndexAsc(publicDeck.getTemplateId(), templateVersion)
+                .stream()
+                .filter(field -> field.getName() != null && !field.getName().isBlank())
+                .sorted(Comparator.comparing(FieldTemplateEntity::getOrderIndex, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(FieldTemplateEntity::getName))
+                .map(field -> field.getName().trim())
+                .distinct()
+                .limit(MAX_FIELDS)
+                .toList();
+        return fields.isEmpty() ? null : new Layout(publicDeckId, deckVersion, fields);
+    }
+}
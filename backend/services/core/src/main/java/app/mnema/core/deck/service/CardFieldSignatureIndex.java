@@ -0,0 +1,101 @@
+package app.mnema.core.deck.service;
+
+import app.mnema.core.deck.repository.CardFieldSignatureRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+  Хранилище MinHash-сигнатур значений полей (app_core.card_field_signatures).
+  На записи карт сигнатуры кладутся в той же транзакции; при поиске дубликатов недостающие
+  досчитываются из текста и сохраняются отдельной транзакцией, чтобы чтение оставалось readOnly.
+ */
+@Service
+public class CardFieldSignatureIndex {
+    private static final Logger log = LoggerFactory.getLogger(CardFieldSignatureIndex.class);
+
+    private static final int INSERT_CHUNK = 1000;
+
+    private final CardFieldSignatureRepository cardFieldSignatureRepository;
+    private final TransactionTemplate requiresNew;
+
+    public CardFieldSignatureIndex(CardFieldSignatureRepository cardFieldSignatureRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.cardFieldSignatureRepository = cardFieldSignatureRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Сигнатуры всех скалярных полей верхнего уровня; вызывается из транзакции записи карт
+    public void indexContents(Collection<? extends JsonNode> contents) {
+        if (contents == null || contents.isEmpty()) {
+            return;
+        }
+        Map<String, int[]> signatures = new LinkedHashMap<>();
+        for (JsonNode content : contents) {
+            if (content == null || !content.isObject()) {
+                continue;
+            }
+            content.properties().forEach(field -> {
+                JsonNode value = field.getValue();
+                if (value == null || !value.isValueNode() || value.isNull()) {
+                    return;
+                }
+                String text = value.asText();
+                if (!text.isEmpty()) {
+                    signatures.computeIfAbsent(CardMinHash.valueHash(text), __ -> CardMinHash.signature(text));
+                }
+            });
+        }
+        insert(signatures);
+    }
+
+    // Досчитывает сигнатуры значений, которых ещё нет в таблице; сохранение best-effort
+    public Map<String, int[]> computeMissing(Map<String, String> valuesByHash) {
+        if (valuesByHash == null || valuesByHash.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, int[]> computed = new LinkedHashMap<>();
+        valuesByHash.forEach((hash, value) -> computed.put(hash, CardMinHash.signature(value)));
+        try {
+            requiresNew.executeWithoutResult(status -> insert(computed));
+        } catch (RuntimeException ex) {
+            log.warn("Card field signature store failed count={} error={}", computed.size(), ex.getMessage());
+        }
+        return computed;
+    }
+
+    private void insert(Map<String, int[]> signatures) {
+        if (signatures.isEmpty()) {
+            return;
+        }
+        HexFormat hex = HexFormat.of();
+        String[] hashes = new String[Math.min(INSERT_CHUNK, signatures.size())];
+        String[] encoded = new String[hashes.length];
+        int filled = 0;
+        int remaining = signatures.size();
+        for (Map.Entry<String, int[]> entry : signatures.entrySet()) {
+            hashes[filled] = entry.getKey();
+            encoded[filled] = hex.formatHex(CardMinHash.toBytes(entry.getValue()));
+            filled++;
+            remaining--;
+            if (filled == hashes.length || remaining == 0) {
+                cardFieldSignatureRepository.insertMissing(
+                        Arrays.copyOf(hashes, filled),
+                        Arrays.copyOf(encoded, filled)
+                );
+                filled = 0;
+            }
+        }
+    }
+}
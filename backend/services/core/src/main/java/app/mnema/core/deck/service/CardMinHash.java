@@ -0,0 +1,144 @@
+package app.mnema.core.deck.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/*
+  MinHash по триграммам нормализованного текста поля и LSH-бэнды для поиска почти-дубликатов.
+  Триграммы те же, что у векторов семантического сравнения в CardService, поэтому пары,
+  похожие по косинусу, почти всегда совпадают хотя бы в одном бэнде.
+  16 бэндов по 4 строки: пара с Jaccard 0.5 становится кандидатом с вероятностью ~0.65,
+  с 0.7 - ~0.99, несвязанные карты (Jaccard < 0.1) почти никогда.
+ */
+final class CardMinHash {
+
+    static final int HASHES = 64;
+    static final int BANDS = 16;
+    static final int ROWS = HASHES / BANDS;
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{IsAlphabetic}\\p{IsDigit}]+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final int[] MULTIPLIERS = new int[HASHES];
+    private static final int[] OFFSETS = new int[HASHES];
+
+    static {
+        // Фиксированное зерно: сигнатуры хранятся в БД и должны совпадать между запусками
+        SplittableRandom random = new SplittableRandom(0x6D6E656D61L);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextInt() | 1;
+            OFFSETS[i] = random.nextInt();
+        }
+    }
+
+    private CardMinHash() {
+    }
+
+    static String normalize(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return "";
+        }
+        String lowered = raw.toLowerCase(Locale.ROOT);
+        String compact = NON_ALNUM.matcher(lowered).replaceAll(" ").trim();
+        if (compact.isBlank()) {
+            return "";
+        }
+        return compact.replaceAll("\\s+", " ");
+    }
+
+    static int[] signature(String rawValue) {
+        int[] signature = emptySignature();
+        String normalized = normalize(rawValue);
+        if (normalized.isEmpty()) {
+            return signature;
+        }
+        String value = " " + normalized + " ";
+        for (int i = 0; i <= value.length() - 3; i++) {
+            // Совпадает с hashCode() триграммы, без выделения подстрок
+            int shingle = (value.charAt(i) * 31 + value.charAt(i + 1)) * 31 + value.charAt(i + 2);
+            for (int k = 0; k < HASHES; k++) {
+                int hash = mix(shingle * MULTIPLIERS[k] + OFFSETS[k]);
+                if (hash < signature[k]) {
+                    signature[k] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static int[] emptySignature() {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        return signature;
+    }
+
+    // Сигнатура объединения множеств триграмм - поэлементный минимум
+    static void mergeInto(int[] target, int[] source) {
+        for (int k = 0; k < HASHES; k++) {
+            if (source[k] < target[k]) {
+                target[k] = source[k];
+            }
+        }
+    }
+
+    static boolean isEmpty(int[] signature) {
+        for (int value : signature) {
+            if (value != Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int bandKey(int[] signature, int band) {
+        int hash = band;
+        int from = band * ROWS;
+        for (int r = 0; r < ROWS; r++) {
+            hash = hash * 31 + signature[from + r];
+        }
+        return mix(hash);
+    }
+
+    static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(HASHES * Integer.BYTES);
+        for (int value : signature) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    static int[] fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != HASHES * Integer.BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int[] signature = new int[HASHES];
+        for (int k = 0; k < HASHES; k++) {
+            signature[k] = buffer.getInt();
+        }
+        return signature;
+    }
+
+    // md5(text) в Postgres даёт тот же hex для UTF-8 базы
+    static String valueHash(String rawValue) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md.digest(rawValue.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
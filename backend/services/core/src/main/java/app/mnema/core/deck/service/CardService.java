@@ -1,26 +1,28 @@
 package app.mnema.core.deck.service;
 
+import app.mnema.core.deck.domain.dto.BulkCardDeleteResultDTO;
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
 import app.mnema.core.deck.domain.dto.FieldTemplateDTO;
 import app.mnema.core.deck.domain.dto.MissingFieldSummaryDTO;
 import app.mnema.core.deck.domain.dto.MissingFieldStatDTO;
 import app.mnema.core.deck.domain.dto.PublicCardDTO;
+import app.mnema.core.deck.domain.dto.UserCardChangeDTO;
+import app.mnema.core.deck.domain.dto.UserCardChangesDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
 import app.mnema.core.deck.domain.dto.DuplicateGroupDTO;
 import app.mnema.core.deck.domain.dto.DuplicateResolveResultDTO;
 import app.mnema.core.deck.domain.entity.*;
 import app.mnema.core.deck.domain.type.CardFieldType;
+import app.mnema.core.deck.domain.request.BulkCardDeleteRequest;
 import app.mnema.core.deck.domain.request.CreateCardRequest;
 import app.mnema.core.deck.domain.request.DuplicateResolveRequest;
 import app.mnema.core.deck.domain.request.DuplicateSearchRequest;
 import app.mnema.core.deck.domain.request.MissingFieldCardsRequest;
 import app.mnema.core.deck.domain.request.MissingFieldSummaryRequest;
 import app.mnema.core.deck.repository.*;
+import app.mnema.core.review.api.CardStateTransferPort;
 import app.mnema.core.security.ContentAdminAccessService;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -28,21 +30,23 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.regex.Pattern;
-import java.util.Locale;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -52,9 +56,13 @@ public class CardService {
     private static final int MAX_TAGS = 3;
     private static final int MAX_TAG_LENGTH = 25;
     private static final int SEMANTIC_VECTOR_DIM = 256;
-    private static final int SEMANTIC_CANDIDATE_LIMIT = 1200;
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final int MAX_BULK_DELETE = 50_000;
+    private static final int MAX_CHANGES_PAGE = 1000;
+    private static final UUID MIN_CARD_ID = new UUID(0L, 0L);
+    private static final int LSH_FULL_BUCKET = 64;
+    private static final int LSH_BUCKET_PIVOTS = 8;
     private static final double DEFAULT_SEMANTIC_THRESHOLD = 0.92d;
-    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{IsAlphabetic}\\p{IsDigit}]+", Pattern.UNICODE_CHARACTER_CLASS);
 
     private final UserDeckRepository userDeckRepository;
     private final UserCardRepository userCardRepository;
@@ -66,6 +74,11 @@ public class CardService {
     private final FieldTemplateRepository fieldTemplateRepository;
     private final ObjectMapper objectMapper;
     private final ContentAdminAccessService contentAdminAccessService;
+    private final PublicDeckCatalogCache publicDeckCatalogCache;
+    private final CardFieldSignatureIndex cardFieldSignatureIndex;
+    private final CardFieldPresenceIndex cardFieldPresenceIndex;
+    private final CardStateTransferPort cardStateTransferPort;
+    private final TransactionTemplate transactionTemplate;
 
     public CardService(UserDeckRepository userDeckRepository,
                        UserCardRepository userCardRepository,
@@ -76,7 +89,12 @@ public class CardService {
                        CardTemplateVersionRepository cardTemplateVersionRepository,
                        FieldTemplateRepository fieldTemplateRepository,
                        ObjectMapper objectMapper,
-                       ContentAdminAccessService contentAdminAccessService) {
+                       ContentAdminAccessService contentAdminAccessService,
+                       PublicDeckCatalogCache publicDeckCatalogCache,
+                       CardFieldSignatureIndex cardFieldSignatureIndex,
+                       CardFieldPresenceIndex cardFieldPresenceIndex,
+                       CardStateTransferPort cardStateTransferPort,
+                       TransactionTemplate transactionTemplate) {
         this.userDeckRepository = userDeckRepository;
         this.userCardRepository = userCardRepository;
         this.publicCardRepository = publicCardRepository;
@@ -87,6 +105,11 @@ public class CardService {
         this.fieldTemplateRepository = fieldTemplateRepository;
         this.objectMapper = objectMapper;
         this.contentAdminAccessService = contentAdminAccessService;
+        this.publicDeckCatalogCache = publicDeckCatalogCache;
+        this.cardFieldSignatureIndex = cardFieldSignatureIndex;
+        this.cardFieldPresenceIndex = cardFieldPresenceIndex;
+        this.cardStateTransferPort = cardStateTransferPort;
+        this.transactionTemplate = transactionTemplate;
     }
 
     // Просмотр всех карт в пользовательской колоде
@@ -142,6 +165,52 @@ public class CardService {
         return getUserCard(card.getUserId(), userDeckId, userCardId);
     }
 
+    // Изменения карт колоды после курсора (включая удалённые) - по ним AI-сервис дообновляет свой индекс
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAuthority('SCOPE_core.internal')")
+    public UserCardChangesDTO getUserCardChangesInternal(UUID userDeckId,
+                                                         Instant afterChangedAt,
+                                                         UUID afterCardId,
+                                                         int limit) {
+        UserDeckEntity deck = userDeckRepository.findById(userDeckId)
+                .orElseThrow(() -> new IllegalArgumentException("User deck not found: " + userDeckId));
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1");
+        }
+        List<UserCardEntity> cards = userCardRepository.findChangedAfter(
+                userDeckId,
+                afterChangedAt == null ? Instant.EPOCH : afterChangedAt,
+                afterCardId == null ? MIN_CARD_ID : afterCardId,
+                Math.min(limit, MAX_CHANGES_PAGE)
+        );
+
+        // Публичный контент - одним запросом, в версии, которую видит колода
+        Map<UUID, PublicCardEntity> publicCards = new HashMap<>();
+        Set<UUID> publicCardIds = cards.stream()
+                .filter(card -> !card.isDeleted() && card.getPublicCardId() != null)
+                .map(UserCardEntity::getPublicCardId)
+                .collect(Collectors.toSet());
+        if (!publicCardIds.isEmpty() && deck.getPublicDeckId() != null && deck.getCurrentVersion() != null) {
+            for (PublicCardEntity publicCard : publicCardRepository.findLiveCards(deck.getPublicDeckId(), publicCardIds, deck.getCurrentVersion())) {
+                publicCards.put(publicCard.getCardId(), publicCard);
+            }
+        }
+
+        List<UserCardChangeDTO> changes = new ArrayList<>(cards.size());
+        for (UserCardEntity card : cards) {
+            JsonNode content = card.isDeleted()
+                    ? null
+                    : buildEffectiveContent(card, publicCards.get(card.getPublicCardId()));
+            changes.add(new UserCardChangeDTO(
+                    card.getUserCardId(),
+                    card.isDeleted(),
+                    card.getUpdatedAt() != null ? card.getUpdatedAt() : card.getCreatedAt(),
+                    content
+            ));
+        }
+        return new UserCardChangesDTO(deck.getCurrentVersion(), changes);
+    }
+
     @Transactional(readOnly = true)
     @PreAuthorize("hasAuthority('SCOPE_user.read')")
     public MissingFieldSummaryDTO getMissingFieldSummary(UUID currentUserId,
@@ -165,19 +234,41 @@ public class CardService {
             throw new IllegalArgumentException("fields are required");
         }
 
+        CardFieldPresenceIndex.Layout layout = cardFieldPresenceIndex.prepare(deck);
         List<MissingFieldStatDTO> stats = new ArrayList<>();
         for (String field : fields) {
-            long missingCount = userCardRepository.countMissingField(currentUserId, userDeckId, field);
+            long mask = layout == null ? 0L : layout.mask(field);
+            long missingCount = mask == 0L
+                    ? userCardRepository.countMissingField(currentUserId, userDeckId, field)
+                    : userCardRepository.countMissingFieldByPresence(
+                            currentUserId, userDeckId, field, mask, layout.deckVersion(), layout.hash());
             List<UserCardDTO> samples = sampleLimit == 0
                     ? List.of()
-                    : loadMissingSamples(currentUserId, userDeckId, field, sampleLimit);
+                    : loadMissingSamples(currentUserId, userDeckId, layout, field, sampleLimit);
             stats.add(new MissingFieldStatDTO(field, missingCount, samples));
         }
         return new MissingFieldSummaryDTO(stats, sampleLimit);
     }
 
-    private List<UserCardDTO> loadMissingSamples(UUID userId, UUID userDeckId, String field, int limit) {
-        List<UUID> ids = userCardRepository.findMissingFieldCardIds(userId, userDeckId, field, limit);
+    private List<UUID> findMissingFieldCardIds(UUID userId,
+                                               UUID userDeckId,
+                                               CardFieldPresenceIndex.Layout layout,
+                                               String field,
+                                               int limit) {
+        long mask = layout == null ? 0L : layout.mask(field);
+        // Поля вне раскладки шаблона ищутся по контенту, как до появления битовой карты
+        return mask == 0L
+                ? userCardRepository.findMissingFieldCardIds(userId, userDeckId, field, limit)
+                : userCardRepository.findMissingFieldCardIdsByPresence(
+                        userId, userDeckId, field, mask, layout.deckVersion(), layout.hash(), limit);
+    }
+
+    private List<UserCardDTO> loadMissingSamples(UUID userId,
+                                                 UUID userDeckId,
+                                                 CardFieldPresenceIndex.Layout layout,
+                                                 String field,
+                                                 int limit) {
+        List<UUID> ids = findMissingFieldCardIds(userId, userDeckId, layout, field, limit);
         if (ids.isEmpty()) {
             return List.of();
         }
@@ -217,12 +308,14 @@ public class CardService {
                     .filter(limit -> limit != null && limit.field() != null && !limit.field().isBlank())
                     .toList();
 
+        CardFieldPresenceIndex.Layout layout = null;
         java.util.LinkedHashSet<UUID> merged = new java.util.LinkedHashSet<>();
         if (!fieldLimits.isEmpty()) {
+            layout = cardFieldPresenceIndex.prepare(deck);
             for (MissingFieldCardsRequest.FieldLimit limitEntry : fieldLimits) {
                 String field = limitEntry.field().trim();
                 int limit = limitEntry.limit() == null ? 50 : Math.max(1, Math.min(limitEntry.limit(), 200));
-                List<UUID> ids = userCardRepository.findMissingFieldCardIds(currentUserId, userDeckId, field, limit);
+                List<UUID> ids = findMissingFieldCardIds(currentUserId, userDeckId, layout, field, limit);
                 merged.addAll(ids);
             }
         } else {
@@ -238,12 +331,13 @@ public class CardService {
             if (fields.isEmpty()) {
                 throw new IllegalArgumentException("fields are required");
             }
+            layout = cardFieldPresenceIndex.prepare(deck);
             for (String field : fields) {
                 if (merged.size() >= limit) {
                     break;
                 }
                 int remaining = limit - merged.size();
-                List<UUID> ids = userCardRepository.findMissingFieldCardIds(currentUserId, userDeckId, field, remaining);
+                List<UUID> ids = findMissingFieldCardIds(currentUserId, userDeckId, layout, field, remaining);
                 merged.addAll(ids);
             }
         }
@@ -415,60 +509,96 @@ public class CardService {
         if (fields == null || fields.isEmpty() || limitGroups <= 0) {
             return List.of();
         }
-        int candidateLimit = Math.max(50, Math.min(SEMANTIC_CANDIDATE_LIMIT, limitGroups * 120));
+        List<UserCardRepository.FieldSignatureProjection> rows = userCardRepository.findDuplicateFieldSignatures(
+                currentUserId,
+                userDeckId,
+                fields.toArray(String[]::new)
+        );
+        if (rows == null || rows.isEmpty()) {
+            return List.of();
+        }
+        List<SignedCard> signedCards = signCards(rows, excludedIds);
+        if (signedCards.size() < 2) {
+            return List.of();
+        }
+
+        // LSH отбирает пары-кандидаты по всей колоде, точное сравнение - только для них
+        long[] candidatePairs = lshCandidatePairs(signedCards);
+        if (candidatePairs.length == 0) {
+            return List.of();
+        }
+        BitSet involved = new BitSet(signedCards.size());
+        for (long pair : candidatePairs) {
+            involved.set(pairLeft(pair));
+            involved.set(pairRight(pair));
+        }
+        Map<UUID, Integer> indexById = new HashMap<>();
+        String[] involvedIds = involved.stream()
+                .mapToObj(index -> {
+                    UUID id = signedCards.get(index).userCardId();
+                    indexById.put(id, index);
+                    return id.toString();
+                })
+                .toArray(String[]::new);
+
         List<UserCardRepository.SemanticCandidateProjection> candidates = userCardRepository.findSemanticDuplicateCandidates(
                 currentUserId,
                 userDeckId,
                 fields.toArray(String[]::new),
-                candidateLimit
+                involvedIds
         );
         if (candidates == null || candidates.size() < 2) {
             return List.of();
         }
 
-        List<SemanticCardCandidate> semanticCandidates = new ArrayList<>();
-        for (UserCardRepository.SemanticCandidateProjection candidate : candidates) {
-            if (candidate == null || candidate.getUserCardId() == null) {
-                continue;
-            }
-            if (excludedIds != null && excludedIds.contains(candidate.getUserCardId())) {
-                continue;
-            }
-            String[] values = candidate.getValues();
-            SemanticFingerprint fingerprint = fingerprint(values);
-            if (fingerprint == null) {
-                continue;
-            }
-            semanticCandidates.add(new SemanticCardCandidate(
-                    candidate.getUserCardId(),
-                    candidate.getCreatedAt(),
-                    values,
-                    fingerprint
-            ));
-        }
-        if (semanticCandidates.size() < 2) {
+        SemanticCardCandidate[] semanticCandidates = new SemanticCardCandidate[signedCards.size()];
+        candidates.parallelStream()
+                .filter(candidate -> candidate != null && indexById.containsKey(candidate.getUserCardId()))
+                .forEach(candidate -> {
+                    SemanticFingerprint fingerprint = fingerprint(candidate.getValues());
+                    if (fingerprint != null) {
+                        semanticCandidates[indexById.get(candidate.getUserCardId())] = new SemanticCardCandidate(
+                                candidate.getUserCardId(),
+                                candidate.getCreatedAt(),
+                                candidate.getValues(),
+                                fingerprint
+                        );
+                    }
+                });
+
+        long[] verifiedPairs = Arrays.stream(candidatePairs)
+                .parallel()
+                .filter(pair -> {
+                    SemanticCardCandidate left = semanticCandidates[pairLeft(pair)];
+                    SemanticCardCandidate right = semanticCandidates[pairRight(pair)];
+                    return left != null && right != null
+                            && isSemanticDuplicate(left.fingerprint(), right.fingerprint(), threshold);
+                })
+                .toArray();
+        if (verifiedPairs.length == 0) {
             return List.of();
         }
 
-        UnionFind unionFind = new UnionFind(semanticCandidates.size());
+        UnionFind unionFind = new UnionFind(signedCards.size());
+        BitSet members = new BitSet(signedCards.size());
+        for (long pair : verifiedPairs) {
+            unionFind.union(pairLeft(pair), pairRight(pair));
+            members.set(pairLeft(pair));
+            members.set(pairRight(pair));
+        }
         Map<Integer, Double> groupMaxSimilarity = new HashMap<>();
-        for (int i = 0; i < semanticCandidates.size(); i++) {
-            SemanticCardCandidate left = semanticCandidates.get(i);
-            for (int j = i + 1; j < semanticCandidates.size(); j++) {
-                SemanticCardCandidate right = semanticCandidates.get(j);
-                if (isSemanticDuplicate(left.fingerprint(), right.fingerprint(), threshold)) {
-                    unionFind.union(i, j);
-                    double similarity = cosine(left.fingerprint().vector(), right.fingerprint().vector());
-                    int root = unionFind.find(i);
-                    groupMaxSimilarity.merge(root, similarity, Math::max);
-                }
-            }
+        for (long pair : verifiedPairs) {
+            double similarity = cosine(
+                    semanticCandidates[pairLeft(pair)].fingerprint().vector(),
+                    semanticCandidates[pairRight(pair)].fingerprint().vector()
+            );
+            groupMaxSimilarity.merge(unionFind.find(pairLeft(pair)), similarity, Math::max);
         }
 
         Map<Integer, List<SemanticCardCandidate>> grouped = new HashMap<>();
-        for (int i = 0; i < semanticCandidates.size(); i++) {
+        for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
             int root = unionFind.find(i);
-            grouped.computeIfAbsent(root, __ -> new ArrayList<>()).add(semanticCandidates.get(i));
+            grouped.computeIfAbsent(root, __ -> new ArrayList<>()).add(semanticCandidates[i]);
         }
 
         List<SemanticGroup> semanticGroups = new ArrayList<>();
@@ -560,6 +690,94 @@ public class CardService {
         return cosine(left.vector(), right.vector()) >= threshold;
     }
 
+    // Сигнатура карты - поэлементный минимум сигнатур выбранных полей; отсутствующие в таблице досчитываются
+    private List<SignedCard> signCards(List<UserCardRepository.FieldSignatureProjection> rows, Set<UUID> excludedIds) {
+        Map<String, String> missing = new HashMap<>();
+        for (UserCardRepository.FieldSignatureProjection row : rows) {
+            if (row.getSignature() == null && row.getValue() != null) {
+                missing.putIfAbsent(row.getValueHash(), row.getValue());
+            }
+        }
+        Map<String, int[]> computed = cardFieldSignatureIndex.computeMissing(missing);
+
+        Map<UUID, int[]> signatures = new LinkedHashMap<>();
+        Map<UUID, Integer> primaryOrd = new HashMap<>();
+        Map<UUID, Integer> primaryKey = new HashMap<>();
+        for (UserCardRepository.FieldSignatureProjection row : rows) {
+            UUID userCardId = row.getUserCardId();
+            if (userCardId == null || (excludedIds != null && excludedIds.contains(userCardId))) {
+                continue;
+            }
+            int[] fieldSignature = row.getSignature() != null
+                    ? CardMinHash.fromBytes(row.getSignature())
+                    : computed.get(row.getValueHash());
+            if (fieldSignature == null || CardMinHash.isEmpty(fieldSignature)) {
+                continue;
+            }
+            CardMinHash.mergeInto(signatures.computeIfAbsent(userCardId, __ -> CardMinHash.emptySignature()), fieldSignature);
+            Integer ord = primaryOrd.get(userCardId);
+            if (ord == null || row.getOrd() < ord) {
+                primaryOrd.put(userCardId, row.getOrd());
+                // Одинаковый нормализованный текст даёт одинаковую сигнатуру
+                primaryKey.put(userCardId, Arrays.hashCode(fieldSignature));
+            }
+        }
+
+        List<SignedCard> result = new ArrayList<>(signatures.size());
+        signatures.forEach((userCardId, signature) ->
+                result.add(new SignedCard(userCardId, signature, primaryKey.get(userCardId))));
+        return result;
+    }
+
+    // Пары индексов (i < j), совпавшие хотя бы в одном бэнде или по первому непустому полю.
+    // Каждый бэнд - сортировка упакованных (ключ, индекс), без хэш-таблиц на сотни тысяч карт
+    private long[] lshCandidatePairs(List<SignedCard> cards) {
+        int size = cards.size();
+        long[] keyed = new long[size];
+        PairBuffer pairs = new PairBuffer();
+        for (int band = 0; band <= CardMinHash.BANDS; band++) {
+            for (int i = 0; i < size; i++) {
+                SignedCard card = cards.get(i);
+                int key = band < CardMinHash.BANDS
+                        ? CardMinHash.bandKey(card.signature(), band)
+                        : card.primaryKey();
+                keyed[i] = ((long) key << 32) | i;
+            }
+            Arrays.sort(keyed);
+            int start = 0;
+            for (int i = 1; i <= size; i++) {
+                if (i == size || (int) (keyed[i] >> 32) != (int) (keyed[start] >> 32)) {
+                    addBucketPairs(keyed, start, i, pairs);
+                    start = i;
+                }
+            }
+        }
+        return pairs.distinct();
+    }
+
+    // Большие корзины (шаблонный текст) сравниваются только с несколькими опорными картами,
+    // иначе число пар растёт квадратично; группы всё равно собираются транзитивно
+    private void addBucketPairs(long[] keyed, int start, int end, PairBuffer pairs) {
+        int bucketSize = end - start;
+        if (bucketSize < 2) {
+            return;
+        }
+        int pivots = bucketSize <= LSH_FULL_BUCKET ? bucketSize : LSH_BUCKET_PIVOTS;
+        for (int a = start; a < start + pivots; a++) {
+            for (int b = a + 1; b < end; b++) {
+                pairs.add((int) keyed[a], (int) keyed[b]);
+            }
+        }
+    }
+
+    private static int pairLeft(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    private static int pairRight(long pair) {
+        return (int) pair;
+    }
+
     private SemanticFingerprint fingerprint(String[] rawValues) {
         if (rawValues == null || rawValues.length == 0) {
             return null;
@@ -586,15 +804,7 @@ public class CardService {
     }
 
     private String normalize(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return "";
-        }
-        String lowered = raw.toLowerCase(Locale.ROOT);
-        String compact = NON_ALNUM.matcher(lowered).replaceAll(" ").trim();
-        if (compact.isBlank()) {
-            return "";
-        }
-        return compact.replaceAll("\\s+", " ");
+        return CardMinHash.normalize(raw);
     }
 
     private float[] vectorize(String text) {
@@ -658,6 +868,35 @@ public class CardService {
     private record SemanticGroup(List<SemanticCardCandidate> cards, double confidence) {
     }
 
+    private record SignedCard(UUID userCardId, int[] signature, int primaryKey) {
+    }
+
+    private static final class PairBuffer {
+        private long[] pairs = new long[256];
+        private int size;
+
+        private void add(int left, int right) {
+            if (left == right) {
+                return;
+            }
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = ((long) Math.min(left, right) << 32) | Math.max(left, right);
+        }
+
+        private long[] distinct() {
+            Arrays.sort(pairs, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || pairs[i] != pairs[unique - 1]) {
+                    pairs[unique++] = pairs[i];
+                }
+            }
+            return Arrays.copyOf(pairs, unique);
+        }
+    }
+
     private static final class UnionFind {
         private final int[] parent;
         private final int[] rank;
@@ -696,11 +935,65 @@ public class CardService {
         }
     }
 
-    @Transactional
+    // Без общей транзакции: план и глобальная часть - одна транзакция, затем мягкое удаление
+    // чанками по BULK_CHUNK_SIZE, каждый в своей. Прерванную очистку можно просто повторить
     @PreAuthorize("hasAuthority('SCOPE_user.write')")
     public DuplicateResolveResultDTO resolveDuplicateGroups(UUID currentUserId,
                                                             UUID userDeckId,
                                                             DuplicateResolveRequest request) {
+        Instant now = Instant.now();
+        DuplicateResolutionPlan plan = transactionTemplate.execute(
+                status -> planDuplicateResolution(currentUserId, userDeckId, request, now)
+        );
+        if (plan == null || plan.duplicateIds().isEmpty()) {
+            int kept = plan == null ? 0 : plan.keptCards();
+            return new DuplicateResolveResultDTO(kept, 0, kept, false);
+        }
+        int deleted = softDeleteInChunks(currentUserId, userDeckId, plan.duplicateIds(), plan.survivorIds());
+        return new DuplicateResolveResultDTO(plan.keptCards(), deleted, plan.keptCards(), plan.globalApplied());
+    }
+
+    // Массовое удаление карт колоды; при survivorId SR-прогресс удаляемых карт переносится на неё
+    @PreAuthorize("hasAuthority('SCOPE_user.write')")
+    public BulkCardDeleteResultDTO deleteUserCards(UUID currentUserId,
+                                                   UUID userDeckId,
+                                                   BulkCardDeleteRequest request) {
+        if (request == null || request.cardIds() == null || request.cardIds().isEmpty()) {
+            throw new IllegalArgumentException("cardIds are required");
+        }
+        if (request.cardIds().size() > MAX_BULK_DELETE) {
+            throw new IllegalArgumentException("Too many cards in one request: max " + MAX_BULK_DELETE);
+        }
+        UserDeckEntity deck = userDeckRepository.findById(userDeckId)
+                .orElseThrow(() -> new IllegalArgumentException("User deck not found: " + userDeckId));
+        if (!deck.getUserId().equals(currentUserId)) {
+            throw new SecurityException("Access denied to deck " + userDeckId);
+        }
+        UUID survivorId = request.survivorId();
+        List<UUID> cardIds = request.cardIds().stream()
+                .filter(Objects::nonNull)
+                .filter(id -> !id.equals(survivorId))
+                .distinct()
+                .toList();
+        if (survivorId != null) {
+            List<UserCardEntity> survivor = userCardRepository.findByUserIdAndUserDeckIdAndUserCardIdIn(
+                    currentUserId,
+                    userDeckId,
+                    List.of(survivorId)
+            );
+            if (survivor.isEmpty() || survivor.getFirst().isDeleted()) {
+                throw new IllegalArgumentException("Survivor card not found: " + survivorId);
+            }
+        }
+        List<UUID> survivorIds = survivorId == null ? null : Collections.nCopies(cardIds.size(), survivorId);
+        int deleted = softDeleteInChunks(currentUserId, userDeckId, cardIds, survivorIds);
+        return new BulkCardDeleteResultDTO(cardIds.size(), deleted);
+    }
+
+    private DuplicateResolutionPlan planDuplicateResolution(UUID currentUserId,
+                                                            UUID userDeckId,
+                                                            DuplicateResolveRequest request,
+                                                            Instant now) {
         UserDeckEntity deck = userDeckRepository.findById(userDeckId)
                 .orElseThrow(() -> new IllegalArgumentException("User deck not found: " + userDeckId));
         if (!deck.getUserId().equals(currentUserId)) {
@@ -734,47 +1027,86 @@ public class CardService {
                         scoreFields.toArray(String[]::new)
                 );
         if (candidates.isEmpty()) {
-            return new DuplicateResolveResultDTO(0, 0, 0, false);
+            return new DuplicateResolutionPlan(0, List.of(), List.of(), false);
         }
 
-        List<UUID> toDelete = new ArrayList<>();
-        Set<UUID> kept = new HashSet<>();
+        List<UUID> duplicateIds = new ArrayList<>();
+        List<UUID> survivorIds = new ArrayList<>();
+        Set<UUID> duplicatePublicCardIds = new HashSet<>();
+        int kept = 0;
         Set<UUID> keptPublicCardIds = new HashSet<>();
         for (UserCardRepository.DuplicateResolutionProjection candidate : candidates) {
             if (candidate.getRn() == 1) {
-                kept.add(candidate.getUserCardId());
+                kept++;
                 if (candidate.getPublicCardId() != null) {
                     keptPublicCardIds.add(candidate.getPublicCardId());
                 }
             } else {
-                toDelete.add(candidate.getUserCardId());
+                duplicateIds.add(candidate.getUserCardId());
+                survivorIds.add(candidate.getSurvivorId());
+                if (candidate.getPublicCardId() != null) {
+                    duplicatePublicCardIds.add(candidate.getPublicCardId());
+                }
             }
         }
 
-        if (toDelete.isEmpty()) {
-            return new DuplicateResolveResultDTO(kept.size(), 0, kept.size(), false);
-        }
-
-        Instant now = Instant.now();
         boolean globalApplied = false;
-        if (globalRequested) {
-            List<UserCardEntity> deleteCards = userCardRepository.findByUserIdAndUserDeckIdAndUserCardIdIn(
-                    currentUserId,
-                    userDeckId,
-                    toDelete
-            );
+        if (globalRequested && !duplicateIds.isEmpty()) {
             globalApplied = applyGlobalDuplicateDeletion(
                     currentUserId,
                     deck,
                     keptPublicCardIds,
-                    deleteCards,
+                    duplicatePublicCardIds,
                     now,
                     request.operationId()
             );
         }
+        return new DuplicateResolutionPlan(kept, duplicateIds, survivorIds, globalApplied);
+    }
+
+    // Каждый чанк - одна транзакция: перенос SR-состояния одной вставкой и один update по user_cards.
+    // Время удаления берётся на чанк: лента изменений читает по updated_at, и общий штамп на весь
+    // прогон оказался бы далеко позади курсора к моменту коммита последних чанков
+    private int softDeleteInChunks(UUID currentUserId,
+                                   UUID userDeckId,
+                                   List<UUID> cardIds,
+                                   List<UUID> survivorIds) {
+        int deleted = 0;
+        for (int from = 0; from < cardIds.size(); from += BULK_CHUNK_SIZE) {
+            int to = Math.min(cardIds.size(), from + BULK_CHUNK_SIZE);
+            List<UUID> chunk = cardIds.subList(from, to);
+            List<UUID> chunkSurvivors = survivorIds == null ? null : survivorIds.subList(from, to);
+            Integer updated = transactionTemplate.execute(status -> {
+                if (chunkSurvivors != null) {
+                    transferReviewStates(currentUserId, userDeckId, chunk, chunkSurvivors);
+                }
+                return userCardRepository.markDeletedByIds(currentUserId, userDeckId, chunk, Instant.now());
+            });
+            deleted += updated == null ? 0 : updated;
+        }
+        return deleted;
+    }
 
-        userCardRepository.markDeletedByIds(currentUserId, userDeckId, toDelete, now);
-        return new DuplicateResolveResultDTO(kept.size(), toDelete.size(), kept.size(), globalApplied);
+    // Id источников приходят из запроса: переносим состояние только с живых карт этого пользователя в этой колоде
+    private void transferReviewStates(UUID currentUserId, UUID userDeckId, List<UUID> sourceIds, List<UUID> targetIds) {
+        Set<UUID> ownedSources = new HashSet<>(userCardRepository.findLiveCardIds(currentUserId, userDeckId, sourceIds));
+        List<UUID> sources = new ArrayList<>(sourceIds.size());
+        List<UUID> targets = new ArrayList<>(targetIds.size());
+        for (int i = 0; i < sourceIds.size(); i++) {
+            if (targetIds.get(i) != null && ownedSources.contains(sourceIds.get(i))) {
+                sources.add(sourceIds.get(i));
+                targets.add(targetIds.get(i));
+            }
+        }
+        if (!sources.isEmpty()) {
+            cardStateTransferPort.transferStates(sources, targets);
+        }
+    }
+
+    private record DuplicateResolutionPlan(int keptCards,
+                                           List<UUID> duplicateIds,
+                                           List<UUID> survivorIds,
+                                           boolean globalApplied) {
     }
 
     // Просмотр публичных карт колоды по deck_id + version (если version null, берём последнюю)
@@ -982,6 +1314,7 @@ public class CardService {
                 throw new SecurityException("Access denied to deck " + userDeckId);
             }
             validateNoExactDuplicateCustomCards(currentUserId, userDeckId, requests);
+            List<JsonNode> indexedContents = new ArrayList<>(requests.size());
             long offsetNanos = 0L;
             for (CreateCardRequest request : requests) {
                 validateTags(request.tags());
@@ -1005,7 +1338,10 @@ public class CardService {
                 );
 
                 result.add(toUserCardDTO(userCardRepository.save(userCard)));
+                indexedContents.add(content);
             }
+            cardFieldSignatureIndex.indexContents(indexedContents);
+            cardFieldPresenceIndex.refreshCards(userDeckId, result.stream().map(UserCardDTO::userCardId).toList());
             return result;
         }
 
@@ -1024,6 +1360,7 @@ public class CardService {
         // 2) Не автор: добавляем только кастомные карты
         if (!canManageAsAuthor) {
             validateNoExactDuplicateCustomCards(currentUserId, userDeckId, requests);
+            List<JsonNode> indexedContents = new ArrayList<>(requests.size());
             long offsetNanos = 0L;
             for (CreateCardRequest request : requests) {
                 validateTags(request.tags());
@@ -1047,15 +1384,18 @@ public class CardService {
                 );
 
                 result.add(toUserCardDTO(userCardRepository.save(userCard)));
+                indexedContents.add(content);
             }
+            cardFieldSignatureIndex.indexContents(indexedContents);
+            cardFieldPresenceIndex.refreshCards(userDeckId, result.stream().map(UserCardDTO::userCardId).toList());
             return result;
         }
 
     /*
-      3) Автор публичной колоды: создаём новую версию public_decks как immutable snapshot.
+      3) Автор публичной колоды: создаём новую версию public_decks.
       Ключевые правила:
       - created_at у public_decks должен отражать создание "логической колоды" и не меняться между версиями.
-      - public_cards в каждой версии содержат полный набор карт этой версии (snapshot).
+      - новая версия хранит только добавленные/изменённые карты, остальные наследуются из прошлых версий (valid_to).
       - checksum обязателен для корректного sync и вычисляется на сервере по content.
       - order_index для добавляемых карт выставляется в конец, чтобы не плодить коллизии 1/2, 1/2 и т.п.
      */
@@ -1086,12 +1426,12 @@ public class CardService {
                 maxOrderIndex = resolveMaxOrderIndex(publicDeckId, session.getTargetVersion());
                 targetDeck.setUpdatedAt(now);
                 publicDeckRepository.save(targetDeck);
+                publicDeckCatalogCache.invalidate();
                 session.setUpdatedAt(now);
                 deckUpdateSessionRepository.save(session);
             } else {
-                NewDeckVersion newVersion = createNewDeckVersion(latestDeck, now);
-                targetDeck = newVersion.deck();
-                maxOrderIndex = newVersion.maxOrderIndex();
+                targetDeck = createNewDeckVersion(latestDeck, now);
+                maxOrderIndex = resolveMaxOrderIndex(publicDeckId, targetDeck.getVersion());
                 deckUpdateSessionRepository.save(new DeckUpdateSessionEntity(
                         publicDeckId,
                         operationId,
@@ -1102,9 +1442,8 @@ public class CardService {
                 ));
             }
         } else {
-            NewDeckVersion newVersion = createNewDeckVersion(latestDeck, now);
-            targetDeck = newVersion.deck();
-            maxOrderIndex = newVersion.maxOrderIndex();
+            targetDeck = createNewDeckVersion(latestDeck, now);
+            maxOrderIndex = resolveMaxOrderIndex(publicDeckId, targetDeck.getVersion());
         }
 
         // Добавляем новые публичные карты в конец
@@ -1145,6 +1484,7 @@ public class CardService {
         userDeckRepository.save(userDeck);
 
         // Создаём user_cards для новых публичных карт (старые user_cards не трогаем)
+        List<JsonNode> indexedContents = new ArrayList<>(savedNewPublicCards.size() * 2);
         long offsetNanos = 0L;
         for (int i = 0; i < savedNewPublicCards.size(); i++) {
             PublicCardEntity publicCard = savedNewPublicCards.get(i);
@@ -1165,7 +1505,11 @@ public class CardService {
             );
 
             result.add(toUserCardDTO(userCardRepository.save(userCard)));
+            indexedContents.add(publicCard.getContent());
+            indexedContents.add(request.contentOverride());
         }
+        cardFieldSignatureIndex.indexContents(indexedContents);
+        cardFieldPresenceIndex.refreshCards(userDeckId, result.stream().map(UserCardDTO::userCardId).toList());
 
         return result;
     }
@@ -1180,7 +1524,8 @@ public class CardService {
         return addNewCardsToDeckBatch(deck.getUserId(), userDeckId, requests, operationId);
     }
 
-    private NewDeckVersion createNewDeckVersion(PublicDeckEntity latestDeck, Instant now) {
+    // Новая версия не копирует карты: до первой правки она видит строки предыдущих версий
+    private PublicDeckEntity createNewDeckVersion(PublicDeckEntity latestDeck, Instant now) {
         int newVersion = latestDeck.getVersion() + 1;
 
         PublicDeckEntity newDeckVersion = new PublicDeckEntity(
@@ -1202,47 +1547,40 @@ public class CardService {
                 latestDeck.getForkedFromDeck()
         );
 
-        PublicDeckEntity savedNewDeck = publicDeckRepository.save(newDeckVersion);
-
-        // Клонируем карты из предыдущей версии
-        List<PublicCardEntity> oldCards = publicCardRepository
-                .findByDeckIdAndDeckVersion(latestDeck.getDeckId(), latestDeck.getVersion());
-
-        List<PublicCardEntity> clonedOldCards = new ArrayList<>(oldCards.size());
-        int maxOrderIndex = 0;
-
-        for (PublicCardEntity old : oldCards) {
-            Integer oi = old.getOrderIndex();
-            if (oi != null && oi > maxOrderIndex) {
-                maxOrderIndex = oi;
-            }
-
-            String checksum = normalizeChecksum(old.getChecksum());
-            if (checksum == null) {
-                checksum = computeChecksum(old.getContent());
-            }
-
-            PublicCardEntity clone = new PublicCardEntity(
-                    savedNewDeck.getDeckId(),
-                    savedNewDeck.getVersion(),
-                    savedNewDeck,
-                    old.getCardId(),
-                    old.getContent(),
-                    old.getOrderIndex(),
-                    old.getTags(),
-                    old.getCreatedAt(),
-                    old.getUpdatedAt(),
-                    old.isActive(),
-                    checksum
-            );
-            clonedOldCards.add(clone);
-        }
-
-        if (!clonedOldCards.isEmpty()) {
-            publicCardRepository.saveAll(clonedOldCards);
-        }
-
-        return new NewDeckVersion(savedNewDeck, maxOrderIndex);
+        PublicDeckEntity saved = publicDeckRepository.save(newDeckVersion);
+        publicDeckCatalogCache.invalidate();
+        return saved;
+    }
+
+    // Карта, унаследованная из прошлой версии, перед правкой получает свою строку в целевой версии
+    private PublicCardEntity reviseForVersion(PublicCardEntity live,
+                                              PublicDeckEntity targetDeck,
+                                              List<PublicCardEntity> writes) {
+        if (targetDeck.getVersion().equals(live.getDeckVersion())) {
+            writes.add(live);
+            return live;
+        }
+
+        live.setValidTo(targetDeck.getVersion());
+        writes.add(live);
+
+        String checksum = resolveChecksum(live);
+
+        PublicCardEntity revision = new PublicCardEntity(
+                targetDeck.getDeckId(),
+                targetDeck.getVersion(),
+                targetDeck,
+                live.getCardId(),
+                live.getContent(),
+                live.getOrderIndex(),
+                live.getTags(),
+                live.getCreatedAt(),
+                live.getUpdatedAt(),
+                live.isActive(),
+                checksum
+        );
+        writes.add(revision);
+        return revision;
     }
 
     private int resolveMaxOrderIndex(UUID deckId, Integer deckVersion) {
@@ -1250,9 +1588,6 @@ public class CardService {
         return maxOrderIndex == null ? 0 : maxOrderIndex;
     }
 
-    private record NewDeckVersion(PublicDeckEntity deck, int maxOrderIndex) {
-    }
-
     private void validateNoExactDuplicateCustomCards(UUID currentUserId,
                                                      UUID userDeckId,
                                                      List<CreateCardRequest> requests) {
@@ -1273,24 +1608,26 @@ public class CardService {
         validateNoExactDuplicateRequests(requests, false, existingChecksums);
     }
 
+    // Дубликаты в колоде ищутся по checksum_digest только для checksum из запроса
     private void validateNoExactDuplicatePublicCards(UUID publicDeckId,
                                                      Integer deckVersion,
                                                      List<CreateCardRequest> requests) {
+        String[] requestChecksums = requests.stream()
+                .map(CreateCardRequest::content)
+                .map(this::computeChecksum)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(String[]::new);
         Set<String> existingChecksums = new HashSet<>();
-        List<PublicCardEntity> existingCards = publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, deckVersion);
-        if (existingCards == null) {
-            existingCards = List.of();
-        }
-        for (PublicCardEntity card : existingCards) {
-            if (card == null || !card.isActive()) {
-                continue;
-            }
-            String checksum = normalizeChecksum(card.getChecksum());
-            if (checksum == null) {
-                checksum = computeChecksum(card.getContent());
-            }
-            if (checksum != null) {
-                existingChecksums.add(checksum);
+        if (requestChecksums.length > 0) {
+            for (PublicCardEntity card : publicCardRepository.findLiveByChecksums(publicDeckId, deckVersion, requestChecksums)) {
+                if (card == null || !card.isActive()) {
+                    continue;
+                }
+                String checksum = resolveChecksum(card);
+                if (checksum != null) {
+                    existingChecksums.add(checksum);
+                }
             }
         }
         validateNoExactDuplicateRequests(requests, true, existingChecksums);
@@ -1343,69 +1680,16 @@ public class CardService {
       Это делает checksum стабильным при разных порядках полей.
      */
     private String computeChecksum(JsonNode content) {
-        if (content == null || content.isNull()) {
-            return null;
-        }
-
-        JsonNode canonical = canonicalizeJson(content);
-
-        byte[] bytes;
-        try {
-            bytes = objectMapper.writeValueAsBytes(canonical);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to serialize card content for checksum", e);
-        }
-
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(bytes);
-            StringBuilder sb = new StringBuilder(digest.length * 2);
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (Exception e) {
-            throw new IllegalStateException("SHA-256 not available", e);
-        }
+        return CardChecksums.compute(objectMapper, content);
     }
 
-    private JsonNode canonicalizeJson(JsonNode node) {
-        if (node == null || node.isNull()) {
-            return NullNode.getInstance();
-        }
-
-        if (node.isObject()) {
-            ObjectNode obj = (ObjectNode) node;
-            ObjectNode out = JsonNodeFactory.instance.objectNode();
-
-            List<String> names = new ArrayList<>();
-            obj.fieldNames().forEachRemaining(names::add);
-            Collections.sort(names);
-
-            for (String name : names) {
-                out.set(name, canonicalizeJson(obj.get(name)));
-            }
-            return out;
-        }
-
-        if (node.isArray()) {
-            ArrayNode arr = (ArrayNode) node;
-            ArrayNode out = JsonNodeFactory.instance.arrayNode();
-            for (JsonNode el : arr) {
-                out.add(canonicalizeJson(el));
-            }
-            return out;
-        }
-
-        return node;
+    private String normalizeChecksum(String checksum) {
+        return CardChecksums.normalize(checksum);
     }
 
-    private String normalizeChecksum(String checksum) {
-        if (checksum == null) {
-            return null;
-        }
-        String s = checksum.trim();
-        return s.isEmpty() ? null : s;
+    private String resolveChecksum(PublicCardEntity card) {
+        String checksum = normalizeChecksum(card.getChecksum());
+        return checksum != null ? checksum : computeChecksum(card.getContent());
     }
 
 
@@ -1461,6 +1745,8 @@ public class CardService {
         card.setUpdatedAt(Instant.now());
 
         UserCardEntity saved = userCardRepository.save(card);
+        cardFieldSignatureIndex.indexContents(Collections.singletonList(dto.effectiveContent()));
+        cardFieldPresenceIndex.refreshCards(userDeckId, List.of(saved.getUserCardId()));
         return toUserCardDTO(saved);
     }
 
@@ -1511,21 +1797,30 @@ public class CardService {
 
         if (operationId != null) {
             Instant now = Instant.now();
-            GlobalUpdateContext updateContext = resolveGlobalUpdateContext(currentUserId, userDeck, latestDeck, operationId, now);
-            PublicCardEntity targetCard = resolveTargetUpdateCard(updateContext.cards(), card.getPublicCardId(), targetChecksum);
+            PublicDeckEntity targetDeck = resolveGlobalUpdateDeck(currentUserId, userDeck, latestDeck, operationId, now);
+            PublicCardEntity targetCard = resolveTargetUpdateCard(
+                    publicDeckId,
+                    targetDeck.getVersion(),
+                    card.getPublicCardId(),
+                    targetChecksum
+            );
             String[] updatedTags = dto.tags() != null ? dto.tags() : targetCard.getTags();
             validateTags(updatedTags);
             String updatedChecksum = computeChecksum(updatedContent);
 
-            targetCard.setContent(updatedContent);
-            targetCard.setTags(updatedTags);
-            targetCard.setChecksum(updatedChecksum);
-            targetCard.setUpdatedAt(now);
-            publicCardRepository.save(targetCard);
+            List<PublicCardEntity> writes = new ArrayList<>(2);
+            PublicCardEntity revision = reviseForVersion(targetCard, targetDeck, writes);
+            revision.setContent(updatedContent);
+            revision.setTags(updatedTags);
+            revision.setChecksum(updatedChecksum);
+            revision.setUpdatedAt(now);
+            publicCardRepository.saveAll(writes);
+            cardFieldSignatureIndex.indexContents(List.of(updatedContent));
+            cardFieldPresenceIndex.invalidatePublicCard(targetCard.getCardId());
 
-            PublicDeckEntity targetDeck = updateContext.deck();
             targetDeck.setUpdatedAt(now);
             publicDeckRepository.save(targetDeck);
+            publicDeckCatalogCache.invalidate();
 
             card.setPersonalNote(dto.personalNote());
             card.setContentOverride(null);
@@ -1535,122 +1830,33 @@ public class CardService {
             card.setUpdatedAt(now);
 
             UserCardEntity saved = userCardRepository.save(card);
+            cardFieldPresenceIndex.refreshCards(userDeck.getUserDeckId(), List.of(saved.getUserCardId()));
             return toUserCardDTO(saved);
         }
 
-        List<PublicCardEntity> latestCards = publicCardRepository
-                .findByDeckIdAndDeckVersion(publicDeckId, latestDeck.getVersion());
-
-        UUID matchingCardId = null;
-        int checksumMatches = 0;
-        PublicCardEntity checksumMatchCard = null;
-        PublicCardEntity cardIdMatch = null;
-
-        for (PublicCardEntity pc : latestCards) {
-            if (pc.getCardId().equals(card.getPublicCardId())) {
-                matchingCardId = pc.getCardId();
-                cardIdMatch = pc;
-            }
-
-            String latestChecksum = normalizeChecksum(pc.getChecksum());
-            if (latestChecksum == null) {
-                latestChecksum = computeChecksum(pc.getContent());
-            }
-
-            if (targetChecksum != null && targetChecksum.equals(latestChecksum)) {
-                checksumMatches++;
-                checksumMatchCard = pc;
-            }
-        }
-
-        boolean matchByCardId = matchingCardId != null;
-        if (!matchByCardId) {
-            if (targetChecksum == null) {
-                throw new IllegalStateException("Public card checksum missing for update");
-            }
-            if (checksumMatches == 0) {
-                throw new IllegalStateException("Public card not found in latest version");
-            }
-            if (checksumMatches > 1) {
-                throw new IllegalStateException("Public card checksum is not unique in latest version");
-            }
-        }
-
-        PublicCardEntity targetLatestCard = matchByCardId ? cardIdMatch : checksumMatchCard;
-        if (targetLatestCard == null) {
-            throw new IllegalStateException("Public card not found in latest version");
-        }
+        PublicCardEntity targetLatestCard = resolveTargetUpdateCard(
+                publicDeckId,
+                latestDeck.getVersion(),
+                card.getPublicCardId(),
+                targetChecksum
+        );
 
         String[] updatedTags = dto.tags() != null ? dto.tags() : targetLatestCard.getTags();
         validateTags(updatedTags);
         String updatedChecksum = computeChecksum(updatedContent);
 
         Instant now = Instant.now();
-        int newVersion = latestDeck.getVersion() + 1;
-
-        PublicDeckEntity newDeckVersion = new PublicDeckEntity(
-                latestDeck.getDeckId(),
-                newVersion,
-                latestDeck.getAuthorId(),
-                latestDeck.getName(),
-                latestDeck.getDescription(),
-                latestDeck.getIconMediaId(),
-                latestDeck.getTemplateId(),
-                latestDeck.getTemplateVersion(),
-                latestDeck.isPublicFlag(),
-                latestDeck.isListed(),
-                latestDeck.getLanguageCode(),
-                latestDeck.getTags(),
-                latestDeck.getCreatedAt(),
-                now,
-                now,
-                latestDeck.getForkedFromDeck()
-        );
-
-        PublicDeckEntity savedNewDeck = publicDeckRepository.save(newDeckVersion);
-
-        List<PublicCardEntity> clonedCards = new ArrayList<>(latestCards.size());
-        PublicCardEntity updatedClone = null;
-
-        for (PublicCardEntity old : latestCards) {
-            String oldChecksum = normalizeChecksum(old.getChecksum());
-            if (oldChecksum == null) {
-                oldChecksum = computeChecksum(old.getContent());
-            }
-            boolean isTarget = matchByCardId
-                    ? old.getCardId().equals(matchingCardId)
-                    : targetChecksum != null && targetChecksum.equals(oldChecksum);
-
-            JsonNode content = isTarget ? updatedContent : old.getContent();
-            String[] tags = isTarget ? updatedTags : old.getTags();
-            String checksum = isTarget ? updatedChecksum : oldChecksum;
-
-            PublicCardEntity clone = new PublicCardEntity(
-                    savedNewDeck.getDeckId(),
-                    savedNewDeck.getVersion(),
-                    savedNewDeck,
-                    old.getCardId(),
-                    content,
-                    old.getOrderIndex(),
-                    tags,
-                    old.getCreatedAt(),
-                    isTarget ? now : old.getUpdatedAt(),
-                    old.isActive(),
-                    checksum
-            );
-            if (isTarget) {
-                updatedClone = clone;
-            }
-            clonedCards.add(clone);
-        }
-
-        if (!clonedCards.isEmpty()) {
-            publicCardRepository.saveAll(clonedCards);
-        }
-
-        if (updatedClone == null || updatedClone.getCardId() == null) {
-            throw new IllegalStateException("Failed to create updated public card");
-        }
+        PublicDeckEntity savedNewDeck = createNewDeckVersion(latestDeck, now);
+
+        // Новая версия получает одну строку - изменённую карту
+        List<PublicCardEntity> writes = new ArrayList<>(2);
+        PublicCardEntity updatedRevision = reviseForVersion(targetLatestCard, savedNewDeck, writes);
+        updatedRevision.setContent(updatedContent);
+        updatedRevision.setTags(updatedTags);
+        updatedRevision.setChecksum(updatedChecksum);
+        updatedRevision.setUpdatedAt(now);
+        publicCardRepository.saveAll(writes);
+        cardFieldSignatureIndex.indexContents(List.of(updatedContent));
 
         userDeck.setCurrentVersion(savedNewDeck.getVersion());
         userDeck.setTemplateVersion(savedNewDeck.getTemplateVersion());
@@ -1660,11 +1866,12 @@ public class CardService {
         card.setPersonalNote(dto.personalNote());
         card.setContentOverride(null);
         card.setDeleted(dto.isDeleted());
-        card.setPublicCardId(updatedClone.getCardId());
+        card.setPublicCardId(updatedRevision.getCardId());
         card.setTags(null);
         card.setUpdatedAt(now);
 
         UserCardEntity saved = userCardRepository.save(card);
+        cardFieldPresenceIndex.refreshCards(userDeck.getUserDeckId(), List.of(saved.getUserCardId()));
         return toUserCardDTO(saved);
     }
 
@@ -1722,15 +1929,15 @@ public class CardService {
         card.setDeleted(true);
         card.setUpdatedAt(now);
 
-        applyGlobalDuplicateDeletion(currentUserId, userDeck, Set.of(), List.of(card), now, operationId);
+        applyGlobalDuplicateDeletion(currentUserId, userDeck, Set.of(), Set.of(publicCardId), now, operationId);
         userCardRepository.save(card);
     }
 
-    private GlobalUpdateContext resolveGlobalUpdateContext(UUID currentUserId,
-                                                          UserDeckEntity deck,
-                                                          PublicDeckEntity latestDeck,
-                                                          UUID operationId,
-                                                          Instant now) {
+    private PublicDeckEntity resolveGlobalUpdateDeck(UUID currentUserId,
+                                                     UserDeckEntity deck,
+                                                     PublicDeckEntity latestDeck,
+                                                     UUID operationId,
+                                                     Instant now) {
         UUID publicDeckId = deck.getPublicDeckId();
         if (publicDeckId == null) {
             throw new IllegalStateException("Local deck has no public source");
@@ -1750,68 +1957,55 @@ public class CardService {
                     ));
             targetDeck.setUpdatedAt(now);
             publicDeckRepository.save(targetDeck);
+            publicDeckCatalogCache.invalidate();
             session.setUpdatedAt(now);
             deckUpdateSessionRepository.save(session);
-            List<PublicCardEntity> targetCards = publicCardRepository
-                    .findByDeckIdAndDeckVersion(publicDeckId, targetDeck.getVersion());
-            return new GlobalUpdateContext(targetDeck, targetCards);
+            return targetDeck;
         }
 
-        NewDeckVersion newVersion = createNewDeckVersion(latestDeck, now);
+        PublicDeckEntity newVersion = createNewDeckVersion(latestDeck, now);
         deckUpdateSessionRepository.save(new DeckUpdateSessionEntity(
                 publicDeckId,
                 operationId,
                 currentUserId,
-                newVersion.deck().getVersion(),
+                newVersion.getVersion(),
                 now,
                 now
         ));
-        deck.setCurrentVersion(newVersion.deck().getVersion());
-        deck.setTemplateVersion(newVersion.deck().getTemplateVersion());
+        deck.setCurrentVersion(newVersion.getVersion());
+        deck.setTemplateVersion(newVersion.getTemplateVersion());
         deck.setLastSyncedAt(now);
         userDeckRepository.save(deck);
-        List<PublicCardEntity> targetCards = publicCardRepository
-                .findByDeckIdAndDeckVersion(publicDeckId, newVersion.deck().getVersion());
-        return new GlobalUpdateContext(newVersion.deck(), targetCards);
+        return newVersion;
     }
 
-    private PublicCardEntity resolveTargetUpdateCard(List<PublicCardEntity> cards,
+    // Карта находится по card_id; если ссылка устарела - по checksum через индекс checksum_digest
+    private PublicCardEntity resolveTargetUpdateCard(UUID publicDeckId,
+                                                     Integer deckVersion,
                                                      UUID publicCardId,
                                                      String targetChecksum) {
-        PublicCardEntity cardIdMatch = null;
-        PublicCardEntity checksumMatchCard = null;
-        int checksumMatches = 0;
-
-        for (PublicCardEntity pc : cards) {
-            if (pc.getCardId().equals(publicCardId)) {
-                cardIdMatch = pc;
-            }
-            String checksum = normalizeChecksum(pc.getChecksum());
-            if (checksum == null) {
-                checksum = computeChecksum(pc.getContent());
-            }
-            if (targetChecksum != null && targetChecksum.equals(checksum)) {
-                checksumMatches++;
-                checksumMatchCard = pc;
-            }
-        }
-
+        PublicCardEntity cardIdMatch = publicCardRepository
+                .findLiveCard(publicDeckId, publicCardId, deckVersion)
+                .orElse(null);
         if (cardIdMatch != null) {
             return cardIdMatch;
         }
         if (targetChecksum == null) {
             throw new IllegalStateException("Public card checksum missing for update");
         }
-        if (checksumMatches == 0) {
+
+        List<PublicCardEntity> checksumMatches = publicCardRepository
+                .findLiveByChecksums(publicDeckId, deckVersion, new String[]{targetChecksum})
+                .stream()
+                .filter(pc -> targetChecksum.equals(resolveChecksum(pc)))
+                .toList();
+        if (checksumMatches.isEmpty()) {
             throw new IllegalStateException("Public card not found in latest version");
         }
-        if (checksumMatches > 1) {
+        if (checksumMatches.size() > 1) {
             throw new IllegalStateException("Public card checksum is not unique in latest version");
         }
-        if (checksumMatchCard == null) {
-            throw new IllegalStateException("Public card not found in latest version");
-        }
-        return checksumMatchCard;
+        return checksumMatches.getFirst();
     }
 
     private List<String> resolveScoreFields(UserDeckEntity deck, List<String> fallback) {
@@ -1849,10 +2043,10 @@ public class CardService {
         return fieldType != CardFieldType.tags;
     }
 
-    private GlobalDeleteContext resolveGlobalDeleteContext(UUID currentUserId,
-                                                          UserDeckEntity deck,
-                                                          UUID operationId,
-                                                          Instant now) {
+    private PublicDeckEntity resolveGlobalDeleteDeck(UUID currentUserId,
+                                                     UserDeckEntity deck,
+                                                     UUID operationId,
+                                                     Instant now) {
         UUID publicDeckId = deck.getPublicDeckId();
         if (publicDeckId == null) {
             throw new IllegalStateException("Local deck has no public source");
@@ -1879,46 +2073,40 @@ public class CardService {
                         ));
                 session.setUpdatedAt(now);
                 deckUpdateSessionRepository.save(session);
-                List<PublicCardEntity> targetCards = publicCardRepository
-                        .findByDeckIdAndDeckVersion(publicDeckId, targetDeck.getVersion());
-                return new GlobalDeleteContext(targetDeck, targetCards);
+                return targetDeck;
             }
 
-            NewDeckVersion newVersion = createNewDeckVersion(latestDeck, now);
+            PublicDeckEntity newVersion = createNewDeckVersion(latestDeck, now);
             deckUpdateSessionRepository.save(new DeckUpdateSessionEntity(
                     publicDeckId,
                     operationId,
                     currentUserId,
-                    newVersion.deck().getVersion(),
+                    newVersion.getVersion(),
                     now,
                     now
             ));
-            deck.setCurrentVersion(newVersion.deck().getVersion());
-            deck.setTemplateVersion(newVersion.deck().getTemplateVersion());
+            deck.setCurrentVersion(newVersion.getVersion());
+            deck.setTemplateVersion(newVersion.getTemplateVersion());
             deck.setLastSyncedAt(now);
             userDeckRepository.save(deck);
-            List<PublicCardEntity> targetCards = publicCardRepository
-                    .findByDeckIdAndDeckVersion(publicDeckId, newVersion.deck().getVersion());
-            return new GlobalDeleteContext(newVersion.deck(), targetCards);
+            return newVersion;
         }
 
-        NewDeckVersion newVersion = createNewDeckVersion(latestDeck, now);
-        deck.setCurrentVersion(newVersion.deck().getVersion());
-        deck.setTemplateVersion(newVersion.deck().getTemplateVersion());
+        PublicDeckEntity newVersion = createNewDeckVersion(latestDeck, now);
+        deck.setCurrentVersion(newVersion.getVersion());
+        deck.setTemplateVersion(newVersion.getTemplateVersion());
         deck.setLastSyncedAt(now);
         userDeckRepository.save(deck);
-        List<PublicCardEntity> targetCards = publicCardRepository
-                .findByDeckIdAndDeckVersion(publicDeckId, newVersion.deck().getVersion());
-        return new GlobalDeleteContext(newVersion.deck(), targetCards);
+        return newVersion;
     }
 
     private boolean applyGlobalDuplicateDeletion(UUID currentUserId,
                                                  UserDeckEntity deck,
                                                  Set<UUID> keptPublicCardIds,
-                                                 List<UserCardEntity> deleteCards,
+                                                 Collection<UUID> deletePublicCardIds,
                                                  Instant now,
                                                  UUID operationId) {
-        if (deleteCards == null || deleteCards.isEmpty()) {
+        if (deletePublicCardIds == null || deletePublicCardIds.isEmpty()) {
             return false;
         }
 
@@ -1927,8 +2115,7 @@ public class CardService {
             throw new IllegalStateException("Local deck has no public source");
         }
 
-        Set<UUID> publicCardIdsToDeactivate = deleteCards.stream()
-                .map(UserCardEntity::getPublicCardId)
+        Set<UUID> publicCardIdsToDeactivate = deletePublicCardIds.stream()
                 .filter(Objects::nonNull)
                 .filter(cardId -> !keptPublicCardIds.contains(cardId))
                 .collect(Collectors.toSet());
@@ -1937,106 +2124,75 @@ public class CardService {
             return false;
         }
 
-        GlobalDeleteContext deleteContext = resolveGlobalDeleteContext(currentUserId, deck, operationId, now);
-        List<PublicCardEntity> targetCards = deleteContext.cards();
-        if (targetCards.isEmpty()) {
-            return false;
-        }
+        PublicDeckEntity targetDeck = resolveGlobalDeleteDeck(currentUserId, deck, operationId, now);
+        Integer targetVersion = targetDeck.getVersion();
 
+        // Живые в целевой версии карты находятся по card_id, устаревшие ссылки - по checksum через индекс
         Map<UUID, PublicCardEntity> targetByCardId = new HashMap<>();
-        Map<String, PublicCardEntity> targetByChecksum = new HashMap<>();
-        Set<String> duplicateChecksums = new HashSet<>();
-        Set<UUID> activeCardIds = new HashSet<>();
-
-        for (PublicCardEntity pc : targetCards) {
+        for (PublicCardEntity pc : publicCardRepository.findLiveCards(publicDeckId, publicCardIdsToDeactivate, targetVersion)) {
             targetByCardId.put(pc.getCardId(), pc);
-            if (pc.isActive()) {
-                activeCardIds.add(pc.getCardId());
-            }
-            String checksum = normalizeChecksum(pc.getChecksum());
-            if (checksum == null) {
-                checksum = computeChecksum(pc.getContent());
-            }
-            if (checksum == null) {
-                continue;
-            }
-            PublicCardEntity prev = targetByChecksum.putIfAbsent(checksum, pc);
-            if (prev != null) {
-                duplicateChecksums.add(checksum);
-            }
-        }
-
-        for (String dup : duplicateChecksums) {
-            targetByChecksum.remove(dup);
-        }
-
-        List<PublicCardEntity> linkedPublicCards = publicCardIdsToDeactivate.isEmpty()
-                ? List.of()
-                : publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(publicCardIdsToDeactivate);
-
-        Map<UUID, PublicCardEntity> linkedByCardId = new HashMap<>();
-        for (PublicCardEntity pc : linkedPublicCards) {
-            linkedByCardId.putIfAbsent(pc.getCardId(), pc);
         }
 
-        Set<UUID> deactivateCardIds = new HashSet<>();
-        for (UUID publicCardId : publicCardIdsToDeactivate) {
-            PublicCardEntity target = targetByCardId.get(publicCardId);
-            if (target != null) {
-                deactivateCardIds.add(publicCardId);
-                continue;
+        Set<UUID> staleCardIds = publicCardIdsToDeactivate.stream()
+                .filter(cardId -> !targetByCardId.containsKey(cardId))
+                .collect(Collectors.toSet());
+        if (!staleCardIds.isEmpty()) {
+            Map<UUID, PublicCardEntity> linkedByCardId = new HashMap<>();
+            for (PublicCardEntity pc : publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(staleCardIds)) {
+                linkedByCardId.putIfAbsent(pc.getCardId(), pc);
             }
 
-            PublicCardEntity linked = linkedByCardId.get(publicCardId);
-            if (linked == null) {
-                throw new IllegalArgumentException("Public card not found: " + publicCardId);
-            }
-            if (!linked.getDeckId().equals(publicDeckId)) {
-                throw new IllegalArgumentException("Public card does not belong to deck " + publicDeckId);
+            Set<String> staleChecksums = new HashSet<>();
+            for (UUID publicCardId : staleCardIds) {
+                PublicCardEntity linked = linkedByCardId.get(publicCardId);
+                if (linked == null) {
+                    throw new IllegalArgumentException("Public card not found: " + publicCardId);
+                }
+                if (!linked.getDeckId().equals(publicDeckId)) {
+                    throw new IllegalArgumentException("Public card does not belong to deck " + publicDeckId);
+                }
+                String checksum = resolveChecksum(linked);
+                if (checksum == null) {
+                    throw new IllegalStateException("Public card checksum missing for deletion");
+                }
+                staleChecksums.add(checksum);
             }
 
-            String checksum = normalizeChecksum(linked.getChecksum());
-            if (checksum == null) {
-                checksum = computeChecksum(linked.getContent());
-            }
-            if (checksum == null) {
-                throw new IllegalStateException("Public card checksum missing for deletion");
+            Map<String, List<PublicCardEntity>> matchesByChecksum = new HashMap<>();
+            for (PublicCardEntity pc : publicCardRepository.findLiveByChecksums(
+                    publicDeckId,
+                    targetVersion,
+                    staleChecksums.toArray(String[]::new)
+            )) {
+                String checksum = resolveChecksum(pc);
+                if (checksum != null) {
+                    matchesByChecksum.computeIfAbsent(checksum, key -> new ArrayList<>()).add(pc);
+                }
             }
-
-            PublicCardEntity match = targetByChecksum.get(checksum);
-            if (match == null) {
-                throw new IllegalStateException("Public card not found in latest version");
+            for (String checksum : staleChecksums) {
+                List<PublicCardEntity> matches = matchesByChecksum.get(checksum);
+                if (matches == null || matches.size() != 1) {
+                    throw new IllegalStateException("Public card not found in latest version");
+                }
+                PublicCardEntity match = matches.getFirst();
+                targetByCardId.put(match.getCardId(), match);
             }
-            deactivateCardIds.add(match.getCardId());
         }
 
-        deactivateCardIds.retainAll(activeCardIds);
-        if (deactivateCardIds.isEmpty()) {
-            return false;
-        }
-
-        boolean updated = false;
         List<PublicCardEntity> changed = new ArrayList<>();
-        for (PublicCardEntity card : targetCards) {
-            if (deactivateCardIds.contains(card.getCardId()) && card.isActive()) {
-                card.setActive(false);
-                card.setUpdatedAt(now);
-                updated = true;
-                changed.add(card);
+        for (PublicCardEntity card : targetByCardId.values()) {
+            if (card.isActive()) {
+                PublicCardEntity revision = reviseForVersion(card, targetDeck, changed);
+                revision.setActive(false);
+                revision.setUpdatedAt(now);
             }
         }
-
-        if (updated) {
-            publicCardRepository.saveAll(changed);
+        if (changed.isEmpty()) {
+            return false;
         }
 
-        return updated;
-    }
-
-    private record GlobalDeleteContext(PublicDeckEntity deck, List<PublicCardEntity> cards) {
-    }
-
-    private record GlobalUpdateContext(PublicDeckEntity deck, List<PublicCardEntity> cards) {
+        publicCardRepository.saveAll(changed);
+        return true;
     }
 
     // ==== Приватные мапперы и утилиты ==== //
@@ -17,13 +17,16 @@ import app.mnema.core.deck.repository.UserDeckRepository;
 import app.mnema.core.media.service.MediaResolveCache;
 import app.mnema.core.security.ContentAdminAccessService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
@@ -35,7 +38,10 @@ public class DeckService {
     private static final int MAX_DECK_NAME = 50;
     private static final int MAX_DECK_DESCRIPTION = 200;
     private static final int MAX_TAGS = 5;
+    private static final int MAX_PUBLIC_PAGE_SIZE = 50;
     private static final int MAX_TAG_LENGTH = 25;
+    private static final int SYNC_BATCH_SIZE = 500;
+    private static final UUID SYNC_KEYSET_START = new UUID(0L, 0L);
 
     private final UserDeckRepository userDeckRepository;
     private final UserCardRepository userCardRepository;
@@ -44,6 +50,8 @@ public class DeckService {
     private final CardTemplateRepository cardTemplateRepository;
     private final MediaResolveCache mediaResolveCache;
     private final ContentAdminAccessService contentAdminAccessService;
+    private final PublicDeckCatalogCache publicDeckCatalogCache;
+    private final TransactionTemplate readOnlyTx;
 
     public DeckService(UserDeckRepository userDeckRepository,
                        UserCardRepository userCardRepository,
@@ -51,7 +59,9 @@ public class DeckService {
                        PublicDeckRepository publicDeckRepository,
                        CardTemplateRepository cardTemplateRepository,
                        MediaResolveCache mediaResolveCache,
-                       ContentAdminAccessService contentAdminAccessService) {
+                       ContentAdminAccessService contentAdminAccessService,
+                       PublicDeckCatalogCache publicDeckCatalogCache,
+                       PlatformTransactionManager transactionManager) {
         this.userDeckRepository = userDeckRepository;
         this.userCardRepository = userCardRepository;
         this.publicCardRepository = publicCardRepository;
@@ -59,17 +69,33 @@ public class DeckService {
         this.cardTemplateRepository = cardTemplateRepository;
         this.mediaResolveCache = mediaResolveCache;
         this.contentAdminAccessService = contentAdminAccessService;
+        this.publicDeckCatalogCache = publicDeckCatalogCache;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
-    // Публичный каталог: только последние версии каждой публичной колоды
-    @Transactional(readOnly = true)
+    // Публичный каталог: только последние версии каждой публичной колоды.
+    // Страница берётся из кэша каталога, в Postgres (и за соединением) идём только на промахе
     public Page<PublicDeckDTO> getPublicDecksByPage(int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit);
-
-        Page<PublicDeckEntity> decksPage = publicDeckRepository.findLatestPublicVisibleDecks(pageable);
-        Map<UUID, String> iconUrls = resolveIconUrls(decksPage.getContent());
+        int pageSize = Math.max(1, Math.min(limit, MAX_PUBLIC_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(page - 1, pageSize);
+
+        PublicDeckCatalogCache.CatalogPage catalogPage = publicDeckCatalogCache.getPage(page, pageSize, () -> readOnlyTx.execute(status -> {
+            Page<PublicDeckEntity> decksPage = publicDeckRepository.findLatestPublicVisibleDecks(pageable);
+            List<PublicDeckDTO> content = decksPage.getContent().stream()
+                    .map(deck -> toPublicDeckDTO(deck, null))
+                    .toList();
+            return new PublicDeckCatalogCache.CatalogPage(content, decksPage.getTotalElements());
+        }));
+
+        Map<UUID, String> iconUrls = resolveIconUrls(catalogPage.content().stream()
+                .map(PublicDeckDTO::iconMediaId)
+                .toList());
+        List<PublicDeckDTO> content = catalogPage.content().stream()
+                .map(dto -> withIconUrl(dto, resolveIconUrl(iconUrls, dto.iconMediaId())))
+                .toList();
 
-        return decksPage.map(deck -> toPublicDeckDTO(deck, resolveIconUrl(iconUrls, deck.getIconMediaId())));
+        return new PageImpl<>(content, pageable, catalogPage.totalElements());
     }
 
     // Получить публичную колоду по deckId и опционально по версии
@@ -133,8 +159,12 @@ public class DeckService {
         return new DeckSizeDTO(userDeckId, cardsCount);
     }
 
-    @Transactional(readOnly = true)
     public DeckSizeDTO getPublicDeckSize(UUID deckId, Integer version) {
+        return publicDeckCatalogCache.getDeckSize(deckId, version,
+                () -> readOnlyTx.execute(status -> countPublicDeckCards(deckId, version)));
+    }
+
+    private DeckSizeDTO countPublicDeckCards(UUID deckId, Integer version) {
         PublicDeckEntity deck;
 
         if (version == null) {
@@ -189,6 +219,7 @@ public class DeckService {
         int templateVersion = resolveTemplateVersion(publicDeckDTO.templateId(), publicDeckDTO.templateVersion());
         PublicDeckEntity publicDeckEntity = toPublicDeckEntityForCreate(currentUserId, publicDeckDTO, templateVersion);
         PublicDeckEntity savedPublicDeck = publicDeckRepository.save(publicDeckEntity);
+        publicDeckCatalogCache.invalidate();
 
         UserDeckEntity userDeck = new UserDeckEntity(
                 currentUserId,
@@ -301,6 +332,7 @@ public class DeckService {
 
         if (canDeletePublic) {
             publicDeckRepository.deleteByDeckId(publicDeckId);
+            publicDeckCatalogCache.invalidate();
         }
     }
 
@@ -317,6 +349,7 @@ public class DeckService {
         deck.setPublicFlag(false);
         deck.setUpdatedAt(Instant.now());
         publicDeckRepository.save(deck);
+        publicDeckCatalogCache.invalidate();
     }
 
     // Ручной синк юзер-колоды на последнюю версию публичной колоды
@@ -339,7 +372,8 @@ public class DeckService {
 
       Модель данных:
       - public_decks хранит immutable версии колоды.
-      - public_cards хранит snapshot карт внутри каждой версии.
+      - public_cards хранит только изменения версии: строка действует с deck_version до valid_to,
+        карты версии N = последняя строка каждой карты на момент N.
       - card_id в public_cards стабилен для "логической карты" и повторяется между версиями.
       - user_cards ссылаются на public_cards через public_card_id = card_id и не знают deck_version.
 
@@ -360,6 +394,12 @@ public class DeckService {
       - checksum должен быть заполнен и детерминирован (на сервере).
       - Внутри одной версии checksum должен быть уникальным, иначе маппинг неоднозначен.
         При обнаружении дублей checksum мы не делаем rewire для таких checksum (fail-safe).
+
+      Инкрементальность:
+      - Строки public_cards с deck_version в (current_version, latest] и живые на latest - это change set
+        между версиями пользователя и последней: добавленные, изменённые и деактивированные карты.
+      - Sync обходит только этот change set батчами по SYNC_BATCH_SIZE (keyset по card_id),
+        а user_cards и checksum-совпадения подтягивает точечно для карт батча.
      */
 
         UUID publicDeckId = deck.getPublicDeckId();
@@ -381,131 +421,109 @@ public class DeckService {
             return toUserDeckDTO(userDeckRepository.save(deck));
         }
 
-        // 1) Последние публичные карты (берём только active)
-        List<PublicCardEntity> latestPublicCardsAll =
-                publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, latestVersion);
-
-        List<PublicCardEntity> latestPublicCards = new ArrayList<>();
-        for (PublicCardEntity pc : latestPublicCardsAll) {
-            if (pc.isActive()) {
-                latestPublicCards.add(pc);
+        // Legacy-колоды без current_version синхронизируются по всем картам latest версии
+        int fromVersion = deck.getCurrentVersion() == null ? 0 : deck.getCurrentVersion();
+        Set<UUID> linkedDuringSync = new HashSet<>();
+        UUID afterCardId = SYNC_KEYSET_START;
+        while (true) {
+            List<PublicCardEntity> changed = publicCardRepository.findChangedSince(
+                    publicDeckId,
+                    fromVersion,
+                    latestVersion,
+                    afterCardId,
+                    SYNC_BATCH_SIZE
+            );
+            if (changed.isEmpty()) {
+                break;
             }
+            applySyncBatch(currentUserId, deck, latestVersion, changed, linkedDuringSync, now);
+            if (changed.size() < SYNC_BATCH_SIZE) {
+                break;
+            }
+            afterCardId = changed.getLast().getCardId();
         }
 
-        // 2) Все user-cards колоды (включая deleted/suspended), чтобы не "воскрешать" скрытые карты
-        List<UserCardEntity> userCards = userCardRepository.findByUserDeckId(userDeckId);
+        // Обновляем только current_version, subscribed_version не трогаем
+        deck.setCurrentVersion(latestVersion);
+        deck.setTemplateVersion(latestTemplateVersion);
+        deck.setLastSyncedAt(now);
 
-        // 3) Собираем publicCardId из user-cards и подтягиваем соответствующие public-cards (чтобы получить их checksum)
-        List<UUID> linkedPublicCardIds = new ArrayList<>();
-        for (UserCardEntity uc : userCards) {
-            if (uc.getPublicCardId() != null) {
-                linkedPublicCardIds.add(uc.getPublicCardId());
-            }
-        }
+        deck = userDeckRepository.save(deck);
+        return toUserDeckDTO(deck);
+    }
 
-        List<PublicCardEntity> linkedPublicCards = linkedPublicCardIds.isEmpty()
-                ? List.of()
-                : publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(linkedPublicCardIds);
+    private void applySyncBatch(UUID currentUserId,
+                                UserDeckEntity deck,
+                                int latestVersion,
+                                List<PublicCardEntity> changed,
+                                Set<UUID> linkedDuringSync,
+                                Instant now) {
+        UUID userDeckId = deck.getUserDeckId();
+        UUID publicDeckId = deck.getPublicDeckId();
 
-        Map<UUID, PublicCardEntity> linkedByCardId = new HashMap<>();
-        for (PublicCardEntity pc : linkedPublicCards) {
-            linkedByCardId.putIfAbsent(pc.getCardId(), pc);
+        // 1) Карты батча, на которые у пользователя уже есть user_cards (включая deleted), не трогаем
+        List<UUID> changedCardIds = changed.stream().map(PublicCardEntity::getCardId).toList();
+        Set<UUID> linkedCardIds = new HashSet<>(linkedDuringSync);
+        for (UserCardEntity uc : userCardRepository.findByUserDeckIdAndPublicCardIdIn(userDeckId, changedCardIds)) {
+            linkedCardIds.add(uc.getPublicCardId());
         }
 
-        // checksum -> publicCard для latest версии (только уникальные checksum)
-        Map<String, PublicCardEntity> latestByChecksum = new HashMap<>();
-        Set<String> duplicateChecksums = new HashSet<>();
-
-        for (PublicCardEntity pc : latestPublicCards) {
-            String chk = normalizeChecksum(pc.getChecksum());
-            if (chk == null) {
+        List<PublicCardEntity> candidates = new ArrayList<>();
+        Set<String> candidateChecksums = new HashSet<>();
+        for (PublicCardEntity pc : changed) {
+            if (!pc.isActive() || linkedCardIds.contains(pc.getCardId())) {
                 continue;
             }
-            PublicCardEntity prev = latestByChecksum.putIfAbsent(chk, pc);
-            if (prev != null) {
-                duplicateChecksums.add(chk);
+            candidates.add(pc);
+            String chk = normalizeChecksum(pc.getChecksum());
+            if (chk != null) {
+                candidateChecksums.add(chk);
             }
         }
-        for (String dup : duplicateChecksums) {
-            latestByChecksum.remove(dup);
+        if (candidates.isEmpty()) {
+            return;
         }
 
-        // Все public_card_id, которые уже есть у пользователя
-        Set<UUID> existingLinkedPublicCardIds = new HashSet<>(linkedPublicCardIds);
-
-        // checksum, которые уже присутствуют у пользователя (включая deleted)
-        Set<String> knownChecksums = new HashSet<>();
-
-        // 4) Rewire
-        List<UserCardEntity> toUpdate = new ArrayList<>();
-        for (UserCardEntity uc : userCards) {
-            UUID oldPublicCardId = uc.getPublicCardId();
-            if (oldPublicCardId == null) {
-                continue;
-            }
-
-            PublicCardEntity oldPublic = linkedByCardId.get(oldPublicCardId);
-            if (oldPublic == null) {
-                continue;
-            }
-
-            if (uc.getTags() == null && oldPublic.getTags() != null) {
-                uc.setTags(oldPublic.getTags());
-            }
-
-            String chk = normalizeChecksum(oldPublic.getChecksum());
-            if (chk == null) {
-                continue;
-            }
-
-            knownChecksums.add(chk);
-
-            if (duplicateChecksums.contains(chk)) {
-                continue;
-            }
-
-            PublicCardEntity latestPublic = latestByChecksum.get(chk);
-            if (latestPublic == null) {
-                continue;
-            }
-
-            UUID newPublicCardId = latestPublic.getCardId();
-            if (newPublicCardId.equals(oldPublicCardId)) {
-                continue;
+        // 2) checksum -> user_cards, чья публичная карта имеет тот же checksum (кандидаты на rewire)
+        Map<String, Deque<UserCardRepository.LinkedChecksumProjection>> knownByChecksum = new HashMap<>();
+        Set<String> duplicateChecksums = new HashSet<>();
+        if (!candidateChecksums.isEmpty()) {
+            for (UserCardRepository.LinkedChecksumProjection known
+                    : userCardRepository.findLinkedByChecksums(
+                    userDeckId,
+                    publicDeckId,
+                    candidateChecksums.stream().sorted().toArray(String[]::new)
+            )) {
+                knownByChecksum.computeIfAbsent(known.getChecksum(), key -> new ArrayDeque<>()).add(known);
             }
-
-            if (existingLinkedPublicCardIds.contains(newPublicCardId)) {
-                continue;
+            if (!knownByChecksum.isEmpty()) {
+                duplicateChecksums.addAll(publicCardRepository.findDuplicateActiveChecksums(
+                        publicDeckId,
+                        latestVersion,
+                        knownByChecksum.keySet().stream().sorted().toArray(String[]::new)
+                ));
             }
-
-            uc.setPublicCardId(newPublicCardId);
-            uc.setUpdatedAt(now);
-
-            existingLinkedPublicCardIds.remove(oldPublicCardId);
-            existingLinkedPublicCardIds.add(newPublicCardId);
-
-            toUpdate.add(uc);
-        }
-
-        if (!toUpdate.isEmpty()) {
-            userCardRepository.saveAll(toUpdate);
         }
 
-        // 5) Add missing (только активные latest карты)
+        // 3) Rewire по уникальному checksum или добавление новой user_card
+        Map<UUID, UUID> rewireTargets = new LinkedHashMap<>();
         List<UserCardEntity> toInsert = new ArrayList<>();
-        for (PublicCardEntity pc : latestPublicCards) {
-            String chk = normalizeChecksum(pc.getChecksum());
-
-            if (chk != null && knownChecksums.contains(chk)) {
-                continue;
-            }
-
+        for (PublicCardEntity pc : candidates) {
             UUID cardId = pc.getCardId();
-            if (existingLinkedPublicCardIds.contains(cardId)) {
+            String chk = normalizeChecksum(pc.getChecksum());
+            Deque<UserCardRepository.LinkedChecksumProjection> known = chk == null ? null : knownByChecksum.get(chk);
+            if (known != null) {
+                if (!duplicateChecksums.contains(chk)) {
+                    UserCardRepository.LinkedChecksumProjection source = known.poll();
+                    if (source != null && !rewireTargets.containsKey(source.getUserCardId())) {
+                        rewireTargets.put(source.getUserCardId(), cardId);
+                        linkedDuringSync.add(cardId);
+                    }
+                }
                 continue;
             }
 
-            UserCardEntity newUserCard = new UserCardEntity(
+            toInsert.add(new UserCardEntity(
                     currentUserId,
                     userDeckId,
                     cardId,
@@ -516,23 +534,32 @@ public class DeckService {
                     null,
                     now,
                     null
-            );
+            ));
+            linkedDuringSync.add(cardId);
+        }
 
-            toInsert.add(newUserCard);
-            existingLinkedPublicCardIds.add(cardId);
+        if (!rewireTargets.isEmpty()) {
+            List<UserCardEntity> rewired = userCardRepository.findAllById(rewireTargets.keySet());
+            Map<UUID, PublicCardEntity> oldPublicByCardId = new HashMap<>();
+            List<UUID> oldPublicCardIds = rewired.stream().map(UserCardEntity::getPublicCardId).toList();
+            for (PublicCardEntity pc : publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(oldPublicCardIds)) {
+                oldPublicByCardId.putIfAbsent(pc.getCardId(), pc);
+            }
+            for (UserCardEntity uc : rewired) {
+                // Теги старой публичной карты сохраняем, чтобы rewire не менял то, что видит пользователь
+                PublicCardEntity oldPublic = oldPublicByCardId.get(uc.getPublicCardId());
+                if (uc.getTags() == null && oldPublic != null && oldPublic.getTags() != null) {
+                    uc.setTags(oldPublic.getTags());
+                }
+                uc.setPublicCardId(rewireTargets.get(uc.getUserCardId()));
+                uc.setUpdatedAt(now);
+            }
+            userCardRepository.saveAll(rewired);
         }
 
         if (!toInsert.isEmpty()) {
             userCardRepository.saveAll(toInsert);
         }
-
-        // 6) Обновляем только current_version, subscribed_version не трогаем
-        deck.setCurrentVersion(latestVersion);
-        deck.setTemplateVersion(latestTemplateVersion);
-        deck.setLastSyncedAt(now);
-
-        deck = userDeckRepository.save(deck);
-        return toUserDeckDTO(deck);
     }
 
     // Ручной синк шаблона пользовательской колоды на последнюю версию шаблона
@@ -624,6 +651,7 @@ public class DeckService {
         deck.setUpdatedAt(Instant.now());
 
         PublicDeckEntity saved = publicDeckRepository.save(deck);
+        publicDeckCatalogCache.invalidate();
         return toPublicDeckDTO(saved, null);
     }
 
@@ -834,13 +862,34 @@ public class DeckService {
         );
     }
 
-    private Map<UUID, String> resolveIconUrls(List<PublicDeckEntity> decks) {
-        if (decks == null || decks.isEmpty()) {
+    private PublicDeckDTO withIconUrl(PublicDeckDTO dto, String iconUrl) {
+        return new PublicDeckDTO(
+                dto.deckId(),
+                dto.version(),
+                dto.authorId(),
+                dto.name(),
+                dto.description(),
+                dto.iconMediaId(),
+                iconUrl,
+                dto.templateId(),
+                dto.templateVersion(),
+                dto.isPublic(),
+                dto.isListed(),
+                dto.language(),
+                dto.tags(),
+                dto.createdAt(),
+                dto.updatedAt(),
+                dto.publishedAt(),
+                dto.forkedFromDeck()
+        );
+    }
+
+    private Map<UUID, String> resolveIconUrls(List<UUID> iconMediaIds) {
+        if (iconMediaIds == null || iconMediaIds.isEmpty()) {
             return Map.of();
         }
 
-        List<UUID> mediaIds = decks.stream()
-                .map(PublicDeckEntity::getIconMediaId)
+        List<UUID> mediaIds = iconMediaIds.stream()
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
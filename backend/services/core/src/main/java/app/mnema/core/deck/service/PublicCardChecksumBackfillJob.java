@@ -0,0 +1,134 @@
+package app.mnema.core.deck.service;
+
+import app.mnema.core.deck.domain.entity.PublicCardEntity;
+import app.mnema.core.deck.repository.PublicCardRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Fills {@code checksum} for public cards written before checksums were guaranteed at write time
+ * (or stored in a non-canonical form), so every card becomes reachable through the
+ * {@code checksum_digest} index. Rows are claimed with {@code SKIP LOCKED} in keyset-ordered
+ * batches, so several replicas can run the job concurrently without overlapping. Each run resumes
+ * from the keyset position where the previous run stopped and wraps to the start only after reaching
+ * the end, so rows that cannot be filled never pin the job to the head of the table.
+ */
+@Service
+@ConditionalOnProperty(value = "app.core.checksum-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class PublicCardChecksumBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PublicCardChecksumBackfillJob.class);
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    private final PublicCardRepository publicCardRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private volatile Cursor resumeFrom = new Cursor(KEYSET_START, 0, KEYSET_START);
+
+    public PublicCardChecksumBackfillJob(PublicCardRepository publicCardRepository,
+                                         ObjectMapper objectMapper,
+                                         TransactionTemplate transactionTemplate,
+                                         @Value("${app.core.checksum-backfill.batch-size:500}") int batchSize,
+                                         @Value("${app.core.checksum-backfill.max-batches-per-run:20}") int maxBatches) {
+        this.publicCardRepository = publicCardRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.min(Math.max(batchSize, 1), 1000);
+        this.maxBatches = Math.max(maxBatches, 1);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.core.checksum-backfill.initial-delay-ms:30000}",
+            fixedDelayString = "${app.core.checksum-backfill.interval-ms:300000}"
+    )
+    public void run() {
+        try {
+            int filled = backfill();
+            if (filled > 0) {
+                log.info("Public card checksum backfill finished filled={}", filled);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Public card checksum backfill failed error={}", ex.getMessage());
+        }
+    }
+
+    int backfill() {
+        Cursor cursor = resumeFrom;
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Cursor from = cursor;
+            BatchResult result = transactionTemplate.execute(status -> backfillBatch(from));
+            if (result == null || result.claimed() == 0) {
+                cursor = new Cursor(KEYSET_START, 0, KEYSET_START);
+                break;
+            }
+            total += result.filled();
+            if (result.claimed() < batchSize) {
+                cursor = new Cursor(KEYSET_START, 0, KEYSET_START);
+                break;
+            }
+            cursor = result.last();
+        }
+        // Курсор живёт в памяти узла: после рестарта проход просто начнётся сначала
+        resumeFrom = cursor;
+        return total;
+    }
+
+    private BatchResult backfillBatch(Cursor from) {
+        List<PublicCardEntity> claimed = publicCardRepository.findMissingChecksumDigest(
+                from.deckId(),
+                from.deckVersion(),
+                from.cardId(),
+                batchSize
+        );
+        if (claimed.isEmpty()) {
+            return new BatchResult(0, 0, from);
+        }
+
+        List<PublicCardEntity> changed = new ArrayList<>(claimed.size());
+        for (PublicCardEntity card : claimed) {
+            String checksum;
+            try {
+                checksum = CardChecksums.compute(objectMapper, card.getContent());
+            } catch (IllegalStateException ex) {
+                log.warn("Public card checksum backfill skipped cardId={} error={}", card.getCardId(), ex.getMessage());
+                continue;
+            }
+            // Пустой контент не даёт checksum: строка остаётся позади курсора до следующего прохода
+            if (checksum == null || Objects.equals(checksum, card.getChecksum())) {
+                continue;
+            }
+            card.setChecksum(checksum);
+            changed.add(card);
+        }
+        if (!changed.isEmpty()) {
+            publicCardRepository.saveAll(changed);
+        }
+
+        PublicCardEntity last = claimed.getLast();
+        return new BatchResult(
+                claimed.size(),
+                changed.size(),
+                new Cursor(last.getDeckId(), last.getDeckVersion(), last.getCardId())
+        );
+    }
+
+    private record Cursor(UUID deckId, int deckVersion, UUID cardId) {
+    }
+
+    private record BatchResult(int claimed, int filled, Cursor last) {
+    }
+}
@@ -0,0 +1,126 @@
+package app.mnema.core.deck.service;
+
+import app.mnema.core.deck.domain.dto.DeckSizeDTO;
+import app.mnema.core.deck.domain.dto.PublicDeckDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/*
+  Кэш анонимного каталога публичных колод: страницы листинга и размеры колод.
+  Ключи включают поколение каталога; любая запись PublicDeckEntity после коммита выдаёт новое
+  поколение, и все узлы перестают видеть старые страницы без сканирования ключей в Redis.
+  Старые записи доживают свой TTL. Icon URL в кэш не попадают: они подписаны и истекают
+  отдельно, их резолвит MediaResolveCache.
+ */
+@Service
+public class PublicDeckCatalogCache {
+    private static final Logger log = LoggerFactory.getLogger(PublicDeckCatalogCache.class);
+
+    public static final String GENERATION_CACHE = "core-public-catalog";
+    public static final String PAGES_CACHE = "core-public-catalog-pages";
+    public static final String SIZES_CACHE = "core-public-deck-size";
+    private static final String GENERATION_KEY = "generation";
+
+    private final CacheManager cacheManager;
+
+    public PublicDeckCatalogCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public record CatalogPage(List<PublicDeckDTO> content, long totalElements) {
+    }
+
+    public CatalogPage getPage(int page, int limit, Supplier<CatalogPage> loader) {
+        String key = generation() + ":" + page + ":" + limit;
+        Cache cache = cacheManager.getCache(PAGES_CACHE);
+        CatalogPage cached = safeGet(cache, key, CatalogPage.class);
+        if (cached != null) {
+            return cached;
+        }
+        CatalogPage loaded = loader.get();
+        safePut(cache, key, loaded);
+        return loaded;
+    }
+
+    public DeckSizeDTO getDeckSize(UUID deckId, Integer version, Supplier<DeckSizeDTO> loader) {
+        String key = generation() + ":" + deckId + ":" + (version == null ? "latest" : version);
+        Cache cache = cacheManager.getCache(SIZES_CACHE);
+        DeckSizeDTO cached = safeGet(cache, key, DeckSizeDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        DeckSizeDTO loaded = loader.get();
+        safePut(cache, key, loaded);
+        return loaded;
+    }
+
+    // Вызывается из транзакции записи: новое поколение видно только после коммита,
+    // иначе параллельный читатель успеет закэшировать ещё незакоммиченное состояние под новым ключом
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rotateGeneration();
+                }
+            });
+            return;
+        }
+        rotateGeneration();
+    }
+
+    private String generation() {
+        Cache cache = cacheManager.getCache(GENERATION_CACHE);
+        String current = safeGet(cache, GENERATION_KEY, String.class);
+        if (current != null) {
+            return current;
+        }
+        String fresh = UUID.randomUUID().toString();
+        if (cache == null) {
+            return fresh;
+        }
+        try {
+            Cache.ValueWrapper existing = cache.putIfAbsent(GENERATION_KEY, fresh);
+            return existing != null && existing.get() instanceof String value ? value : fresh;
+        } catch (RuntimeException ex) {
+            log.warn("Cache put failed for {}: {}", GENERATION_CACHE, ex.getMessage());
+            return fresh;
+        }
+    }
+
+    private void rotateGeneration() {
+        safePut(cacheManager.getCache(GENERATION_CACHE), GENERATION_KEY, UUID.randomUUID().toString());
+    }
+
+    private <T> T safeGet(Cache cache, String key, Class<T> type) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get(key, type);
+        } catch (RuntimeException ex) {
+            log.warn("Cache get failed for {}: {}", cache.getName(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private void safePut(Cache cache, String key, Object value) {
+        if (cache == null || value == null) {
+            return;
+        }
+        try {
+            cache.put(key, value);
+        } catch (RuntimeException ex) {
+            log.warn("Cache put failed for {}: {}", cache.getName(), ex.getMessage());
+        }
+    }
+}
@@ -2,7 +2,10 @@ package app.mnema.core.deck.service;
 
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
 import app.mnema.core.deck.domain.dto.FieldTemplateDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchHitDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
+import app.mnema.core.deck.domain.dto.UserCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserDeckDTO;
 import app.mnema.core.deck.domain.entity.CardTemplateEntity;
 import app.mnema.core.deck.domain.entity.CardTemplateVersionEntity;
@@ -26,6 +29,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +43,8 @@ import java.util.stream.Collectors;
 @Service
 public class SearchService {
 
+    private static final int MAX_PAGE_LIMIT = 100;
+
     private final UserDeckRepository userDeckRepository;
     private final UserCardRepository userCardRepository;
     private final PublicCardRepository publicCardRepository;
@@ -81,12 +90,12 @@ public class SearchService {
 
     @Transactional(readOnly = true)
     @PreAuthorize("hasAuthority('SCOPE_user.read')")
-    public Page<UserCardDTO> searchUserCards(UUID currentUserId,
-                                             UUID userDeckId,
-                                             String query,
-                                             List<String> tags,
-                                             int page,
-                                             int limit) {
+    public UserCardSearchPageDTO searchUserCards(UUID currentUserId,
+                                                 UUID userDeckId,
+                                                 String query,
+                                                 List<String> tags,
+                                                 String cursor,
+                                                 int limit) {
         UserDeckEntity deck = userDeckRepository.findById(userDeckId)
                 .orElseThrow(() -> new IllegalArgumentException("User deck not found: " + userDeckId));
 
@@ -94,19 +103,57 @@ public class SearchService {
             throw new SecurityException("Access denied to deck " + userDeckId);
         }
 
-        Pageable pageable = toPageable(page, limit);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1");
+        }
         String normalizedQuery = normalizeQuery(query);
         String tagsCsv = normalizeTags(tags);
 
         if (normalizedQuery == null && tagsCsv == null) {
-            return Page.empty(pageable);
+            return new UserCardSearchPageDTO(List.of(), null);
         }
 
-        Page<UserCardEntity> cards = normalizedQuery == null
-                ? userCardRepository.searchUserCardsByTags(currentUserId, userDeckId, tagsCsv, pageable)
-                : userCardRepository.searchUserCards(currentUserId, userDeckId, normalizedQuery, tagsCsv, pageable);
+        // Keyset-страница без count: лишняя строка показывает, что есть продолжение
+        int pageSize = Math.min(limit, MAX_PAGE_LIMIT);
+        SearchCursor after = SearchCursor.decode(cursor);
+        List<UserCardRepository.SearchHitProjection> hits = normalizedQuery == null
+                ? userCardRepository.searchUserCardHitsByTags(
+                        currentUserId, userDeckId, tagsCsv, after.createdAt(), after.userCardId(), pageSize + 1)
+                : userCardRepository.searchUserCardHits(
+                        currentUserId, userDeckId, normalizedQuery, tagsCsv,
+                        after.rank(), after.createdAt(), after.userCardId(), pageSize + 1);
+
+        boolean hasMore = hits.size() > pageSize;
+        List<UserCardRepository.SearchHitProjection> pageHits = hasMore ? hits.subList(0, pageSize) : hits;
+        String nextCursor = hasMore ? SearchCursor.of(pageHits.getLast()).encode() : null;
+
+        return new UserCardSearchPageDTO(mapUserCards(loadInOrder(pageHits)), nextCursor);
+    }
 
-        return mapUserCardPage(cards);
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAuthority('SCOPE_user.read')")
+    public GlobalCardSearchPageDTO searchAllUserCards(UUID currentUserId,
+                                                     String query,
+                                                     String cursor,
+                                                     int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1");
+        }
+        String normalizedQuery = normalizeQuery(query);
+        if (normalizedQuery == null) {
+            return new GlobalCardSearchPageDTO(List.of(), null);
+        }
+
+        int pageSize = Math.min(limit, MAX_PAGE_LIMIT);
+        SearchCursor after = SearchCursor.decode(cursor);
+        List<UserCardRepository.GlobalSearchHitProjection> hits = userCardRepository.searchAllUserCardHits(
+                currentUserId, normalizedQuery, after.rank(), after.createdAt(), after.userCardId(), pageSize + 1);
+
+        boolean hasMore = hits.size() > pageSize;
+        List<UserCardRepository.GlobalSearchHitProjection> pageHits = hasMore ? hits.subList(0, pageSize) : hits;
+        String nextCursor = hasMore ? SearchCursor.of(pageHits.getLast()).encode() : null;
+
+        return new GlobalCardSearchPageDTO(mapGlobalHits(pageHits), nextCursor);
     }
 
     @Transactional(readOnly = true)
@@ -167,19 +214,59 @@ public class SearchService {
         return normalized.isEmpty() ? null : String.join(",", normalized);
     }
 
-    private Page<UserCardDTO> mapUserCardPage(Page<UserCardEntity> cardsPage) {
-        List<UserCardEntity> cards = cardsPage.getContent();
+    private List<UserCardEntity> loadInOrder(List<? extends UserCardRepository.SearchHitProjection> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = hits.stream().map(UserCardRepository.SearchHitProjection::getUserCardId).toList();
+        Map<UUID, UserCardEntity> byId = new HashMap<>();
+        for (UserCardEntity card : userCardRepository.findAllById(ids)) {
+            byId.put(card.getUserCardId(), card);
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<GlobalCardSearchHitDTO> mapGlobalHits(List<UserCardRepository.GlobalSearchHitProjection> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, UserCardDTO> cardsById = new HashMap<>();
+        for (UserCardDTO card : mapUserCards(loadInOrder(hits))) {
+            cardsById.put(card.userCardId(), card);
+        }
+
+        List<UUID> deckIds = hits.stream()
+                .map(UserCardRepository.GlobalSearchHitProjection::getUserDeckId)
+                .distinct()
+                .toList();
+        Map<UUID, String> deckNames = new HashMap<>();
+        for (UserDeckEntity deck : userDeckRepository.findAllById(deckIds)) {
+            deckNames.put(deck.getUserDeckId(), deck.getDisplayName());
+        }
+
+        return hits.stream()
+                .filter(hit -> cardsById.containsKey(hit.getUserCardId()))
+                .map(hit -> new GlobalCardSearchHitDTO(
+                        hit.getUserDeckId(),
+                        deckNames.get(hit.getUserDeckId()),
+                        cardsById.get(hit.getUserCardId()),
+                        hit.getRank() == null ? 0f : hit.getRank(),
+                        hit.getHighlight()
+                ))
+                .toList();
+    }
+
+    private List<UserCardDTO> mapUserCards(List<UserCardEntity> cards) {
         if (cards.isEmpty()) {
-            return new PageImpl<>(List.of(), cardsPage.getPageable(), cardsPage.getTotalElements());
+            return List.of();
         }
 
         Map<UUID, PublicCardEntity> publicCardsById = resolvePublicCards(cards);
 
-        List<UserCardDTO> dtoList = cards.stream()
+        return cards.stream()
                 .map(card -> toUserCardDTO(card, publicCardsById))
                 .toList();
-
-        return new PageImpl<>(dtoList, cardsPage.getPageable(), cardsPage.getTotalElements());
     }
 
     private Map<UUID, PublicCardEntity> resolvePublicCards(List<UserCardEntity> cards) {
@@ -356,4 +443,47 @@ public class SearchService {
                 entity.isArchived()
         );
     }
+
+    /*
+      Курсор поиска: позиция последней выданной карты в порядке (rank desc, created_at desc, id desc).
+      Для поиска только по тегам rank не участвует, в курсоре хранится +Infinity.
+     */
+    private record SearchCursor(float rank, Instant createdAt, UUID userCardId) {
+
+        private static final SearchCursor START = new SearchCursor(
+                Float.POSITIVE_INFINITY,
+                Instant.parse("9999-12-31T23:59:59Z"),
+                new UUID(-1L, -1L)
+        );
+
+        static SearchCursor of(UserCardRepository.SearchHitProjection hit) {
+            float rank = hit.getRank() == null ? Float.POSITIVE_INFINITY : hit.getRank();
+            return new SearchCursor(rank, hit.getCreatedAt(), hit.getUserCardId());
+        }
+
+        static SearchCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid search cursor");
+                }
+                return new SearchCursor(
+                        Float.parseFloat(parts[0]),
+                        Instant.parse(parts[1]),
+                        UUID.fromString(parts[2])
+                );
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+        }
+
+        String encode() {
+            String raw = rank + "|" + createdAt + "|" + userCardId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
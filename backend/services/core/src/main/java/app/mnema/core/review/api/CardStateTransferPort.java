@@ -0,0 +1,12 @@
+package app.mnema.core.review.api;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface CardStateTransferPort {
+
+    // Переносит SR-состояние с карт sourceIds на карты targetIds (списки параллельны).
+    // Из нескольких источников одной цели берётся самое «прорешанное» состояние; цель со своим
+    // более длинным прогрессом не перезаписывается. Возвращает число изменённых целей.
+    int transferStates(List<UUID> sourceIds, List<UUID> targetIds);
+}
@@ -53,7 +53,8 @@ public interface ReviewUserCardRepository extends JpaRepository<ReviewUserCardEn
             left join app_core.public_cards pc
               on pc.card_id = uc.public_card_id
              and pc.deck_id = ud.public_deck_id
-             and pc.deck_version = ud.current_version
+             and pc.deck_version <= ud.current_version
+             and (pc.valid_to is null or pc.valid_to > ud.current_version)
             where uc.subscription_id = :deckId
               and uc.user_id = :userId
               and uc.is_deleted = false
@@ -4,6 +4,7 @@ import app.mnema.core.review.entity.SrCardStateEntity;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -41,4 +42,45 @@ public interface SrCardStateRepository extends JpaRepository<SrCardStateEntity,
     long countPendingMigration(@Param("userId") UUID userId,
                                @Param("deckId") UUID deckId,
                                @Param("algorithmId") String algorithmId);
+
+    // Одна вставка на весь чанк: для каждой цели берём лучшее состояние среди её источников
+    @Modifying
+    @Query(value = """
+        with pairs as (
+            select p.source_id, p.target_id
+            from unnest(
+                cast(cast(:sourceIds as text[]) as uuid[]),
+                cast(cast(:targetIds as text[]) as uuid[])
+            ) as p(source_id, target_id)
+            where p.source_id <> p.target_id
+        ),
+        best as (
+            select distinct on (p.target_id)
+                p.target_id,
+                s.algorithm_id,
+                s.state,
+                s.last_review_at,
+                s.next_review_at,
+                s.review_count,
+                s.is_suspended
+            from pairs p
+            join app_core.sr_card_states s on s.user_card_id = p.source_id
+            order by p.target_id, s.review_count desc, s.last_review_at desc nulls last
+        )
+        insert into app_core.sr_card_states as t
+            (user_card_id, algorithm_id, state, last_review_at, next_review_at, review_count, is_suspended, row_version)
+        select b.target_id, b.algorithm_id, b.state, b.last_review_at, b.next_review_at, b.review_count, b.is_suspended, 0
+        from best b
+        on conflict (user_card_id) do update
+           set algorithm_id = excluded.algorithm_id,
+               state = excluded.state,
+               last_review_at = excluded.last_review_at,
+               next_review_at = excluded.next_review_at,
+               review_count = excluded.review_count,
+               is_suspended = excluded.is_suspended,
+               row_version = t.row_version + 1
+         where excluded.review_count > t.review_count
+        """, nativeQuery = true)
+    int transferToTargets(@Param("sourceIds") String[] sourceIds,
+                          @Param("targetIds") String[] targetIds);
 }
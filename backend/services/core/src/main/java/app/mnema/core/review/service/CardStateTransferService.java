@@ -0,0 +1,34 @@
+package app.mnema.core.review.service;
+
+import app.mnema.core.review.api.CardStateTransferPort;
+import app.mnema.core.review.repository.SrCardStateRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class CardStateTransferService implements CardStateTransferPort {
+
+    private final SrCardStateRepository srCardStateRepository;
+
+    public CardStateTransferService(SrCardStateRepository srCardStateRepository) {
+        this.srCardStateRepository = srCardStateRepository;
+    }
+
+    @Override
+    @Transactional
+    public int transferStates(List<UUID> sourceIds, List<UUID> targetIds) {
+        if (sourceIds == null || targetIds == null || sourceIds.isEmpty()) {
+            return 0;
+        }
+        if (sourceIds.size() != targetIds.size()) {
+            throw new IllegalArgumentException("sourceIds and targetIds must have the same size");
+        }
+        return srCardStateRepository.transferToTargets(
+                sourceIds.stream().map(UUID::toString).toArray(String[]::new),
+                targetIds.stream().map(UUID::toString).toArray(String[]::new)
+        );
+    }
+}
@@ -0,0 +1,32 @@
+-- Версии публичных колод хранят только изменения: строка public_cards действует
+-- с deck_version (включительно) до valid_to (не включительно), null - до сих пор.
+-- Карта колоды в версии N: deck_version <= N and (valid_to is null or valid_to > N).
+ALTER TABLE app_core.public_cards
+    ADD COLUMN IF NOT EXISTS valid_to INT;
+
+COMMENT ON COLUMN app_core.public_cards.valid_to IS 'Версия колоды, начиная с которой строка заменена новой (null - строка актуальна).';
+
+-- Исторические версии содержат полные копии, поэтому каждая строка действует ровно одну версию,
+-- кроме строк последней версии колоды.
+UPDATE app_core.public_cards pc
+SET valid_to = pc.deck_version + 1
+FROM (
+    SELECT deck_id, max(version) AS latest_version
+    FROM app_core.public_decks
+    GROUP BY deck_id
+) latest
+WHERE pc.deck_id = latest.deck_id
+  AND pc.deck_version < latest.latest_version
+  AND pc.valid_to IS NULL;
+
+ALTER TABLE app_core.public_cards
+    ADD CONSTRAINT ck_public_cards_valid_to CHECK (valid_to IS NULL OR valid_to > deck_version);
+
+-- Разрешение "карта на версию N" для join с user_cards и поиска строки карты
+CREATE INDEX IF NOT EXISTS idx_public_cards_card_version
+    ON app_core.public_cards (card_id, deck_version);
+
+-- Актуальный срез колоды
+CREATE INDEX IF NOT EXISTS idx_public_cards_deck_current
+    ON app_core.public_cards (deck_id, order_index)
+    WHERE valid_to IS NULL;
@@ -0,0 +1,24 @@
+-- Бинарный checksum фиксированной ширины (32 байта SHA-256) для точечного поиска карты по контенту.
+-- Колонка вычисляется из checksum, поэтому не может разойтись с ним; строки без checksum
+-- или с нестандартным значением получают null и дозаполняются фоновым backfill-джобом.
+ALTER TABLE app_core.public_cards
+    ADD COLUMN IF NOT EXISTS checksum_digest BYTEA
+        GENERATED ALWAYS AS (
+            CASE WHEN checksum ~ '^[0-9a-f]{64}$' THEN decode(checksum, 'hex') END
+        ) STORED;
+
+COMMENT ON COLUMN app_core.public_cards.checksum_digest IS 'SHA-256 контента карты в бинарном виде (generated из checksum).';
+
+-- Поиск карты версии N по checksum: равенство по (deck_id, checksum_digest), затем диапазон deck_version.
+-- Порядок колонок выбран под delta-версии: строка, живая на N, может быть записана в любой версии <= N.
+CREATE INDEX IF NOT EXISTS idx_public_cards_deck_checksum_digest
+    ON app_core.public_cards (deck_id, checksum_digest, deck_version)
+    INCLUDE (valid_to, is_active);
+
+-- Очередь backfill: строки, которые ещё не находятся по индексу
+CREATE INDEX IF NOT EXISTS idx_public_cards_checksum_digest_missing
+    ON app_core.public_cards (deck_id, deck_version, card_id)
+    WHERE checksum_digest IS NULL;
+
+-- Текстовый индекс по checksum заменён бинарным
+DROP INDEX IF EXISTS app_core.idx_public_cards_deck_ver_checksum;
@@ -0,0 +1,36 @@
+-- Поисковые документы карт предвычислены и хранятся рядом с источником: to_tsvector больше
+-- не считается для каждой строки на каждый запрос. Документ разделён на публичную часть
+-- (строка public_cards) и пользовательскую (override + заметка), чтобы новая версия колоды
+-- или синк не требовали переписывать документы всех подписчиков.
+ALTER TABLE app_core.public_cards
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (
+            to_tsvector('simple'::regconfig, coalesce(content::text, ''))
+        ) STORED;
+
+COMMENT ON COLUMN app_core.public_cards.search_vector IS 'Полнотекстовый документ контента карты (generated).';
+
+ALTER TABLE app_core.user_cards
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (
+            to_tsvector('simple'::regconfig, coalesce(content_override::text, ''))
+            || to_tsvector('simple'::regconfig, coalesce(personal_note, ''))
+        ) STORED;
+
+COMMENT ON COLUMN app_core.user_cards.search_vector IS 'Полнотекстовый документ override и заметки пользователя (generated).';
+
+CREATE INDEX IF NOT EXISTS idx_public_cards_search_vector
+    ON app_core.public_cards USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_user_cards_search_vector
+    ON app_core.user_cards USING GIN (search_vector);
+
+-- Keyset-страницы поиска внутри колоды (order by created_at desc, user_card_id desc)
+CREATE INDEX IF NOT EXISTS idx_user_cards_deck_created_keyset
+    ON app_core.user_cards (subscription_id, created_at DESC, user_card_id DESC)
+    WHERE is_deleted = false;
+
+-- Выражения из V14 заменены колонками search_vector, индексы по ним больше не используются
+DROP INDEX IF EXISTS app_core.ix_public_cards_content_fts;
+DROP INDEX IF EXISTS app_core.ix_user_cards_content_override_fts;
+DROP INDEX IF EXISTS app_core.ix_user_cards_personal_note_fts;
@@ -0,0 +1,12 @@
+-- MinHash-сигнатуры значений полей карт для поиска почти-дубликатов (LSH).
+-- Ключ - md5 от значения поля, поэтому таблица общая для всех колод и пользователей:
+-- одинаковый текст считается один раз, а правка карты просто даёт новый ключ.
+-- Сигнатура карты по набору полей - поэлементный минимум сигнатур этих полей.
+CREATE TABLE IF NOT EXISTS app_core.card_field_signatures (
+    value_hash TEXT PRIMARY KEY,
+    signature BYTEA NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+COMMENT ON TABLE app_core.card_field_signatures IS 'MinHash-сигнатуры значений полей карт, ключ - md5 значения.';
+COMMENT ON COLUMN app_core.card_field_signatures.signature IS '64 x int32 big-endian, минимумы хэшей триграмм нормализованного текста.';
@@ -0,0 +1,22 @@
+-- Битовая карта заполненных полей: бит i соответствует i-му полю шаблона колоды
+-- (порядок order_index, name), поле считается заполненным так же, как в запросах
+-- missing fields: непустое значение или mediaId в override либо в видимой версии публичной карты.
+-- Вместе с картой хранится, для какой версии колоды и раскладки полей она посчитана:
+-- после синка или смены шаблона строки считаются устаревшими и пересчитываются пачками.
+ALTER TABLE app_core.user_cards
+    ADD COLUMN IF NOT EXISTS field_presence BIGINT,
+    ADD COLUMN IF NOT EXISTS field_presence_version INTEGER,
+    ADD COLUMN IF NOT EXISTS field_presence_layout INTEGER;
+
+COMMENT ON COLUMN app_core.user_cards.field_presence IS 'Битовая карта заполненных полей шаблона (до 64 полей), NULL - не посчитана.';
+COMMENT ON COLUMN app_core.user_cards.field_presence_version IS 'Версия публичной колоды, по контенту которой посчитана field_presence.';
+COMMENT ON COLUMN app_core.user_cards.field_presence_layout IS 'Хэш упорядоченного списка полей шаблона, задающего биты field_presence.';
+
+-- Те же ключи, что у keyset-индекса из V28, плюс битовая карта в INCLUDE: подсчёт и выборка
+-- карт без поля идут index-only сканом по колоде без чтения jsonb и join с public_cards
+CREATE INDEX IF NOT EXISTS idx_user_cards_deck_field_presence
+    ON app_core.user_cards (subscription_id, created_at DESC, user_card_id DESC)
+    INCLUDE (user_id, field_presence, field_presence_version, field_presence_layout)
+    WHERE is_deleted = false;
+
+DROP INDEX IF EXISTS app_core.idx_user_cards_deck_created_keyset;
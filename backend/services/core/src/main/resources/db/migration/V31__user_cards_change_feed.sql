@@ -0,0 +1,4 @@
+-- Лента изменений карт колоды (GET /internal/decks/{id}/cards/changes): keyset по времени
+-- последнего изменения и id, удалённые карты входят в ленту, поэтому индекс без фильтра по is_deleted
+CREATE INDEX IF NOT EXISTS idx_user_cards_deck_changed
+    ON app_core.user_cards (subscription_id, (coalesce(updated_at, created_at)), user_card_id);
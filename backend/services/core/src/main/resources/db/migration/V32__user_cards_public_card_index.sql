@@ -0,0 +1,5 @@
+-- Правка публичной карты внутри сессии сбрасывает field_presence у всех её подписчиков:
+-- без индекса по public_card_id такой update читал бы всю user_cards
+CREATE INDEX IF NOT EXISTS idx_user_cards_public_card
+    ON app_core.user_cards (public_card_id)
+    WHERE public_card_id IS NOT NULL;
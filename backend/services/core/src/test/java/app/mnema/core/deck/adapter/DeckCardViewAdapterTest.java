@@ -15,7 +15,12 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -27,7 +32,7 @@ class DeckCardViewAdapterTest {
     void getCardViewsReturnsEmptyForEmptyInput() {
         UserCardRepository userCardRepository = mock(UserCardRepository.class);
         PublicCardRepository publicCardRepository = mock(PublicCardRepository.class);
-        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
 
         assertThat(adapter.getCardViews(UUID.randomUUID(), List.of())).isEmpty();
         verifyNoInteractions(userCardRepository, publicCardRepository);
@@ -42,7 +47,7 @@ class DeckCardViewAdapterTest {
         PublicCardRepository publicCardRepository = mock(PublicCardRepository.class);
         when(userCardRepository.findAllById(List.of(userCardId))).thenReturn(List.of(card));
 
-        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
 
         var result = adapter.getCardViews(userId, List.of(userCardId));
 
@@ -68,7 +73,7 @@ class DeckCardViewAdapterTest {
         when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(java.util.Set.of(publicCardId)))
                 .thenReturn(List.of(latest, older));
 
-        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
 
         var result = adapter.getCardViews(userId, List.of(userCardId));
 
@@ -79,6 +84,67 @@ class DeckCardViewAdapterTest {
         });
     }
 
+    @Test
+    void getCardViewsLoadsVisibleVersionOnceAndServesItFromSharedCache() {
+        UUID publicCardId = UUID.randomUUID();
+        ObjectNode base = object("front", "Shared");
+        PublicCardEntity visible = publicCard(publicCardId, 3, base);
+        UserCardRepository userCardRepository = mock(UserCardRepository.class);
+        PublicCardRepository publicCardRepository = mock(PublicCardRepository.class);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
+
+        UUID firstUser = UUID.randomUUID();
+        UUID firstCardId = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        UUID secondCardId = UUID.randomUUID();
+        when(userCardRepository.findAllById(List.of(firstCardId)))
+                .thenReturn(List.of(userCard(firstUser, firstCardId, publicCardId, false, false, null)));
+        when(userCardRepository.findAllById(List.of(secondCardId)))
+                .thenReturn(List.of(userCard(secondUser, secondCardId, publicCardId, false, false, object("back", "Mine"))));
+        when(publicCardRepository.findVisibleVersionsForUserCards(List.of(firstCardId)))
+                .thenReturn(List.of(version(firstCardId, publicCardId, 3, "checksum")));
+        when(publicCardRepository.findVisibleVersionsForUserCards(List.of(secondCardId)))
+                .thenReturn(List.of(version(secondCardId, publicCardId, 3, "checksum")));
+        when(publicCardRepository.findByCardVersions(new String[]{publicCardId.toString()}, new String[]{"3"}))
+                .thenReturn(List.of(visible));
+
+        var first = adapter.getCardViews(firstUser, List.of(firstCardId));
+        var second = adapter.getCardViews(secondUser, List.of(secondCardId));
+
+        assertThat(first.getFirst().effectiveContent()).isSameAs(base);
+        assertThat(second.getFirst().effectiveContent().path("front").asText()).isEqualTo("Shared");
+        assertThat(second.getFirst().effectiveContent().path("back").asText()).isEqualTo("Mine");
+        assertThat(base.has("back")).isFalse();
+        verify(publicCardRepository, times(1)).findByCardVersions(any(String[].class), any(String[].class));
+        verify(publicCardRepository, never()).findAllByCardIdInOrderByDeckVersionDesc(anyCollection());
+    }
+
+    @Test
+    void getCardViewsReloadsCachedVersionWhenChecksumChanged() {
+        UUID userId = UUID.randomUUID();
+        UUID userCardId = UUID.randomUUID();
+        UUID publicCardId = UUID.randomUUID();
+        UserCardRepository userCardRepository = mock(UserCardRepository.class);
+        PublicCardRepository publicCardRepository = mock(PublicCardRepository.class);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
+        PublicCardEntity edited = publicCard(publicCardId, 2, object("front", "Edited"));
+        edited.setChecksum("after");
+
+        when(userCardRepository.findAllById(List.of(userCardId)))
+                .thenReturn(List.of(userCard(userId, userCardId, publicCardId, false, false, null)));
+        when(publicCardRepository.findVisibleVersionsForUserCards(List.of(userCardId)))
+                .thenReturn(List.of(version(userCardId, publicCardId, 2, "checksum")))
+                .thenReturn(List.of(version(userCardId, publicCardId, 2, "after")));
+        when(publicCardRepository.findByCardVersions(new String[]{publicCardId.toString()}, new String[]{"2"}))
+                .thenReturn(List.of(publicCard(publicCardId, 2, object("front", "Draft"))))
+                .thenReturn(List.of(edited));
+
+        assertThat(adapter.getCardViews(userId, List.of(userCardId)).getFirst().effectiveContent().path("front").asText())
+                .isEqualTo("Draft");
+        assertThat(adapter.getCardViews(userId, List.of(userCardId)).getFirst().effectiveContent().path("front").asText())
+                .isEqualTo("Edited");
+    }
+
     @Test
     void getCardViewsRejectsMissingForeignAndDeletedCards() {
         UUID userId = UUID.randomUUID();
@@ -89,7 +155,7 @@ class DeckCardViewAdapterTest {
         PublicCardRepository publicCardRepository = mock(PublicCardRepository.class);
 
         when(userCardRepository.findAllById(List.of(userCardId))).thenReturn(List.of());
-        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
         assertThatThrownBy(() -> adapter.getCardViews(userId, List.of(userCardId)))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("User card not found");
@@ -118,7 +184,7 @@ class DeckCardViewAdapterTest {
         when(userCardRepository.findAllById(List.of(userCardId))).thenReturn(List.of(card));
         when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(java.util.Set.of(publicCardId))).thenReturn(List.of());
 
-        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository);
+        DeckCardViewAdapter adapter = new DeckCardViewAdapter(userCardRepository, publicCardRepository, new PublicCardContentCache(100));
 
         assertThatThrownBy(() -> adapter.getCardViews(userId, List.of(userCardId)))
                 .isInstanceOf(IllegalStateException.class)
@@ -158,6 +224,30 @@ class DeckCardViewAdapterTest {
         );
     }
 
+    private static PublicCardRepository.CardVersionProjection version(UUID userCardId, UUID cardId, int deckVersion, String checksum) {
+        return new PublicCardRepository.CardVersionProjection() {
+            @Override
+            public UUID getUserCardId() {
+                return userCardId;
+            }
+
+            @Override
+            public UUID getCardId() {
+                return cardId;
+            }
+
+            @Override
+            public Integer getDeckVersion() {
+                return deckVersion;
+            }
+
+            @Override
+            public String getChecksum() {
+                return checksum;
+            }
+        };
+    }
+
     private static ObjectNode object(String key, String value) {
         ObjectNode node = MAPPER.createObjectNode();
         node.put(key, value);
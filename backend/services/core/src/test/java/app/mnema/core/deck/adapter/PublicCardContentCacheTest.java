@@ -0,0 +1,45 @@
+package app.mnema.core.deck.adapter;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicCardContentCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        PublicCardContentCache cache = new PublicCardContentCache(2);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        cache.put(first, 1, "a", content("first"));
+        cache.put(second, 1, "b", content("second"));
+        assertThat(cache.get(first, 1, "a")).isNotNull();
+        cache.put(third, 1, "c", content("third"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(first, 1, "a")).isNotNull();
+        assertThat(cache.get(second, 1, "b")).isNull();
+        assertThat(cache.get(third, 1, "c")).isNotNull();
+    }
+
+    @Test
+    void dropsEntryWhenChecksumDiffers() {
+        PublicCardContentCache cache = new PublicCardContentCache(10);
+        UUID cardId = UUID.randomUUID();
+        cache.put(cardId, 3, "old", content("old"));
+
+        assertThat(cache.get(cardId, 3, "new")).isNull();
+        assertThat(cache.get(cardId, 3, "old")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static ObjectNode content(String front) {
+        return JsonNodeFactory.instance.objectNode().put("front", front);
+    }
+}
@@ -34,6 +34,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -94,6 +96,35 @@ class PublicDeckControllerWebMvcTest {
                 .andExpect(jsonPath("$.content.length()").value(1))
                 .andExpect(jsonPath("$.content[0].name").value("Public deck"))
                 .andExpect(jsonPath("$.content[0].description").value("Public description"));
+
+        String etag = mockMvc.perform(get("/decks/public")
+                        .with(jwt().jwt(j -> j.claim("sub", "user-123"))
+                                .authorities(new SimpleGrantedAuthority("SCOPE_user.read")))
+                        .param("page", "1")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/decks/public")
+                        .with(jwt().jwt(j -> j.claim("sub", "user-123"))
+                                .authorities(new SimpleGrantedAuthority("SCOPE_user.read")))
+                        .header("If-None-Match", etag)
+                        .param("page", "1")
+                        .param("limit", "10"))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/decks/public")
+                        .with(jwt().jwt(j -> j.claim("sub", "user-123"))
+                                .authorities(new SimpleGrantedAuthority("SCOPE_user.read")))
+                        .header("If-None-Match", etag)
+                        .param("page", "2")
+                        .param("limit", "10"))
+                .andExpect(status().isOk());
     }
 
     @Test
@@ -230,7 +261,8 @@ class PublicDeckControllerWebMvcTest {
                         .param("version", "2"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.deckId").value(deckId.toString()))
-                .andExpect(jsonPath("$.cardsQty").value(42));
+                .andExpect(jsonPath("$.cardsQty").value(42))
+                .andExpect(header().exists("ETag"));
     }
 
     @Test
@@ -1,7 +1,10 @@
 package app.mnema.core.deck.controller;
 
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchHitDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
+import app.mnema.core.deck.domain.dto.UserCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserDeckDTO;
 import app.mnema.core.deck.service.SearchService;
 import app.mnema.core.security.CurrentUserProvider;
@@ -88,7 +91,7 @@ class SearchControllerWebMvcTest {
     }
 
     @Test
-    void searchUserCards_returnsPage() throws Exception {
+    void searchUserCards_returnsCursorPage() throws Exception {
         UUID userId = UUID.randomUUID();
         UUID userDeckId = UUID.randomUUID();
 
@@ -106,21 +109,48 @@ class SearchControllerWebMvcTest {
                 content
         );
 
-        Page<UserCardDTO> page = new PageImpl<>(List.of(dto), PageRequest.of(0, 50), 1);
+        UserCardSearchPageDTO page = new UserCardSearchPageDTO(List.of(dto), "next");
 
         when(currentUserProvider.getUserId(any(Jwt.class))).thenReturn(userId);
-        when(searchService.searchUserCards(eq(userId), eq(userDeckId), eq("note"), isNull(), eq(1), eq(50)))
+        when(searchService.searchUserCards(eq(userId), eq(userDeckId), eq("note"), isNull(), eq("prev"), eq(50)))
                 .thenReturn(page);
 
         mockMvc.perform(get("/search/decks/{userDeckId}/cards", userDeckId)
                         .with(jwt().jwt(j -> j.claim("sub", "user-123"))
                                 .authorities(new SimpleGrantedAuthority("SCOPE_user.read")))
                         .param("query", "note")
-                        .param("page", "1")
+                        .param("cursor", "prev")
                         .param("limit", "50"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content.length()").value(1))
-                .andExpect(jsonPath("$.content[0].personalNote").value("note"));
+                .andExpect(jsonPath("$.content[0].personalNote").value("note"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void searchAllUserCards_returnsHitsWithHighlights() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID userDeckId = UUID.randomUUID();
+        ObjectNode content = objectMapper.createObjectNode();
+        content.put("front", "Sprint");
+        UserCardDTO card = new UserCardDTO(UUID.randomUUID(), null, true, false, null, null, content);
+        GlobalCardSearchPageDTO page = new GlobalCardSearchPageDTO(
+                List.of(new GlobalCardSearchHitDTO(userDeckId, "Verbs", card, 0.5f, "<mark>Sprint</mark>")),
+                "next"
+        );
+
+        when(currentUserProvider.getUserId(any(Jwt.class))).thenReturn(userId);
+        when(searchService.searchAllUserCards(eq(userId), eq("sprint"), isNull(), eq(20))).thenReturn(page);
+
+        mockMvc.perform(get("/search/cards")
+                        .with(jwt().jwt(j -> j.claim("sub", "user-123"))
+                                .authorities(new SimpleGrantedAuthority("SCOPE_user.read")))
+                        .param("query", "sprint"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].deckName").value("Verbs"))
+                .andExpect(jsonPath("$.content[0].highlight").value("<mark>Sprint</mark>"))
+                .andExpect(jsonPath("$.content[0].card.effectiveContent.front").value("Sprint"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
     }
 
     @Test
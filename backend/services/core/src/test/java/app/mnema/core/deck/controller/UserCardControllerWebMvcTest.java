@@ -1,6 +1,8 @@
 package app.mnema.core.deck.controller;
 
+import app.mnema.core.deck.domain.dto.BulkCardDeleteResultDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
+import app.mnema.core.deck.domain.request.BulkCardDeleteRequest;
 import app.mnema.core.deck.domain.request.CreateCardRequest;
 import app.mnema.core.deck.service.CardService;
 import app.mnema.core.security.CurrentUserProvider;
@@ -131,4 +133,27 @@ class UserCardControllerWebMvcTest {
                 .andExpect(jsonPath("$.personalNote").value("my note"))
                 .andExpect(jsonPath("$.isDeleted").value(false));
     }
+
+    @Test
+    void deleteCardsBulk_passesCardIdsAndSurvivor() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID userDeckId = UUID.randomUUID();
+        UUID cardId = UUID.randomUUID();
+        UUID survivorId = UUID.randomUUID();
+
+        when(currentUserProvider.getUserId(any(Jwt.class))).thenReturn(userId);
+        when(cardService.deleteUserCards(userId, userDeckId, new BulkCardDeleteRequest(List.of(cardId), survivorId)))
+                .thenReturn(new BulkCardDeleteResultDTO(1, 1));
+
+        mockMvc.perform(post("/decks/{userDeckId}/cards/bulk-delete", userDeckId)
+                        .with(jwt().jwt(j -> j.claim("sub", "user-123"))
+                                .authorities(new SimpleGrantedAuthority("SCOPE_user.write")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"cardIds": ["%s"], "survivorId": "%s"}
+                                """.formatted(cardId, survivorId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestedCards").value(1))
+                .andExpect(jsonPath("$.deletedCards").value(1));
+    }
 }
@@ -217,6 +217,114 @@ class PublicCardRepositoryDataJpaTest extends PostgresIntegrationTest {
         assertThat(result.get(2).getOrderIndex()).isEqualTo(3);
     }
 
+    @Test
+    void findByDeckIdAndDeckVersion_resolvesCardsInheritedFromEarlierVersions() {
+        PublicDeckEntity v1 = createDeck();
+        PublicDeckEntity v2 = publicDeckRepository.save(new PublicDeckEntity(
+                v1.getDeckId(),
+                2,
+                v1.getAuthorId(),
+                v1.getName(),
+                v1.getDescription(),
+                null,
+                v1.getTemplateId(),
+                true,
+                true,
+                LanguageTag.en,
+                v1.getTags(),
+                v1.getCreatedAt(),
+                null,
+                null,
+                null
+        ));
+
+        ObjectNode unchangedContent = objectMapper.createObjectNode();
+        unchangedContent.put("front", "Same");
+        ObjectNode oldContent = objectMapper.createObjectNode();
+        oldContent.put("front", "Old");
+        ObjectNode newContent = objectMapper.createObjectNode();
+        newContent.put("front", "New");
+
+        PublicCardEntity unchanged = new PublicCardEntity(
+                v1.getDeckId(), 1, v1, unchangedContent, 1, null, Instant.now(), null, true, "same"
+        );
+        PublicCardEntity superseded = new PublicCardEntity(
+                v1.getDeckId(), 1, v1, oldContent, 2, null, Instant.now(), null, true, "old"
+        );
+        superseded.setValidTo(2);
+        PublicCardEntity revision = new PublicCardEntity(
+                v2.getDeckId(), 2, v2, superseded.getCardId(), newContent, 2, null, Instant.now(), null, true, "new"
+        );
+        publicCardRepository.saveAll(List.of(unchanged, superseded, revision));
+
+        List<PublicCardEntity> atV1 = publicCardRepository.findByDeckIdAndDeckVersion(v1.getDeckId(), 1);
+        List<PublicCardEntity> atV2 = publicCardRepository.findByDeckIdAndDeckVersion(v1.getDeckId(), 2);
+
+        assertThat(atV1).extracting(PublicCardEntity::getChecksum).containsExactlyInAnyOrder("same", "old");
+        assertThat(atV2).extracting(PublicCardEntity::getChecksum).containsExactlyInAnyOrder("same", "new");
+        assertThat(publicCardRepository.countByDeckIdAndDeckVersionAndActiveTrue(v1.getDeckId(), 2)).isEqualTo(2);
+        assertThat(publicCardRepository.findLiveCard(v1.getDeckId(), superseded.getCardId(), 1))
+                .hasValueSatisfying(card -> assertThat(card.getChecksum()).isEqualTo("old"));
+        assertThat(publicCardRepository.findMaxOrderIndex(v1.getDeckId(), 2)).isEqualTo(2);
+        assertThat(publicCardRepository.findChangedSince(v1.getDeckId(), 1, 2, new UUID(0L, 0L), 10))
+                .extracting(PublicCardEntity::getChecksum)
+                .containsExactly("new");
+    }
+
+    @Test
+    void findLiveByChecksums_matchesHexChecksumsThroughDigest() {
+        PublicDeckEntity deck = createDeck();
+        String hexChecksum = "ab".repeat(32);
+
+        ObjectNode indexedContent = objectMapper.createObjectNode();
+        indexedContent.put("front", "Indexed");
+        ObjectNode legacyContent = objectMapper.createObjectNode();
+        legacyContent.put("front", "Legacy");
+
+        PublicCardEntity indexed = new PublicCardEntity(
+                deck.getDeckId(), 1, deck, indexedContent, 1, null, Instant.now(), null, true, hexChecksum
+        );
+        PublicCardEntity legacy = new PublicCardEntity(
+                deck.getDeckId(), 1, deck, legacyContent, 2, null, Instant.now(), null, true, "legacy"
+        );
+        publicCardRepository.saveAllAndFlush(List.of(indexed, legacy));
+
+        assertThat(publicCardRepository.findLiveByChecksums(deck.getDeckId(), 1, new String[]{hexChecksum, "legacy"}))
+                .extracting(PublicCardEntity::getCardId)
+                .containsExactly(indexed.getCardId());
+        assertThat(publicCardRepository.findDuplicateActiveChecksums(deck.getDeckId(), 1, new String[]{hexChecksum}))
+                .isEmpty();
+        assertThat(publicCardRepository.findMissingChecksumDigest(new UUID(0L, 0L), 0, new UUID(0L, 0L), 1000))
+                .extracting(PublicCardEntity::getCardId)
+                .contains(legacy.getCardId())
+                .doesNotContain(indexed.getCardId());
+    }
+
+    @Test
+    void findByCardVersions_loadsOnlyRequestedCardVersionPairs() {
+        PublicDeckEntity deck = createDeck();
+
+        ObjectNode firstContent = objectMapper.createObjectNode();
+        firstContent.put("front", "First");
+        ObjectNode secondContent = objectMapper.createObjectNode();
+        secondContent.put("front", "Second");
+
+        PublicCardEntity first = new PublicCardEntity(
+                deck.getDeckId(), 1, deck, firstContent, 1, null, Instant.now(), null, true, "first"
+        );
+        PublicCardEntity second = new PublicCardEntity(
+                deck.getDeckId(), 1, deck, secondContent, 2, null, Instant.now(), null, true, "second"
+        );
+        publicCardRepository.saveAllAndFlush(List.of(first, second));
+
+        assertThat(publicCardRepository.findByCardVersions(
+                new String[]{first.getCardId().toString(), second.getCardId().toString()},
+                new String[]{"1", "2"}
+        ))
+                .extracting(PublicCardEntity::getChecksum)
+                .containsExactly("first");
+    }
+
     @Test
     void findFirstByCardIdOrderByDeckVersionDesc_findsCardByGeneratedId() {
         PublicDeckEntity deck = createDeck();
@@ -11,7 +11,10 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +31,9 @@ class UserCardRepositoryDuplicateGroupsDataJpaTest extends PostgresIntegrationTe
     @Autowired
     private UserDeckRepository userDeckRepository;
 
+    @Autowired
+    private CardFieldSignatureRepository cardFieldSignatureRepository;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -95,4 +101,63 @@ class UserCardRepositoryDuplicateGroupsDataJpaTest extends PostgresIntegrationTe
         assertThat(group.getCnt()).isEqualTo(2);
         assertThat(group.getCardIds()).contains(card1.getUserCardId(), card2.getUserCardId());
     }
+
+    @Test
+    void findDuplicateFieldSignatures_returnsStoredSignaturesAndTextOnlyForMissingOnes() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        UserDeckEntity deck = new UserDeckEntity();
+        deck.setUserId(userId);
+        deck.setArchived(false);
+        deck.setDisplayName("Signature deck");
+        deck.setAutoUpdate(true);
+        deck.setCreatedAt(now);
+        deck.setTemplateVersion(1);
+        deck.setSubscribedTemplateVersion(1);
+        deck = userDeckRepository.save(deck);
+        UUID deckId = deck.getUserDeckId();
+
+        ObjectNode content = objectMapper.createObjectNode();
+        content.put("front", "Known");
+        content.put("back", "Unknown");
+        UserCardEntity card = userCardRepository.save(new UserCardEntity(
+                userId, deckId, null, true, false, null, null, content, now, null
+        ));
+
+        String knownHash = md5Hex("Known");
+        cardFieldSignatureRepository.insertMissing(new String[]{knownHash}, new String[]{"00ff"});
+        cardFieldSignatureRepository.insertMissing(new String[]{knownHash}, new String[]{"ffff"});
+
+        List<UserCardRepository.FieldSignatureProjection> rows = userCardRepository.findDuplicateFieldSignatures(
+                userId,
+                deckId,
+                new String[]{"front", "back", "missing"}
+        );
+
+        assertThat(rows).hasSize(2).allMatch(row -> row.getUserCardId().equals(card.getUserCardId()));
+        assertThat(rows).filteredOn(row -> row.getOrd() == 1).singleElement().satisfies(row -> {
+            assertThat(row.getValueHash()).isEqualTo(knownHash);
+            assertThat(row.getSignature()).containsExactly(0x00, 0xff);
+            assertThat(row.getValue()).isNull();
+        });
+        assertThat(rows).filteredOn(row -> row.getOrd() == 2).singleElement().satisfies(row -> {
+            assertThat(row.getSignature()).isNull();
+            assertThat(row.getValue()).isEqualTo("Unknown");
+        });
+        assertThat(userCardRepository.findSemanticDuplicateCandidates(
+                userId,
+                deckId,
+                new String[]{"front", "back"},
+                new String[]{card.getUserCardId().toString()}
+        )).singleElement().satisfies(candidate -> assertThat(candidate.getValues()).containsExactly("Known", "Unknown"));
+    }
+
+    private static String md5Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -49,6 +49,91 @@ class UserCardRepositoryMissingFieldsDataJpaTest extends PostgresIntegrationTest
 
     @Test
     void missingFieldQueries_countAndSampleCorrectly() {
+        Fixture fixture = seed();
+        UUID userId = fixture.userId();
+        UUID userDeckId = fixture.userDeckId();
+
+        long count = userCardRepository.countMissingField(userId, userDeckId, "back");
+        assertThat(count).isEqualTo(2);
+
+        List<UUID> ids = userCardRepository.findMissingFieldCardIds(userId, userDeckId, "back", 10);
+        assertThat(ids).containsExactly(fixture.missingFromPublicId(), fixture.missingCustomId());
+    }
+
+    @Test
+    void fieldPresenceBitmap_matchesContentScanAndRefreshesOnlyStaleCards() {
+        Fixture fixture = seed();
+        UUID userId = fixture.userId();
+        UUID userDeckId = fixture.userDeckId();
+        String[] fields = {"front", "back"};
+        int layout = List.of(fields).hashCode();
+
+        int refreshed = userCardRepository.refreshStaleFieldPresence(
+                userId, userDeckId, fixture.publicDeckId(), 1, layout, fields, 100);
+        assertThat(refreshed).isEqualTo(2);
+        assertThat(userCardRepository.refreshStaleFieldPresence(
+                userId, userDeckId, fixture.publicDeckId(), 1, layout, fields, 100)).isZero();
+
+        assertThat(userCardRepository.countMissingFieldByPresence(userId, userDeckId, "front", 1L, 1, layout)).isZero();
+        assertThat(userCardRepository.countMissingFieldByPresence(userId, userDeckId, "back", 2L, 1, layout)).isEqualTo(2);
+        assertThat(userCardRepository.findMissingFieldCardIdsByPresence(userId, userDeckId, "back", 2L, 1, layout, 10))
+                .containsExactly(fixture.missingFromPublicId(), fixture.missingCustomId());
+
+        // Другая раскладка полей делает все карты колоды устаревшими
+        assertThat(userCardRepository.refreshStaleFieldPresence(
+                userId, userDeckId, fixture.publicDeckId(), 1, layout + 1, fields, 1)).isEqualTo(1);
+    }
+
+    @Test
+    void presenceQueries_fallBackToContentForUnstampedAndStaleRows() {
+        Fixture fixture = seed();
+        UUID userId = fixture.userId();
+        UUID userDeckId = fixture.userDeckId();
+        String[] fields = {"front", "back"};
+        int layout = List.of(fields).hashCode();
+
+        // Ни одна строка ещё не посчитана: маска null, ответ целиком по контенту
+        assertThat(userCardRepository.countMissingFieldByPresence(userId, userDeckId, "back", 2L, 1, layout)).isEqualTo(2);
+
+        // Посчитана одна карта, и по старой раскладке: ей тоже нельзя верить
+        userCardRepository.refreshStaleFieldPresence(userId, userDeckId, fixture.publicDeckId(), 1, layout + 1, fields, 1);
+        assertThat(userCardRepository.countMissingFieldByPresence(userId, userDeckId, "back", 2L, 1, layout)).isEqualTo(2);
+        assertThat(userCardRepository.findMissingFieldCardIdsByPresence(userId, userDeckId, "back", 2L, 1, layout, 10))
+                .containsExactly(fixture.missingFromPublicId(), fixture.missingCustomId());
+        assertThat(userCardRepository.countMissingFieldByPresence(userId, userDeckId, "front", 1L, 1, layout)).isZero();
+    }
+
+    @Test
+    void refreshFieldPresence_recomputesWrittenCardsRegardlessOfStamp() {
+        Fixture fixture = seed();
+        UUID userId = fixture.userId();
+        UUID userDeckId = fixture.userDeckId();
+        String[] fields = {"front", "back"};
+        int layout = List.of(fields).hashCode();
+        userCardRepository.refreshStaleFieldPresence(userId, userDeckId, fixture.publicDeckId(), 1, layout, fields, 100);
+
+        UserCardEntity card = userCardRepository.findById(fixture.missingCustomId()).orElseThrow();
+        ObjectNode filled = objectMapper.createObjectNode();
+        filled.put("front", "Custom front");
+        filled.put("back", "Custom back");
+        card.setContentOverride(filled);
+        userCardRepository.save(card);
+
+        int refreshed = userCardRepository.refreshFieldPresence(
+                userDeckId,
+                fixture.publicDeckId(),
+                1,
+                layout,
+                fields,
+                new String[]{fixture.missingCustomId().toString()}
+        );
+
+        assertThat(refreshed).isEqualTo(1);
+        assertThat(userCardRepository.findMissingFieldCardIdsByPresence(userId, userDeckId, "back", 2L, 1, layout, 10))
+                .containsExactly(fixture.missingFromPublicId());
+    }
+
+    private Fixture seed() {
         UUID userId = UUID.randomUUID();
         Instant now = Instant.now();
 
@@ -173,12 +258,19 @@ class UserCardRepositoryMissingFieldsDataJpaTest extends PostgresIntegrationTest
         userCardRepository.save(missingFromPublic);
         userCardRepository.save(deletedMissing);
 
-        long count = userCardRepository.countMissingField(userId, userDeckId, "back");
-        assertThat(count).isEqualTo(2);
+        return new Fixture(
+                userId,
+                userDeckId,
+                publicDeck.getDeckId(),
+                missingCustom.getUserCardId(),
+                missingFromPublic.getUserCardId()
+        );
+    }
 
-        List<UUID> ids = userCardRepository.findMissingFieldCardIds(userId, userDeckId, "back", 10);
-        assertThat(ids).hasSize(2);
-        assertThat(ids.get(0)).isEqualTo(missingFromPublic.getUserCardId());
-        assertThat(ids.get(1)).isEqualTo(missingCustom.getUserCardId());
+    private record Fixture(UUID userId,
+                           UUID userDeckId,
+                           UUID publicDeckId,
+                           UUID missingCustomId,
+                           UUID missingFromPublicId) {
     }
 }
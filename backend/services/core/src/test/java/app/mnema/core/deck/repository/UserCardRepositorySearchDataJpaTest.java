@@ -13,7 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataAccessException;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -45,6 +44,9 @@ class UserCardRepositorySearchDataJpaTest extends PostgresIntegrationTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final Instant CURSOR_START_CREATED_AT = Instant.parse("9999-12-31T23:59:59Z");
+    private static final UUID CURSOR_START_CARD_ID = new UUID(-1L, -1L);
+
     @Test
     void searchUserCards_matchesContentAndNotes_andSkipsDeleted() {
         UUID userId = UUID.randomUUID();
@@ -100,17 +102,21 @@ class UserCardRepositorySearchDataJpaTest extends PostgresIntegrationTest {
         userCardRepository.saveAll(List.of(cardByNote, cardByOverride, deleted));
         userCardRepository.flush();
 
-        var result = userCardRepository.searchUserCards(
+        var result = userCardRepository.searchUserCardHits(
                 userId,
                 userDeck.getUserDeckId(),
                 "sprint",
                 null,
-                PageRequest.of(0, 10)
+                Float.POSITIVE_INFINITY,
+                CURSOR_START_CREATED_AT,
+                CURSOR_START_CARD_ID,
+                10
         );
 
-        assertThat(result.getContent())
-                .hasSize(1)
-                .allMatch(card -> card.getUserCardId().equals(cardByOverride.getUserCardId()));
+        assertThat(result)
+                .extracting(UserCardRepository.SearchHitProjection::getUserCardId)
+                .containsExactly(cardByOverride.getUserCardId());
+        assertThat(result.getFirst().getRank()).isPositive();
     }
 
     @Test
@@ -153,16 +159,131 @@ class UserCardRepositorySearchDataJpaTest extends PostgresIntegrationTest {
         userCardRepository.saveAll(List.of(card1, card2));
         userCardRepository.flush();
 
-        var result = userCardRepository.searchUserCardsByTags(
+        var result = userCardRepository.searchUserCardHitsByTags(
                 userId,
                 userDeck.getUserDeckId(),
                 "verb",
-                PageRequest.of(0, 10)
+                CURSOR_START_CREATED_AT,
+                CURSOR_START_CARD_ID,
+                10
+        );
+
+        assertThat(result)
+                .extracting(UserCardRepository.SearchHitProjection::getUserCardId)
+                .containsExactly(card2.getUserCardId());
+    }
+
+    @Test
+    void searchAllUserCardHits_ranksAcrossDecksAndHighlightsEscapedText() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        PublicDeckEntity firstPublicDeck = createDeck();
+        PublicDeckEntity secondPublicDeck = createDeck();
+        UserDeckEntity firstDeck = createUserDeck(userId, firstPublicDeck);
+        UserDeckEntity secondDeck = createUserDeck(userId, secondPublicDeck);
+        UserDeckEntity strangerDeck = createUserDeck(UUID.randomUUID(), secondPublicDeck);
+
+        PublicCardEntity sprintCard = createPublicCard(secondPublicDeck, "Sprint", new String[]{"verb"});
+        PublicCardEntity catCard = createPublicCard(firstPublicDeck, "Cat", new String[]{"animal"});
+
+        UserCardEntity byPublicContent = new UserCardEntity(
+                userId, secondDeck.getUserDeckId(), sprintCard.getCardId(),
+                false, false, null, null, null, now, null
+        );
+        UserCardEntity byNote = new UserCardEntity(
+                userId, firstDeck.getUserDeckId(), catCard.getCardId(),
+                false, false, "sprint <b>fast</b>", null, null, now.plusSeconds(1), null
+        );
+        UserCardEntity stranger = new UserCardEntity(
+                strangerDeck.getUserId(), strangerDeck.getUserDeckId(), sprintCard.getCardId(),
+                false, false, null, null, null, now, null
+        );
+        userCardRepository.saveAll(List.of(byPublicContent, byNote, stranger));
+        userCardRepository.flush();
+
+        var result = userCardRepository.searchAllUserCardHits(
+                userId,
+                "sprint",
+                Float.POSITIVE_INFINITY,
+                CURSOR_START_CREATED_AT,
+                CURSOR_START_CARD_ID,
+                10
+        );
+
+        assertThat(result)
+                .extracting(UserCardRepository.SearchHitProjection::getUserCardId)
+                .containsExactlyInAnyOrder(byPublicContent.getUserCardId(), byNote.getUserCardId());
+        assertThat(result)
+                .extracting(UserCardRepository.GlobalSearchHitProjection::getUserDeckId)
+                .containsExactlyInAnyOrder(firstDeck.getUserDeckId(), secondDeck.getUserDeckId());
+
+        var noteHit = result.stream()
+                .filter(hit -> hit.getUserCardId().equals(byNote.getUserCardId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(noteHit.getHighlight())
+                .contains("<mark>sprint</mark>")
+                .contains("&lt;b&gt;")
+                .doesNotContain("<b>");
+
+        var first = result.getFirst();
+        var rest = userCardRepository.searchAllUserCardHits(
+                userId,
+                "sprint",
+                first.getRank(),
+                first.getCreatedAt(),
+                first.getUserCardId(),
+                10
+        );
+        assertThat(rest)
+                .extracting(UserCardRepository.SearchHitProjection::getUserCardId)
+                .containsExactly(result.get(1).getUserCardId());
+    }
+
+    @Test
+    void searchAllUserCardHits_skipsCardsInArchivedDecks() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        PublicDeckEntity livePublicDeck = createDeck();
+        PublicDeckEntity archivedPublicDeck = createDeck();
+        UserDeckEntity liveDeck = createUserDeck(userId, livePublicDeck);
+        UserDeckEntity archivedDeck = createUserDeck(userId, archivedPublicDeck);
+        archivedDeck.setArchived(true);
+        userDeckRepository.saveAndFlush(archivedDeck);
+
+        PublicCardEntity liveCard = createPublicCard(livePublicDeck, "Sprint", new String[]{"verb"});
+        PublicCardEntity archivedCard = createPublicCard(archivedPublicDeck, "Sprint", new String[]{"verb"});
+        PublicCardEntity archivedNoteCard = createPublicCard(archivedPublicDeck, "Cat", new String[]{"animal"});
+
+        UserCardEntity live = new UserCardEntity(
+                userId, liveDeck.getUserDeckId(), liveCard.getCardId(),
+                false, false, null, null, null, now, null
+        );
+        UserCardEntity archivedByContent = new UserCardEntity(
+                userId, archivedDeck.getUserDeckId(), archivedCard.getCardId(),
+                false, false, null, null, null, now, null
+        );
+        UserCardEntity archivedByNote = new UserCardEntity(
+                userId, archivedDeck.getUserDeckId(), archivedNoteCard.getCardId(),
+                false, false, "sprint drills", null, null, now, null
+        );
+        userCardRepository.saveAll(List.of(live, archivedByContent, archivedByNote));
+        userCardRepository.flush();
+
+        var result = userCardRepository.searchAllUserCardHits(
+                userId,
+                "sprint",
+                Float.POSITIVE_INFINITY,
+                CURSOR_START_CREATED_AT,
+                CURSOR_START_CARD_ID,
+                10
         );
 
-        assertThat(result.getContent())
-                .hasSize(1)
-                .allMatch(card -> card.getUserCardId().equals(card2.getUserCardId()));
+        assertThat(result)
+                .extracting(UserCardRepository.SearchHitProjection::getUserCardId)
+                .containsExactly(live.getUserCardId());
     }
 
     private PublicDeckEntity createDeck() {
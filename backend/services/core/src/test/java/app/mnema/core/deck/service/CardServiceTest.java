@@ -1,11 +1,14 @@
 package app.mnema.core.deck.service;
 
+import app.mnema.core.deck.domain.dto.BulkCardDeleteResultDTO;
 import app.mnema.core.deck.domain.dto.DuplicateGroupDTO;
 import app.mnema.core.deck.domain.dto.DuplicateResolveResultDTO;
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
 import app.mnema.core.deck.domain.dto.FieldTemplateDTO;
+import app.mnema.core.deck.domain.dto.MissingFieldStatDTO;
 import app.mnema.core.deck.domain.dto.MissingFieldSummaryDTO;
 import app.mnema.core.deck.domain.dto.PublicCardDTO;
+import app.mnema.core.deck.domain.dto.UserCardChangesDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
 import app.mnema.core.deck.domain.entity.CardTemplateEntity;
 import app.mnema.core.deck.domain.entity.CardTemplateVersionEntity;
@@ -15,6 +18,7 @@ import app.mnema.core.deck.domain.entity.PublicCardEntity;
 import app.mnema.core.deck.domain.entity.PublicDeckEntity;
 import app.mnema.core.deck.domain.entity.UserCardEntity;
 import app.mnema.core.deck.domain.entity.UserDeckEntity;
+import app.mnema.core.deck.domain.request.BulkCardDeleteRequest;
 import app.mnema.core.deck.domain.request.CreateCardRequest;
 import app.mnema.core.deck.domain.request.DuplicateResolveRequest;
 import app.mnema.core.deck.domain.request.DuplicateSearchRequest;
@@ -31,6 +35,7 @@ import app.mnema.core.deck.repository.PublicCardRepository;
 import app.mnema.core.deck.repository.PublicDeckRepository;
 import app.mnema.core.deck.repository.UserCardRepository;
 import app.mnema.core.deck.repository.UserDeckRepository;
+import app.mnema.core.review.api.CardStateTransferPort;
 import app.mnema.core.security.ContentAdminAccessService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -45,21 +50,30 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.lang.reflect.Method;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -98,6 +112,21 @@ class CardServiceTest {
     @Mock
     ContentAdminAccessService contentAdminAccessService;
 
+    @Mock
+    PublicDeckCatalogCache publicDeckCatalogCache;
+
+    @Mock
+    CardFieldSignatureIndex cardFieldSignatureIndex;
+
+    @Mock
+    CardFieldPresenceIndex cardFieldPresenceIndex;
+
+    @Mock
+    CardStateTransferPort cardStateTransferPort;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
     @InjectMocks
     CardService cardService;
 
@@ -177,6 +206,36 @@ class CardServiceTest {
         assertThat(result.effectiveContent()).isEqualTo(json("{\"front\":\"base\",\"back\":\"override\"}"));
     }
 
+    @Test
+    void getUserCardChangesInternal_resolvesLiveContentAndReportsDeletions() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        UUID publicDeckId = UUID.randomUUID();
+        UUID publicCardId = UUID.randomUUID();
+        UserDeckEntity deck = userDeck(deckId, userId, publicDeckId);
+        UserCardEntity edited = userCard(userId, deckId, publicCardId, false, false, null, null, textContent("back", "override"));
+        edited.setUpdatedAt(Instant.parse("2026-04-08T09:00:00Z"));
+        UserCardEntity removed = userCard(userId, deckId, null, true, true, null, null, textContent("front", "gone"));
+        PublicCardEntity publicCard = publicCard(publicDeckId, deck.getCurrentVersion(), publicCardId, textContent("front", "base"), null, true, "chk");
+        Instant afterChangedAt = Instant.parse("2026-04-01T00:00:00Z");
+        UUID afterCardId = UUID.randomUUID();
+
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
+        when(userCardRepository.findChangedAfter(deckId, afterChangedAt, afterCardId, 1000)).thenReturn(List.of(edited, removed));
+        when(publicCardRepository.findLiveCards(publicDeckId, Set.of(publicCardId), deck.getCurrentVersion()))
+                .thenReturn(List.of(publicCard));
+
+        UserCardChangesDTO result = cardService.getUserCardChangesInternal(deckId, afterChangedAt, afterCardId, 5000);
+
+        assertThat(result.deckVersion()).isEqualTo(deck.getCurrentVersion());
+        assertThat(result.changes()).hasSize(2);
+        assertThat(result.changes().get(0).effectiveContent()).isEqualTo(json("{\"front\":\"base\",\"back\":\"override\"}"));
+        assertThat(result.changes().get(0).changedAt()).isEqualTo(Instant.parse("2026-04-08T09:00:00Z"));
+        assertThat(result.changes().get(1).isDeleted()).isTrue();
+        assertThat(result.changes().get(1).effectiveContent()).isNull();
+        assertThat(result.changes().get(1).changedAt()).isEqualTo(Instant.parse("2026-04-07T12:00:00Z"));
+    }
+
     @Test
     void getMissingFieldSummary_clampsSampleLimitAndKeepsRequestedOrder() {
         UUID userId = UUID.randomUUID();
@@ -212,6 +271,32 @@ class CardServiceTest {
         assertThat(result.fields().get(1).sampleCards()).isEmpty();
     }
 
+    @Test
+    void getMissingFieldSummary_usesPresenceBitmapForTemplateFieldsAndScansTheRest() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        UserDeckEntity deck = userDeck(deckId, userId, UUID.randomUUID());
+        CardFieldPresenceIndex.Layout layout = new CardFieldPresenceIndex.Layout(
+                deck.getPublicDeckId(),
+                1,
+                List.of("front", "back")
+        );
+
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
+        when(cardFieldPresenceIndex.prepare(deck)).thenReturn(layout);
+        when(userCardRepository.countMissingFieldByPresence(userId, deckId, "back", 2L, 1, layout.hash())).thenReturn(5L);
+        when(userCardRepository.countMissingField(userId, deckId, "audio")).thenReturn(1L);
+
+        MissingFieldSummaryDTO result = cardService.getMissingFieldSummary(
+                userId,
+                deckId,
+                new MissingFieldSummaryRequest(List.of("back", "audio"), 0)
+        );
+
+        assertThat(result.fields()).extracting(MissingFieldStatDTO::missingCount).containsExactly(5L, 1L);
+        verify(userCardRepository, never()).countMissingField(userId, deckId, "back");
+    }
+
     @Test
     void getMissingFieldCards_usesFieldLimitsAndDeduplicatesResults() {
         UUID userId = UUID.randomUUID();
@@ -282,6 +367,58 @@ class CardServiceTest {
                 .hasMessage("fields are required");
     }
 
+    @Test
+    void getDuplicateGroups_findsSemanticPairAcrossLargeDeckThroughLsh() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        Instant now = Instant.parse("2026-04-07T12:00:00Z");
+        UUID cardA = UUID.randomUUID();
+        UUID cardB = UUID.randomUUID();
+
+        Map<UUID, String> texts = new LinkedHashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            texts.put(UUID.randomUUID(), UUID.randomUUID() + " " + UUID.randomUUID());
+        }
+        texts.put(cardA, "the mitochondria is the powerhouse of the cell");
+        texts.put(cardB, "the mitochondria is the power house of the cell");
+        List<UserCardRepository.FieldSignatureProjection> rows = new ArrayList<>();
+        texts.forEach((id, text) -> rows.add(fieldSignatureRow(id, now, 1, text)));
+
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId, null)));
+        when(userCardRepository.findDuplicateGroups(eq(userId), eq(deckId), any(String[].class), eq(10))).thenReturn(List.of());
+        when(userCardRepository.findDuplicateFieldSignatures(eq(userId), eq(deckId), any(String[].class))).thenReturn(rows);
+        when(cardFieldSignatureIndex.computeMissing(anyMap())).thenAnswer(invocation -> computeSignatures(invocation.getArgument(0)));
+        ArgumentCaptor<String[]> requestedIds = ArgumentCaptor.forClass(String[].class);
+        when(userCardRepository.findSemanticDuplicateCandidates(eq(userId), eq(deckId), any(String[].class), requestedIds.capture()))
+                .thenAnswer(invocation -> {
+                    List<UserCardRepository.SemanticCandidateProjection> projections = new ArrayList<>();
+                    for (String id : (String[]) invocation.getArgument(3)) {
+                        UUID cardId = UUID.fromString(id);
+                        projections.add(semanticProjection(cardId, now, new String[]{texts.get(cardId)}));
+                    }
+                    return projections;
+                });
+
+        UserCardEntity entityA = userCard(userId, deckId, null, true, false, null, null, textContent("front", texts.get(cardA)));
+        entityA.setUserCardId(cardA);
+        UserCardEntity entityB = userCard(userId, deckId, null, true, false, null, null, textContent("front", texts.get(cardB)));
+        entityB.setUserCardId(cardB);
+        when(userCardRepository.findByUserIdAndUserDeckIdAndUserCardIdIn(eq(userId), eq(deckId), anyList()))
+                .thenReturn(List.of(entityA, entityB));
+
+        List<DuplicateGroupDTO> result = cardService.getDuplicateGroups(
+                userId,
+                deckId,
+                new DuplicateSearchRequest(List.of("front"), 10, 5, true, 0.85d)
+        );
+
+        assertThat(result).singleElement().satisfies(group -> {
+            assertThat(group.matchType()).isEqualTo("semantic");
+            assertThat(group.cards()).extracting(UserCardDTO::userCardId).containsExactlyInAnyOrder(cardA, cardB);
+        });
+        assertThat(requestedIds.getValue()).contains(cardA.toString(), cardB.toString()).hasSizeLessThan(100);
+    }
+
     @Test
     void getDuplicateGroups_returnsExactGroupsByDefault() {
         UUID userId = UUID.randomUUID();
@@ -326,7 +463,15 @@ class CardServiceTest {
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId, null)));
         when(userCardRepository.findDuplicateGroups(eq(userId), eq(deckId), any(String[].class), eq(10))).thenReturn(List.of());
-        when(userCardRepository.findSemanticDuplicateCandidates(eq(userId), eq(deckId), any(String[].class), anyInt()))
+        when(userCardRepository.findDuplicateFieldSignatures(eq(userId), eq(deckId), any(String[].class)))
+                .thenReturn(List.of(
+                        fieldSignatureRow(cardA, now.minusSeconds(10), 1, "apple"),
+                        fieldSignatureRow(cardA, now.minusSeconds(10), 2, "red fruit"),
+                        fieldSignatureRow(cardB, now.minusSeconds(5), 1, "apple"),
+                        fieldSignatureRow(cardB, now.minusSeconds(5), 2, "green fruit")
+                ));
+        when(cardFieldSignatureIndex.computeMissing(anyMap())).thenAnswer(invocation -> computeSignatures(invocation.getArgument(0)));
+        when(userCardRepository.findSemanticDuplicateCandidates(eq(userId), eq(deckId), any(String[].class), any(String[].class)))
                 .thenReturn(List.of(
                         semanticProjection(cardA, now.minusSeconds(10), new String[]{"apple", "red fruit"}),
                         semanticProjection(cardB, now.minusSeconds(5), new String[]{"apple", "green fruit"})
@@ -361,12 +506,14 @@ class CardServiceTest {
         UUID keepId = UUID.randomUUID();
         UUID deleteId = UUID.randomUUID();
 
+        runTransactionCallbacks();
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId, null)));
         when(userCardRepository.findDuplicateResolutionCandidates(eq(userId), eq(deckId), any(String[].class), any(String[].class)))
                 .thenReturn(List.of(
-                        duplicateResolutionProjection(keepId, null, 1),
-                        duplicateResolutionProjection(deleteId, null, 2)
+                        duplicateResolutionProjection(keepId, null, 1, keepId),
+                        duplicateResolutionProjection(deleteId, null, 2, keepId)
                 ));
+        when(userCardRepository.findLiveCardIds(userId, deckId, List.of(deleteId))).thenReturn(List.of(deleteId));
         when(userCardRepository.markDeletedByIds(eq(userId), eq(deckId), eq(List.of(deleteId)), any())).thenReturn(1);
 
         DuplicateResolveResultDTO result = cardService.resolveDuplicateGroups(
@@ -379,6 +526,87 @@ class CardServiceTest {
         assertThat(result.deletedCards()).isEqualTo(1);
         assertThat(result.keptCards()).isEqualTo(1);
         assertThat(result.globalApplied()).isFalse();
+        verify(cardStateTransferPort).transferStates(List.of(deleteId), List.of(keepId));
+    }
+
+    @Test
+    void deleteUserCards_softDeletesInChunksAndMovesReviewStateToSurvivor() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        UUID survivorId = UUID.randomUUID();
+        List<UUID> cardIds = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            cardIds.add(UUID.randomUUID());
+        }
+        List<UUID> requested = new ArrayList<>(cardIds);
+        requested.add(survivorId);
+        requested.add(cardIds.getFirst());
+        UserCardEntity survivor = userCard(userId, deckId, null, true, false, null, null, textContent("front", "Q"));
+        survivor.setUserCardId(survivorId);
+
+        runTransactionCallbacks();
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId, null)));
+        when(userCardRepository.findByUserIdAndUserDeckIdAndUserCardIdIn(userId, deckId, List.of(survivorId)))
+                .thenReturn(List.of(survivor));
+        when(userCardRepository.findLiveCardIds(eq(userId), eq(deckId), anyList()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(2));
+        when(userCardRepository.markDeletedByIds(eq(userId), eq(deckId), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(2).size());
+
+        BulkCardDeleteResultDTO result = cardService.deleteUserCards(
+                userId,
+                deckId,
+                new BulkCardDeleteRequest(requested, survivorId)
+        );
+
+        assertThat(result.requestedCards()).isEqualTo(1200);
+        assertThat(result.deletedCards()).isEqualTo(1200);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(userCardRepository).markDeletedByIds(eq(userId), eq(deckId), eq(cardIds.subList(0, 500)), any());
+        verify(userCardRepository).markDeletedByIds(eq(userId), eq(deckId), eq(cardIds.subList(1000, 1200)), any());
+        verify(cardStateTransferPort).transferStates(cardIds.subList(1000, 1200), Collections.nCopies(200, survivorId));
+    }
+
+    @Test
+    void deleteUserCards_doesNotTransferReviewStateFromForeignCards() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        UUID survivorId = UUID.randomUUID();
+        UUID ownCardId = UUID.randomUUID();
+        UUID foreignCardId = UUID.randomUUID();
+        UserCardEntity survivor = userCard(userId, deckId, null, true, false, null, null, textContent("front", "Q"));
+        survivor.setUserCardId(survivorId);
+
+        runTransactionCallbacks();
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId, null)));
+        when(userCardRepository.findByUserIdAndUserDeckIdAndUserCardIdIn(userId, deckId, List.of(survivorId)))
+                .thenReturn(List.of(survivor));
+        when(userCardRepository.findLiveCardIds(userId, deckId, List.of(ownCardId, foreignCardId)))
+                .thenReturn(List.of(ownCardId));
+        when(userCardRepository.markDeletedByIds(eq(userId), eq(deckId), anyList(), any())).thenReturn(1);
+
+        BulkCardDeleteResultDTO result = cardService.deleteUserCards(
+                userId,
+                deckId,
+                new BulkCardDeleteRequest(List.of(ownCardId, foreignCardId), survivorId)
+        );
+
+        assertThat(result.deletedCards()).isEqualTo(1);
+        verify(cardStateTransferPort).transferStates(List.of(ownCardId), List.of(survivorId));
+    }
+
+    @Test
+    void deleteUserCards_rejectsForeignDeck() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, UUID.randomUUID(), null)));
+
+        assertThatThrownBy(() -> cardService.deleteUserCards(
+                userId,
+                deckId,
+                new BulkCardDeleteRequest(List.of(UUID.randomUUID()), null)
+        )).isInstanceOf(SecurityException.class);
+        verifyNoInteractions(transactionTemplate, cardStateTransferPort);
     }
 
     @Test
@@ -394,14 +622,12 @@ class CardServiceTest {
         UUID operationId = UUID.randomUUID();
         Instant now = Instant.parse("2026-04-07T12:00:00Z");
 
+        runTransactionCallbacks();
         UserDeckEntity deck = userDeck(deckId, userId, publicDeckId);
         deck.setTemplateVersion(1);
         PublicDeckEntity latestDeck = publicDeck(publicDeckId, 2, userId, templateId, 1, true);
         DeckUpdateSessionEntity session = new DeckUpdateSessionEntity(publicDeckId, operationId, userId, 2, now.minusSeconds(60), now.minusSeconds(30));
         FieldTemplateEntity scoreField = fieldTemplate(templateId, 1, "front", CardFieldType.text, true);
-        UserCardEntity deleteCard = userCard(userId, deckId, deletePublicCardId, false, false, null, null, null);
-        deleteCard.setUserCardId(deleteCardId);
-        PublicCardEntity keepTarget = publicCard(publicDeckId, 2, keepPublicCardId, textContent("front", "keep"), new String[]{"keep"}, true, "keep");
         PublicCardEntity deleteTarget = publicCard(publicDeckId, 2, deletePublicCardId, textContent("front", "delete"), new String[]{"delete"}, true, "delete");
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
@@ -409,16 +635,13 @@ class CardServiceTest {
         when(fieldTemplateRepository.findByTemplateIdAndTemplateVersionOrderByOrderIndexAsc(templateId, 1)).thenReturn(List.of(scoreField));
         when(userCardRepository.findDuplicateResolutionCandidates(eq(userId), eq(deckId), any(String[].class), any(String[].class)))
                 .thenReturn(List.of(
-                        duplicateResolutionProjection(keepCardId, keepPublicCardId, 1),
-                        duplicateResolutionProjection(deleteCardId, deletePublicCardId, 2)
+                        duplicateResolutionProjection(keepCardId, keepPublicCardId, 1, keepCardId),
+                        duplicateResolutionProjection(deleteCardId, deletePublicCardId, 2, keepCardId)
                 ));
-        when(userCardRepository.findByUserIdAndUserDeckIdAndUserCardIdIn(userId, deckId, List.of(deleteCardId)))
-                .thenReturn(List.of(deleteCard));
         when(deckUpdateSessionRepository.findByDeckIdAndOperationId(publicDeckId, operationId)).thenReturn(Optional.of(session));
         when(publicDeckRepository.findByDeckIdAndVersion(publicDeckId, 2)).thenReturn(Optional.of(latestDeck));
         when(deckUpdateSessionRepository.save(any(DeckUpdateSessionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(keepTarget, deleteTarget));
-        when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(any())).thenReturn(List.of());
+        when(publicCardRepository.findLiveCards(publicDeckId, Set.of(deletePublicCardId), 2)).thenReturn(List.of(deleteTarget));
         when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userCardRepository.markDeletedByIds(eq(userId), eq(deckId), eq(List.of(deleteCardId)), any())).thenReturn(1);
 
@@ -586,7 +809,7 @@ class CardServiceTest {
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
         when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
         when(publicDeckRepository.save(any(PublicDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 1)).thenReturn(List.of(existingPublicCard));
+        when(publicCardRepository.findLiveByChecksums(eq(publicDeckId), eq(1), any(String[].class))).thenReturn(List.of(existingPublicCard));
         when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userDeckRepository.save(any(UserDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(userCardRepository.save(any(UserCardEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -603,7 +826,7 @@ class CardServiceTest {
             assertThat(dto.publicCardId()).isNotNull();
         });
         assertThat(deck.getCurrentVersion()).isEqualTo(2);
-        verify(publicCardRepository, times(2)).saveAll(anyList());
+        verify(publicCardRepository, times(1)).saveAll(anyList());
     }
 
     @Test
@@ -617,7 +840,7 @@ class CardServiceTest {
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
         when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 1)).thenReturn(List.of(existingPublicCard));
+        when(publicCardRepository.findLiveByChecksums(eq(publicDeckId), eq(1), any(String[].class))).thenReturn(List.of(existingPublicCard));
 
         assertThatThrownBy(() -> cardService.addNewCardsToDeckBatch(
                 userId,
@@ -749,8 +972,8 @@ class CardServiceTest {
         when(publicDeckRepository.findByDeckIdAndVersion(publicDeckId, 2)).thenReturn(Optional.of(latestDeck));
         when(publicDeckRepository.save(any(PublicDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(deckUpdateSessionRepository.save(any(DeckUpdateSessionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(targetCard));
-        when(publicCardRepository.save(any(PublicCardEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(publicCardRepository.findLiveCard(publicDeckId, publicCardId, 2)).thenReturn(Optional.of(targetCard));
+        when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userCardRepository.save(any(UserCardEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         UserCardDTO result = cardService.updateUserCard(
@@ -768,6 +991,7 @@ class CardServiceTest {
         assertThat(card.getTags()).isNull();
         assertThat(targetCard.getContent()).isEqualTo(textContent("front", "new"));
         assertThat(targetCard.getTags()).containsExactly("new");
+        verify(cardFieldPresenceIndex).invalidatePublicCard(publicCardId);
     }
 
     @Test
@@ -790,7 +1014,7 @@ class CardServiceTest {
         when(publicCardRepository.findFirstByCardIdOrderByDeckVersionDesc(stalePublicCardId))
                 .thenReturn(Optional.of(linkedPublicCard));
         when(publicDeckRepository.save(any(PublicDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(latestSameChecksumCard));
+        when(publicCardRepository.findLiveByChecksums(eq(publicDeckId), eq(2), any(String[].class))).thenReturn(List.of(latestSameChecksumCard));
         when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userDeckRepository.save(any(UserDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(userCardRepository.save(any(UserCardEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -809,6 +1033,52 @@ class CardServiceTest {
         verify(publicCardRepository, atLeastOnce()).saveAll(anyList());
     }
 
+    @Test
+    void updateUserCard_globallyWritesOnlyChangedCardIntoNewVersion() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        UUID publicDeckId = UUID.randomUUID();
+        UUID publicCardId = UUID.randomUUID();
+
+        UserDeckEntity deck = userDeck(deckId, userId, publicDeckId);
+        PublicDeckEntity latestDeck = publicDeck(publicDeckId, 4, userId, UUID.randomUUID(), 1, true);
+        UserCardEntity card = userCard(userId, deckId, publicCardId, false, false, "old", null, null);
+        PublicCardEntity liveCard = publicCard(publicDeckId, 2, publicCardId, textContent("front", "old"), new String[]{"tag"}, true, "chk");
+
+        when(userCardRepository.findById(card.getUserCardId())).thenReturn(Optional.of(card));
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
+        when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
+        when(publicCardRepository.findFirstByCardIdOrderByDeckVersionDesc(publicCardId)).thenReturn(Optional.of(liveCard));
+        when(publicCardRepository.findLiveCard(publicDeckId, publicCardId, 4)).thenReturn(Optional.of(liveCard));
+        when(publicDeckRepository.save(any(PublicDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userDeckRepository.save(any(UserDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userCardRepository.save(any(UserCardEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cardService.updateUserCard(
+                userId,
+                deckId,
+                card.getUserCardId(),
+                new UserCardDTO(card.getUserCardId(), publicCardId, false, false, null, null, textContent("front", "new")),
+                true,
+                null
+        );
+
+        ArgumentCaptor<List<PublicCardEntity>> writesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(publicCardRepository).saveAll(writesCaptor.capture());
+        assertThat(writesCaptor.getValue()).hasSize(2);
+        assertThat(liveCard.getValidTo()).isEqualTo(5);
+        assertThat(liveCard.getContent()).isEqualTo(textContent("front", "old"));
+        assertThat(writesCaptor.getValue().get(1)).satisfies(revision -> {
+            assertThat(revision.getDeckVersion()).isEqualTo(5);
+            assertThat(revision.getCardId()).isEqualTo(publicCardId);
+            assertThat(revision.getContent()).isEqualTo(textContent("front", "new"));
+            assertThat(revision.getValidTo()).isNull();
+        });
+        verify(publicCardRepository, never()).findByDeckIdAndDeckVersion(any(), any());
+        assertThat(deck.getCurrentVersion()).isEqualTo(5);
+    }
+
     @Test
     void updateUserCard_globallyRejectsNonUniqueChecksumMatch() {
         UUID userId = UUID.randomUUID();
@@ -827,7 +1097,7 @@ class CardServiceTest {
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
         when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
         when(publicCardRepository.findFirstByCardIdOrderByDeckVersionDesc(stalePublicCardId)).thenReturn(Optional.of(linkedPublicCard));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(latestA, latestB));
+        when(publicCardRepository.findLiveByChecksums(eq(publicDeckId), eq(2), any(String[].class))).thenReturn(List.of(latestA, latestB));
 
         assertThatThrownBy(() -> cardService.updateUserCard(
                 userId,
@@ -910,8 +1180,7 @@ class CardServiceTest {
         when(deckUpdateSessionRepository.findByDeckIdAndOperationId(publicDeckId, operationId)).thenReturn(Optional.of(session));
         when(publicDeckRepository.findByDeckIdAndVersion(publicDeckId, 2)).thenReturn(Optional.of(latestDeck));
         when(deckUpdateSessionRepository.save(any(DeckUpdateSessionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(targetCard));
-        when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(any())).thenReturn(List.of());
+        when(publicCardRepository.findLiveCards(publicDeckId, Set.of(publicCardId), 2)).thenReturn(List.of(targetCard));
         when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userCardRepository.save(any(UserCardEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -940,8 +1209,7 @@ class CardServiceTest {
         when(userCardRepository.findById(card.getUserCardId())).thenReturn(Optional.of(card));
         when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
         when(publicDeckRepository.save(any(PublicDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(targetCard));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 3)).thenReturn(List.of(targetCard));
+        when(publicCardRepository.findLiveByChecksums(eq(publicDeckId), eq(3), any(String[].class))).thenReturn(List.of(targetCard));
         when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(any())).thenReturn(List.of(linkedCard));
         when(publicCardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userDeckRepository.save(any(UserDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -1165,6 +1433,46 @@ class CardServiceTest {
         };
     }
 
+    private UserCardRepository.FieldSignatureProjection fieldSignatureRow(UUID cardId, Instant createdAt, int ord, String value) {
+        return new UserCardRepository.FieldSignatureProjection() {
+            @Override
+            public UUID getUserCardId() {
+                return cardId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public int getOrd() {
+                return ord;
+            }
+
+            @Override
+            public String getValueHash() {
+                return CardMinHash.valueHash(value);
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return null;
+            }
+
+            @Override
+            public String getValue() {
+                return value;
+            }
+        };
+    }
+
+    private static Map<String, int[]> computeSignatures(Map<String, String> valuesByHash) {
+        Map<String, int[]> signatures = new HashMap<>();
+        valuesByHash.forEach((hash, value) -> signatures.put(hash, CardMinHash.signature(value)));
+        return signatures;
+    }
+
     private UserCardRepository.SemanticCandidateProjection semanticProjection(UUID cardId, Instant createdAt, String[] values) {
         return new UserCardRepository.SemanticCandidateProjection() {
             @Override
@@ -1186,7 +1494,8 @@ class CardServiceTest {
 
     private UserCardRepository.DuplicateResolutionProjection duplicateResolutionProjection(UUID userCardId,
                                                                                            UUID publicCardId,
-                                                                                           int rn) {
+                                                                                           int rn,
+                                                                                           UUID survivorId) {
         return new UserCardRepository.DuplicateResolutionProjection() {
             @Override
             public UUID getUserCardId() {
@@ -1202,9 +1511,21 @@ class CardServiceTest {
             public int getRn() {
                 return rn;
             }
+
+            @Override
+            public UUID getSurvivorId() {
+                return survivorId;
+            }
         };
     }
 
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
     private ObjectNode textContent(String key, String value) {
         ObjectNode node = objectMapper.createObjectNode();
         node.put(key, value);
@@ -30,18 +30,23 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -71,6 +76,12 @@ class DeckServiceTest {
     @Mock
     ContentAdminAccessService contentAdminAccessService;
 
+    @Mock
+    PublicDeckCatalogCache publicDeckCatalogCache;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
     @InjectMocks
     DeckService deckService;
 
@@ -81,17 +92,55 @@ class DeckServiceTest {
         PublicDeckEntity entity = publicDeck(publicDeckId, 1, UUID.randomUUID(), iconId, 2, true, true);
         Page<PublicDeckEntity> repoPage = new PageImpl<>(List.of(entity), PageRequest.of(0, 10), 1);
 
+        when(publicDeckCatalogCache.getPage(eq(1), eq(10), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<PublicDeckCatalogCache.CatalogPage>>getArgument(2).get());
         when(publicDeckRepository.findLatestPublicVisibleDecks(any(Pageable.class))).thenReturn(repoPage);
         when(mediaResolveCache.resolve(List.of(iconId))).thenReturn(Map.of(iconId, media(iconId, "https://cdn/icon.png")));
 
         Page<PublicDeckDTO> result = deckService.getPublicDecksByPage(1, 10);
 
+        assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent()).singleElement().satisfies(dto -> {
             assertThat(dto.deckId()).isEqualTo(publicDeckId);
             assertThat(dto.iconUrl()).isEqualTo("https://cdn/icon.png");
         });
     }
 
+    @Test
+    void getPublicDecksByPage_servesCachedPageWithoutRepositoryAndResolvesFreshIconUrls() {
+        UUID publicDeckId = UUID.randomUUID();
+        UUID iconId = UUID.randomUUID();
+        PublicDeckDTO cachedDeck = new PublicDeckDTO(
+                publicDeckId, 2, UUID.randomUUID(), "Cached", null, iconId, null, UUID.randomUUID(), 1,
+                true, true, LanguageTag.en, null, Instant.parse("2026-04-07T12:00:00Z"), null, null, null
+        );
+
+        when(publicDeckCatalogCache.getPage(eq(2), eq(5), any()))
+                .thenReturn(new PublicDeckCatalogCache.CatalogPage(List.of(cachedDeck), 6));
+        when(mediaResolveCache.resolve(List.of(iconId))).thenReturn(Map.of(iconId, media(iconId, "https://cdn/fresh.png")));
+
+        Page<PublicDeckDTO> result = deckService.getPublicDecksByPage(2, 5);
+
+        assertThat(result.getTotalElements()).isEqualTo(6);
+        assertThat(result.getNumber()).isEqualTo(1);
+        assertThat(result.getContent()).singleElement().satisfies(dto -> {
+            assertThat(dto.name()).isEqualTo("Cached");
+            assertThat(dto.iconUrl()).isEqualTo("https://cdn/fresh.png");
+        });
+        verify(publicDeckRepository, never()).findLatestPublicVisibleDecks(any(Pageable.class));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void getPublicDecksByPage_clampsOversizedLimit() {
+        when(publicDeckCatalogCache.getPage(eq(1), eq(50), any()))
+                .thenReturn(new PublicDeckCatalogCache.CatalogPage(List.of(), 0));
+
+        Page<PublicDeckDTO> result = deckService.getPublicDecksByPage(1, 10_000);
+
+        assertThat(result.getSize()).isEqualTo(50);
+    }
+
     @Test
     void getPublicDeck_returnsSpecifiedVersionAndResolvesSingleIcon() {
         UUID deckId = UUID.randomUUID();
@@ -175,6 +224,8 @@ class DeckServiceTest {
         UUID deckId = UUID.randomUUID();
         PublicDeckEntity latestDeck = publicDeck(deckId, 3, UUID.randomUUID(), null, 2, true, true);
 
+        when(publicDeckCatalogCache.getDeckSize(eq(deckId), isNull(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<DeckSizeDTO>>getArgument(2).get());
         when(publicDeckRepository.findLatestByDeckId(deckId)).thenReturn(Optional.of(latestDeck));
         when(publicCardRepository.countByDeckIdAndDeckVersionAndActiveTrue(deckId, 3)).thenReturn(7L);
 
@@ -329,6 +380,7 @@ class DeckServiceTest {
         assertThat(deck.isListed()).isFalse();
         assertThat(deck.isPublicFlag()).isFalse();
         verify(publicDeckRepository).save(deck);
+        verify(publicDeckCatalogCache).invalidate();
     }
 
     @Test
@@ -372,8 +424,14 @@ class DeckServiceTest {
 
         when(userDeckRepository.findById(userDeckId)).thenReturn(Optional.of(deck));
         when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
-        when(publicCardRepository.findByDeckIdAndDeckVersion(publicDeckId, 2)).thenReturn(List.of(latestRewired, latestAdded, inactive));
-        when(userCardRepository.findByUserDeckId(userDeckId)).thenReturn(List.of(linked));
+        when(publicCardRepository.findChangedSince(eq(publicDeckId), eq(1), eq(2), any(UUID.class), anyInt()))
+                .thenReturn(List.of(latestRewired, latestAdded, inactive));
+        when(userCardRepository.findByUserDeckIdAndPublicCardIdIn(userDeckId, List.of(rewiredCardId, addedCardId, inactive.getCardId())))
+                .thenReturn(List.of());
+        when(userCardRepository.findLinkedByChecksums(userDeckId, publicDeckId, new String[]{"a", "b"}))
+                .thenReturn(List.of(linkedChecksum(linked.getUserCardId(), oldCardId, "a")));
+        when(publicCardRepository.findDuplicateActiveChecksums(publicDeckId, 2, new String[]{"a"})).thenReturn(List.of());
+        when(userCardRepository.findAllById(Set.of(linked.getUserCardId()))).thenReturn(List.of(linked));
         when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(List.of(oldCardId))).thenReturn(List.of(oldPublic));
         when(userCardRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
         when(userDeckRepository.save(any(UserDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -397,6 +455,34 @@ class DeckServiceTest {
         assertThat(inserted.isCustom()).isFalse();
     }
 
+    @Test
+    void syncUserDeckToLatestVersion_readsOnlyChangeSetAndSkipsLinkedCards() {
+        UUID userId = UUID.randomUUID();
+        UUID userDeckId = UUID.randomUUID();
+        UUID publicDeckId = UUID.randomUUID();
+        UUID editedCardId = UUID.randomUUID();
+        Instant now = Instant.parse("2026-04-07T12:00:00Z");
+
+        UserDeckEntity deck = userDeck(userDeckId, userId, publicDeckId, 3, 3, 1, false);
+        PublicDeckEntity latestDeck = publicDeck(publicDeckId, 5, UUID.randomUUID(), null, 1, true, true);
+        PublicCardEntity edited = publicCard(publicDeckId, 5, editedCardId, "edited", null, true, 1, now);
+        UserCardEntity linked = new UserCardEntity(userId, userDeckId, editedCardId, false, false, null, null, null, now, null);
+
+        when(userDeckRepository.findById(userDeckId)).thenReturn(Optional.of(deck));
+        when(publicDeckRepository.findLatestByDeckId(publicDeckId)).thenReturn(Optional.of(latestDeck));
+        when(publicCardRepository.findChangedSince(eq(publicDeckId), eq(3), eq(5), any(UUID.class), anyInt()))
+                .thenReturn(List.of(edited));
+        when(userCardRepository.findByUserDeckIdAndPublicCardIdIn(userDeckId, List.of(editedCardId))).thenReturn(List.of(linked));
+        when(userDeckRepository.save(any(UserDeckEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserDeckDTO result = deckService.syncUserDeckToLatestVersion(userId, userDeckId);
+
+        assertThat(result.currentVersion()).isEqualTo(5);
+        verify(userCardRepository, never()).findByUserDeckId(any());
+        verify(userCardRepository, never()).findLinkedByChecksums(any(), any(), any());
+        verify(userCardRepository, never()).saveAll(any());
+    }
+
     @Test
     void syncUserDeckTemplate_updatesTemplateVersionFromCurrentPublicDeckVersion() {
         UUID userId = UUID.randomUUID();
@@ -521,6 +607,25 @@ class DeckServiceTest {
         assertThat(captor.getValue()).singleElement().satisfies(card -> assertThat(card.getPublicCardId()).isEqualTo(activeCardId));
     }
 
+    private UserCardRepository.LinkedChecksumProjection linkedChecksum(UUID userCardId, UUID publicCardId, String checksum) {
+        return new UserCardRepository.LinkedChecksumProjection() {
+            @Override
+            public UUID getUserCardId() {
+                return userCardId;
+            }
+
+            @Override
+            public UUID getPublicCardId() {
+                return publicCardId;
+            }
+
+            @Override
+            public String getChecksum() {
+                return checksum;
+            }
+        };
+    }
+
     private UserDeckEntity userDeck(UUID userDeckId,
                                     UUID userId,
                                     UUID publicDeckId,
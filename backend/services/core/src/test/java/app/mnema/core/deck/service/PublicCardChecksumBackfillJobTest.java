@@ -0,0 +1,134 @@
+package app.mnema.core.deck.service;
+
+import app.mnema.core.deck.domain.entity.PublicCardEntity;
+import app.mnema.core.deck.repository.PublicCardRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PublicCardChecksumBackfillJobTest {
+
+    @Mock
+    PublicCardRepository publicCardRepository;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    PublicCardChecksumBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        job = new PublicCardChecksumBackfillJob(publicCardRepository, objectMapper, transactionTemplate, 2, 5);
+    }
+
+    @Test
+    void backfillWritesCanonicalChecksumAndAdvancesKeyset() throws Exception {
+        UUID deckId = UUID.randomUUID();
+        PublicCardEntity missing = publicCard(deckId, 1, new UUID(0L, 1L), "{\"b\":\"A\",\"a\":\"Q\"}", null);
+        PublicCardEntity legacy = publicCard(deckId, 1, new UUID(0L, 2L), "{\"a\":\"Q\",\"b\":\"A\"}", "LEGACY");
+        PublicCardEntity tail = publicCard(deckId, 2, new UUID(0L, 3L), "{\"front\":\"x\"}", " ");
+        when(publicCardRepository.findMissingChecksumDigest(new UUID(0L, 0L), 0, new UUID(0L, 0L), 2))
+                .thenReturn(List.of(missing, legacy));
+        when(publicCardRepository.findMissingChecksumDigest(deckId, 1, legacy.getCardId(), 2))
+                .thenReturn(List.of(tail));
+
+        int filled = job.backfill();
+
+        assertThat(filled).isEqualTo(3);
+        String expected = CardChecksums.compute(objectMapper, objectMapper.readTree("{\"a\":\"Q\",\"b\":\"A\"}"));
+        assertThat(expected).matches("[0-9a-f]{64}");
+        assertThat(missing.getChecksum()).isEqualTo(expected);
+        assertThat(legacy.getChecksum()).isEqualTo(expected);
+        assertThat(tail.getChecksum()).matches("[0-9a-f]{64}");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PublicCardEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(publicCardRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getAllValues().getFirst()).containsExactly(missing, legacy);
+        assertThat(saved.getAllValues().getLast()).containsExactly(tail);
+    }
+
+    @Test
+    void backfillSkipsRowsWithoutContentAndStopsOnShortBatch() {
+        PublicCardEntity empty = publicCard(UUID.randomUUID(), 1, UUID.randomUUID(), null, null);
+        when(publicCardRepository.findMissingChecksumDigest(any(), anyInt(), any(), eq(2)))
+                .thenReturn(List.of(empty));
+
+        int filled = job.backfill();
+
+        assertThat(filled).isZero();
+        assertThat(empty.getChecksum()).isNull();
+        verify(publicCardRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void backfillResumesNextRunAfterLastClaimedRowAndWrapsAtTheEnd() {
+        PublicCardChecksumBackfillJob singleBatchJob =
+                new PublicCardChecksumBackfillJob(publicCardRepository, objectMapper, transactionTemplate, 2, 1);
+        UUID deckId = UUID.randomUUID();
+        UUID start = new UUID(0L, 0L);
+        PublicCardEntity first = publicCard(deckId, 1, new UUID(0L, 1L), null, null);
+        PublicCardEntity second = publicCard(deckId, 1, new UUID(0L, 2L), null, null);
+        when(publicCardRepository.findMissingChecksumDigest(start, 0, start, 2))
+                .thenReturn(List.of(first, second));
+        when(publicCardRepository.findMissingChecksumDigest(deckId, 1, second.getCardId(), 2))
+                .thenReturn(List.of());
+
+        singleBatchJob.backfill();
+        singleBatchJob.backfill();
+        singleBatchJob.backfill();
+
+        verify(publicCardRepository, times(2)).findMissingChecksumDigest(start, 0, start, 2);
+        verify(publicCardRepository, times(1)).findMissingChecksumDigest(deckId, 1, second.getCardId(), 2);
+    }
+
+    private PublicCardEntity publicCard(UUID deckId, int deckVersion, UUID cardId, String content, String checksum) {
+        JsonNode node;
+        try {
+            node = content == null ? null : objectMapper.readTree(content);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        return new PublicCardEntity(
+                deckId,
+                deckVersion,
+                null,
+                cardId,
+                node,
+                1,
+                null,
+                Instant.parse("2026-04-07T12:00:00Z"),
+                null,
+                true,
+                checksum
+        );
+    }
+}
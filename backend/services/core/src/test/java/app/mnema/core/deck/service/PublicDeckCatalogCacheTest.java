@@ -0,0 +1,106 @@
+package app.mnema.core.deck.service;
+
+import app.mnema.core.deck.domain.dto.DeckSizeDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PublicDeckCatalogCacheTest {
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(
+            PublicDeckCatalogCache.GENERATION_CACHE,
+            PublicDeckCatalogCache.PAGES_CACHE,
+            PublicDeckCatalogCache.SIZES_CACHE
+    );
+    private final PublicDeckCatalogCache cache = new PublicDeckCatalogCache(cacheManager);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getPage_loadsOncePerPageUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPage(1, 10, () -> page(loads));
+        cache.getPage(1, 10, () -> page(loads));
+        cache.getPage(2, 10, () -> page(loads));
+        assertThat(loads).hasValue(2);
+
+        cache.invalidate();
+        cache.getPage(1, 10, () -> page(loads));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void getDeckSize_keysLatestAndExplicitVersionSeparately() {
+        UUID deckId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        DeckSizeDTO latest = cache.getDeckSize(deckId, null, () -> size(deckId, 7, loads));
+        DeckSizeDTO cached = cache.getDeckSize(deckId, null, () -> size(deckId, 99, loads));
+        DeckSizeDTO versioned = cache.getDeckSize(deckId, 2, () -> size(deckId, 5, loads));
+
+        assertThat(latest.cardsQty()).isEqualTo(7);
+        assertThat(cached.cardsQty()).isEqualTo(7);
+        assertThat(versioned.cardsQty()).isEqualTo(5);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidate_insideTransactionTakesEffectOnlyAfterCommit() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getPage(1, 10, () -> page(loads));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate();
+
+        cache.getPage(1, 10, () -> page(loads));
+        assertThat(loads).hasValue(1);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        cache.getPage(1, 10, () -> page(loads));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getPage_fallsBackToLoaderWhenCachesAreMissing() {
+        CacheManager emptyManager = mock(CacheManager.class);
+        when(emptyManager.getCache(PublicDeckCatalogCache.GENERATION_CACHE)).thenReturn(null);
+        when(emptyManager.getCache(PublicDeckCatalogCache.PAGES_CACHE)).thenReturn(null);
+        PublicDeckCatalogCache uncached = new PublicDeckCatalogCache(emptyManager);
+        AtomicInteger loads = new AtomicInteger();
+
+        uncached.getPage(1, 10, () -> page(loads));
+        uncached.getPage(1, 10, () -> page(loads));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static PublicDeckCatalogCache.CatalogPage page(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new PublicDeckCatalogCache.CatalogPage(List.of(), 0);
+    }
+
+    private static DeckSizeDTO size(UUID deckId, long qty, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new DeckSizeDTO(deckId, qty);
+    }
+}
@@ -1,7 +1,10 @@
 package app.mnema.core.deck.service;
 
 import app.mnema.core.deck.domain.dto.CardTemplateDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchHitDTO;
+import app.mnema.core.deck.domain.dto.GlobalCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserCardDTO;
+import app.mnema.core.deck.domain.dto.UserCardSearchPageDTO;
 import app.mnema.core.deck.domain.dto.UserDeckDTO;
 import app.mnema.core.deck.domain.entity.CardTemplateEntity;
 import app.mnema.core.deck.domain.entity.CardTemplateVersionEntity;
@@ -36,6 +39,7 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -158,7 +162,7 @@ class SearchServiceTest {
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> searchService.searchUserCards(userId, deckId, "query", null, 1, 10))
+        assertThatThrownBy(() -> searchService.searchUserCards(userId, deckId, "query", null, null, 10))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("User deck not found: " + deckId);
     }
@@ -174,7 +178,7 @@ class SearchServiceTest {
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(deck));
 
-        assertThatThrownBy(() -> searchService.searchUserCards(userId, deckId, "query", null, 1, 10))
+        assertThatThrownBy(() -> searchService.searchUserCards(userId, deckId, "query", null, null, 10))
                 .isInstanceOf(SecurityException.class)
                 .hasMessage("Access denied to deck " + deckId);
     }
@@ -186,9 +190,10 @@ class SearchServiceTest {
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId)));
 
-        Page<UserCardDTO> result = searchService.searchUserCards(userId, deckId, " ", List.of(" "), 1, 10);
+        UserCardSearchPageDTO result = searchService.searchUserCards(userId, deckId, " ", List.of(" "), null, 10);
 
-        assertThat(result.getContent()).isEmpty();
+        assertThat(result.content()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
         verifyNoInteractions(userCardRepository, publicCardRepository);
     }
 
@@ -231,8 +236,10 @@ class SearchServiceTest {
         );
         customCard.setUserCardId(customCardId);
 
-        when(userCardRepository.searchUserCardsByTags(eq(userId), eq(deckId), eq("verbs,shared"), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(linkedCard, customCard), PageRequest.of(0, 10), 2));
+        when(userCardRepository.searchUserCardHitsByTags(eq(userId), eq(deckId), eq("verbs,shared"), any(Instant.class), any(UUID.class), eq(11)))
+                .thenReturn(List.of(hit(linkedUserCardId, now, null), hit(customCardId, now, null)));
+        when(userCardRepository.findAllById(List.of(linkedUserCardId, customCardId)))
+                .thenReturn(List.of(customCard, linkedCard));
 
         PublicCardEntity latestPublicCard = new PublicCardEntity(
                 UUID.randomUUID(),
@@ -264,26 +271,26 @@ class SearchServiceTest {
         when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(anyCollection()))
                 .thenReturn(List.of(latestPublicCard, olderPublicCard));
 
-        Page<UserCardDTO> result = searchService.searchUserCards(
+        UserCardSearchPageDTO result = searchService.searchUserCards(
                 userId,
                 deckId,
                 null,
                 List.of(" verbs ", "", "shared", "verbs"),
-                1,
+                null,
                 10
         );
 
-        verify(userCardRepository).searchUserCardsByTags(eq(userId), eq(deckId), eq("verbs,shared"), any(Pageable.class));
         verify(publicCardRepository).findAllByCardIdInOrderByDeckVersionDesc(List.of(publicCardId));
 
-        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.content()).hasSize(2);
+        assertThat(result.nextCursor()).isNull();
 
-        UserCardDTO linkedResult = result.getContent().get(0);
+        UserCardDTO linkedResult = result.content().get(0);
         assertThat(linkedResult.userCardId()).isEqualTo(linkedUserCardId);
         assertThat(linkedResult.tags()).containsExactly("public", "shared");
         assertThat(linkedResult.effectiveContent()).isEqualTo(json("{\"front\":\"base\",\"back\":\"override\",\"extra\":\"note\"}"));
 
-        UserCardDTO customResult = result.getContent().get(1);
+        UserCardDTO customResult = result.content().get(1);
         assertThat(customResult.userCardId()).isEqualTo(customCardId);
         assertThat(customResult.tags()).containsExactly("custom");
         assertThat(customResult.effectiveContent()).isEqualTo(json("{\"front\":\"custom\"}"));
@@ -313,14 +320,16 @@ class SearchServiceTest {
         );
         card.setUserCardId(userCardId);
 
-        when(userCardRepository.searchUserCards(eq(userId), eq(deckId), eq("query"), isNull(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(card), PageRequest.of(0, 10), 1));
+        when(userCardRepository.searchUserCardHits(eq(userId), eq(deckId), eq("query"), isNull(),
+                eq(Float.POSITIVE_INFINITY), any(Instant.class), any(UUID.class), eq(11)))
+                .thenReturn(List.of(hit(userCardId, now, 0.5f)));
+        when(userCardRepository.findAllById(List.of(userCardId))).thenReturn(List.of(card));
         when(publicCardRepository.findAllByCardIdInOrderByDeckVersionDesc(List.of(publicCardId)))
                 .thenReturn(List.of());
 
-        Page<UserCardDTO> result = searchService.searchUserCards(userId, deckId, "query", null, 1, 10);
+        UserCardSearchPageDTO result = searchService.searchUserCards(userId, deckId, "query", null, null, 10);
 
-        assertThat(result.getContent()).singleElement().satisfies(dto -> {
+        assertThat(result.content()).singleElement().satisfies(dto -> {
             assertThat(dto.userCardId()).isEqualTo(userCardId);
             assertThat(dto.tags()).isNull();
             assertThat(dto.effectiveContent()).isEqualTo(json("\"override\""));
@@ -333,15 +342,144 @@ class SearchServiceTest {
         UUID deckId = UUID.randomUUID();
 
         when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId)));
-        when(userCardRepository.searchUserCards(eq(userId), eq(deckId), eq("query"), isNull(), any(Pageable.class)))
-                .thenReturn(Page.empty(PageRequest.of(0, 10)));
+        when(userCardRepository.searchUserCardHits(eq(userId), eq(deckId), eq("query"), isNull(),
+                eq(Float.POSITIVE_INFINITY), any(Instant.class), any(UUID.class), eq(11)))
+                .thenReturn(List.of());
 
-        Page<UserCardDTO> result = searchService.searchUserCards(userId, deckId, "query", null, 1, 10);
+        UserCardSearchPageDTO result = searchService.searchUserCards(userId, deckId, "query", null, null, 10);
 
-        assertThat(result.getContent()).isEmpty();
+        assertThat(result.content()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
         verifyNoInteractions(publicCardRepository);
     }
 
+    @Test
+    void searchUserCards_capsPageSize() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId)));
+        when(userCardRepository.searchUserCardHits(eq(userId), eq(deckId), eq("query"), isNull(),
+                eq(Float.POSITIVE_INFINITY), any(Instant.class), any(UUID.class), eq(101)))
+                .thenReturn(List.of());
+
+        UserCardSearchPageDTO result = searchService.searchUserCards(userId, deckId, "query", null, null, Integer.MAX_VALUE);
+
+        assertThat(result.content()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void searchUserCards_returnsCursorOfLastHitAndResumesAfterIt() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        Instant now = Instant.parse("2026-04-07T12:00:00Z");
+        UserCardEntity first = new UserCardEntity(userId, deckId, null, true, false, null, null, json("{\"front\":\"a\"}"), now, null);
+        first.setUserCardId(firstId);
+
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId)));
+        when(userCardRepository.searchUserCardHits(eq(userId), eq(deckId), eq("query"), isNull(),
+                eq(Float.POSITIVE_INFINITY), any(Instant.class), any(UUID.class), eq(2)))
+                .thenReturn(List.of(hit(firstId, now, 0.25f), hit(secondId, now.minusSeconds(1), 0.125f)));
+        when(userCardRepository.findAllById(List.of(firstId))).thenReturn(List.of(first));
+
+        UserCardSearchPageDTO page = searchService.searchUserCards(userId, deckId, "query", null, null, 1);
+
+        assertThat(page.content()).extracting(UserCardDTO::userCardId).containsExactly(firstId);
+        assertThat(page.nextCursor()).isNotBlank();
+
+        when(userCardRepository.searchUserCardHits(userId, deckId, "query", null, 0.25f, now, firstId, 2))
+                .thenReturn(List.of());
+
+        UserCardSearchPageDTO next = searchService.searchUserCards(userId, deckId, "query", null, page.nextCursor(), 1);
+
+        assertThat(next.content()).isEmpty();
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    void searchUserCards_rejectsMalformedCursor() {
+        UUID userId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+
+        when(userDeckRepository.findById(deckId)).thenReturn(Optional.of(userDeck(deckId, userId)));
+
+        assertThatThrownBy(() -> searchService.searchUserCards(userId, deckId, "query", null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid search cursor");
+    }
+
+    @Test
+    void searchAllUserCards_returnsEmptyWhenQueryBlank() {
+        GlobalCardSearchPageDTO page = searchService.searchAllUserCards(UUID.randomUUID(), "  ", null, 20);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+        verifyNoInteractions(userCardRepository, userDeckRepository);
+    }
+
+    @Test
+    void searchAllUserCards_mapsHitsWithDeckNamesHighlightsAndCursor() {
+        UUID userId = UUID.randomUUID();
+        UUID firstDeckId = UUID.randomUUID();
+        UUID secondDeckId = UUID.randomUUID();
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        Instant now = Instant.parse("2026-04-07T12:00:00Z");
+        UserCardEntity first = new UserCardEntity(userId, firstDeckId, null, true, false, null, null, json("{\"front\":\"sprint\"}"), now, null);
+        first.setUserCardId(firstId);
+        UserCardEntity second = new UserCardEntity(userId, secondDeckId, null, true, false, "sprint note", null, null, now, null);
+        second.setUserCardId(secondId);
+        UserDeckEntity firstDeck = userDeck(firstDeckId, userId);
+        firstDeck.setDisplayName("Verbs");
+        UserDeckEntity secondDeck = userDeck(secondDeckId, userId);
+        secondDeck.setDisplayName("Notes");
+
+        when(userCardRepository.searchAllUserCardHits(eq(userId), eq("sprint"),
+                eq(Float.POSITIVE_INFINITY), any(Instant.class), any(UUID.class), eq(3)))
+                .thenReturn(List.of(
+                        globalHit(firstId, firstDeckId, now, 0.5f, "<mark>sprint</mark>"),
+                        globalHit(secondId, secondDeckId, now.minusSeconds(1), 0.25f, "<mark>sprint</mark> note"),
+                        globalHit(UUID.randomUUID(), firstDeckId, now.minusSeconds(2), 0.125f, null)
+                ));
+        when(userCardRepository.findAllById(List.of(firstId, secondId))).thenReturn(List.of(second, first));
+        when(userDeckRepository.findAllById(List.of(firstDeckId, secondDeckId))).thenReturn(List.of(firstDeck, secondDeck));
+
+        GlobalCardSearchPageDTO page = searchService.searchAllUserCards(userId, " sprint ", null, 2);
+
+        assertThat(page.content())
+                .extracting(GlobalCardSearchHitDTO::deckName, GlobalCardSearchHitDTO::rank, GlobalCardSearchHitDTO::highlight)
+                .containsExactly(
+                        tuple("Verbs", 0.5f, "<mark>sprint</mark>"),
+                        tuple("Notes", 0.25f, "<mark>sprint</mark> note")
+                );
+        assertThat(page.content().get(1).card().personalNote()).isEqualTo("sprint note");
+        assertThat(page.nextCursor()).isNotBlank();
+
+        when(userCardRepository.searchAllUserCardHits(userId, "sprint", 0.25f, now.minusSeconds(1), secondId, 3))
+                .thenReturn(List.of());
+
+        GlobalCardSearchPageDTO next = searchService.searchAllUserCards(userId, "sprint", page.nextCursor(), 2);
+
+        assertThat(next.content()).isEmpty();
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    void searchAllUserCards_capsPageSize() {
+        UUID userId = UUID.randomUUID();
+        when(userCardRepository.searchAllUserCardHits(eq(userId), eq("sprint"),
+                eq(Float.POSITIVE_INFINITY), any(Instant.class), any(UUID.class), eq(101)))
+                .thenReturn(List.of());
+
+        GlobalCardSearchPageDTO page = searchService.searchAllUserCards(userId, "sprint", null, 5000);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
     @Test
     void searchTemplates_throwsOnUnknownScope() {
         UUID userId = UUID.randomUUID();
@@ -453,6 +591,58 @@ class SearchServiceTest {
         assertThat(mappedSecond.fields()).isEmpty();
     }
 
+    private static UserCardRepository.SearchHitProjection hit(UUID userCardId, Instant createdAt, Float rank) {
+        return new UserCardRepository.SearchHitProjection() {
+            @Override
+            public UUID getUserCardId() {
+                return userCardId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public Float getRank() {
+                return rank;
+            }
+        };
+    }
+
+    private static UserCardRepository.GlobalSearchHitProjection globalHit(UUID userCardId,
+                                                                         UUID userDeckId,
+                                                                         Instant createdAt,
+                                                                         Float rank,
+                                                                         String highlight) {
+        return new UserCardRepository.GlobalSearchHitProjection() {
+            @Override
+            public UUID getUserCardId() {
+                return userCardId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public Float getRank() {
+                return rank;
+            }
+
+            @Override
+            public UUID getUserDeckId() {
+                return userDeckId;
+            }
+
+            @Override
+            public String getHighlight() {
+                return highlight;
+            }
+        };
+    }
+
     private UserDeckEntity userDeck(UUID deckId, UUID userId) {
         UserDeckEntity deck = new UserDeckEntity();
         deck.setUserDeckId(deckId);
@@ -0,0 +1,169 @@
+package app.mnema.importer.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Wakes {@link ImportJobWorker} when a trigger on {@code app_import.import_jobs} notifies
+ * {@link #CHANNEL} about a queued job. While the listener is connected the scheduled tick only
+ * runs a safety sweep; without it the tick polls as before.
+ */
+@Component
+@ConditionalOnProperty(value = "app.import.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class ImportJobDispatcher {
+
+    static final String CHANNEL = "import_jobs";
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobDispatcher.class);
+    private static final int LISTEN_TIMEOUT_MS = 30_000;
+
+    private final DataSource dataSource;
+    private final ImportJobWorker worker;
+    private final boolean enabled;
+    private final long idlePollIntervalMs;
+    private final long reconnectDelayMs;
+    private final LongSupplier clock;
+    // Imports run on one drain thread, so neither the listener nor the scheduler blocks on a long job.
+    private final ExecutorService drainExecutor;
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+    private volatile long lastWakeAt;
+    private volatile boolean listening;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Autowired
+    public ImportJobDispatcher(DataSource dataSource,
+                               ImportJobWorker worker,
+                               @Value("${app.import.listen-enabled:true}") boolean enabled,
+                               @Value("${app.import.idle-poll-interval-ms:300000}") long idlePollIntervalMs,
+                               @Value("${app.import.listen-reconnect-ms:5000}") long reconnectDelayMs) {
+        this(dataSource, worker, enabled, idlePollIntervalMs, reconnectDelayMs, System::currentTimeMillis);
+    }
+
+    ImportJobDispatcher(DataSource dataSource,
+                        ImportJobWorker worker,
+                        boolean enabled,
+                        long idlePollIntervalMs,
+                        long reconnectDelayMs,
+                        LongSupplier clock) {
+        this.dataSource = dataSource;
+        this.worker = worker;
+        this.enabled = enabled;
+        this.idlePollIntervalMs = Math.max(idlePollIntervalMs, 1_000L);
+        this.reconnectDelayMs = Math.max(reconnectDelayMs, 100L);
+        this.clock = clock;
+        this.lastWakeAt = clock.getAsLong();
+        this.drainExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("import-job-drain-", 0).factory());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("import-job-dispatcher")
+                .daemon()
+                .start(this::listenLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        drainExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.import.poll-interval-ms:2000}")
+    public void tick() {
+        if (!listening || clock.getAsLong() - lastWakeAt >= idlePollIntervalMs) {
+            wake();
+        }
+    }
+
+    void setListening(boolean listening) {
+        this.listening = listening;
+    }
+
+    void wake() {
+        lastWakeAt = clock.getAsLong();
+        if (wakeScheduled.compareAndSet(false, true)) {
+            drainExecutor.execute(() -> {
+                wakeScheduled.set(false);
+                poll();
+            });
+        }
+    }
+
+    private void poll() {
+        try {
+            worker.poll();
+        } catch (RuntimeException ex) {
+            log.warn("Import job dispatch failed error={}", ex.getMessage());
+        }
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listening = true;
+                log.info("Import job dispatcher listening channel={}", CHANNEL);
+                wake();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        wake();
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (running) {
+                    log.warn("Import job dispatcher lost listener connection, falling back to polling error={}", ex.getMessage());
+                }
+            } finally {
+                listening = false;
+            }
+            if (!sleepBeforeReconnect()) {
+                return;
+            }
+        }
+    }
+
+    private boolean sleepBeforeReconnect() {
+        if (!running) {
+            return false;
+        }
+        try {
+            Thread.sleep(reconnectDelayMs);
+            return running;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -9,7 +9,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +16,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @ConditionalOnProperty(value = "app.import.worker.enabled", havingValue = "true", matchIfMissing = true)
@@ -30,6 +30,8 @@ public class ImportJobWorker {
     private final ExportProcessor exportProcessor;
     private final String workerId;
     private final Duration lockTtl;
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private final AtomicBoolean draining = new AtomicBoolean();
 
     public ImportJobWorker(JdbcTemplate jdbcTemplate,
                            ImportJobRepository jobRepository,
@@ -45,10 +47,23 @@ public class ImportJobWorker {
         this.lockTtl = Duration.ofSeconds(lockTtlSeconds);
     }
 
-    @Scheduled(fixedDelayString = "${app.import.poll-interval-ms:2000}")
+    // Jobs run one at a time per replica. A wake-up that arrives while a drain is in progress only
+    // raises the flag, and the running drain claims again before it exits.
     public void poll() {
-        Optional<ImportJobEntity> jobOpt = claimNextJob();
-        jobOpt.ifPresent(this::handleJob);
+        wakeRequested.set(true);
+        while (wakeRequested.get() && draining.compareAndSet(false, true)) {
+            try {
+                while (wakeRequested.getAndSet(false)) {
+                    Optional<ImportJobEntity> jobOpt = claimNextJob();
+                    while (jobOpt.isPresent()) {
+                        handleJob(jobOpt.get());
+                        jobOpt = claimNextJob();
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
     }
 
     private void handleJob(ImportJobEntity job) {
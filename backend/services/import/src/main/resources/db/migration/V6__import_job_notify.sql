@@ -0,0 +1,16 @@
+CREATE OR REPLACE FUNCTION app_import.notify_import_job_queued() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify('import_jobs', '');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_import_jobs_notify_queued ON app_import.import_jobs;
+
+CREATE TRIGGER tr_import_jobs_notify_queued
+    AFTER INSERT OR UPDATE OF status
+    ON app_import.import_jobs
+    FOR EACH ROW
+    WHEN (NEW.status = 'queued')
+EXECUTE FUNCTION app_import.notify_import_job_queued();
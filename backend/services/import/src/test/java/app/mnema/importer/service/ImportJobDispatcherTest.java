@@ -0,0 +1,42 @@
+package app.mnema.importer.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ImportJobDispatcherTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final ImportJobWorker worker = mock(ImportJobWorker.class);
+
+    @Test
+    void tickPollsWhileNotListening() {
+        ImportJobDispatcher dispatcher = new ImportJobDispatcher(mock(DataSource.class), worker, true, 60_000L, 1_000L, clock::get);
+
+        dispatcher.tick();
+
+        verify(worker, timeout(1_000L)).poll();
+        dispatcher.stop();
+    }
+
+    @Test
+    void listeningTickOnlyRunsTheSafetySweep() {
+        ImportJobDispatcher dispatcher = new ImportJobDispatcher(mock(DataSource.class), worker, true, 60_000L, 1_000L, clock::get);
+        dispatcher.setListening(true);
+
+        clock.addAndGet(2_000L);
+        dispatcher.tick();
+        verify(worker, after(200L).never()).poll();
+
+        clock.addAndGet(60_000L);
+        dispatcher.tick();
+        verify(worker, timeout(1_000L)).poll();
+        dispatcher.stop();
+    }
+}
@@ -47,7 +47,7 @@ class ImportJobWorkerTest {
         ImportJobWorker worker = org.mockito.Mockito.spy(new ImportJobWorker(
                 jdbcTemplate, jobRepository, importProcessor, exportProcessor, "worker-1", 300
         ));
-        doReturn(Optional.of(job)).when(worker).claimNextJob();
+        doReturn(Optional.of(job), Optional.empty()).when(worker).claimNextJob();
         when(jobRepository.findById(job.getJobId())).thenReturn(Optional.of(job));
         when(jobRepository.save(any(ImportJobEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -67,7 +67,7 @@ class ImportJobWorkerTest {
         ImportJobWorker worker = org.mockito.Mockito.spy(new ImportJobWorker(
                 jdbcTemplate, jobRepository, importProcessor, exportProcessor, "worker-1", 300
         ));
-        doReturn(Optional.of(job)).when(worker).claimNextJob();
+        doReturn(Optional.of(job), Optional.empty()).when(worker).claimNextJob();
         doThrow(new IllegalArgumentException("bad import payload")).when(importProcessor).process(job);
         when(jobRepository.findById(job.getJobId())).thenReturn(Optional.of(job));
         when(jobRepository.save(any(ImportJobEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -60,6 +60,9 @@ public class MediaAssetEntity {
     @Column(name = "deleted_at")
     private Instant deletedAt;
 
+    @Column(name = "purged_at")
+    private Instant purgedAt;
+
     protected MediaAssetEntity() {
     }
 
@@ -204,4 +207,12 @@ public class MediaAssetEntity {
     public void setDeletedAt(Instant deletedAt) {
         this.deletedAt = deletedAt;
     }
+
+    public Instant getPurgedAt() {
+        return purgedAt;
+    }
+
+    public void setPurgedAt(Instant purgedAt) {
+        this.purgedAt = purgedAt;
+    }
 }
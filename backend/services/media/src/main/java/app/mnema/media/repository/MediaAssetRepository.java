@@ -2,12 +2,57 @@ package app.mnema.media.repository;
 
 import app.mnema.media.domain.entity.MediaAssetEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface MediaAssetRepository extends JpaRepository<MediaAssetEntity, UUID> {
     List<MediaAssetEntity> findByMediaIdIn(List<UUID> mediaIds);
+
+    @Query(value = """
+            select *
+            from app_media.media_assets a
+            where a.purged_at is null
+              and a.media_id > :afterId
+              and ((a.status in ('deleted', 'rejected')
+                    and coalesce(a.deleted_at, a.updated_at, a.created_at) < :retentionCutoff)
+                   or (a.status = 'pending' and a.created_at < :pendingCutoff))
+            order by a.media_id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<MediaAssetEntity> claimGarbageCandidates(
+            @Param("afterId") UUID afterId,
+            @Param("retentionCutoff") Instant retentionCutoff,
+            @Param("pendingCutoff") Instant pendingCutoff,
+            @Param("limit") int limit
+    );
+
+    @Modifying
+    @Query("""
+        update MediaAssetEntity a
+           set a.status = app.mnema.media.domain.type.MediaStatus.deleted,
+               a.deletedAt = :now,
+               a.updatedAt = :now
+         where a.mediaId in :mediaIds
+           and a.status = app.mnema.media.domain.type.MediaStatus.pending
+        """)
+    int markPendingDeleted(@Param("mediaIds") List<UUID> mediaIds, @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+        update MediaAssetEntity a
+           set a.status = app.mnema.media.domain.type.MediaStatus.deleted,
+               a.deletedAt = coalesce(a.deletedAt, :now),
+               a.purgedAt = :now
+         where a.mediaId in :mediaIds
+           and a.status <> app.mnema.media.domain.type.MediaStatus.ready
+        """)
+    int markPurged(@Param("mediaIds") List<UUID> mediaIds, @Param("now") Instant now);
 }
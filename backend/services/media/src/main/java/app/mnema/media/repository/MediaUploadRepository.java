@@ -2,12 +2,46 @@ package app.mnema.media.repository;
 
 import app.mnema.media.domain.entity.MediaUploadEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MediaUploadRepository extends JpaRepository<MediaUploadEntity, UUID> {
     Optional<MediaUploadEntity> findByUploadId(UUID uploadId);
+
+    @Query(value = """
+            select *
+            from app_media.media_uploads u
+            where u.status = 'initiated'
+              and u.upload_id > :afterId
+              and coalesce(u.expires_at, u.created_at) < :cutoff
+            order by u.upload_id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<MediaUploadEntity> claimStaleUploads(
+            @Param("afterId") UUID afterId,
+            @Param("cutoff") Instant cutoff,
+            @Param("limit") int limit
+    );
+
+    @Modifying
+    @Query("""
+        update MediaUploadEntity u
+           set u.status = app.mnema.media.domain.type.UploadStatus.aborted,
+               u.completedAt = :now,
+               u.errorMessage = :reason
+         where u.uploadId in :uploadIds
+           and u.status = app.mnema.media.domain.type.UploadStatus.initiated
+        """)
+    int markAborted(@Param("uploadIds") List<UUID> uploadIds,
+                    @Param("reason") String reason,
+                    @Param("now") Instant now);
 }
@@ -0,0 +1,214 @@
+package app.mnema.media.service;
+
+import app.mnema.media.domain.entity.MediaAssetEntity;
+import app.mnema.media.domain.entity.MediaUploadEntity;
+import app.mnema.media.repository.MediaAssetRepository;
+import app.mnema.media.repository.MediaUploadRepository;
+import app.mnema.media.storage.ObjectStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sweeps media that will never become {@code ready}: expired uploads, rejected or deleted assets
+ * and pending assets whose upload was abandoned. Candidates are claimed with {@code SKIP LOCKED}
+ * in keyset-ordered batches, so several replicas can sweep concurrently without overlapping.
+ */
+@Service
+@ConditionalOnProperty(value = "app.media.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class MediaGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaGarbageCollector.class);
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+    private static final String EXPIRED_UPLOAD_REASON = "Upload expired";
+
+    private final MediaAssetRepository assetRepository;
+    private final MediaUploadRepository uploadRepository;
+    private final ObjectStorage storage;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration uploadGrace;
+    private final Duration pendingTtl;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter reclaimedBytes;
+    private final Counter deletedObjects;
+    private final Counter failedObjects;
+    private final Counter abortedUploads;
+
+    public MediaGarbageCollector(MediaAssetRepository assetRepository,
+                                 MediaUploadRepository uploadRepository,
+                                 ObjectStorage storage,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.media.gc.upload-grace-minutes:60}") long uploadGraceMinutes,
+                                 @Value("${app.media.gc.pending-ttl-hours:24}") long pendingTtlHours,
+                                 @Value("${app.media.gc.retention-hours:24}") long retentionHours,
+                                 @Value("${app.media.gc.batch-size:500}") int batchSize,
+                                 @Value("${app.media.gc.max-batches-per-run:20}") int maxBatches) {
+        this.assetRepository = assetRepository;
+        this.uploadRepository = uploadRepository;
+        this.storage = storage;
+        this.transactionTemplate = transactionTemplate;
+        this.uploadGrace = Duration.ofMinutes(Math.max(uploadGraceMinutes, 0));
+        this.pendingTtl = Duration.ofHours(Math.max(pendingTtlHours, 1));
+        this.retention = Duration.ofHours(Math.max(retentionHours, 0));
+        this.batchSize = Math.min(Math.max(batchSize, 1), 1000);
+        this.maxBatches = Math.max(maxBatches, 1);
+        this.reclaimedBytes = Counter.builder("media.gc.reclaimed.bytes")
+                .description("Bytes reclaimed from object storage by the media garbage collector")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.deletedObjects = Counter.builder("media.gc.objects.deleted")
+                .description("Objects removed from storage by the media garbage collector")
+                .register(meterRegistry);
+        this.failedObjects = Counter.builder("media.gc.objects.failed")
+                .description("Objects the media garbage collector failed to delete")
+                .register(meterRegistry);
+        this.abortedUploads = Counter.builder("media.gc.uploads.aborted")
+                .description("Stale uploads aborted by the media garbage collector")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.media.gc.initial-delay-ms:60000}",
+            fixedDelayString = "${app.media.gc.interval-ms:600000}"
+    )
+    public void sweep() {
+        try {
+            int aborted = abortStaleUploads();
+            SweepResult purged = purgeAssets();
+            if (aborted > 0 || purged.objects() > 0) {
+                log.info("Media GC finished abortedUploads={} purgedObjects={} reclaimedBytes={}",
+                        aborted, purged.objects(), purged.bytes());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Media GC run failed error={}", ex.getMessage());
+        }
+    }
+
+    int abortStaleUploads() {
+        Instant cutoff = Instant.now().minus(uploadGrace);
+        UUID afterId = KEYSET_START;
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            UUID from = afterId;
+            BatchResult result = transactionTemplate.execute(status -> abortUploadBatch(from, cutoff));
+            if (result == null || result.claimed() == 0) {
+                break;
+            }
+            total += result.processed();
+            afterId = result.lastId();
+            if (result.claimed() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    SweepResult purgeAssets() {
+        Instant now = Instant.now();
+        Instant retentionCutoff = now.minus(retention);
+        Instant pendingCutoff = now.minus(pendingTtl);
+        UUID afterId = KEYSET_START;
+        long objects = 0;
+        long bytes = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            UUID from = afterId;
+            PurgeBatch result = transactionTemplate.execute(status -> purgeBatch(from, retentionCutoff, pendingCutoff));
+            if (result == null || result.claimed() == 0) {
+                break;
+            }
+            objects += result.objects();
+            bytes += result.bytes();
+            afterId = result.lastId();
+            if (result.claimed() < batchSize) {
+                break;
+            }
+        }
+        return new SweepResult(objects, bytes);
+    }
+
+    private BatchResult abortUploadBatch(UUID afterId, Instant cutoff) {
+        List<MediaUploadEntity> uploads = uploadRepository.claimStaleUploads(afterId, cutoff, batchSize);
+        if (uploads.isEmpty()) {
+            return new BatchResult(0, 0, afterId);
+        }
+        List<UUID> mediaIds = uploads.stream().map(MediaUploadEntity::getMediaId).distinct().toList();
+        Map<UUID, MediaAssetEntity> assets = assetRepository.findByMediaIdIn(mediaIds).stream()
+                .collect(Collectors.toMap(MediaAssetEntity::getMediaId, Function.identity()));
+
+        for (MediaUploadEntity upload : uploads) {
+            MediaAssetEntity asset = assets.get(upload.getMediaId());
+            if (!upload.isMultipart() || upload.getS3UploadId() == null || asset == null) {
+                continue;
+            }
+            try {
+                storage.abortMultipart(asset.getStorageKey(), upload.getS3UploadId());
+            } catch (RuntimeException ex) {
+                // Bucket lifecycle rules clean up parts that outlive their multipart upload.
+                log.debug("Media GC multipart abort failed uploadId={} error={}", upload.getUploadId(), ex.getMessage());
+            }
+        }
+
+        Instant now = Instant.now();
+        List<UUID> uploadIds = uploads.stream().map(MediaUploadEntity::getUploadId).toList();
+        int aborted = uploadRepository.markAborted(uploadIds, EXPIRED_UPLOAD_REASON, now);
+        assetRepository.markPendingDeleted(mediaIds, now);
+        abortedUploads.increment(aborted);
+        return new BatchResult(uploads.size(), aborted, uploads.getLast().getUploadId());
+    }
+
+    private PurgeBatch purgeBatch(UUID afterId, Instant retentionCutoff, Instant pendingCutoff) {
+        List<MediaAssetEntity> assets = assetRepository.claimGarbageCandidates(afterId, retentionCutoff, pendingCutoff, batchSize);
+        if (assets.isEmpty()) {
+            return new PurgeBatch(0, 0, 0, afterId);
+        }
+        List<String> keys = assets.stream().map(MediaAssetEntity::getStorageKey).distinct().toList();
+        Set<String> failed = storage.deleteObjects(keys);
+
+        List<UUID> purgedIds = new ArrayList<>(assets.size());
+        long bytes = 0;
+        for (MediaAssetEntity asset : assets) {
+            if (failed.contains(asset.getStorageKey())) {
+                continue;
+            }
+            purgedIds.add(asset.getMediaId());
+            if (asset.getSizeBytes() != null) {
+                bytes += asset.getSizeBytes();
+            }
+        }
+        if (!purgedIds.isEmpty()) {
+            assetRepository.markPurged(purgedIds, Instant.now());
+        }
+        deletedObjects.increment(purgedIds.size());
+        failedObjects.increment(failed.size());
+        reclaimedBytes.increment(bytes);
+        return new PurgeBatch(assets.size(), purgedIds.size(), bytes, assets.getLast().getMediaId());
+    }
+
+    record SweepResult(long objects, long bytes) {
+    }
+
+    private record BatchResult(int claimed, int processed, UUID lastId) {
+    }
+
+    private record PurgeBatch(int claimed, int objects, long bytes, UUID lastId) {
+    }
+}
@@ -2,6 +2,7 @@ package app.mnema.media.storage;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 public interface ObjectStorage {
     PresignedUrl presignPut(String key, String contentType, Duration ttl);
@@ -23,4 +24,9 @@ public interface ObjectStorage {
     PresignedUrl presignGetInternal(String key, Duration ttl, String fileName);
 
     void deleteObject(String key);
+
+    /**
+     * Deletes keys in batches and returns the keys that storage refused to delete.
+     */
+    Set<String> deleteObjects(List<String> keys);
 }
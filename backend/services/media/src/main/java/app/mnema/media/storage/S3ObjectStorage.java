@@ -17,12 +17,15 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class S3ObjectStorage implements ObjectStorage {
     private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    static final int MAX_DELETE_BATCH = 1000;
 
     private final S3Client s3Client;
     private final S3Presigner publicPresigner;
@@ -179,6 +182,33 @@ public class S3ObjectStorage implements ObjectStorage {
         s3Client.deleteObject(request);
     }
 
+    @Override
+    public Set<String> deleteObjects(List<String> keys) {
+        Set<String> failed = new LinkedHashSet<>();
+        if (keys == null || keys.isEmpty()) {
+            return failed;
+        }
+        for (int from = 0; from < keys.size(); from += MAX_DELETE_BATCH) {
+            List<String> batch = keys.subList(from, Math.min(from + MAX_DELETE_BATCH, keys.size()));
+            List<ObjectIdentifier> objects = batch.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                    .bucket(bucket)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build();
+            try {
+                DeleteObjectsResponse response = s3Client.deleteObjects(request);
+                if (response.hasErrors()) {
+                    response.errors().forEach(error -> failed.add(error.key()));
+                }
+            } catch (RuntimeException ex) {
+                failed.addAll(batch);
+            }
+        }
+        return failed;
+    }
+
     private Map<String, String> flattenHeaders(PresignedRequest presigned) {
         Map<String, List<String>> signedHeaders = presigned.signedHeaders();
         Map<String, String> headers = new HashMap<>();
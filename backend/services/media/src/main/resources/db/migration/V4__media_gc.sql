@@ -0,0 +1,10 @@
+ALTER TABLE app_media.media_assets
+    ADD COLUMN IF NOT EXISTS purged_at TIMESTAMPTZ;
+
+CREATE INDEX IF NOT EXISTS ix_media_assets_gc_candidates
+    ON app_media.media_assets (media_id)
+    WHERE purged_at IS NULL AND status <> 'ready';
+
+CREATE INDEX IF NOT EXISTS ix_media_uploads_gc_initiated
+    ON app_media.media_uploads (upload_id)
+    WHERE status = 'initiated';
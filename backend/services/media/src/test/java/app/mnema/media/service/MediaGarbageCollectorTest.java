@@ -0,0 +1,179 @@
+package app.mnema.media.service;
+
+import app.mnema.media.domain.entity.MediaAssetEntity;
+import app.mnema.media.domain.entity.MediaUploadEntity;
+import app.mnema.media.domain.type.MediaKind;
+import app.mnema.media.domain.type.MediaStatus;
+import app.mnema.media.domain.type.UploadStatus;
+import app.mnema.media.repository.MediaAssetRepository;
+import app.mnema.media.repository.MediaUploadRepository;
+import app.mnema.media.storage.ObjectStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MediaGarbageCollectorTest {
+
+    @Mock
+    MediaAssetRepository assetRepository;
+
+    @Mock
+    MediaUploadRepository uploadRepository;
+
+    @Mock
+    ObjectStorage storage;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    SimpleMeterRegistry meterRegistry;
+
+    MediaGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        collector = new MediaGarbageCollector(
+                assetRepository,
+                uploadRepository,
+                storage,
+                transactionTemplate,
+                meterRegistry,
+                60,
+                24,
+                24,
+                2,
+                5
+        );
+    }
+
+    @Test
+    void purgeAssetsDeletesKeysInOneBatchAndRecordsReclaimedBytes() {
+        MediaAssetEntity first = asset(MediaStatus.deleted, "media/card_image/a", 1_000L);
+        MediaAssetEntity second = asset(MediaStatus.rejected, "media/card_image/b", 500L);
+        when(assetRepository.claimGarbageCandidates(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+        when(storage.deleteObjects(List.of("media/card_image/a", "media/card_image/b"))).thenReturn(Set.of());
+
+        MediaGarbageCollector.SweepResult result = collector.purgeAssets();
+
+        assertThat(result.objects()).isEqualTo(2);
+        assertThat(result.bytes()).isEqualTo(1_500L);
+        verify(assetRepository).markPurged(eq(List.of(first.getMediaId(), second.getMediaId())), any());
+        verify(assetRepository).claimGarbageCandidates(eq(second.getMediaId()), any(), any(), eq(2));
+        verify(storage, never()).deleteObject(anyString());
+        assertThat(meterRegistry.counter("media.gc.reclaimed.bytes").count()).isEqualTo(1_500d);
+        assertThat(meterRegistry.counter("media.gc.objects.deleted").count()).isEqualTo(2d);
+    }
+
+    @Test
+    void purgeAssetsKeepsAssetsWhoseKeysFailedToDelete() {
+        MediaAssetEntity ok = asset(MediaStatus.deleted, "media/card_audio/ok", 10L);
+        MediaAssetEntity stuck = asset(MediaStatus.pending, "media/card_audio/stuck", null);
+        when(assetRepository.claimGarbageCandidates(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(ok, stuck))
+                .thenReturn(List.of());
+        when(storage.deleteObjects(anyList())).thenReturn(Set.of("media/card_audio/stuck"));
+
+        MediaGarbageCollector.SweepResult result = collector.purgeAssets();
+
+        assertThat(result.objects()).isEqualTo(1);
+        verify(assetRepository).markPurged(eq(List.of(ok.getMediaId())), any());
+        assertThat(meterRegistry.counter("media.gc.objects.failed").count()).isEqualTo(1d);
+    }
+
+    @Test
+    void abortStaleUploadsAbortsMultipartAndMarksAssetsDeleted() {
+        MediaAssetEntity asset = asset(MediaStatus.pending, "media/card_video/x", null);
+        MediaUploadEntity multipart = upload(asset.getMediaId(), true, "s3-upload");
+        MediaUploadEntity single = upload(UUID.randomUUID(), false, null);
+        when(uploadRepository.claimStaleUploads(any(), any(), anyInt()))
+                .thenReturn(List.of(multipart, single))
+                .thenReturn(List.of());
+        when(assetRepository.findByMediaIdIn(anyList())).thenReturn(List.of(asset));
+        doThrow(new IllegalStateException("gone")).when(storage).abortMultipart("media/card_video/x", "s3-upload");
+        when(uploadRepository.markAborted(anyList(), anyString(), any())).thenReturn(2);
+
+        int aborted = collector.abortStaleUploads();
+
+        assertThat(aborted).isEqualTo(2);
+        verify(uploadRepository).markAborted(eq(List.of(multipart.getUploadId(), single.getUploadId())), eq("Upload expired"), any());
+        verify(assetRepository).markPendingDeleted(eq(List.of(asset.getMediaId(), single.getMediaId())), any());
+        assertThat(meterRegistry.counter("media.gc.uploads.aborted").count()).isEqualTo(2d);
+    }
+
+    @Test
+    void sweepStopsWhenNothingIsClaimed() {
+        when(uploadRepository.claimStaleUploads(any(), any(), anyInt())).thenReturn(List.of());
+        when(assetRepository.claimGarbageCandidates(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        collector.sweep();
+
+        verify(storage, never()).deleteObjects(anyList());
+        verify(assetRepository, never()).markPurged(anyList(), any());
+    }
+
+    private MediaAssetEntity asset(MediaStatus status, String key, Long sizeBytes) {
+        return new MediaAssetEntity(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                MediaKind.card_image,
+                status,
+                key,
+                "image/png",
+                sizeBytes,
+                null,
+                null,
+                null,
+                null,
+                Instant.now().minusSeconds(86_400 * 2),
+                null,
+                null
+        );
+    }
+
+    private MediaUploadEntity upload(UUID mediaId, boolean multipart, String s3UploadId) {
+        return new MediaUploadEntity(
+                UUID.randomUUID(),
+                mediaId,
+                UploadStatus.initiated,
+                10L,
+                "image/png",
+                multipart,
+                1,
+                null,
+                s3UploadId,
+                Instant.now().minusSeconds(7_200),
+                Instant.now().minusSeconds(6_600),
+                null,
+                null
+        );
+    }
+}
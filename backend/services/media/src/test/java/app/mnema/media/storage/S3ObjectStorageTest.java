@@ -16,10 +16,13 @@ import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -33,6 +36,8 @@ import java.io.ByteArrayInputStream;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -221,4 +226,34 @@ class S3ObjectStorageTest {
         assertThat(result.url()).startsWith("http://minio:9000/");
         verify(internalPresigner).presignGetObject(any(GetObjectPresignRequest.class));
     }
+
+    @Test
+    void deleteObjectsSplitsIntoThousandKeyBatchesAndReportsFailures() {
+        List<String> keys = IntStream.range(0, 1500).mapToObj(i -> "media/card_image/" + i).toList();
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("media/card_image/7").code("AccessDenied").build())
+                        .build())
+                .thenReturn(DeleteObjectsResponse.builder().build());
+
+        Set<String> failed = storage.deleteObjects(keys);
+
+        assertThat(failed).containsExactly("media/card_image/7");
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3Client, org.mockito.Mockito.times(2)).deleteObjects(captor.capture());
+        assertThat(captor.getAllValues().get(0).bucket()).isEqualTo("mnema-bucket");
+        assertThat(captor.getAllValues().get(0).delete().objects()).hasSize(1000);
+        assertThat(captor.getAllValues().get(0).delete().quiet()).isTrue();
+        assertThat(captor.getAllValues().get(1).delete().objects()).hasSize(500);
+    }
+
+    @Test
+    void deleteObjectsTreatsFailedBatchAsUndeleted() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenThrow(new IllegalStateException("down"));
+
+        Set<String> failed = storage.deleteObjects(List.of("media/a", "media/b"));
+
+        assertThat(failed).containsExactly("media/a", "media/b");
+        assertThat(storage.deleteObjects(List.of())).isEmpty();
+    }
 }
@@ -23,3 +23,8 @@ export interface Page<T> {
     first: boolean;
     empty: boolean;
 }
+
+export interface CursorPage<T> {
+    content: T[];
+    nextCursor: string | null;
+}
@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Page } from '../models/page.models';
+import { CursorPage, Page } from '../models/page.models';
 import { UserCardDTO } from '../models/user-card.models';
 import { CardTemplateDTO } from '../models/template.models';
 import { appConfig } from '../../app.config';
@@ -16,21 +16,24 @@ export class SearchApiService {
         userDeckId: string,
         query: string,
         tags: string[] | null,
-        page: number,
+        cursor: string | null,
         limit: number
-    ): Observable<Page<UserCardDTO>> {
+    ): Observable<CursorPage<UserCardDTO>> {
         let params = new HttpParams()
-            .set('page', page.toString())
             .set('limit', limit.toString())
             .set('query', query);
 
+        if (cursor) {
+            params = params.set('cursor', cursor);
+        }
+
         if (tags && tags.length > 0) {
             tags.forEach(tag => {
                 params = params.append('tags', tag);
             });
         }
 
-        return this.http.get<Page<UserCardDTO>>(`${this.baseUrl}/decks/${userDeckId}/cards`, { params });
+        return this.http.get<CursorPage<UserCardDTO>>(`${this.baseUrl}/decks/${userDeckId}/cards`, { params });
     }
 
     searchTemplates(
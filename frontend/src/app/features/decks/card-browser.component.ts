@@ -2,7 +2,7 @@ import { Component, OnInit, HostListener } from '@angular/core';
 import { ActivatedRoute, Router } from '@angular/router';
 import { NgIf, NgFor } from '@angular/common';
 import { ReactiveFormsModule, FormBuilder, FormGroup, Validators, FormControl } from '@angular/forms';
-import { forkJoin } from 'rxjs';
+import { forkJoin, map, Observable } from 'rxjs';
 import { CardApiService } from '../../core/services/card-api.service';
 import { DeckApiService } from '../../core/services/deck-api.service';
 import { PublicDeckApiService } from '../../core/services/public-deck-api.service';
@@ -28,6 +28,13 @@ import { TagChipComponent } from '../../shared/components/tag-chip.component';
 import { TranslatePipe } from '../../shared/pipes/translate.pipe';
 import { appConfig } from '../../app.config';
 
+interface CardBrowserPage {
+    content: UserCardDTO[];
+    number: number;
+    nextCursor: string | null;
+    last: boolean;
+}
+
 @Component({
     selector: 'app-card-browser',
     standalone: true,
@@ -70,7 +77,7 @@ import { appConfig } from '../../app.config';
               (input)="onSearchInput($event)"
             />
             <span *ngIf="searchActive" class="search-meta">
-              {{ searchResultCount }} / {{ totalCards }} {{ 'cardBrowser.cards' | translate }}
+              {{ searchResultCount }}{{ searchMoreAvailable ? '+' : '' }} / {{ deckTotalCards }} {{ 'cardBrowser.cards' | translate }}
             </span>
           </div>
 
@@ -960,6 +967,7 @@ export class CardBrowserComponent implements OnInit {
     applyGlobalEdits = false;
     private unfilteredCards: UserCardDTO[] = [];
     private currentPage = 1;
+    private searchCursor: string | null = null;
     private hasMoreCards = true;
     private loadingMore = false;
     private searchDebounce?: ReturnType<typeof setTimeout>;
@@ -1082,21 +1090,21 @@ export class CardBrowserComponent implements OnInit {
         this.searchNoResults = false;
         this.searchResultCount = 0;
         this.currentPage = 1;
+        this.searchCursor = null;
         this.hasMoreCards = true;
         this.loadingMore = false;
         this.currentCardIndex = 0;
         this.revealed = false;
 
-        if (!this.searchActive) {
-            this.totalCards = this.deckTotalCards;
-        }
+        // Поиск отдаёт курсорные страницы без общего количества: пока он активен, счётчик берётся из загруженных карт
+        this.totalCards = this.searchActive ? 0 : this.deckTotalCards;
 
-        this.fetchCardsPage(1, this.searchActive ? normalized : null).subscribe({
+        this.fetchCardsPage(1, null, this.searchActive ? normalized : null).subscribe({
             next: page => {
-                this.searchResultCount = page.totalElements || page.content.length;
-                this.currentPage = page.number + 1;
+                this.searchResultCount = page.content.length;
+                this.currentPage = page.number;
+                this.searchCursor = page.nextCursor;
                 this.hasMoreCards = !page.last;
-                this.totalCards = this.searchActive ? (page.totalElements || 0) : this.deckTotalCards;
 
                 if (this.searchActive && page.content.length === 0) {
                     this.searchNoResults = true;
@@ -1120,6 +1128,10 @@ export class CardBrowserComponent implements OnInit {
         return this.cards[this.currentCardIndex] || null;
     }
 
+    get searchMoreAvailable(): boolean {
+        return this.searchActive && !this.searchNoResults && this.hasMoreCards;
+    }
+
     get cardCount(): number {
         return this.totalCards || this.cards.length;
     }
@@ -1171,15 +1183,17 @@ export class CardBrowserComponent implements OnInit {
         const nextPage = this.currentPage + 1;
         const normalizedQuery = this.searchQuery.trim();
         const query = this.searchActive && normalizedQuery.length > 0 ? normalizedQuery : null;
-        this.fetchCardsPage(nextPage, query).subscribe({
+        this.fetchCardsPage(nextPage, this.searchCursor, query).subscribe({
             next: page => {
                 const existingIds = new Set(this.cards.map(card => card.userCardId));
                 const newCards = page.content.filter(card => !existingIds.has(card.userCardId));
                 this.cards = [...this.cards, ...newCards];
-                this.currentPage = page.number + 1;
+                this.currentPage = page.number;
+                this.searchCursor = page.nextCursor;
                 this.hasMoreCards = !page.last;
-                this.totalCards = this.searchActive ? (page.totalElements || 0) : this.deckTotalCards;
-                if (!this.searchActive) {
+                if (this.searchActive) {
+                    this.searchResultCount = this.cards.length;
+                } else {
                     this.unfilteredCards = this.cards;
                 }
             },
@@ -1193,11 +1207,25 @@ export class CardBrowserComponent implements OnInit {
         });
     }
 
-    private fetchCardsPage(page: number, query: string | null) {
+    private fetchCardsPage(page: number, cursor: string | null, query: string | null): Observable<CardBrowserPage> {
         if (this.searchActive && query) {
-            return this.searchApi.searchUserCards(this.userDeckId, query, null, page, CardBrowserComponent.PAGE_SIZE);
+            return this.searchApi
+                .searchUserCards(this.userDeckId, query, null, cursor, CardBrowserComponent.PAGE_SIZE)
+                .pipe(map(result => ({
+                    content: result.content,
+                    number: page,
+                    nextCursor: result.nextCursor,
+                    last: !result.nextCursor
+                })));
         }
-        return this.cardApi.getUserCards(this.userDeckId, page, CardBrowserComponent.PAGE_SIZE);
+        return this.cardApi
+            .getUserCards(this.userDeckId, page, CardBrowserComponent.PAGE_SIZE)
+            .pipe(map(result => ({
+                content: result.content,
+                number: result.number + 1,
+                nextCursor: null,
+                last: result.last
+            })));
     }
 
     toggleReveal(): void {